@@ -232,6 +232,13 @@ public interface SorcerConstants {
 
 	public static final String J_TEMPLATE_MATCH = "templateMatch";
 
+	// cataloger provider selection: round-robin, least-outstanding,
+	// latency-weighted or a ProviderSelector class name
+	public static final String P_CATALOGER_SELECTOR = "provider.cataloger.selector";
+
+	// seconds between probes of cataloged providers
+	public static final String P_CATALOGER_PROBE_INTERVAL = "provider.cataloger.probe.interval";
+
 	// SORCER global properties defined in sorcer.util.Sorcer.java
 	public static final String S_HOME = "sorcer.home";
 
@@ -281,6 +288,18 @@ public interface SorcerConstants {
 
 	public static final String LOOKUP_MAX_MATCHES = "lookup.maxMatches";
 
+	public static final String PROXY_CACHE_SIZE = "proxy.cache.size";
+
+	public static final String PROXY_CACHE_TTL = "proxy.cache.ttl";
+
+	public static final String SCRIPT_CACHE_SIZE = "script.cache.size";
+
+	public static final String EXEC_MAX_PROCESSES = "exec.max.processes";
+
+	public static final String EXEC_TIMEOUT = "exec.timeout";
+
+	public static final String FILE_CACHE_SIZE = "file.cache.size";
+
 	/**
 	 * SORCER Notifier Message Indexing Constants used by sorcer.notifier.
 	 * NotificationRetrievalListener* and the launcher
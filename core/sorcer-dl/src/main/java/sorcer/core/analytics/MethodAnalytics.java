@@ -34,6 +34,12 @@ public class MethodAnalytics implements Serializable {
     private String activeOperations;
     private String methodName;
     private double averageExecTime;
+    private long p50ExecTime;
+    private long p95ExecTime;
+    private long p99ExecTime;
+    private long maxExecTime;
+    private double callRate;
+    private double failureRate;
 
     public MethodAnalytics(String activeOperations,
                            double averageExecTime,
@@ -97,13 +103,63 @@ public class MethodAnalytics implements Serializable {
         return totalCallTime;
     }
 
+    /**
+     * Sets the percentiles and the max of the execution times in nanoseconds.
+     */
+    public MethodAnalytics setExecTimePercentiles(long p50, long p95, long p99, long max) {
+        this.p50ExecTime = p50;
+        this.p95ExecTime = p95;
+        this.p99ExecTime = p99;
+        this.maxExecTime = max;
+        return this;
+    }
+
+    public long getP50ExecTime() {
+        return p50ExecTime;
+    }
+
+    public long getP95ExecTime() {
+        return p95ExecTime;
+    }
+
+    public long getP99ExecTime() {
+        return p99ExecTime;
+    }
+
+    public long getMaxExecTime() {
+        return maxExecTime;
+    }
+
+    /**
+     * Sets the calls and failures per second over the last sampling window.
+     */
+    public MethodAnalytics setRates(double callRate, double failureRate) {
+        this.callRate = callRate;
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    public double getCallRate() {
+        return callRate;
+    }
+
+    public double getFailureRate() {
+        return failureRate;
+    }
+
     @Override public String toString() {
         return String.format("%s, completed: %s, numActiveOps: %s, averageExecTime: %s, " +
+                             "p50/p95/p99/maxExecTime: %s/%s/%s/%s, callRate: %.2f/s, " +
                              "totalOperationCalls: %s, activeOperations: %s, totalCallTime: %s",
                              methodName,
                              getCompleted(),
                              getNumActiveOperations(),
                              getAverageExecTime(),
+                             getP50ExecTime(),
+                             getP95ExecTime(),
+                             getP99ExecTime(),
+                             getMaxExecTime(),
+                             getCallRate(),
                              getTotalOperationCalls(),
                              getActiveOperations(),
                              getTotalCallTime());
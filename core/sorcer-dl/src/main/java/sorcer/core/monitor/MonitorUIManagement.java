@@ -62,6 +62,22 @@ public interface MonitorUIManagement {
 	Map<Uuid, ExertionInfo> getMonitorableExertionInfo(Exec.State aspect, Principal principal)
 		throws RemoteException, MonitorException;
 
+	/**
+	 * Returns a page of the monitorable exertion infos of the principal in
+	 * the given state, any if null, last updated at or after the given time
+	 * in milliseconds, in the order of their last update. The first
+	 * <code>offset</code> matching infos are skipped, and at most
+	 * <code>limit</code> infos are returned. The changes since the previous
+	 * call are returned by passing the last update time of the last info
+	 * returned; the infos last updated at that time are returned again.
+	 *
+	 * @throws RemoteException
+	 *             if there is a communication error
+	 */
+	Map<Uuid, ExertionInfo> getMonitorableExertionInfo(Exec.State aspect, Principal principal,
+													   long since, int offset, int limit)
+		throws RemoteException, MonitorException;
+
 	/**
 	 * For this reference ID, which references a exertion in a monitor, get the
 	 * exertion if the principal has enough credentials.
@@ -83,6 +83,10 @@ public class ExertionInfo implements Comparable, Serializable {
         return lastUpdateDate;
     }
 
+    public void setLastUpdateDate(Date lastUpdateDate) {
+        this.lastUpdateDate = lastUpdateDate;
+    }
+
     public String getName() {
 		return name;
 	}
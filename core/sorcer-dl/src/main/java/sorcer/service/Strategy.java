@@ -127,6 +127,40 @@ public interface Strategy extends Arg {
 		}
 	}
 
+	/**
+	 * Indicates whether a parallel compound exertion is failed as soon as any
+	 * of its component exertions fails, cancelling the components still in
+	 * progress.
+	 */
+	public enum FailFast implements Arg {
+		YES, TRUE, NO, FALSE;
+
+		/* (non-Javadoc)
+		 * @see sorcer.service.Arg#getName()
+		 */
+		@Override
+		public String getName() {
+			return toString();
+		}
+	}
+
+	/**
+	 * Indicates whether a provider returns only the context paths changed by
+	 * the task, its status and new exceptions, to be merged into the
+	 * requestor's copy of the task, instead of the whole task.
+	 */
+	public enum Delta implements Arg {
+		YES, TRUE, NO, FALSE;
+
+		/* (non-Javadoc)
+		 * @see sorcer.service.Arg#getName()
+		 */
+		@Override
+		public String getName() {
+			return toString();
+		}
+	}
+
 	public enum FidelityManagement implements Arg {
 		YES, NO;
 
@@ -25,18 +25,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.monitoring.Monitor;
 import sorcer.core.monitoring.MonitorAgent;
+import sorcer.util.ConfigurableThreadFactory;
 
 import java.text.NumberFormat;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 
 /**
+ * Records the invocations of the methods of a provider. The invocations are
+ * recorded without locking or allocating; the {@link MethodAnalytics} are
+ * created on demand, and sent to the monitor for the methods invoked since
+ * the previous sample every <code>analytics.sample.interval</code> seconds.
+ *
  * @author Dennis Reedy
  */
 public class AnalyticsRecorder {
+    private static final ScheduledExecutorService sampler;
+    static {
+        ConfigurableThreadFactory tf = new ConfigurableThreadFactory();
+        tf.setDaemon(true);
+        tf.setNameFormat("AnalyticsRecorder-sampler-%2$s");
+        sampler = Executors.newSingleThreadScheduledExecutor(tf);
+    }
     private Logger logger = LoggerFactory.getLogger(AnalyticsRecorder.class);
-    private final Map<String, MethodInvocationRecord> activityMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MethodInvocationRecord> activityMap = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> sampling;
     private ServiceID serviceID;
     private String hostName;
     private final MonitorAgent monitorAgent;
@@ -48,6 +62,12 @@ public class AnalyticsRecorder {
         percentFormatter.setMaximumFractionDigits(3);
         monitorAgent = new MonitorAgent();
         monitorAgent.register(name, principal);
+        long interval = Long.parseLong(System.getProperty("analytics.sample.interval", "5"));
+        sampling = sampler.scheduleWithFixedDelay(new Runnable() {
+            @Override public void run() {
+                sample();
+            }
+        }, interval, interval, TimeUnit.SECONDS);
     }
 
     public Map<String, MethodAnalytics> getMethodAnalytics() {
@@ -66,37 +86,47 @@ public class AnalyticsRecorder {
         return null;
     }
 
-    public int inprocess(String m) {
+    /**
+     * Records the start of an invocation of the method, returns the id to
+     * complete or fail the invocation with.
+     */
+    public long inprocess(String m) {
         MethodInvocationRecord record = getMethodInvocationRecord(m);
-        int id = record.inprocess();
+        long id = record.inprocess();
         if(logger.isDebugEnabled())
-            logger.debug("{} num active: {}", m, record.numActiveOperations.get());
-        monitorAgent.inprocess(record.create(serviceID, hostName));
+            logger.debug("{} num active: {}", m, record.getNumActiveOperations());
         return id;
     }
 
-    public void completed(String m, int id) {
-        MethodInvocationRecord record = getMethodInvocationRecord(m);
-        record.complete(id);
-        activityMap.put(m, record);
-        monitorAgent.completed(record.create(serviceID, hostName));
+    public void completed(String m, long id) {
+        getMethodInvocationRecord(m).complete(id);
     }
 
-    /*public void completed(String m, long startTime) {
-        MethodInvocationRecord record = getMethodInvocationRecord(m);
-        record.complete(startTime);
-        activityMap.put(m, record);
-        monitorAgent.completed(record.create(serviceID, hostName));
-    }*/
+    public void failed(String m, long id) {
+        getMethodInvocationRecord(m).failed(id);
+    }
 
-    public void failed(String m, int id) {
-        MethodInvocationRecord record = getMethodInvocationRecord(m);
-        record.failed(id);
-        activityMap.put(m, record);
-        monitorAgent.update(Monitor.Status.FAILED, record.create(serviceID, hostName));
+    /**
+     * Ends the rate window of each method and updates the monitor with the
+     * analytics of the methods invoked or in process since the previous sample.
+     */
+    void sample() {
+        for (MethodInvocationRecord record : activityMap.values()) {
+            boolean invoked = record.sample();
+            if (!invoked && record.getNumActiveOperations() == 0)
+                continue;
+            MethodAnalytics analytics = record.create(serviceID, hostName);
+            if (analytics.getFailureRate() > 0)
+                monitorAgent.update(Monitor.Status.FAILED, analytics);
+            else if (analytics.getNumActiveOperations() > 0)
+                monitorAgent.inprocess(analytics);
+            else
+                monitorAgent.completed(analytics);
+        }
     }
 
     public void terminate() {
+        sampling.cancel(false);
         monitorAgent.terminate();
     }
 
@@ -119,13 +149,12 @@ public class AnalyticsRecorder {
     }
 
     private MethodInvocationRecord getMethodInvocationRecord(String m) {
-        MethodInvocationRecord methodInvocationRecord;
-        synchronized(activityMap) {
-            methodInvocationRecord = activityMap.get(m);
-            if (methodInvocationRecord == null) {
-                methodInvocationRecord = new MethodInvocationRecord(m);
-                activityMap.put(m, methodInvocationRecord);
-            }
+        MethodInvocationRecord methodInvocationRecord = activityMap.get(m);
+        if (methodInvocationRecord == null) {
+            methodInvocationRecord = new MethodInvocationRecord(m);
+            MethodInvocationRecord existing = activityMap.putIfAbsent(m, methodInvocationRecord);
+            if (existing != null)
+                methodInvocationRecord = existing;
         }
         return methodInvocationRecord;
     }
@@ -16,106 +16,111 @@
 package sorcer.core.analytics;
 
 import net.jini.core.lookup.ServiceID;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * @author Dennis Reedy
+ * Records the invocations of a method with striped counters and a latency
+ * histogram, neither locking nor allocating per invocation. The call and
+ * failure rates are computed over the window between the last two samples.
  */
 class MethodInvocationRecord {
-    AtomicInteger numActiveOperations = new AtomicInteger();
-    private AtomicInteger idGenerator = new AtomicInteger();
-    private AtomicInteger completed = new AtomicInteger();
-    private AtomicInteger failed = new AtomicInteger();
-    private final Map<Integer, Long> stopWatch = new ConcurrentHashMap<>();
-    private AtomicInteger totalOperationCalls = new AtomicInteger();
-    private AtomicLong totalCallTime = new AtomicLong();
-    private volatile double averageExecTime;
+    private final LongAdder numActiveOperations = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalCallTime = new LongAdder();
+    private final LatencyHistogram callTimes = new LatencyHistogram();
     private final String methodName;
-    static Logger logger = LoggerFactory.getLogger(MethodInvocationRecord.class);
+    // the calls and failures at the last sample, and the rates since the sample before
+    private long sampleTime = System.nanoTime();
+    private long sampleCalls;
+    private long sampleFailed;
+    private volatile double callRate;
+    private volatile double failureRate;
 
     MethodInvocationRecord(String methodName) {
         this.methodName = methodName;
     }
 
-    int inprocess() {
-        int id = idGenerator.incrementAndGet();
-        numActiveOperations.incrementAndGet();
-        stopWatch.put(id, System.nanoTime());
-        return id;
+    /**
+     * Returns the start time of the invocation to complete or fail it with.
+     */
+    long inprocess() {
+        numActiveOperations.increment();
+        return System.nanoTime();
     }
 
-    void failed(int id) {
-        handleCallTime(id);
-        failed.incrementAndGet();
-    }
-
-    void complete(int id) {
-        handleCallTime(id);
-        completed.incrementAndGet();
+    void failed(long startTime) {
+        handleCallTime(startTime);
+        failed.increment();
     }
 
     void complete(long startTime) {
         handleCallTime(startTime);
-        completed.incrementAndGet();
+        completed.increment();
     }
 
-    MethodAnalytics create(ServiceID serviceID, String hostName) {
-        String activeOps = "";
-        synchronized (stopWatch) {
-            if (stopWatch.size() > 0) {
-                StringBuilder b = new StringBuilder();
-                for (Integer i : stopWatch.keySet()) {
-                    if (b.length() > 0)
-                        b.append(", ");
-                    b.append(Integer.toString(i));
-                }
-                activeOps = b.toString();
-            }
+    int getNumActiveOperations() {
+        return numActiveOperations.intValue();
+    }
+
+    long getTotalOperationCalls() {
+        return completed.sum() + failed.sum();
+    }
+
+    /**
+     * Ends the current rate window. Returns true if the method was invoked
+     * since the previous sample.
+     */
+    synchronized boolean sample() {
+        long now = System.nanoTime();
+        long calls = getTotalOperationCalls();
+        long failures = failed.sum();
+        double seconds = (now - sampleTime) / 1e9;
+        boolean invoked = calls != sampleCalls;
+        if (seconds > 0) {
+            callRate = (calls - sampleCalls) / seconds;
+            failureRate = (failures - sampleFailed) / seconds;
         }
-        return new MethodAnalytics(activeOps,
-                                   averageExecTime,
-                                   completed.get(),
-                                   failed.get(),
+        sampleTime = now;
+        sampleCalls = calls;
+        sampleFailed = failures;
+        return invoked;
+    }
+
+    MethodAnalytics create(ServiceID serviceID, String hostName) {
+        long calls = getTotalOperationCalls();
+        long callTime = totalCallTime.sum();
+        long max = callTimes.getMax();
+        long[] percentiles = LatencyHistogram.getValuesAtPercentiles(callTimes.getCounts(), max, 50, 95, 99);
+        return new MethodAnalytics("",
+                                   calls > 0 ? callTime / calls : 0,
+                                   completed.intValue(),
+                                   failed.intValue(),
                                    hostName,
                                    methodName,
-                                   numActiveOperations.get(),
+                                   numActiveOperations.intValue(),
                                    serviceID,
-                                   totalCallTime.get(),
-                                   totalOperationCalls.get());
+                                   callTime,
+                                   (int) calls)
+            .setExecTimePercentiles(percentiles[0], percentiles[1], percentiles[2], max)
+            .setRates(callRate, failureRate);
     }
 
     private void handleCallTime(long startTime) {
-        long callTime = System.nanoTime() - startTime;;
-        totalCallTime.addAndGet(callTime);
-        int totalCalls = totalOperationCalls.incrementAndGet();
-        averageExecTime = totalCallTime.get() / totalCalls;
-        numActiveOperations.decrementAndGet();
-    }
-
-    private void handleCallTime(int id)  {
-        if(stopWatch.containsKey(id)) {
-            handleCallTime(stopWatch.remove(id));
-        } else {
-            logger.error("{} id not found: {}", id, methodName);
-            totalOperationCalls.incrementAndGet();
-        }
+        long callTime = System.nanoTime() - startTime;
+        totalCallTime.add(callTime);
+        callTimes.record(callTime);
+        numActiveOperations.decrement();
     }
 
     @Override public String toString() {
-        return String.format("%s: completed: %s, numActiveOps: %s, averageExecTime: %s, " +
-                             "totalOperationCalls: %s, activeOperations: %s, totalCallTime: %s",
+        return String.format("%s: completed: %s, failed: %s, numActiveOps: %s, totalCallTime: %s, maxCallTime: %s",
                              methodName,
-                             completed.get(),
-                             numActiveOperations.get(),
-                             averageExecTime,
-                             totalOperationCalls.get(),
-                             stopWatch.keySet().toString(),
-                             totalCallTime.get());
+                             completed.sum(),
+                             failed.sum(),
+                             numActiveOperations.sum(),
+                             totalCallTime.sum(),
+                             callTimes.getMax());
     }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The path/value table of a singleton attribute in the metacontext of a
+ * {@link ServiceContext} with an inverted index from attribute values to the
+ * marked paths, so that association lookups take time proportional to the
+ * number of matches instead of the number of marked paths.
+ * <p>
+ * The index is maintained by {@link #put} and {@link #remove}. Updates that bypass them, e.g. through the
+ * entry set, drop the index to be rebuilt by the next lookup. Paths removed
+ * through the key set or values views may remain indexed; lookups check them
+ * against the table.
+ */
+public class AttributeTable extends Hashtable<String, String> {
+    private static final long serialVersionUID = 4372908457193364728L;
+
+    private transient Map<String, Set<String>> index;
+
+    public AttributeTable() {
+        super();
+        index = new HashMap<String, Set<String>>();
+    }
+
+    public AttributeTable(Map<String, String> values) {
+        super(values);
+    }
+
+    private Map<String, Set<String>> index() {
+        if (index == null) {
+            index = new HashMap<String, Set<String>>();
+            // index in reverse so that lookups return the table order
+            List<Map.Entry<String, String>> entries = new ArrayList<Map.Entry<String, String>>(super.entrySet());
+            for (int i = entries.size() - 1; i >= 0; i--)
+                index(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return index;
+    }
+
+    private void index(String path, String value) {
+        Set<String> paths = index.get(value);
+        if (paths == null) {
+            paths = new LinkedHashSet<String>();
+            index.put(value, paths);
+        }
+        paths.add(path);
+    }
+
+    private void unindex(Object path, String value) {
+        Set<String> paths = index.get(value);
+        if (paths != null && paths.remove(path) && paths.isEmpty())
+            index.remove(value);
+    }
+
+    @Override
+    public synchronized String put(String path, String value) {
+        String previous = super.put(path, value);
+        if (index != null) {
+            if (previous != null)
+                unindex(path, previous);
+            index(path, value);
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized String remove(Object path) {
+        String previous = super.remove(path);
+        if (index != null && previous != null)
+            unindex(path, previous);
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        index = null;
+    }
+
+    /**
+     * Returns the paths marked with the value, the most recently marked
+     * first.
+     */
+    public synchronized List<String> getPaths(String value) {
+        Set<String> paths = index().get(value);
+        if (paths == null)
+            return new ArrayList<String>();
+        List<String> list = new ArrayList<String>(paths.size());
+        for (String path : paths) {
+            if (value.equals(super.get(path)))
+                list.add(path);
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    /**
+     * Returns the paths contained in all the lists, starting from the
+     * shortest one.
+     */
+    public static List<String> intersection(List<? extends Collection<String>> paths) {
+        if (paths.isEmpty())
+            return new ArrayList<String>();
+        List<Collection<String>> sorted = new ArrayList<Collection<String>>(paths);
+        Collections.sort(sorted, new Comparator<Collection<String>>() {
+            @Override
+            public int compare(Collection<String> c1, Collection<String> c2) {
+                return c1.size() < c2.size() ? -1 : (c1.size() == c2.size() ? 0 : 1);
+            }
+        });
+        List<String> matches = new ArrayList<String>(sorted.get(0));
+        for (int i = 1; i < sorted.size() && !matches.isEmpty(); i++) {
+            Collection<String> other = sorted.get(i);
+            if (!(other instanceof Set))
+                other = new HashSet<String>(other);
+            matches.retainAll(other);
+        }
+        return matches;
+    }
+
+    @Override
+    public synchronized Set<Map.Entry<String, String>> entrySet() {
+        index = null;
+        return super.entrySet();
+    }
+
+    @Override
+    public synchronized String putIfAbsent(String path, String value) {
+        index = null;
+        return super.putIfAbsent(path, value);
+    }
+
+    @Override
+    public synchronized boolean remove(Object path, Object value) {
+        index = null;
+        return super.remove(path, value);
+    }
+
+    @Override
+    public synchronized boolean replace(String path, String oldValue, String newValue) {
+        index = null;
+        return super.replace(path, oldValue, newValue);
+    }
+
+    @Override
+    public synchronized String replace(String path, String value) {
+        index = null;
+        return super.replace(path, value);
+    }
+
+    @Override
+    public synchronized void replaceAll(BiFunction<? super String, ? super String, ? extends String> function) {
+        index = null;
+        super.replaceAll(function);
+    }
+
+    @Override
+    public synchronized String computeIfAbsent(String path, Function<? super String, ? extends String> function) {
+        index = null;
+        return super.computeIfAbsent(path, function);
+    }
+
+    @Override
+    public synchronized String computeIfPresent(String path,
+            BiFunction<? super String, ? super String, ? extends String> function) {
+        index = null;
+        return super.computeIfPresent(path, function);
+    }
+
+    @Override
+    public synchronized String compute(String path,
+            BiFunction<? super String, ? super String, ? extends String> function) {
+        index = null;
+        return super.compute(path, function);
+    }
+
+    @Override
+    public synchronized String merge(String path, String value,
+            BiFunction<? super String, ? super String, ? extends String> function) {
+        index = null;
+        return super.merge(path, value, function);
+    }
+
+    @Override
+    public synchronized Object clone() {
+        AttributeTable table = (AttributeTable) super.clone();
+        table.index = null;
+        return table;
+    }
+}
@@ -1235,7 +1235,9 @@ public class Contexts implements SorcerConstants {
 		Vector keys = new Vector();
 		if (cntxt.isSingletonAttribute(attr)) {
 			values = (Hashtable) cntxt.getMetacontext().get(attr);
-			if (values != null) { // if there are no attributes setValue,
+			if (values instanceof AttributeTable) {
+				keys.addAll(((AttributeTable) values).getPaths(value));
+			} else if (values != null) { // if there are no attributes setValue,
 				// values==null;
 				Enumeration e = values.keys();
 				while (e.hasMoreElements()) {
@@ -1261,55 +1263,20 @@ public class Contexts implements SorcerConstants {
 							+ association + "\"  metaattribute \"" + attr
 							+ "\" is defined with metapath =\"" + metapath
 							+ "\"");
-				String[][] paths = new String[attrs.length][];
-				int ii = -1;
+				// the matches are the paths marked with each element of
+				// the metapath; intersect them starting from the fewest
+				List<List<String>> paths = new ArrayList<List<String>>(attrs.length);
 				for (int i = 0; i < attrs.length; i++) {
-					paths[i] = getMarkedPaths(cntxt, attrs[i]
+					String[] mps = getMarkedPaths(cntxt, attrs[i]
 							+ SorcerConstants.APS + vals[i]);
-					if (paths[i] == null) {
-						ii = -1;
+					if (mps == null || mps.length == 0) {
+						paths = null;
 						break; // i.e. no possible match
 					}
-					if (ii < 0 || paths[i].length > paths[ii].length) {
-						ii = i;
-					}
-				}
-
-				if (ii >= 0) {
-					// The common paths across the paths[][] array are
-					// matches. Said another way, the paths[][] array
-					// contains all the paths that match attributes in the
-					// metapath. paths[0][] are the matches for the first
-					// element of the metapath, paths[1][] for the next,
-					// etc. Therefore, the matches that are common for
-					// each element of the metapath are the ones in which
-					// we have interest.
-					String candidate;
-					int match, thisMatch;
-					// go through each element of one with most matches
-					for (int i = 0; i < paths[ii].length; i++) {
-						candidate = paths[ii][i];
-						// now look for paths.length-1 matches...
-						match = 0;
-						for (int j = 0; j < paths.length; j++) {
-							if (j == ii)
-								continue;
-							thisMatch = 0;
-							for (int k = 0; k < paths[j].length; k++)
-								if (candidate.equals(paths[j][k])) {
-									match++;
-									thisMatch++;
-									break;
-								}
-							if (thisMatch == 0)
-								break; // no possible match for this candidate
-						}
-						// System.out.println("candidate="+candidate+"
-						// match="+match+" required maches="+(paths.length-1));
-						if (match == paths.length - 1)
-							keys.addElement(candidate);
-					}
+					paths.add(Arrays.asList(mps));
 				}
+				if (paths != null)
+					keys.addAll(AttributeTable.intersection(paths));
 			}
 		}
 		// above we just checked the top-level context; next, check
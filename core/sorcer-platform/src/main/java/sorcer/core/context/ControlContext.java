@@ -143,6 +143,10 @@ public class ControlContext extends ServiceContext<Object> implements StrategyCo
 
 	public final static String EXERTION_WAITED_FROM = "exertion/waited/from";
 
+	public final static String EXERTION_FAIL_FAST = "exertion/failfast";
+
+	public final static String EXERTION_DELTA = "exertion/delta";
+
 	public final static String NOTIFICATION_MANAGEMENT = "exertion/notifications/enabled";
 
 	public final static String TRUE = "true";
@@ -245,6 +249,36 @@ public class ControlContext extends ServiceContext<Object> implements StrategyCo
 			put(EXERTION_WAITABLE, false);
 	}
 
+	public boolean isFailFast() {
+		return Boolean.TRUE.equals(get(EXERTION_FAIL_FAST));
+	}
+
+	public void setFailFast(boolean state) {
+		put(EXERTION_FAIL_FAST, new Boolean(state));
+	}
+
+	public void isFailFast(FailFast value) {
+		if (FailFast.YES.equals(value) || FailFast.TRUE.equals(value))
+			put(EXERTION_FAIL_FAST, true);
+		else if (FailFast.NO.equals(value) || FailFast.FALSE.equals(value))
+			put(EXERTION_FAIL_FAST, false);
+	}
+
+	public boolean isDelta() {
+		return Boolean.TRUE.equals(get(EXERTION_DELTA));
+	}
+
+	public void setDelta(boolean state) {
+		put(EXERTION_DELTA, new Boolean(state));
+	}
+
+	public void isDelta(Delta value) {
+		if (Delta.YES.equals(value) || Delta.TRUE.equals(value))
+			put(EXERTION_DELTA, true);
+		else if (Delta.NO.equals(value) || Delta.FALSE.equals(value))
+			put(EXERTION_DELTA, false);
+	}
+
 	public void setTracable(boolean isTracable) {
 		if (isTracable)
 			put(EXERTION_TRACABLE, true);
@@ -684,4 +718,13 @@ public class ControlContext extends ServiceContext<Object> implements StrategyCo
 		return sb.toString();
 	}
 
+	@Override
+	public ControlContext snapshot() {
+		ControlContext copy = (ControlContext) super.snapshot();
+		copy.exceptions = new ArrayList<ThrowableTrace>(exceptions);
+		copy.signatures = new ArrayList<Signature>(signatures);
+		copy.traceList = new ArrayList<String>(traceList);
+		return copy;
+	}
+
 }
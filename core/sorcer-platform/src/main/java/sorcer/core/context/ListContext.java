@@ -244,4 +244,11 @@ public class ListContext<T extends Object> extends ServiceContext<T> implements
 	public List values() {
 		return elements;
 	}
+
+	@Override
+	public ListContext<T> snapshot() {
+		ListContext<T> copy = (ListContext<T>) super.snapshot();
+		copy.elements = new ArrayList<T>(elements);
+		return copy;
+	}
 }
\ No newline at end of file
@@ -16,7 +16,7 @@ import java.util.*;
 /**
  * Created by Mike Sobolewski
  */
-public class ModelStrategy implements MogramStrategy, Serializable {
+public class ModelStrategy implements MogramStrategy, Serializable, Cloneable {
 
     protected List<ThrowableTrace> exceptions = new ArrayList<ThrowableTrace>();
 
@@ -285,4 +285,31 @@ public class ModelStrategy implements MogramStrategy, Serializable {
         execState = state;
     }
 
+    /**
+     * Returns a copy of this strategy for the target with its own lists of
+     * exceptions, traces, response and dependent paths.
+     */
+    public ModelStrategy copy(Mogram target) {
+        ModelStrategy copy;
+        try {
+            copy = (ModelStrategy) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.target = target;
+        copy.exceptions = new ArrayList<ThrowableTrace>(exceptions);
+        copy.traceList = new ArrayList<String>(traceList);
+        if (responsePaths != null)
+            copy.responsePaths = new ArrayList<Path>(responsePaths);
+        if (dependentPaths != null) {
+            copy.dependentPaths = new HashMap<String, List<DependencyEntry>>(dependentPaths.size());
+            for (Map.Entry<String, List<DependencyEntry>> e : dependentPaths.entrySet())
+                copy.dependentPaths.put(e.getKey(), e.getValue() == null ? null
+                        : new ArrayList<DependencyEntry>(e.getValue()));
+        }
+        if (selectFidelities != null)
+            copy.selectFidelities = new HashMap<String, ServiceFidelity<Arg>>(selectFidelities);
+        return copy;
+    }
+
 }
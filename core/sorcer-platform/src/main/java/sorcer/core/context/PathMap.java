@@ -0,0 +1,616 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import sorcer.core.SorcerConstants;
+import sorcer.util.ObjectCloner;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The path/value map of a {@link ServiceContext} with an incrementally
+ * maintained path index. Values are kept in hash map segments; the paths are
+ * also kept sorted, and reversed, in skip lists so that prefix, subtree and
+ * suffix queries take time proportional to the result instead of the context
+ * size. Paths of {@link ContextLink}s are indexed separately.
+ * <p>
+ * A {@link #snapshot()} shares the segments holding only immutable values
+ * with this map, either map copies such a segment on its first update of the
+ * segment. The mutable values (contexts, arrays, collections and maps) are
+ * copied when the snapshot is taken, so the snapshot is the state of this map
+ * at that time whatever either map changes in place later. Links are shared
+ * as references. The path index of a snapshot is built on its first query.
+ * <p>
+ * The index is updated after the segments, so under concurrent updates of the
+ * same path it may briefly hold a removed path; queries check the segments.
+ */
+public class PathMap<T> extends AbstractMap<String, T> implements ConcurrentMap<String, T>, Serializable {
+    private static final long serialVersionUID = -2815410582263153421L;
+
+    // the serialized form is the path/value map
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("map", ConcurrentHashMap.class)
+    };
+
+    private static final String CPS = SorcerConstants.CPS;
+
+    private static final int SEGMENTS = 16;
+
+    private transient AtomicReferenceArray<Segment<T>> segments;
+
+    // the token of the segments owned by this map
+    private transient volatile Object owner;
+
+    // updates share the lock, snapshots and index builds are exclusive
+    private transient StampedLock lock;
+
+    private transient volatile Index index;
+
+    private transient Set<Entry<String, T>> entrySet;
+
+    public PathMap() {
+        init();
+        index = new Index();
+    }
+
+    public PathMap(Map<String, ? extends T> data) {
+        this();
+        putAll(data);
+    }
+
+    // a snapshot of the base map, called with the base map locked
+    private PathMap(PathMap<T> base) {
+        init();
+        for (int i = 0; i < SEGMENTS; i++) {
+            Segment<T> segment = base.segments.get(i);
+            if (segment != null)
+                segments.set(i, segment.snapshot(owner));
+        }
+    }
+
+    private void init() {
+        segments = new AtomicReferenceArray<Segment<T>>(SEGMENTS);
+        owner = new Object();
+        lock = new StampedLock();
+    }
+
+    private static int segmentFor(Object path) {
+        int h = path.hashCode();
+        return (h ^ (h >>> 16)) & (SEGMENTS - 1);
+    }
+
+    // the segment for updates, copied if shared with a snapshot
+    private Segment<T> own(int i) {
+        while (true) {
+            Segment<T> segment = segments.get(i);
+            if (segment != null && segment.owner == owner && !segment.frozen)
+                return segment;
+            Segment<T> copy = segment == null ? new Segment<T>(owner) : new Segment<T>(segment, owner);
+            if (segments.compareAndSet(i, segment, copy))
+                return copy;
+        }
+    }
+
+    /**
+     * Returns true for values copied by a snapshot.
+     */
+    static boolean isMutable(Object value) {
+        return value instanceof ServiceContext
+                || ((value instanceof Collection || value instanceof Map || value.getClass().isArray())
+                && value instanceof Serializable);
+    }
+
+    private static Object copyOf(Object value) {
+        if (value instanceof ServiceContext)
+            return ((ServiceContext) value).snapshot();
+        return ObjectCloner.clone(value);
+    }
+
+    private Index index() {
+        Index idx = index;
+        if (idx == null) {
+            long stamp = lock.writeLock();
+            try {
+                idx = index;
+                if (idx == null) {
+                    idx = new Index();
+                    for (int i = 0; i < SEGMENTS; i++) {
+                        Segment<T> segment = segments.get(i);
+                        if (segment != null) {
+                            for (Entry<String, T> e : segment.map.entrySet())
+                                idx.add(e.getKey(), e.getValue());
+                        }
+                    }
+                    index = idx;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return idx;
+    }
+
+    private void index(String path, Object value) {
+        Index idx = index;
+        if (idx != null)
+            idx.add(path, value);
+    }
+
+    private void unindex(String path) {
+        Index idx = index;
+        if (idx != null && !containsKey(path))
+            idx.remove(path);
+    }
+
+    private static String reverse(String path) {
+        return new StringBuilder(path).reverse().toString();
+    }
+
+    /**
+     * Returns a copy of this map with copies of its mutable values, sharing
+     * the segments of immutable values until either map is updated.
+     */
+    public PathMap<T> snapshot() {
+        long stamp = lock.writeLock();
+        try {
+            return new PathMap<T>(this);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the paths and values of this map that differ from the base map,
+     * typically the map this map is a snapshot of, and adds the paths of the
+     * base missing in this map to the removed paths. Immutable values are
+     * compared by equality, mutable values copied by the snapshot by content,
+     * so values only read are not returned. Any other value is returned as
+     * changed. Values are not copied.
+     */
+    public Map<String, T> diff(PathMap<T> base, Collection<String> removed) {
+        Map<String, T> changed = new HashMap<String, T>();
+        for (int i = 0; i < SEGMENTS; i++) {
+            Segment<T> segment = segments.get(i);
+            Segment<T> baseSegment = base.segments.get(i);
+            if (segment != null) {
+                for (Entry<String, T> e : segment.map.entrySet()) {
+                    T baseValue = baseSegment == null ? null : baseSegment.map.get(e.getKey());
+                    if (!isSame(e.getValue(), baseValue))
+                        changed.put(e.getKey(), e.getValue());
+                }
+            }
+            if (baseSegment != null) {
+                for (String path : baseSegment.map.keySet()) {
+                    if (segment == null || !segment.map.containsKey(path))
+                        removed.add(path);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static boolean isSame(Object value, Object baseValue) {
+        if (baseValue == null)
+            return false;
+        if (value == baseValue)
+            return isImmutable(value) || isMutable(value);
+        if (isImmutable(value))
+            return value.equals(baseValue);
+        return isMutable(value) && isMutable(baseValue) && isSameContent(value, baseValue);
+    }
+
+    // compares a copy of a mutable value with the value copied
+    private static boolean isSameContent(Object value, Object baseValue) {
+        if (value.getClass() != baseValue.getClass())
+            return false;
+        if (value instanceof ServiceContext) {
+            ServiceContext context = (ServiceContext) value;
+            ServiceContext baseContext = (ServiceContext) baseValue;
+            List<String> removed = new ArrayList<String>();
+            return context.pathIndex().diff(baseContext.pathIndex(), removed).isEmpty() && removed.isEmpty()
+                    && Objects.equals(context.getMetacontext(), baseContext.getMetacontext());
+        }
+        if (value.getClass().isArray())
+            return Arrays.deepEquals(new Object[] { value }, new Object[] { baseValue });
+        return value.equals(baseValue);
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum || value instanceof Class;
+    }
+
+    @Override
+    public T get(Object path) {
+        int i = segmentFor(path);
+        Segment<T> segment = segments.get(i);
+        return segment == null ? null : segment.map.get(path);
+    }
+
+    @Override
+    public boolean containsKey(Object path) {
+        Segment<T> segment = segments.get(segmentFor(path));
+        return segment != null && segment.map.containsKey(path);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < SEGMENTS; i++) {
+            Segment<T> segment = segments.get(i);
+            if (segment != null && segment.map.containsValue(value))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < SEGMENTS; i++) {
+            Segment<T> segment = segments.get(i);
+            if (segment != null)
+                size += segment.map.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            Segment<T> segment = segments.get(i);
+            if (segment != null && !segment.map.isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public T put(String path, T value) {
+        long stamp = lock.readLock();
+        try {
+            Segment<T> segment = own(segmentFor(path));
+            T previous = segment.map.put(path, value);
+            index(path, value);
+            return previous;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T putIfAbsent(String path, T value) {
+        long stamp = lock.readLock();
+        try {
+            Segment<T> segment = own(segmentFor(path));
+            T previous = segment.map.putIfAbsent(path, value);
+            if (previous == null) {
+                    index(path, value);
+            }
+            return previous;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends T> data) {
+        for (Entry<? extends String, ? extends T> e : data.entrySet())
+            put(e.getKey(), e.getValue());
+    }
+
+    @Override
+    public T remove(Object path) {
+        int i = segmentFor(path);
+        if (segments.get(i) == null)
+            return null;
+        long stamp = lock.readLock();
+        try {
+            Segment<T> segment = own(i);
+            T previous = segment.map.remove(path);
+            if (previous != null) {
+                unindex((String) path);
+            }
+            return previous;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(Object path, Object value) {
+        int i = segmentFor(path);
+        if (segments.get(i) == null)
+            return false;
+        long stamp = lock.readLock();
+        try {
+            Segment<T> segment = own(i);
+            if (segment.map.remove(path, value)) {
+                unindex((String) path);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean replace(String path, T oldValue, T newValue) {
+        long stamp = lock.readLock();
+        try {
+            Segment<T> segment = own(segmentFor(path));
+            if (segment.map.replace(path, oldValue, newValue)) {
+                    index(path, newValue);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T replace(String path, T value) {
+        long stamp = lock.readLock();
+        try {
+            Segment<T> segment = own(segmentFor(path));
+            T previous = segment.map.replace(path, value);
+            if (previous != null) {
+                    index(path, value);
+            }
+            return previous;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < SEGMENTS; i++)
+                segments.set(i, null);
+            index = new Index();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, T>>() {
+                @Override
+                public Iterator<Entry<String, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return PathMap.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    if (!(o instanceof Entry))
+                        return false;
+                    Entry<?, ?> e = (Entry<?, ?>) o;
+                    Segment<T> segment = segments.get(segmentFor(e.getKey()));
+                    return segment != null && segment.map.entrySet().contains(e);
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Returns the paths in ascending order.
+     */
+    public List<String> sortedPaths() {
+        ConcurrentSkipListSet<String> sorted = index().sorted;
+        List<String> paths = new ArrayList<String>(sorted.size());
+        for (String path : sorted) {
+            if (containsKey(path))
+                paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the paths starting with the prefix in ascending order.
+     */
+    public List<String> prefixedPaths(String prefix) {
+        List<String> paths = new ArrayList<String>();
+        for (String path : index().sorted.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            if (containsKey(path))
+                paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the path and all paths below it in ascending order.
+     */
+    public List<String> subtreePaths(String path) {
+        List<String> paths = new ArrayList<String>();
+        if (containsKey(path))
+            paths.add(path);
+        paths.addAll(prefixedPaths(path + CPS));
+        return paths;
+    }
+
+    /**
+     * Returns the paths ending with the suffix in ascending order of the
+     * reversed paths.
+     */
+    public List<String> suffixedPaths(String suffix) {
+        String reversedSuffix = reverse(suffix);
+        List<String> paths = new ArrayList<String>();
+        for (String reversedPath : index().reversed.subSet(reversedSuffix, true,
+                reversedSuffix + Character.MAX_VALUE, false)) {
+            String path = reverse(reversedPath);
+            if (containsKey(path))
+                paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the paths holding {@link ContextLink}s in ascending order.
+     */
+    public List<String> linkPaths() {
+        ConcurrentSkipListSet<String> links = index().links;
+        List<String> paths = new ArrayList<String>(links.size());
+        for (String path : links) {
+            if (get(path) instanceof ContextLink)
+                paths.add(path);
+        }
+        return paths;
+    }
+
+    public boolean hasLinks() {
+        return !index().links.isEmpty();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ConcurrentHashMap<String, T> map = new ConcurrentHashMap<String, T>();
+        for (int i = 0; i < SEGMENTS; i++) {
+            Segment<T> segment = segments.get(i);
+            if (segment != null)
+                map.putAll(segment.map);
+        }
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("map", map);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        Map<String, T> map = (Map<String, T>) fields.get("map", null);
+        init();
+        index = new Index();
+        if (map != null)
+            putAll(map);
+    }
+
+    private static class Segment<T> {
+        final ConcurrentHashMap<String, T> map;
+
+        final Object owner;
+
+        // shared with a snapshot, copied on update
+        volatile boolean frozen;
+
+        Segment(Object owner) {
+            this.owner = owner;
+            map = new ConcurrentHashMap<String, T>();
+        }
+
+        Segment(Segment<T> segment, Object owner) {
+            this.owner = owner;
+            map = new ConcurrentHashMap<String, T>(segment.map);
+        }
+
+        // this segment shared with the snapshot, or a copy with copies of its mutable values
+        Segment<T> snapshot(Object snapshotOwner) {
+            Segment<T> copy = null;
+            for (Entry<String, T> e : map.entrySet()) {
+                if (isMutable(e.getValue())) {
+                    Object value = copyOf(e.getValue());
+                    if (value != null) {
+                        if (copy == null)
+                            copy = new Segment<T>(this, snapshotOwner);
+                        copy.map.put(e.getKey(), (T) value);
+                    }
+                }
+            }
+            if (copy != null)
+                return copy;
+            frozen = true;
+            return this;
+        }
+    }
+
+    private static class Index {
+        final ConcurrentSkipListSet<String> sorted = new ConcurrentSkipListSet<String>();
+
+        final ConcurrentSkipListSet<String> reversed = new ConcurrentSkipListSet<String>();
+
+        final ConcurrentSkipListSet<String> links = new ConcurrentSkipListSet<String>();
+
+        void add(String path, Object value) {
+            if (sorted.add(path))
+                reversed.add(reverse(path));
+            if (value instanceof ContextLink)
+                links.add(path);
+            else
+                links.remove(path);
+        }
+
+        void remove(String path) {
+            sorted.remove(path);
+            reversed.remove(reverse(path));
+            links.remove(path);
+        }
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, T>> {
+        private int next;
+        private Iterator<Entry<String, T>> iterator = Collections.emptyIterator();
+        private Entry<String, T> last;
+
+        @Override
+        public boolean hasNext() {
+            while (!iterator.hasNext()) {
+                if (next >= SEGMENTS)
+                    return false;
+                Segment<T> segment = segments.get(next++);
+                if (segment != null)
+                    iterator = segment.map.entrySet().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<String, T> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            last = iterator.next();
+            return new SimpleEntry<String, T>(last.getKey(), last.getValue()) {
+                @Override
+                public T setValue(T value) {
+                    super.setValue(value);
+                    return put(getKey(), value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last == null)
+                throw new IllegalStateException();
+            PathMap.this.remove(last.getKey());
+            last = null;
+        }
+    }
+}
@@ -52,7 +52,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.rmi.RemoteException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import static sorcer.eo.operator.sig;
@@ -65,7 +64,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 		Context<T>, AssociativeContext<T>, Contexter<T>, SorcerConstants {
 
 	private static final long serialVersionUID = 3311956866023311727L;
-	protected Map<String, T> data = new ConcurrentHashMap<String, T>();
+	protected Map<String, T> data = new PathMap<T>();
 	protected String subjectPath = "";
 	protected Object subjectValue = "";
 	// default eval new ReturnPath(Context.RETURN);
@@ -234,7 +233,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 	 */
     protected void initContext() {
 		super.init();
-		data = new ConcurrentHashMap<String, T>();
+		data = new PathMap<T>();
 		metacontext = new HashMap<String, Map<String, String>>();
 		metacontext.put(SorcerConstants.CONTEXT_ATTRIBUTES, new HashMap());
 
@@ -469,41 +468,31 @@ public class ServiceContext<T> extends ServiceMogram implements
 	// we assume that a path ending with name refers to its eval
 	public T getValueEndsWith(String name) throws EvaluationException,
 			RemoteException {
-		T val = null;
-		Iterator<Map.Entry<String, T>> i = entryIterator();
-		Map.Entry<String, T> entry;
-		while (i.hasNext()) {
-			entry = i.next();
-			if (entry.getKey().endsWith(name)) {
-				val = entry.getValue();
-				if (val instanceof Evaluation && isRevaluable)
-					try {
-						val = ((Evaluation<T>) val).getValue();
-					} catch (ContextException e) {
-						throw new EvaluationException(e);
-					}
+		List<String> paths = pathIndex().suffixedPaths(name);
+		if (paths.isEmpty())
+			return null;
+		T val = get(paths.get(paths.size() - 1));
+		if (val instanceof Evaluation && isRevaluable)
+			try {
+				val = ((Evaluation<T>) val).getValue();
+			} catch (ContextException e) {
+				throw new EvaluationException(e);
 			}
-		}
 		return val;
 	}
 
 	public Object getValueStartsWith(String name) throws EvaluationException,
 			RemoteException {
-		Object val = null;
-		Iterator<Map.Entry<String, T>> i = entryIterator();
-		Map.Entry<String, T> entry;
-		while (i.hasNext()) {
-			entry = i.next();
-			if (entry.getKey().startsWith(name)) {
-				val = entry.getValue();
-				if (val instanceof Evaluation && isRevaluable)
-					try {
-						val = ((Evaluation) val).getValue();
-					} catch (ContextException e) {
-						throw new EvaluationException(e);
-					}
+		List<String> paths = pathIndex().prefixedPaths(name);
+		if (paths.isEmpty())
+			return null;
+		Object val = get(paths.get(paths.size() - 1));
+		if (val instanceof Evaluation && isRevaluable)
+			try {
+				val = ((Evaluation) val).getValue();
+			} catch (ContextException e) {
+				throw new EvaluationException(e);
 			}
-		}
 		return val;
 	}
 
@@ -1016,7 +1005,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 			values = (Hashtable) cntxt.metacontext.get(attribute);
 			if (values == null) {
 				// the creation of this hashtable was delayed until now
-				values = new Hashtable();
+				values = new AttributeTable();
 				cntxt.metacontext.put(attribute, values);
 			}
 			values.put(mappedKey, attributeValue);
@@ -1071,7 +1060,9 @@ public class ServiceContext<T> extends ServiceMogram implements
 		List<String> keys = new ArrayList<String>();
 		if (isSingletonAttribute(attr)) {
 			values = (Map)getMetacontext().get(attr);
-			if (values != null) { // if there are no attributes setValue,
+			if (values instanceof AttributeTable) {
+				keys.addAll(((AttributeTable) values).getPaths(value));
+			} else if (values != null) { // if there are no attributes setValue,
 				// values==null;
 				for (Object key : values.keySet()) {
 					if (values.get(key).equals(value))
@@ -1090,54 +1081,19 @@ public class ServiceContext<T> extends ServiceMogram implements
 							+ association + "\"  metaattribute \"" + attr
 							+ "\" is defined with metapath =\"" + metapath
 							+ "\"");
-				Object[][] paths = new Object[attrs.length][];
-				List<String> mps;
-				int ii = -1;
+				// the matches are the paths marked with each element of
+				// the metapath; intersect them starting from the fewest
+				List<List<String>> paths = new ArrayList<List<String>>(attrs.length);
 				for (int i = 0; i < attrs.length; i++) {
-					paths[i] = markedPaths(attrs[i] + SorcerConstants.APS + vals[i]).toArray();;
-					if (paths[i] == null) {
-						ii = -1;
+					List<String> mps = markedPaths(attrs[i] + SorcerConstants.APS + vals[i]);
+					if (mps == null || mps.isEmpty()) {
+						paths = null;
 						break; // i.e. no possible match
 					}
-					if (paths[i] != null && (ii < 0 || paths[i].length > paths[ii].length)) {
-						ii = i;
-					}
-				}
-				if (ii >= 0) {
-					// The common paths across the paths[][] array are
-					// matches. Said another way, the paths[][] array
-					// contains all the paths that match attributes in the
-					// metapath. paths[0][] are the matches for the first
-					// element of the metapath, paths[1][] for the next,
-					// etc. Therefore, the matches that are common for
-					// each element of the metapath are the ones in which
-					// we have interest.
-					String candidate;
-					int match, thisMatch;
-					// go through each element of one with most matches
-					for (int i = 0; i < paths[ii].length; i++) {
-						candidate = (String) paths[ii][i];
-						// now look for paths.length-1 matches...
-						match = 0;
-						for (int j = 0; j < paths.length; j++) {
-							if (j == ii)
-								continue;
-							thisMatch = 0;
-							for (int k = 0; k < paths[j].length; k++)
-								if (candidate.equals(paths[j][k])) {
-									match++;
-									thisMatch++;
-									break;
-								}
-							if (thisMatch == 0)
-								break; // no possible match for this candidate
-						}
-						// System.out.println("candidate="+candidate+"
-						// match="+match+" required maches="+(paths.length-1));
-						if (match == paths.length - 1)
-							keys.add(candidate);
-					}
+					paths.add(mps);
 				}
+				if (paths != null)
+					keys.addAll(AttributeTable.intersection(paths));
 			}
 		}
 		// above we just checked the top-level context; next, check
@@ -1220,7 +1176,10 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	public List<String> paths(String regex) throws ContextException {
-		Iterator e = getPaths().iterator();
+		// only the paths starting with the literal prefix of the regex can match
+		PathMap<T> index = pathIndex();
+		Iterator e = index.hasLinks() ? getPaths().iterator()
+				: index.prefixedPaths(literalPrefix(regex)).iterator();
 		List<String> list = new ArrayList<String>();
 		Pattern p = Pattern.compile(regex);
 		String path;
@@ -1232,36 +1191,67 @@ public class ServiceContext<T> extends ServiceMogram implements
 		return list;
 	}
 
+	/**
+	 * Returns the leading part of the regex that has to match literally.
+	 */
+	static String literalPrefix(String regex) {
+		if (regex.indexOf('|') >= 0)
+			return "";
+		int i = 0;
+		while (i < regex.length() && "\\.[]{}()*+?^$".indexOf(regex.charAt(i)) < 0)
+			i++;
+		// a quantifier applies to the last literal char
+		if (i < regex.length() && "*+?{".indexOf(regex.charAt(i)) >= 0 && i > 0)
+			i--;
+		return regex.substring(0, i);
+	}
+
 	public List<String> getPaths() throws ContextException {
-		ArrayList<String> paths = new ArrayList<String>();
-		Iterator i = keyIterator();
-		String key, path;
+		PathMap<T> index = pathIndex();
+		// the index keeps the local paths sorted
+		List<String> paths = index.sortedPaths();
+		if (!index.hasLinks())
+			return paths;
+		String path;
 		ContextLink link;
 		Context subcntxt;
-		while (i.hasNext()) {
-			key = (String) i.next();
-			if (get(key) instanceof ContextLink) {
-				// follow link, add paths
-				link = (ContextLink) get(key);
-				try {
-					subcntxt = getLinkedContext(link)
-							.getContext(link.getOffset());
-				} catch (RemoteException ex) {
-					throw new ContextException(ex);
-				}
-				// getDirectionalSubcontext cuts above, which is what we want
-				Iterator<String> el = subcntxt.getPaths().iterator();
-				while (el.hasNext()) {
-					path = (String) el.next();
-					paths.add(key + CPS +path);
-				}
+		for (String key : index.linkPaths()) {
+			// follow link, add paths
+			link = (ContextLink) get(key);
+			try {
+				subcntxt = getLinkedContext(link)
+						.getContext(link.getOffset());
+			} catch (RemoteException ex) {
+				throw new ContextException(ex);
+			}
+			// getDirectionalSubcontext cuts above, which is what we want
+			Iterator<String> el = subcntxt.getPaths().iterator();
+			while (el.hasNext()) {
+				path = (String) el.next();
+				paths.add(key + CPS +path);
 			}
-			paths.add(key);
 		}
 		Collections.sort(paths);
 		return paths;
 	}
 
+	/**
+	 * Returns the path index of this context.
+	 */
+	protected PathMap<T> pathIndex() {
+		if (!(data instanceof PathMap))
+			data = new PathMap<T>(data);
+		return (PathMap<T>) data;
+	}
+
+	/**
+	 * Returns the path and all paths below it in this context, without
+	 * following links.
+	 */
+	public List<String> getSubtreePaths(String path) {
+		return pathIndex().subtreePaths(path);
+	}
+
 	public Enumeration contextValues() throws ContextException {
 		Iterator e = getPaths().iterator();
 		Vector vec = new Vector();
@@ -1275,17 +1265,8 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	public List<String> localLinkPaths() throws ContextException {
-		List<String> keys = new ArrayList<String>();
-		Iterator i = keyIterator();
-		String key;
-
-		while (i.hasNext()) {
-			key = (String) i.next();
-			if (get(key) instanceof ContextLink)
-				keys.add(key);
-		}
-		SorcerUtil.bubbleSort(keys);
-		return keys;
+		// sorted by the index
+		return pathIndex().linkPaths();
 	}
 
 	/**
@@ -1559,8 +1540,8 @@ public class ServiceContext<T> extends ServiceMogram implements
 	public ServiceContext getDirectionalSubcontext(Path[] paths) throws ContextException {
 		// bare-bones subcontext
 		ServiceContext subcntxt = getSubcontext();
-		List<String> inpaths = getInPaths();
-		List<String> outpaths = getOutPaths();
+		Set<String> inpaths = new HashSet<String>(getInPaths());
+		Set<String> outpaths = new HashSet<String>(getOutPaths());
 		if  (paths != null && paths.length > 0) {
 			for (Path path : paths) {
 				if (inpaths.contains(path.path))
@@ -1608,10 +1589,11 @@ public class ServiceContext<T> extends ServiceMogram implements
 			subcntxt = getSubcontext();
 		}
 		subcntxt.setModeling(true);
+		List<Object> values = getValues(paths, args);
 		Object val = null;
-		for (Arg arg : paths) {
-			String path = arg.getName();
-			val = getValue(path, args);
+		for (int i = 0; i < paths.size(); i++) {
+			String path = paths.get(i).getName();
+			val = values.get(i);
 			if (val instanceof Context) {
 				subcntxt.append((Context) val);
 			} else if (val instanceof Entry) {
@@ -1633,6 +1615,17 @@ public class ServiceContext<T> extends ServiceMogram implements
 		return subcntxt;
 	}
 
+	/**
+	 * Returns the values of the paths in the order of the paths. Subclasses
+	 * may evaluate independent paths concurrently.
+	 */
+	protected List<Object> getValues(List<Path> paths, Arg... args) throws ContextException {
+		List<Object> values = new ArrayList<Object>(paths.size());
+		for (Path path : paths)
+			values.add(getValue(path.getName(), args));
+		return values;
+	}
+
 	public ServiceContext getContext(String path) throws ContextException, RemoteException {
 		ServiceContext subcntxt = this.getSubcontext();
 		return (ServiceContext)subcntxt.appendContext(this, path);
@@ -1720,7 +1713,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 		// get the whole context, with the context root name as the
 		// path prefix
 		String key;
-		List<String> paths = new ArrayList<String>();
+		Set<String> paths = new LinkedHashSet<String>();
 		int index;
 		// pick off all top-level nodes to append
 		Iterator e = context.getPaths().iterator();
@@ -1729,8 +1722,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 			index = key.indexOf(CPS);
 			if (index != -1)
 				key = key.substring(0, index);
-			if (!paths.contains(key))
-				paths.add(key);
+			paths.add(key);
 		}
 		for (String path : paths) {
 			appendContext(context, path, true);
@@ -1788,33 +1780,25 @@ public class ServiceContext<T> extends ServiceMogram implements
 
 		int len = mappedKey.length();
 		String prefix;
-		Iterator<String> e = mappedCntxt.keyIterator();
+		// cntxtKey="a/b" or cntxtKey="a/b/*" but not cntxtKey="a/bc" for key="a/b"
+		Iterator<String> e = mappedCntxt.getSubtreePaths(mappedKey).iterator();
+		index = mappedKey.lastIndexOf(CPS, len - 1);
 		while (e.hasNext()) {
 			cntxtKey = e.next();
-			if (cntxtKey.startsWith(mappedKey)) {
-				// we could still have the case key="a/b"
-				// cntxtKey="a/bc", which should fail, but
-				// cntxtKey="a/b" or cntxtKey="a/b/*" passes.
-				// This next conditional should do the trick:
-				if (cntxtKey.length() == len
-						|| cntxtKey.indexOf(CPS, len) == len) {
-					index = mappedKey.lastIndexOf(CPS, len - 1);
-					if (index > 0)
-						newKey = cntxtKey.substring(index + 1);
-					else
-						newKey = cntxtKey;
-					oldKey = cntxtKey;
-					// should we test for clobber protection?
-					// i.e. these new keys could be dropped on old ones
-					if (prefixContextName) {
-						prefix = "";
-						if (mappedCntxt.getSubjectPath().length() > 0)
-							prefix = mappedCntxt.getSubjectPath() + CPS;
-						putValue(prefix + newKey, mappedCntxt.get(oldKey));
-					} else
-						putValue(newKey, mappedCntxt.get(oldKey));
-				}
-			}
+			if (index > 0)
+				newKey = cntxtKey.substring(index + 1);
+			else
+				newKey = cntxtKey;
+			oldKey = cntxtKey;
+			// should we test for clobber protection?
+			// i.e. these new keys could be dropped on old ones
+			if (prefixContextName) {
+				prefix = "";
+				if (mappedCntxt.getSubjectPath().length() > 0)
+					prefix = mappedCntxt.getSubjectPath() + CPS;
+				putValue(prefix + newKey, mappedCntxt.get(oldKey));
+			} else
+				putValue(newKey, mappedCntxt.get(oldKey));
 		}
 		// replicate subcontext attributes and metaattributes
 		Map table, attrTable;
@@ -2650,7 +2634,69 @@ public class ServiceContext<T> extends ServiceMogram implements
 
 	@Override
 	public Context getCurrentContext() throws ContextException {
-		return (Context) ObjectCloner.clone(updateContext());
+		Context cxt = updateContext();
+		if (cxt instanceof ServiceContext)
+			return ((ServiceContext) cxt).snapshot();
+		return (Context) ObjectCloner.clone(cxt);
+	}
+
+	/**
+	 * Returns a copy of this context in its current state, sharing its
+	 * immutable values with this context until either context is updated and
+	 * with copies of its mutable values, see {@link PathMap#snapshot()}. The
+	 * metacontext and the strategy are copied, other fields are shared as in a
+	 * shallow copy. Subclasses binding their values to the context use the deep copy of
+	 * {@link ObjectCloner#clone(Object)} instead.
+	 */
+	public ServiceContext<T> snapshot() {
+		ServiceContext<T> copy;
+		try {
+			copy = (ServiceContext<T>) clone();
+		} catch (CloneNotSupportedException e) {
+			return (ServiceContext<T>) ObjectCloner.clone(this);
+		}
+		copy.data = pathIndex().snapshot();
+		if (metacontext != null) {
+			copy.metacontext = new HashMap<String, Map<String, String>>(metacontext.size());
+			for (Map.Entry<String, Map<String, String>> e : metacontext.entrySet()) {
+				Map<String, String> values = e.getValue();
+				if (values instanceof Hashtable)
+					values = (Map<String, String>) ((Hashtable<String, String>) values).clone();
+				else if (values != null)
+					values = new HashMap<String, String>(values);
+				copy.metacontext.put(e.getKey(), values);
+			}
+		}
+		if (mogramStrategy instanceof ModelStrategy)
+			copy.mogramStrategy = ((ModelStrategy) mogramStrategy).copy(copy);
+		if (entryLists != null)
+			copy.entryLists = new ArrayList<EntryList>(entryLists);
+		if (scope == this)
+			copy.scope = copy;
+		return copy;
+	}
+
+	/**
+	 * Returns the paths and values of this context, a snapshot of the base
+	 * context, changed since the snapshot was taken, and adds the removed paths
+	 * to the given collection, see {@link PathMap#diff(PathMap, Collection)}.
+	 */
+	public Map<String, T> changedPaths(ServiceContext<T> base, Collection<String> removed) {
+		return pathIndex().diff(base.pathIndex(), removed);
+	}
+
+	/**
+	 * Applies the changes returned by
+	 * {@link #changedPaths(ServiceContext, Collection)} of a copy of this
+	 * context to this context.
+	 */
+	public void applyChanges(Map<String, T> changed, Collection<String> removed) {
+		if (removed != null) {
+			for (String path : removed)
+				data.remove(path);
+		}
+		if (changed != null)
+			data.putAll(changed);
 	}
 
 	/*
@@ -2932,7 +2978,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 		if (((ModelStrategy)mogramStrategy).outConnector != null) {
 			ServiceContext mc = null;
 			try {
-				mc = (ServiceContext) ObjectCloner.clone(((ModelStrategy)mogramStrategy).outConnector);
+				mc = ((ServiceContext) ((ModelStrategy)mogramStrategy).outConnector).snapshot();
 			} catch (Exception e) {
 				throw new ContextException(e);
 			}
@@ -343,4 +343,11 @@ public class SharedIndexedContext<T extends Object> extends ServiceContext imple
 		// TODO Auto-generated method stub
 		
 	}
+
+	@Override
+	public SharedIndexedContext<T> snapshot() {
+		SharedIndexedContext<T> copy = (SharedIndexedContext<T>) super.snapshot();
+		copy.elements = new ArrayList<T>(elements);
+		return copy;
+	}
 }
\ No newline at end of file
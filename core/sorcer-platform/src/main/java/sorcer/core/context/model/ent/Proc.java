@@ -151,6 +151,7 @@ public class Proc<T> extends Entry<T> implements Variability<T>, Mappable<T>,
 			} catch (Exception e) {
 				throw new SetterException(e);
 			}
+			invalidateDependents();
 			return;
 		}
 		if (mappable != null && this._2 instanceof String ) {
@@ -178,11 +179,22 @@ public class Proc<T> extends Entry<T> implements Variability<T>, Mappable<T>,
 				throw new SetterException(e);
 			}
 		} else if (value instanceof Evaluation) {
+			if (this.value == value)
+				return;
 			this.value = (T) value;
 		} else {
+			if (this.value == value && _2 == value)
+				return;
 			this.value = (T)value;
 			_2 = (T) value;
 		}
+		invalidateDependents();
+	}
+
+	// invalidates the procs depending on this one in its model
+	private void invalidateDependents() {
+		if (scope instanceof ProcModel)
+			((ProcModel) scope).invalidate(name);
 	}
 
 	@Override
@@ -207,8 +219,10 @@ public class Proc<T> extends Entry<T> implements Variability<T>, Mappable<T>,
 	@Override
 	public T getValue(Arg... args) throws EvaluationException, RemoteException {
 		// check for a constant or cached eval
+		// invokers tracked by the model are invalidated by their arg changes
 		if (value instanceof Incrementor || ((value instanceof ServiceInvoker) &&
-				scope != null && (scope instanceof ProcModel) && ((ProcModel)scope).isChanged()))
+				scope != null && (scope instanceof ProcModel) && !((ProcModel)scope).isTracked(this)
+				&& ((ProcModel)scope).isChanged()))
 			isValid = false;
 		if (_2 != null && isValid && args.length == 00 && !isPersistent) {
 			try {
@@ -26,11 +26,13 @@ import sorcer.service.*;
 import sorcer.service.Domain;
 import sorcer.service.modeling.Model;
 import sorcer.service.modeling.Variability;
+import sorcer.util.ObjectCloner;
 import sorcer.util.Response;
 import sorcer.service.Signature.ReturnPath;
 
 import java.rmi.RemoteException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /*
  * Copyright 2013 the original author or authors.
@@ -65,6 +67,9 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
 
     private static final long serialVersionUID = -6932730998474298653L;
 
+	// proc names mapped to the names of procs with invokers taking them as args
+	private transient Map<String, Set<String>> dependents;
+
 	public static ProcModel instance(Signature builder) throws SignatureException {
 		ProcModel model = (ProcModel) sorcer.co.operator.instance(builder);
 		model.setBuilder(builder);
@@ -182,6 +187,7 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
 		try {
 			if (obj instanceof Proc) {
 				((Proc) obj).setValue(value);
+				invalidate(path);
 				return value;
 			} else {
 				if (value instanceof Scopable) {
@@ -199,6 +205,182 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
 		}
 	}
 
+	@Override
+	public Object put(String path, Object value) {
+		Object previous = super.put(path, value);
+		if (dependents != null) {
+			removeDependent(path, previous);
+			addDependent(path, value);
+		}
+		invalidate(path);
+		return previous;
+	}
+
+	@Override
+	public Object remove(Object path) {
+		Object previous = super.remove(path);
+		if (previous != null) {
+			if (dependents != null)
+				removeDependent((String) path, previous);
+			invalidate((String) path);
+		}
+		return previous;
+	}
+
+	@Override
+	public void putAll(Context<Object> context) {
+		// appended entries that are the same objects are not changes
+		List<String> changed = new ArrayList<String>();
+		Iterator<Map.Entry<String, Object>> i = ((ServiceContext<Object>) context).entryIterator();
+		while (i.hasNext()) {
+			Map.Entry<String, Object> e = i.next();
+			if (data.get(e.getKey()) != e.getValue())
+				changed.add(e.getKey());
+		}
+		super.putAll(context);
+		if (changed.size() > 0) {
+			dependents = null;
+			for (String path : changed)
+				invalidate(path);
+		}
+	}
+
+	/**
+	 * Invalidates the cached values of procs that depend on the path, directly
+	 * or through other procs, so that only they are recalculated when next
+	 * evaluated. The dependencies are given by the args of proc invokers,
+	 * see {@link ServiceInvoker#hasDeclaredArgs()}.
+	 *
+	 * @param path
+	 *            the changed path
+	 */
+	public void invalidate(String path) {
+		Map<String, Set<String>> graph = dependents();
+		Deque<String> names = new ArrayDeque<String>();
+		addDependents(graph, path, names);
+		Set<String> invalidated = new HashSet<String>();
+		while (!names.isEmpty()) {
+			String name = names.pop();
+			if (!invalidated.add(name))
+				continue;
+			Object obj = data.get(name);
+			if (obj instanceof Proc) {
+				((Proc) obj).setValid(false);
+				if (((Proc) obj).value() instanceof ServiceInvoker)
+					((ServiceInvoker) ((Proc) obj).value()).valueValid(false);
+			}
+			addDependents(graph, name, names);
+		}
+	}
+
+	/**
+	 * Returns the names of procs with invokers taking the path as an arg.
+	 */
+	public Set<String> getDependents(String path) {
+		Deque<String> names = new ArrayDeque<String>();
+		addDependents(dependents(), path, names);
+		return new TreeSet<String>(names);
+	}
+
+	/**
+	 * Returns true if the proc is invalidated by this model when its args
+	 * change, otherwise any change of this model makes it invalid. A proc is
+	 * tracked if its invoker declares its args and each arg is a plain value
+	 * or a tracked proc of this model, so that a change upstream reaches it
+	 * through the dependents of its args.
+	 */
+	public boolean isTracked(Proc proc) {
+		return data.get(proc.getName()) == proc && isTracked(proc, new HashSet<String>());
+	}
+
+	// the visited procs are the ones being checked downstream, a cycle is not tracked
+	private boolean isTracked(Proc proc, Set<String> visited) {
+		ServiceInvoker invoker = trackedInvoker(proc);
+		if (invoker == null || !visited.add(proc.getName()))
+			return false;
+		try {
+			for (Object arg : invoker.getArgs()) {
+				Object value = data.get(((Arg) arg).getName());
+				// args bound by their path ends or by other evaluations are not tracked
+				if (value == null || !isTrackedArg(value, visited))
+					return false;
+			}
+			return true;
+		} finally {
+			visited.remove(proc.getName());
+		}
+	}
+
+	private boolean isTrackedArg(Object value, Set<String> visited) {
+		if (value instanceof Proc) {
+			Proc proc = (Proc) value;
+			if (proc.value() instanceof ServiceInvoker)
+				return isTracked(proc, visited);
+			return !(proc.value() instanceof Evaluation) && !(proc.value() instanceof Invocation)
+					&& !proc.isPersistent() && proc.getMappable() == null;
+		}
+		return !(value instanceof Evaluation) && !(value instanceof Invocation);
+	}
+
+	private Map<String, Set<String>> dependents() {
+		if (dependents == null) {
+			dependents = new ConcurrentHashMap<String, Set<String>>();
+			Iterator<Map.Entry<String, Object>> i = entryIterator();
+			while (i.hasNext()) {
+				Map.Entry<String, Object> e = i.next();
+				addDependent(e.getKey(), e.getValue());
+			}
+		}
+		return dependents;
+	}
+
+	private void addDependents(Map<String, Set<String>> graph, String path, Deque<String> names) {
+		Set<String> procs = graph.get(path);
+		if (procs != null)
+			names.addAll(procs);
+		// invoker args may be bound to the trailing path components
+		int index = path.indexOf(CPS);
+		while (index >= 0) {
+			procs = graph.get(path.substring(index + 1));
+			if (procs != null)
+				names.addAll(procs);
+			index = path.indexOf(CPS, index + 1);
+		}
+	}
+
+	private void addDependent(String path, Object value) {
+		ServiceInvoker invoker = trackedInvoker(value);
+		if (invoker != null) {
+			for (Object arg : invoker.getArgs()) {
+				String name = ((Arg) arg).getName();
+				Set<String> procs = dependents.get(name);
+				if (procs == null) {
+					procs = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+					dependents.put(name, procs);
+				}
+				procs.add(path);
+			}
+		}
+	}
+
+	private void removeDependent(String path, Object value) {
+		ServiceInvoker invoker = trackedInvoker(value);
+		if (invoker != null) {
+			for (Object arg : invoker.getArgs()) {
+				Set<String> procs = dependents.get(((Arg) arg).getName());
+				if (procs != null)
+					procs.remove(path);
+			}
+		}
+	}
+
+	private static ServiceInvoker trackedInvoker(Object value) {
+		if (value instanceof Proc && ((Proc) value).value() instanceof ServiceInvoker
+				&& ((ServiceInvoker) ((Proc) value).value()).hasDeclaredArgs())
+			return (ServiceInvoker) ((Proc) value).value();
+		return null;
+	}
+
 	public Proc getProc(String name) throws ContextException {
 		Object obj = get(name);
 		if (obj instanceof Proc)
@@ -522,4 +704,13 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
 	    return isValid;
     }
 
+	/**
+	 * Returns a deep copy since procs and invokers of this model are bound to
+	 * the model as their scope.
+	 */
+	@Override
+	public ProcModel snapshot() {
+		return (ProcModel) ObjectCloner.clone(this);
+	}
+
 }
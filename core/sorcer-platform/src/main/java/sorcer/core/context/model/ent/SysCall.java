@@ -21,7 +21,11 @@ import sorcer.core.context.ServiceContext;
 import sorcer.core.invoker.CmdInvoker;
 import sorcer.service.*;
 import sorcer.util.exec.ExecUtils;
+import sorcer.util.exec.ProcessExecutor;
 
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.rmi.RemoteException;
@@ -67,6 +71,23 @@ public class SysCall extends Proc<Context> implements Serializable {
 
         if (cmdarray != null)
             invoker.setCmdarray(cmdarray);
+
+        // the output of large calls is written to a file referenced by call/out
+        String outFile = (String)context.getValue("outFile");
+        if (outFile != null)
+            invoker.setOutFile(new File(outFile));
+
+        Number timeout = (Number)context.getValue("timeout");
+        if (timeout != null)
+            invoker.setTimeout(timeout.longValue());
+    }
+
+    /**
+     * Sets the executor running the system call, the executor of the JVM by
+     * default.
+     */
+    public void setProcessExecutor(ProcessExecutor processExecutor) {
+        invoker.setProcessExecutor(processExecutor);
     }
 
     public Context getValue(Arg... args) throws RemoteException,
@@ -96,7 +117,16 @@ public class SysCall extends Proc<Context> implements Serializable {
             // get from the result the volume of cylinder and assign to y parameter
 
             Properties props = new Properties();
-            props.load(new StringReader(result.getOut()));
+            if (result.getOutFile() != null) {
+                Reader reader = new FileReader(result.getOutFile());
+                try {
+                    props.load(reader);
+                } finally {
+                    reader.close();
+                }
+            } else {
+                props.load(new StringReader(result.getOut()));
+            }
             out.putValue("exit/eval", result.getExitValue());
 
             // copy requested outputs into the context
@@ -106,6 +136,8 @@ public class SysCall extends Proc<Context> implements Serializable {
                         out.putValue(key, getTypedValue(key, props.getProperty(key)));
                     }
                 }
+            } else if (result.getOutFile() != null) {
+                out.putValue("call/out", result.getOutFile().getPath());
             } else {
                 out.putValue("call/out", result.getOut());
             }
@@ -0,0 +1,233 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context.model.srv;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.co.tuple.DependencyEntry;
+import sorcer.core.context.ModelStrategy;
+import sorcer.core.dispatch.DispatchScheduler;
+import sorcer.service.*;
+import sorcer.service.modeling.Variability;
+
+import java.rmi.RemoteException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates paths of a {@link SrvModel} with the flow type
+ * {@link Strategy.Flow#PAR} together with their dependencies on the shared
+ * {@link DispatchScheduler}. The transitive dependencies declared in the
+ * model's dependent paths form a DAG; each path is evaluated once, as soon as
+ * all paths it depends on are evaluated, so independent paths run
+ * concurrently within the scheduler's per-job limit.
+ * <p>
+ * Paths with fidelity or conditional dependencies are evaluated with
+ * {@link SrvModel#execDependencies(String, Arg...)} since their dependencies
+ * are selected at evaluation time. Paths are submitted in a fixed depth-first
+ * order and, when evaluations fail, the failure of the first failed path in
+ * that order is thrown after the running evaluations complete.
+ * <p>
+ * The evaluations share the model: the args are appended to the model once,
+ * by the calling thread, before any path is evaluated, the evaluations of the
+ * same path are serialized by the model, and the paths and values of the
+ * model are kept in a concurrent map. Entries evaluated concurrently must not
+ * update shared state of their own other than the model.
+ */
+class ParallelSrvEvaluator {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelSrvEvaluator.class);
+
+    private final SrvModel model;
+
+    private final Arg[] args;
+
+    private final Map<String, List<DependencyEntry>> dependentPaths;
+
+    // nodes in depth-first order, dependencies first
+    private final Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+
+    ParallelSrvEvaluator(SrvModel model, Arg... args) {
+        this.model = model;
+        this.args = args;
+        Map<String, List<DependencyEntry>> dpm = ((ModelStrategy) model.getMogramStrategy()).getDependentPaths();
+        dependentPaths = dpm != null ? dpm : Collections.<String, List<DependencyEntry>>emptyMap();
+    }
+
+    /**
+     * Evaluates the dependencies of the path but not the path itself.
+     */
+    void execDependencies(String path) throws ContextException {
+        // appended by the model evaluating the path
+        List<String> dependencies = dependencies(path);
+        if (dependencies == null) {
+            model.execDependencies(path, args);
+        } else if (!dependencies.isEmpty()) {
+            Set<String> visiting = new HashSet<String>();
+            visiting.add(path);
+            for (String dependency : dependencies)
+                add(dependency, visiting);
+            evaluate();
+        }
+    }
+
+    /**
+     * Evaluates the paths with their dependencies and returns their values
+     * in the order of the paths.
+     */
+    List<Object> getValues(List<String> paths) throws ContextException {
+        append();
+        for (String path : paths)
+            add(path, new HashSet<String>());
+        evaluate();
+        List<Object> values = new ArrayList<Object>(paths.size());
+        for (String path : paths)
+            values.add(nodes.get(path).value);
+        return values;
+    }
+
+    private void append() throws ContextException {
+        try {
+            model.append(args);
+        } catch (RemoteException e) {
+            throw new ContextException(e);
+        }
+    }
+
+    // the plain dependencies of the path or null if resolved at evaluation time
+    private List<String> dependencies(String path) {
+        List<DependencyEntry> del = dependentPaths.get(path);
+        List<String> dependencies = new ArrayList<String>();
+        if (del == null)
+            return dependencies;
+        for (DependencyEntry de : del) {
+            if (de.getType().equals(Variability.Type.FIDELITY)
+                    || de.getType().equals(Variability.Type.CONDITION))
+                return null;
+            if (de._2 != null) {
+                for (Path p : de._2) {
+                    if (!dependencies.contains(p.path))
+                        dependencies.add(p.path);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    private Node add(String path, Set<String> visiting) throws ContextException {
+        Node node = nodes.get(path);
+        if (node != null)
+            return node;
+        if (!visiting.add(path))
+            throw new ContextException("Cyclic dependency at: " + path + " in: " + model.getName());
+        node = new Node(path);
+        List<String> dependencies = dependencies(path);
+        if (dependencies == null) {
+            node.resolved = false;
+        } else {
+            for (String dependency : dependencies) {
+                Node dn = add(dependency, visiting);
+                dn.dependents.add(node);
+                node.pending++;
+            }
+        }
+        visiting.remove(path);
+        nodes.put(path, node);
+        return node;
+    }
+
+    private void evaluate() throws ContextException {
+        DispatchScheduler scheduler = DispatchScheduler.getScheduler();
+        DispatchScheduler.JobSlot slot = scheduler.newJobSlot();
+        Deque<Node> ready = new ArrayDeque<Node>();
+        for (Node node : nodes.values()) {
+            if (node.pending == 0)
+                ready.add(node);
+        }
+        Map<Future<?>, Node> running = new HashMap<Future<?>, Node>();
+        boolean isFailed = false;
+        while (true) {
+            while (!isFailed && !ready.isEmpty()) {
+                Node node = ready.poll();
+                running.put(scheduler.submit(slot, node), node);
+            }
+            if (running.isEmpty())
+                break;
+            Future<?> result;
+            try {
+                result = slot.takeCompleted();
+            } catch (InterruptedException e) {
+                for (Future<?> f : running.keySet())
+                    f.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new EvaluationException("Interrupted evaluation of: " + model.getName(), e);
+            }
+            Node node = running.remove(result);
+            if (node == null)
+                continue;
+            try {
+                node.value = result.get();
+                for (Node dependent : node.dependents) {
+                    if (--dependent.pending == 0)
+                        ready.add(dependent);
+                }
+            } catch (ExecutionException e) {
+                node.failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                isFailed = true;
+            } catch (CancellationException | InterruptedException e) {
+                node.failure = e;
+                isFailed = true;
+            }
+        }
+        if (isFailed) {
+            for (Node node : nodes.values()) {
+                if (node.failure != null) {
+                    logger.debug("Failed evaluation of: {} in: {}", node.path, model.getName());
+                    if (node.failure instanceof ContextException)
+                        throw (ContextException) node.failure;
+                    throw new EvaluationException("Failed evaluation of: " + node.path, node.failure);
+                }
+            }
+        }
+    }
+
+    private class Node implements Callable<Object> {
+        final String path;
+
+        final List<Node> dependents = new ArrayList<Node>();
+
+        // false if the dependencies are resolved by the model on evaluation
+        boolean resolved = true;
+
+        int pending;
+
+        Object value;
+
+        Exception failure;
+
+        Node(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public Object call() throws Exception {
+            return model.getSrvValue(path, !resolved, false, args);
+        }
+    }
+}
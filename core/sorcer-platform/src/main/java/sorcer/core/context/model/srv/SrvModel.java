@@ -42,6 +42,9 @@ import sorcer.service.Signature.ReturnPath;
 
 import java.rmi.RemoteException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static sorcer.eo.operator.*;
 
@@ -59,6 +62,9 @@ import static sorcer.eo.operator.*;
 public class SrvModel extends ProcModel implements Invocation<Object> {
     private static final Logger logger = LoggerFactory.getLogger(SrvModel.class);
 
+    // serializes the evaluations of a path by parallel evaluators
+    private transient volatile ConcurrentMap<String, ReentrantLock> pathLocks;
+
     public static SrvModel instance(Signature builder) throws SignatureException {
         SrvModel model = (SrvModel) sorcer.co.operator.instance(builder);
         model.setBuilder(builder);
@@ -139,11 +145,66 @@ public class SrvModel extends ProcModel implements Invocation<Object> {
 
     // used as getValue but renamed to alter polymorphic chaining
     public Object getSrvValue(String path, Arg... args) throws EvaluationException {
+        return getSrvValue(path, true, args);
+    }
+
+    // evaluates the path without its dependencies if already evaluated
+    Object getSrvValue(String path, boolean dependencies, Arg... args) throws EvaluationException {
+        return getSrvValue(path, dependencies, true, args);
+    }
+
+    /**
+     * Evaluates the path, appending the args to this model unless already
+     * appended by the caller. The evaluations of the same path of a parallel
+     * model are serialized, so that an entry, its value and its return path
+     * are updated by one thread at a time; the paths and values of the model
+     * are kept in a concurrent map.
+     */
+    Object getSrvValue(String path, boolean dependencies, boolean append, Arg... args)
+            throws EvaluationException {
+        if (path == null || !isParallel())
+            return evalSrvValue(path, dependencies, append, args);
+        ReentrantLock lock = pathLock(path);
+        lock.lock();
+        try {
+            return evalSrvValue(path, dependencies, append, args);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock pathLock(String path) {
+        ConcurrentMap<String, ReentrantLock> locks = pathLocks;
+        if (locks == null) {
+            synchronized (this) {
+                locks = pathLocks;
+                if (locks == null)
+                    pathLocks = locks = new ConcurrentHashMap<String, ReentrantLock>();
+            }
+        }
+        ReentrantLock lock = locks.get(path);
+        if (lock == null) {
+            ReentrantLock created = new ReentrantLock();
+            lock = locks.putIfAbsent(path, created);
+            if (lock == null)
+                lock = created;
+        }
+        return lock;
+    }
+
+    private Object evalSrvValue(String path, boolean dependencies, boolean append, Arg... args)
+            throws EvaluationException {
         Object val = null;
         try {
-            append(args);
+            if (append)
+                append(args);
             if (path != null) {
-                execDependencies(path, args);
+                if (dependencies) {
+                    if (isParallel())
+                        new ParallelSrvEvaluator(this, args).execDependencies(path);
+                    else
+                        execDependencies(path, args);
+                }
                 val = get(path);
             } else {
                 ReturnPath rp = Arg.getReturnPath(args);
@@ -364,6 +425,26 @@ public class SrvModel extends ProcModel implements Invocation<Object> {
         return null;
     }
 
+    /**
+     * Returns true if independent paths of this model are evaluated
+     * concurrently, i.e., its flow type is {@link Strategy.Flow#PAR}.
+     */
+    public boolean isParallel() {
+        return mogramStrategy != null
+                && ((ModelStrategy) mogramStrategy).getFlowType() == Strategy.Flow.PAR;
+    }
+
+    @Override
+    protected List<Object> getValues(List<Path> paths, Arg... args) throws ContextException {
+        if (isParallel() && paths.size() > 1) {
+            List<String> names = new ArrayList<String>(paths.size());
+            for (Path path : paths)
+                names.add(path.getName());
+            return new ParallelSrvEvaluator(this, args).getValues(names);
+        }
+        return super.getValues(paths, args);
+    }
+
     public Context execSignature(Signature sig, Arg... items) throws MogramException {
         execDependencies(sig, items);
         return  super.execSignature(sig, items);
@@ -0,0 +1,57 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.provider.Provider;
+import sorcer.service.*;
+
+import java.util.*;
+
+/**
+ * A dispatcher for jobs with the {@link Strategy.Flow#AUTO} flow. Component
+ * exertions are executed following the dependency graph of the pipes between
+ * them (see {@link ExertionSorter}): independent branches run concurrently and
+ * each exertion starts as soon as all exertions piped into its data context
+ * are done.
+ */
+public class CatalogDataflowDispatcher extends CatalogParallelDispatcher {
+    private final Logger logger = LoggerFactory.getLogger(CatalogDataflowDispatcher.class);
+
+    public CatalogDataflowDispatcher(Job job,
+                                     Set<Context> sharedContexts,
+                                     boolean isSpawned,
+                                     Provider provider,
+                                     ProvisionManager provisionManager) {
+        super(job, sharedContexts, isSpawned, provider, provisionManager);
+    }
+
+    @Override
+    protected Map<Exertion, Set<Exertion>> getDependencies(List<Exertion> exertions) throws ContextException {
+        Map<String, Exertion> contextOwners = getContextOwners(exertions);
+        Map<Exertion, Set<Exertion>> dependencies = new LinkedHashMap<Exertion, Set<Exertion>>();
+        for (Exertion exertion : exertions) {
+            Set<Exertion> inputs = getPipedInputs(exertion, contextOwners);
+            if (inputs == null)
+                inputs = new HashSet<Exertion>();
+            dependencies.put(exertion, inputs);
+            logger.debug("Exertion {} depends on {} exertions", exertion.getName(), inputs.size());
+        }
+        return dependencies;
+    }
+}
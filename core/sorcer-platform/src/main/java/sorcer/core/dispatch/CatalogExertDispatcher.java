@@ -24,6 +24,7 @@ import net.jini.core.transaction.TransactionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.Dispatcher;
+import sorcer.core.exertion.DeltaTask;
 import sorcer.core.exertion.NetTask;
 import sorcer.core.provider.Concatenator;
 import sorcer.core.provider.Exerter;
@@ -173,6 +174,9 @@ abstract public class CatalogExertDispatcher extends ExertDispatcher {
                 logger.info(msg);
                 throw new ExertionException(msg, task);
             } else {
+                // child tasks of a delta job return only their changes
+                if (xrt.getControlContext() != null && xrt.getControlContext().isDelta())
+                    task.getControlContext().setDelta(true);
                 tried=0;
                 while (result==null && tried < maxTries) {
                     tried++;
@@ -202,7 +206,7 @@ abstract public class CatalogExertDispatcher extends ExertDispatcher {
                          * (RemoteServiceTask)provider.service(task); }
                          */
                         logger.debug("getting result from provider...");
-                        result = ((Exerter)service).exert(task, null);
+                        result = DeltaTask.merge(task, ((Exerter)service).exert(task, null));
 
                     } catch (Exception re) {
                         if (tried >= maxTries) {
@@ -24,17 +24,16 @@ import sorcer.core.exertion.Mograms;
 import sorcer.core.provider.Provider;
 import sorcer.service.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static sorcer.service.Exec.*;
 
 public class CatalogParallelDispatcher extends CatalogExertDispatcher {
     private final Logger logger = LoggerFactory.getLogger(CatalogParallelDispatcher.class);
-    protected ExecutorService executor = Executors.newCachedThreadPool();
 
     public CatalogParallelDispatcher(Job job,
             Set<Context> sharedContexts,
@@ -46,7 +45,7 @@ public class CatalogParallelDispatcher extends CatalogExertDispatcher {
 
     @Override
     public void exec(Arg... args) {
-        executor.submit(new Runnable() {
+        scheduler.submitJob(new Runnable() {
             @Override
             public void run() {
                 CatalogParallelDispatcher.super.exec(args);
@@ -56,31 +55,114 @@ public class CatalogParallelDispatcher extends CatalogExertDispatcher {
 
     public void doExec(Arg... args) throws ExertionException,
 			SignatureException {
-        List<Future<Exertion>> results = new ArrayList<Future<Exertion>>(inputXrts.size());
+        List<Exertion> exertions = new ArrayList<Exertion>(inputXrts.size());
         for (Mogram mogram : inputXrts) {
             if (mogram instanceof Exertion)
-                results.add(executor.submit(new ExecExertion((Exertion)mogram)));
+                exertions.add((Exertion) mogram);
 		}
 
+        // exertions wait for the exertions they depend on, the master
+        // exertion starts as soon as its inputs are done
+        Map<Exertion, Set<Exertion>> waiting;
+        Set<Exertion> masterInputs = null;
+        try {
+            waiting = getDependencies(exertions);
+            if (masterXrt != null)
+                masterInputs = getMasterInputs(exertions);
+        } catch (ContextException e) {
+            throw new ExertionException(e);
+        }
+
+        DispatchScheduler.JobSlot slot = scheduler.newJobSlot();
+        Map<Future<?>, Exertion> running = new HashMap<Future<?>, Exertion>();
+        Future<Exertion> masterResult = null;
+        boolean failFast = xrt.getControlContext().isFailFast();
         boolean isFailed = false;
         boolean isSuspended = false;
-        for (Future<Exertion> result : results) {
+        while (true) {
+            // a failed exertion only stops the exertions that depend on it,
+            // the others keep running unless the job fails fast
+            if (!isSuspended) {
+                try {
+                    // ready exertions the job has no room for stay queued until
+                    // one of its running exertions completes
+                    Iterator<Map.Entry<Exertion, Set<Exertion>>> ready = waiting.entrySet().iterator();
+                    while (ready.hasNext()) {
+                        Map.Entry<Exertion, Set<Exertion>> next = ready.next();
+                        if (!next.getValue().isEmpty())
+                            continue;
+                        Future<Exertion> result = submit(slot, next.getKey(), running.isEmpty());
+                        if (result == null)
+                            break;
+                        ready.remove();
+                        running.put(result, next.getKey());
+                    }
+                    if (!isFailed && masterInputs != null && masterInputs.isEmpty() && masterResult == null)
+                        masterResult = submit(slot, masterXrt, false);
+                } catch (InterruptedException e) {
+                    logger.warn("Interrupted {}", xrt.getName(), e);
+                    cancel(running);
+                    isFailed = true;
+                    break;
+                }
+            }
+            if (running.isEmpty())
+                break;
+            Future<?> result;
+            try {
+                result = slot.takeCompleted();
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted {}", xrt.getName(), e);
+                cancel(running);
+                isFailed = true;
+                break;
+            }
+            Exertion exertion = running.remove(result);
+            if (exertion == null)
+                continue;
+            boolean failed = false;
+            boolean suspended = false;
             try {
                 ServiceExertion se = (ServiceExertion) result.get();
                 se.stopExecTime();
                 if (se.getStatus() == FAILED)
-                    isFailed = true;
+                    failed = true;
                 else if (se.getStatus() == SUSPENDED)
-                    isSuspended = true;
+                    suspended = true;
+            } catch (CancellationException e) {
+                continue;
             } catch (InterruptedException e) {
-                logger.warn("Interrupted {}", result, e);
-                isFailed = true;
+                logger.warn("Interrupted {}", exertion.getName(), e);
+                failed = true;
             } catch (ExecutionException e) {
-                logger.warn("Error while executing {}", result, e.getCause());
+                logger.warn("Error while executing {}", exertion.getName(), e.getCause());
+                failed = true;
+            }
+            if (failed) {
                 isFailed = true;
+                if (failFast) {
+                    logger.info("Job {} failed on {}, cancelling {} running exertions",
+                            xrt.getName(), exertion.getName(), running.size());
+                    cancel(running);
+                    break;
+                }
+                dropDependents(waiting, exertion);
+            } else if (suspended) {
+                isSuspended = true;
+            } else {
+                for (Set<Exertion> inputs : waiting.values())
+                    inputs.remove(exertion);
+                if (masterInputs != null)
+                    masterInputs.remove(exertion);
             }
+        }
+        if (!waiting.isEmpty() && !isFailed && !isSuspended) {
+            logger.warn("Job {} has exertions with unresolved dependencies: {}", xrt.getName(), waiting.keySet());
+            isFailed = true;
         }
 		if (isFailed) {
+            if (masterResult != null)
+                masterResult.cancel(true);
 			xrt.setStatus(FAILED);
 			state = FAILED;
 			ExertionException fe = new ExertionException(this.getClass().getName()
@@ -90,6 +172,8 @@ public class CatalogParallelDispatcher extends CatalogExertDispatcher {
 			throw fe;
 		}
 		else if (isSuspended) {
+            if (masterResult != null)
+                masterResult.cancel(true);
 			xrt.setStatus(SUSPENDED);
 			state = SUSPENDED;
 			ExertionException fe = new ExertionException(this.getClass().getName()
@@ -106,7 +190,16 @@ public class CatalogParallelDispatcher extends CatalogExertDispatcher {
 				return;
 			}*/
 			// finally exert Master Exertion
-			masterXrt = (ServiceExertion) execExertion(masterXrt);
+            try {
+                if (masterResult == null)
+                    masterXrt = (ServiceExertion) execExertion(masterXrt);
+                else
+                    masterXrt = (ServiceExertion) DispatchScheduler.await(masterResult);
+            } catch (InterruptedException e) {
+                throw new ExertionException(e);
+            } catch (ExecutionException e) {
+                throw new ExertionException(e.getCause());
+            }
 			masterXrt.stopExecTime();
 			if (masterXrt.getStatus() <= FAILED)
 				xrt.setStatus(FAILED);
@@ -119,6 +212,117 @@ public class CatalogParallelDispatcher extends CatalogExertDispatcher {
 		state = DONE;
 	}
 
+    /**
+     * Submits the exertion to the scheduler without running it in the
+     * dispatcher thread. Returns null if the job or the scheduler has no room
+     * for it, unless the job has no running exertions to wait for, then the
+     * dispatcher waits for room.
+     */
+    private Future<Exertion> submit(DispatchScheduler.JobSlot slot, Exertion exertion, boolean wait)
+            throws InterruptedException {
+        if (wait)
+            return scheduler.submitWaiting(slot, new ExecExertion(exertion));
+        return scheduler.trySubmit(slot, new ExecExertion(exertion));
+    }
+
+    /**
+     * Removes from the waiting exertions the ones that depend, directly or
+     * through other waiting exertions, on the failed exertion. The master
+     * exertion is not submitted once an exertion of the job has failed.
+     */
+    private void dropDependents(Map<Exertion, Set<Exertion>> waiting, Exertion failed) {
+        Deque<Exertion> dropped = new ArrayDeque<Exertion>();
+        dropped.add(failed);
+        while (!dropped.isEmpty()) {
+            Exertion next = dropped.poll();
+            Iterator<Map.Entry<Exertion, Set<Exertion>>> it = waiting.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Exertion, Set<Exertion>> e = it.next();
+                if (e.getValue().contains(next)) {
+                    it.remove();
+                    dropped.add(e.getKey());
+                    logger.info("Skipping {} of job {}, it depends on failed {}",
+                            e.getKey().getName(), xrt.getName(), next.getName());
+                }
+            }
+        }
+    }
+
+    private void cancel(Map<Future<?>, Exertion> running) {
+        for (Map.Entry<Future<?>, Exertion> e : running.entrySet()) {
+            if (e.getKey().cancel(true)) {
+                e.getValue().setStatus(STOPPED);
+                ((ServiceExertion) e.getValue()).reportException(new ExertionException(
+                        "cancelled after failure of job: " + xrt.getName(), e.getValue()));
+            }
+        }
+        running.clear();
+    }
+
+    /**
+     * Returns the exertions each component exertion has to wait for before it
+     * can be executed. All component exertions run in parallel, so none of
+     * them waits.
+     */
+    protected Map<Exertion, Set<Exertion>> getDependencies(List<Exertion> exertions) throws ContextException {
+        Map<Exertion, Set<Exertion>> dependencies = new LinkedHashMap<Exertion, Set<Exertion>>();
+        for (Exertion exertion : exertions)
+            dependencies.put(exertion, new HashSet<Exertion>());
+        return dependencies;
+    }
+
+    /**
+     * Returns the component exertions whose data contexts are piped into the
+     * master exertion. If the master exertion declares no pipes it depends on
+     * all component exertions.
+     */
+    protected Set<Exertion> getMasterInputs(List<Exertion> exertions) throws ContextException {
+        Set<Exertion> inputs = getPipedInputs(masterXrt, getContextOwners(exertions));
+        if (inputs == null)
+            inputs = new HashSet<Exertion>(exertions);
+        logger.debug("Master exertion {} waits for {} of {} exertions",
+                masterXrt.getName(), inputs.size(), exertions.size());
+        return inputs;
+    }
+
+    /**
+     * Maps ids of all data contexts within the given exertions to the
+     * component exertion that holds them.
+     */
+    protected Map<String, Exertion> getContextOwners(List<Exertion> exertions) throws ContextException {
+        Map<String, Exertion> contextOwners = new HashMap<String, Exertion>();
+        for (Exertion exertion : exertions) {
+            for (Context context : Mograms.getTaskContexts(exertion))
+                contextOwners.put(context.getId().toString(), exertion);
+        }
+        return contextOwners;
+    }
+
+    /**
+     * Returns the component exertions piped (the "cid" metacontext) into the
+     * data contexts of the target exertion, or null if it has no pipes.
+     */
+    protected Set<Exertion> getPipedInputs(Exertion target, Map<String, Exertion> contextOwners)
+            throws ContextException {
+        Set<Exertion> inputs = new HashSet<Exertion>();
+        boolean piped = false;
+        for (Context context : Mograms.getTaskContexts(target)) {
+            Map<String, Map<String, String>> metaCtx = context.getMetacontext();
+            Map<String, String> ctxMapping = metaCtx.get("cid");
+            if (ctxMapping == null)
+                continue;
+            for (String cid : ctxMapping.values()) {
+                if (cid == null || cid.length() == 0)
+                    continue;
+                piped = true;
+                Exertion owner = contextOwners.get(cid);
+                if (owner != null && owner != target)
+                    inputs.add(owner);
+            }
+        }
+        return piped ? inputs : null;
+    }
+
     @Override
     protected List<Mogram> getInputExertions() throws ContextException {
         return Mograms.getInputExertions(((Job) xrt));
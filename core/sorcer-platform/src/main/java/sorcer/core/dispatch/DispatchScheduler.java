@@ -0,0 +1,474 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.LoggingExceptionHandler;
+import sorcer.util.Sorcer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A provider-wide scheduler shared by all exertion dispatchers. Dispatchers no
+ * longer create their own thread pools; jobs and their component exertions are
+ * run on a single work-stealing {@link ForkJoinPool}.
+ * <p>
+ * Two limits apply: a per-job limit on the number of component exertions
+ * running concurrently ({@link JobSlot}) and a global capacity of exertions in
+ * flight. When either limit is reached the submitting thread runs the exertion
+ * itself, which throttles the producer instead of queueing unbounded work.
+ * Blocking waits on results are done as {@link ForkJoinPool.ManagedBlocker}s so
+ * the pool can compensate for dispatcher threads waiting on remote providers.
+ * <p>
+ * The pool is shared by the providers of a JVM, so its threads do not carry
+ * the class loader of any of them: each task runs with the context class
+ * loader of the thread that submitted it.
+ * <p>
+ * The pool is configured with SORCER environment properties:
+ * {@link #PARALLELISM}, {@link #CAPACITY} and {@link #JOB_CONCURRENCY}.
+ */
+public class DispatchScheduler {
+    private final static Logger logger = LoggerFactory.getLogger(DispatchScheduler.class);
+
+    /** Target parallelism of the dispatch pool */
+    public static final String PARALLELISM = "sorcer.dispatch.parallelism";
+
+    /** Max number of component exertions in flight across all jobs */
+    public static final String CAPACITY = "sorcer.dispatch.capacity";
+
+    /** Max number of component exertions of a single job running concurrently */
+    public static final String JOB_CONCURRENCY = "sorcer.dispatch.job.concurrency";
+
+    private static DispatchScheduler scheduler;
+
+    private final ForkJoinPool pool;
+
+    private final Semaphore capacity;
+
+    private final int maxCapacity;
+
+    private final int jobConcurrency;
+
+    private final AtomicInteger activeJobs = new AtomicInteger();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong submitted = new AtomicLong();
+
+    private final AtomicLong callerRuns = new AtomicLong();
+
+    public DispatchScheduler(int parallelism, int capacity, int jobConcurrency) {
+        if (parallelism <= 0 || capacity <= 0 || jobConcurrency <= 0)
+            throw new IllegalArgumentException("parallelism: " + parallelism + ", capacity: " + capacity
+                    + ", job concurrency: " + jobConcurrency);
+        this.pool = new ForkJoinPool(parallelism, new DispatchThreadFactory(),
+                new LoggingExceptionHandler(), true);
+        this.maxCapacity = capacity;
+        this.capacity = new Semaphore(capacity);
+        this.jobConcurrency = jobConcurrency;
+    }
+
+    /**
+     * Returns the shared scheduler, creating it on first use from the SORCER
+     * environment properties.
+     */
+    public static synchronized DispatchScheduler getScheduler() {
+        if (scheduler == null) {
+            int cpus = Runtime.getRuntime().availableProcessors();
+            int parallelism = getIntProperty(PARALLELISM, cpus * 4);
+            scheduler = new DispatchScheduler(parallelism,
+                    getIntProperty(CAPACITY, parallelism * 16),
+                    getIntProperty(JOB_CONCURRENCY, parallelism));
+            logger.info("Created dispatch scheduler: {}", scheduler);
+        }
+        return scheduler;
+    }
+
+    private static int getIntProperty(String property, int defaultValue) {
+        String value = Sorcer.getProperty(property, System.getProperty(property));
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value of {}: {}, using {}", property, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Runs a dispatcher's job asynchronously, counting it as an active job
+     * until it completes.
+     */
+    public Future<?> submitJob(final Runnable job) {
+        activeJobs.incrementAndGet();
+        return pool.submit(withCallerLoader(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    job.run();
+                } finally {
+                    activeJobs.decrementAndGet();
+                }
+            }
+        }));
+    }
+
+    /**
+     * Runs a long-lived blocking task, e.g. a space result collector, on the
+     * dispatch pool. The task runs as a managed blocker so it does not take a
+     * worker away from the pool's parallelism.
+     */
+    public Future<?> execute(final Runnable task) {
+        return pool.submit(withCallerLoader(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                        private boolean done;
+
+                        @Override
+                        public boolean block() {
+                            task.run();
+                            done = true;
+                            return true;
+                        }
+
+                        @Override
+                        public boolean isReleasable() {
+                            return done;
+                        }
+                    });
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }));
+    }
+
+    /**
+     * Wraps the task to run with the context class loader of the calling
+     * thread.
+     */
+    private static Runnable withCallerLoader(final Runnable task) {
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return new Runnable() {
+            @Override
+            public void run() {
+                runWithLoader(loader, task);
+            }
+        };
+    }
+
+    private static void runWithLoader(ClassLoader loader, Runnable task) {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            task.run();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * Creates a new slot limiting the concurrency of a single job's component
+     * exertions.
+     */
+    public JobSlot newJobSlot() {
+        return new JobSlot(jobConcurrency);
+    }
+
+    /**
+     * Submits a component exertion of a job. If the job or the scheduler is
+     * saturated the callable is run in the calling thread and an already
+     * completed future is returned. Every returned future is also delivered to
+     * the slot's completion queue when it is done, see
+     * {@link JobSlot#takeCompleted()}. Cancelling a running future interrupts
+     * the thread executing it.
+     */
+    public <T> Future<T> submit(JobSlot slot, Callable<T> callable) {
+        submitted.incrementAndGet();
+        if (slot.permits.tryAcquire()) {
+            if (capacity.tryAcquire())
+                return execute(slot, callable);
+            slot.permits.release();
+        }
+        callerRuns.incrementAndGet();
+        SlotTask<T> task = new SlotTask<T>(slot, callable, false);
+        inFlight.incrementAndGet();
+        task.run();
+        return task;
+    }
+
+    /**
+     * Submits a component exertion of a job to run in the pool, or returns
+     * null without running it if the job or the scheduler is saturated, so
+     * that the caller can queue it until one of its running exertions
+     * completes.
+     */
+    public <T> Future<T> trySubmit(JobSlot slot, Callable<T> callable) {
+        if (!slot.permits.tryAcquire())
+            return null;
+        if (!capacity.tryAcquire()) {
+            slot.permits.release();
+            return null;
+        }
+        submitted.incrementAndGet();
+        return execute(slot, callable);
+    }
+
+    /**
+     * Submits a component exertion of a job to run in the pool, waiting for
+     * the job and the scheduler to have room for it.
+     */
+    public <T> Future<T> submitWaiting(JobSlot slot, Callable<T> callable) throws InterruptedException {
+        acquire(slot.permits);
+        try {
+            acquire(capacity);
+        } catch (InterruptedException e) {
+            slot.permits.release();
+            throw e;
+        }
+        submitted.incrementAndGet();
+        return execute(slot, callable);
+    }
+
+    private <T> Future<T> execute(JobSlot slot, Callable<T> callable) {
+        SlotTask<T> task = new SlotTask<T>(slot, callable, true);
+        inFlight.incrementAndGet();
+        try {
+            pool.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.release();
+            throw e;
+        }
+        return task;
+    }
+
+    private static void acquire(final Semaphore semaphore) throws InterruptedException {
+        if (semaphore.tryAcquire())
+            return;
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            private boolean acquired;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                if (!acquired) {
+                    semaphore.acquire();
+                    acquired = true;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return acquired || (acquired = semaphore.tryAcquire());
+            }
+        });
+    }
+
+    /**
+     * Waits for the future's result, letting the pool compensate for the
+     * blocked thread when called from a dispatch thread.
+     */
+    public static <T> T await(final Future<T> future) throws InterruptedException, ExecutionException {
+        if (!future.isDone()) {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    try {
+                        future.get();
+                    } catch (ExecutionException | CancellationException e) {
+                        // reported by the final get below
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return future.isDone();
+                }
+            });
+        }
+        return future.get();
+    }
+
+    public int getActiveJobs() {
+        return activeJobs.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /** Number of tasks waiting in the pool's queues */
+    public long getQueueDepth() {
+        return pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+    }
+
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    public int getActiveThreads() {
+        return pool.getActiveThreadCount();
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCallerRuns() {
+        return callerRuns.get();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getCapacity() {
+        return maxCapacity;
+    }
+
+    public int getJobConcurrency() {
+        return jobConcurrency;
+    }
+
+    public Map<String, Number> getStats() {
+        Map<String, Number> stats = new LinkedHashMap<String, Number>();
+        stats.put("parallelism", getParallelism());
+        stats.put("poolSize", getPoolSize());
+        stats.put("activeThreads", getActiveThreads());
+        stats.put("activeJobs", getActiveJobs());
+        stats.put("inFlight", getInFlight());
+        stats.put("queueDepth", getQueueDepth());
+        stats.put("submitted", getSubmitted());
+        stats.put("callerRuns", getCallerRuns());
+        return stats;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchScheduler" + getStats()
+                + " capacity=" + maxCapacity + ", jobConcurrency=" + jobConcurrency;
+    }
+
+    /**
+     * Per-job concurrency limit obtained from {@link #newJobSlot()}. A slot
+     * also collects the futures of its exertions in completion order.
+     */
+    public static class JobSlot {
+        private final Semaphore permits;
+        private final BlockingQueue<Future<?>> completed = new LinkedBlockingQueue<Future<?>>();
+
+        JobSlot(int concurrency) {
+            permits = new Semaphore(concurrency);
+        }
+
+        public int available() {
+            return permits.availablePermits();
+        }
+
+        /**
+         * Waits for the next future of this slot to complete, letting the pool
+         * compensate for the blocked thread.
+         */
+        public Future<?> takeCompleted() throws InterruptedException {
+            Future<?> next = completed.poll();
+            if (next != null)
+                return next;
+            final Future<?>[] taken = new Future<?>[1];
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    if (taken[0] == null)
+                        taken[0] = completed.take();
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return taken[0] != null || (taken[0] = completed.poll()) != null;
+                }
+            });
+            return taken[0];
+        }
+    }
+
+    private class SlotTask<T> extends FutureTask<T> {
+        private final JobSlot slot;
+        private final boolean pooled;
+        private final ClassLoader loader;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        SlotTask(JobSlot slot, Callable<T> callable, boolean pooled) {
+            super(callable);
+            this.slot = slot;
+            this.pooled = pooled;
+            this.loader = Thread.currentThread().getContextClassLoader();
+        }
+
+        @Override
+        public void run() {
+            runWithLoader(loader, new Runnable() {
+                @Override
+                public void run() {
+                    SlotTask.super.run();
+                }
+            });
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                if (pooled) {
+                    capacity.release();
+                    slot.permits.release();
+                }
+            }
+        }
+
+        @Override
+        protected void done() {
+            release();
+            slot.completed.offer(this);
+        }
+    }
+
+    private static class DispatchThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("sorcer-dispatch-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
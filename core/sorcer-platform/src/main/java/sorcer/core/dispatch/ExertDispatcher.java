@@ -38,6 +38,8 @@ import javax.security.auth.Subject;
 import java.lang.reflect.Array;
 import java.rmi.RemoteException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
 import static sorcer.service.Exec.*;
 
 @SuppressWarnings("rawtypes")
@@ -68,9 +70,11 @@ abstract public class ExertDispatcher implements Dispatcher {
 
     protected static Map<Uuid, Dispatcher> dispatchers = new HashMap<Uuid, Dispatcher>();
 
-	protected ThreadGroup disatchGroup;
     protected ProvisionManager provisionManager;
 
+    // provider-wide scheduler shared by all dispatchers
+    protected DispatchScheduler scheduler = DispatchScheduler.getScheduler();
+
     public static Map<Uuid, Dispatcher> getDispatchers() {
 		return dispatchers;
 	}
@@ -176,8 +180,19 @@ abstract public class ExertDispatcher implements Dispatcher {
          */
 
         try {
-            while (!finished())
-                Thread.sleep(50);
+            // dispatchers wait for nested jobs on the shared dispatch pool
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    Thread.sleep(50);
+                    return finished();
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return finished();
+                }
+            });
         } catch (InterruptedException e) {
             logger.warn("Interrupted!", e);
         }
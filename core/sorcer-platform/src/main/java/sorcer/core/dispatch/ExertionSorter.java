@@ -87,7 +87,9 @@ public class ExertionSorter {
 
 
     /**
-     * Determine the Flow (PAR or SEQ) for mograms that have the Flow setValue to AUTO
+     * Determine the Flow for mograms that have the Flow setValue to AUTO: PAR
+     * if there are no pipes between the component mograms. Otherwise a PUSH
+     * job keeps AUTO and is run by the dataflow dispatcher, a PULL job is SEQ.
      *
      * @param topXrt
      * @param sortedSubXrt
@@ -114,6 +116,8 @@ public class ExertionSorter {
         if (topXrt.getMograms().size() > 0)
             logger.debug("XRT " + topXrt.getName() + " has edges: " + edges);
         if (edges == 0) return Strategy.Flow.PAR;
+        else if (topXrt instanceof Job && Strategy.Access.PUSH.equals(topXrt.getAccessType()))
+            return Strategy.Flow.AUTO;
         else return Strategy.Flow.SEQ;
     }
 
@@ -116,6 +116,13 @@ public class MogramDispatcherFactory implements DispatcherFactory {
                                                                isSpawned,
                                                                provider,
                                                                provisionManager);
+                } else if (Mograms.isCatalogDataflow(job)) {
+                    logger.info("Running Catalog Dataflow Dispatcher...");
+                    dispatcher = new CatalogDataflowDispatcher(job,
+                                                               sharedContexts,
+                                                               isSpawned,
+                                                               provider,
+                                                               provisionManager);
                 } else if (Mograms.isCatalogSequential(job)) {
                     logger.info("Running Catalog Sequential Dispatcher...");
                     dispatcher = new CatalogSequentialDispatcher(job,
@@ -148,6 +155,7 @@ public class MogramDispatcherFactory implements DispatcherFactory {
             }
 
             logger.info("*** tally of used dispatchers: " + ExertDispatcher.getDispatchers().size());
+            logger.debug("*** dispatch scheduler: {}", DispatchScheduler.getScheduler());
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -44,7 +44,6 @@ import java.util.List;
 import java.util.Set;
 
 import static sorcer.service.Exec.*;
-import static sorcer.util.StringUtils.tName;
 
 public class SpaceParallelDispatcher extends ExertDispatcher {
     protected JavaSpace05 space;
@@ -65,10 +64,6 @@ public class SpaceParallelDispatcher extends ExertDispatcher {
             throw new ExertionException("NO exertion space available!");
         }
 
-        disatchGroup = new ThreadGroup("exertion-" + exertion.getId());
-        disatchGroup.setDaemon(true);
-        disatchGroup.setMaxPriority(Thread.NORM_PRIORITY - 1);
-
         this.loki = loki;
 	}
 
@@ -88,7 +83,7 @@ public class SpaceParallelDispatcher extends ExertDispatcher {
 
     @Override
     public void doExec(Arg... args) throws SignatureException, ExertionException {
-        new Thread(disatchGroup, new CollectResultThread(), tName("collect-" + xrt.getName())).start();
+        scheduler.execute(new CollectResultThread());
 
         for (Mogram mogram : inputXrts) {
             logger.info("Calling monSession.init from SpaceParallelDispatcher for: {}", mogram.getName());
@@ -0,0 +1,167 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.exertion;
+
+import sorcer.core.context.ControlContext;
+import sorcer.core.context.ServiceContext;
+import sorcer.core.context.ThrowableTrace;
+import sorcer.service.*;
+import sorcer.service.Signature.ReturnPath;
+import sorcer.util.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The changes made by a provider to a task with the
+ * {@link ControlContext#EXERTION_DELTA} strategy, returned to the requestor
+ * instead of the whole task: the changed and removed paths of the data
+ * context, the metacontext if changed, the status, and the exceptions and
+ * trace added by the provider. The requestor merges the delta into its own
+ * copy of the task with {@link #merge(Mogram, Mogram)}, so the unchanged
+ * parts of the data context are not sent back. The provider does the task on
+ * a snapshot of the task received, so a provider in the requestor's process
+ * leaves the requestor's task unchanged until the delta is merged.
+ *
+ * @see ServiceContext#changedPaths(ServiceContext, java.util.Collection)
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class DeltaTask extends Task {
+
+	private static final long serialVersionUID = -2706213407839186112L;
+
+	private Map<String, Object> changed;
+
+	private List<String> removed = new ArrayList<String>();
+
+	private Map<String, Map<String, String>> metacontext;
+
+	private ReturnPath returnPath;
+
+	private List<ThrowableTrace> exceptions;
+
+	private List<String> trace;
+
+	private Stopwatch stopwatch;
+
+	// the task done, for merging a delta not sent
+	private transient Task done;
+
+	/**
+	 * Returns the delta of the task done by a provider.
+	 *
+	 * @param done the task returned by the provider, done on a snapshot of the
+	 *            task received
+	 * @param base the data context of the task received
+	 * @param exceptionCount the number of exceptions of the task received
+	 * @param traceCount the number of trace entries of the task received
+	 */
+	public DeltaTask(Task done, ServiceContext base, int exceptionCount, int traceCount)
+			throws ContextException {
+		super(done.getName());
+		this.done = done;
+		mogramId = done.getId();
+		status = done.getStatus();
+		ServiceContext cxt = (ServiceContext) done.getDataContext();
+		if (cxt != null) {
+			changed = cxt.changedPaths(base, removed);
+			if (cxt.getMetacontext() != null && !cxt.getMetacontext().equals(base.getMetacontext()))
+				metacontext = cxt.getMetacontext();
+			if (base.getReturnPath() == null)
+				returnPath = cxt.getReturnPath();
+		}
+		ControlContext cc = done.getControlContext();
+		if (cc != null) {
+			exceptions = tail(cc.getExceptions(), exceptionCount);
+			trace = tail(cc.getTrace(), traceCount);
+			stopwatch = cc.getStopwatch();
+		}
+	}
+
+	@Override
+	protected void init() {
+		// the delta has no contexts of its own
+	}
+
+	private static <T> List<T> tail(List<T> list, int from) {
+		if (list == null || list.size() <= from)
+			return null;
+		return new ArrayList<T>(list.subList(from, list.size()));
+	}
+
+	/**
+	 * Merges this delta into the task sent to the provider and returns the
+	 * task.
+	 */
+	public Task mergeInto(Task sent) throws ContextException {
+		if (!mogramId.equals(sent.getId()))
+			throw new ContextException("Delta of: " + mogramId + " does not match task: " + sent.getId());
+		// done in place, the changes are already in the task
+		if (done == sent)
+			return sent;
+		ServiceContext cxt = (ServiceContext) sent.getDataContext();
+		cxt.applyChanges(changed, removed);
+		if (metacontext != null)
+			cxt.setMetacontext(metacontext);
+		if (returnPath != null && cxt.getReturnPath() == null)
+			cxt.setReturnPath(returnPath);
+		ControlContext cc = sent.getControlContext();
+		if (exceptions != null) {
+			for (ThrowableTrace et : exceptions)
+				cc.addException(et);
+		}
+		if (trace != null)
+			cc.getTrace().addAll(trace);
+		if (stopwatch != null)
+			cc.setStopwatch(stopwatch);
+		sent.setStatus(status);
+		return sent;
+	}
+
+	/**
+	 * Returns the sent mogram with the result merged into it if the result is
+	 * a delta, otherwise the result.
+	 */
+	public static <T extends Mogram> T merge(T sent, Mogram result) throws ContextException {
+		if (result instanceof DeltaTask && sent instanceof Task)
+			return (T) ((DeltaTask) result).mergeInto((Task) sent);
+		return (T) result;
+	}
+
+	/**
+	 * Returns true if the mogram asks for a delta of its processing.
+	 */
+	public static boolean isDelta(Mogram mogram) {
+		if (!(mogram instanceof Task) || mogram instanceof DeltaTask)
+			return false;
+		ControlContext cc = ((Task) mogram).getControlContext();
+		try {
+			return cc != null && cc.isDelta() && mogram.getDataContext() instanceof ServiceContext;
+		} catch (ContextException e) {
+			return false;
+		}
+	}
+
+	public Map<String, Object> getChanged() {
+		return changed;
+	}
+
+	public List<String> getRemoved() {
+		return removed;
+	}
+}
@@ -53,6 +53,12 @@ public class Mograms implements SorcerConstants {
 				&& Access.PUSH.equals(cc.get(cc.EXERTION_ACCESS));
 	}
 
+	public static boolean isCatalogDataflow(Job job) {
+		ControlContext cc = job.getControlContext();
+		return Flow.AUTO.equals(cc.get(cc.EXERTION_FLOW))
+				&& Access.PUSH.equals(cc.get(cc.EXERTION_ACCESS));
+	}
+
 	public static boolean isCatalogBlock(Exertion exertion) {
 		ControlContext cc = (ControlContext)exertion.getControlContext();
 		return exertion instanceof Block
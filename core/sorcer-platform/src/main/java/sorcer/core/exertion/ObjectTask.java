@@ -127,7 +127,7 @@ public class ObjectTask extends Task {
 					if (target instanceof Method) {
 						result = invokeMethod((Method)target, os);
 					} else if (target instanceof Provider) {
-						result = ((Provider) target).exert(this, null).getDataContext();
+						result = DeltaTask.merge(this, ((Provider) target).exert(this, null)).getDataContext();
 					} else {
 						evaluator = new MethodInvoker(target, os.getSelector());
 					}
@@ -17,15 +17,16 @@
 
 package sorcer.core.invoker;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.rmi.RemoteException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.StringTokenizer;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.exec.CommandLine;
 
 import sorcer.core.context.model.ent.Proc;
 import sorcer.core.context.model.ent.Entry;
@@ -33,10 +34,9 @@ import sorcer.service.Arg;
 import sorcer.service.ArgSet;
 import sorcer.service.ContextException;
 import sorcer.service.EvaluationException;
-import sorcer.util.exec.CommonsExecUtil;
-import sorcer.util.exec.ExecUtils;
 import sorcer.util.exec.ExecUtils.CmdResult;
-import sorcer.util.exec.NullInputStream;
+import sorcer.util.exec.ProcessExecutor;
+import sorcer.util.exec.ProcessOutput;
 
 /**
  * @author Mike Sobolewski
@@ -51,6 +51,14 @@ public class CmdInvoker extends ServiceInvoker implements CmdInvoking {
 	private File logFile;
 	private InputStream stdin;
 	private boolean background = false;
+	private long timeout;
+	private File outFile;
+	private int outTail;
+	transient private ProcessOutput.LineHandler lineHandler;
+	transient private ProcessExecutor processExecutor;
+
+	// the tail of the standard error kept when the output is streamed
+	private static final int ERR_TAIL = 64 * 1024;
 
 	{
 		defaultName = "cmdInvoker-";
@@ -162,49 +170,33 @@ public class CmdInvoker extends ServiceInvoker implements CmdInvoking {
 	@Override
 	public CmdResult getValue(Arg... entries) throws EvaluationException,
 			RemoteException {
-		CmdResult out = null;
 		if (scriptFile != null) {
 			try {
 				return execScript();
 			} catch (Exception se) {
 				throw new EvaluationException("Script invocation failed: "
-						+ cmd);
-			}
-		} else {
-			try {
-				if (cmd == null && cmdarray == null)
-					throw new EvaluationException("No args for CmdEvaluator!");
-				if (cmd != null) {
-					if (stdin != null) {
-						out = CommonsExecUtil.execCommand(cmd, null, stdin);
-						//ExecUtils.execCommand(Runtime.getRuntime().exec(
-						//		cmd), stdin);
-					} else {
-						out = CommonsExecUtil.execCommand(cmd);
-//						out = ExecUtils.execCommand(cmd);
-					}
-				} else if (cmdarray != null) {
-					String command = cmdarray[0];
-					String[] args = new String[cmdarray.length-1];
-					for (int i=1;i<cmdarray.length;i++) {
-						args[i-1] = cmdarray[i];
-					}
-					if (stdin != null) {
-						out = CommonsExecUtil.execCommand(command, args, stdin);
-					} else {
-						out = CommonsExecUtil.execCommand(command, args);
-					}
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
-				throw new EvaluationException("Command invocation failed: "
-						+ Arrays.toString(cmdarray));
+						+ cmd, se);
 			}
 		}
-		return out;
+		if (cmd == null && cmdarray == null)
+			throw new EvaluationException("No args for CmdEvaluator!");
+		String[] command = cmdarray;
+		if (cmd != null)
+			command = CommandLine.parse(cmd).toStrings();
+		try {
+			return exec(command, stdin, newOutput(), newErrOutput());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new EvaluationException("Command invocation interrupted: "
+					+ Arrays.toString(command), e);
+		} catch (Exception e) {
+			throw new EvaluationException("Command invocation failed: "
+					+ Arrays.toString(command), e);
+		}
 	}
 
-	public CmdResult execScript() throws IOException, InterruptedException, ContextException {
+	public CmdResult execScript() throws IOException, InterruptedException,
+			ContextException, TimeoutException {
 		if (cmdarray != null) {
 			StringBuilder sb = new StringBuilder(cmdarray[0]);
 			for (int i = 1; i < cmdarray.length; i++)
@@ -219,46 +211,110 @@ public class CmdInvoker extends ServiceInvoker implements CmdInvoking {
 		}
 
 		logger.info("executing script: " + cmd);
-
-		final Process process = Runtime.getRuntime().exec(cmd);				
-		final PrintWriter logOut = new PrintWriter(logFile);
-		Thread scriptLogger = new Thread() {
-			public void run() {
-				String line;
-				BufferedReader in = new BufferedReader(new InputStreamReader(
-						process.getInputStream()));
-				try {
-					while ((line = in.readLine()) != null) {
-						logOut.println(line);
-						if (logOut.checkError()) {
-							System.err
-									.println("scipt exec log file encountered check error"
-											+ logFile);
-						}
-						logOut.flush();
-					}
-				} catch (IOException e) {
-					System.err
-							.println("scipt exec log file encountered IO error"
-									+ logFile);
-				}
-			}
-		};
-		scriptLogger.start();
-		CmdResult result = null;
-		if (stdin != null)
-			result = ExecUtils.execCommand(process, stdin, true);
-		else {
-			result = ExecUtils
-					.execCommand(process, new NullInputStream(), true);
-		}
-
-		logOut.close();
+		// split as Runtime.exec does
+		StringTokenizer st = new StringTokenizer(cmd);
+		String[] command = new String[st.countTokens()];
+		for (int i = 0; st.hasMoreTokens(); i++)
+			command[i] = st.nextToken();
+		CmdResult result = exec(command, stdin, ProcessOutput.file(logFile), newErrOutput());
 		logger.info(Arrays.toString(cmdarray) + " completed with status = "
-				+ process.exitValue());
+				+ result.getExitValue());
 		return result;
 	}
 
+	private CmdResult exec(String[] command, InputStream in, ProcessOutput out,
+			ProcessOutput err) throws IOException, InterruptedException, TimeoutException {
+		ProcessExecutor executor = getProcessExecutor();
+		if (timeout > 0)
+			return executor.exec(command, null, in, out, err, timeout);
+		return executor.exec(command, null, in, out, err);
+	}
+
+	/**
+	 * Returns the sink of the standard output: the output file, the line
+	 * handler or the tail of the output if set, otherwise all of the output
+	 * is kept in memory.
+	 */
+	private ProcessOutput newOutput() throws IOException {
+		if (outFile != null)
+			return ProcessOutput.file(outFile);
+		if (lineHandler != null)
+			return ProcessOutput.lines(lineHandler);
+		if (outTail > 0)
+			return ProcessOutput.tail(outTail);
+		return ProcessOutput.buffer();
+	}
+
+	/**
+	 * Returns the sink of the standard error, keeping its tail if the standard
+	 * output is streamed.
+	 */
+	private ProcessOutput newErrOutput() {
+		if (outTail > 0)
+			return ProcessOutput.tail(outTail);
+		if (outFile != null || lineHandler != null)
+			return ProcessOutput.tail(ERR_TAIL);
+		return ProcessOutput.buffer();
+	}
+
+	public ProcessExecutor getProcessExecutor() {
+		if (processExecutor == null)
+			return ProcessExecutor.getProcessExecutor();
+		return processExecutor;
+	}
+
+	/**
+	 * Sets the executor running the commands of this invoker, the executor of
+	 * the JVM by default.
+	 */
+	public void setProcessExecutor(ProcessExecutor processExecutor) {
+		this.processExecutor = processExecutor;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Sets the time in milliseconds the command is waited for before it is
+	 * killed, 0 for the timeout of the process executor.
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public File getOutFile() {
+		return outFile;
+	}
+
+	/**
+	 * Sets the file the standard output of the command is written to instead
+	 * of the result.
+	 */
+	public void setOutFile(File outFile) {
+		this.outFile = outFile;
+	}
+
+	public int getOutTail() {
+		return outTail;
+	}
+
+	/**
+	 * Sets the number of the last bytes of the output of the command kept in
+	 * the result, 0 to keep all of it.
+	 */
+	public void setOutTail(int outTail) {
+		this.outTail = outTail;
+	}
+
+	/**
+	 * Sets the handler of the lines of the standard output of the command,
+	 * passed to the handler instead of the result.
+	 */
+	public void setLineHandler(ProcessOutput.LineHandler lineHandler) {
+		this.lineHandler = lineHandler;
+	}
+
     public String getCmd() {
         return cmd;
     }
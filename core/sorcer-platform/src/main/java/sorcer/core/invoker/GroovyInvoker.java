@@ -17,7 +17,11 @@
 
 package sorcer.core.invoker;
 
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
 import groovy.lang.GroovyShell;
+import org.apache.commons.io.FileUtils;
 import sorcer.core.context.ServiceContext;
 import sorcer.core.context.model.ent.Proc;
 import sorcer.service.*;
@@ -43,16 +47,14 @@ public class GroovyInvoker<T> extends ServiceInvoker<T> {
 
 	private static StringBuilder staticImports;
 
+	// the script cache profile of expressions compiled with the static imports
+	private static final String IMPORTS_PROFILE = GroovyInvoker.class.getName();
+
 	/**
 	 * expression to be evaluated
 	 */
 	protected String expression;
 
-	/**
-	 * The evaluator
-	 */
-	transient private GroovyShell shell;
-
 	private File scriptFile = null;
 
 	public GroovyInvoker() {
@@ -98,7 +100,7 @@ public class GroovyInvoker<T> extends ServiceInvoker<T> {
 	public T getValue(Arg... entries) throws InvocationException,
 			RemoteException {
 		Object result = null;
-		shell = new GroovyShell(Thread.currentThread().getContextClassLoader());
+		Binding binding = new Binding();
 		if (entries != null) {
 			for (Arg a : entries)
 				try {
@@ -110,27 +112,26 @@ public class GroovyInvoker<T> extends ServiceInvoker<T> {
 				}
 		}
 		try {
-			initBindings();
+			initBindings(binding);
 		} catch (ContextException ex) {
 			throw new InvocationException(ex);
 		}
 		try {
-			synchronized (shell) {
-				if (scriptFile != null) {
-					try {
-						result = shell.evaluate(scriptFile);
-					} catch (IOException e) {
-						throw new InvocationException(e);
-					}
-				} else {
-					StringBuilder sb = new StringBuilder(staticImports.toString());
-					sb.append(expression);
-					logger.debug(sb.toString());
-					synchronized (shell) {
-						result = shell.evaluate(sb.toString());
-					}
+			ClassLoader loader = Thread.currentThread().getContextClassLoader();
+			Class<?> scriptClass;
+			if (scriptFile != null) {
+				try {
+					scriptClass = ScriptCache.getScriptCache().getScriptClass(
+							FileUtils.readFileToString(scriptFile), scriptFile.getName(), loader);
+				} catch (IOException e) {
+					throw new InvocationException(e);
 				}
+			} else {
+				logger.debug(expression);
+				scriptClass = ScriptCache.getScriptCache().getScriptClass(
+						expression, null, loader, IMPORTS_PROFILE, new ImportsCompiler(loader));
 			}
+			result = ScriptCache.createScript(scriptClass, binding).run();
 //			TODO testing
 //			printedEntries(args);
 		} catch (Exception e) {
@@ -139,6 +140,12 @@ public class GroovyInvoker<T> extends ServiceInvoker<T> {
 		return (T) result;
 	}
 
+	@Override
+	public boolean hasDeclaredArgs() {
+		// scripts are bound to the args only
+		return args != null && args.size() > 0;
+	}
+
 	private void printedEntries(Arg... entries) throws EvaluationException {
 		if(expression.equals("_print_")) {
 			List<Path> paths = new ArrayList<Path>();
@@ -157,7 +164,7 @@ public class GroovyInvoker<T> extends ServiceInvoker<T> {
 		}
 	}
 
-	private void initBindings() throws RemoteException, ContextException {
+	private void initBindings(Binding binding) throws RemoteException, ContextException {
 //		logger.info("invokeContext keys: " + invokeContext.keySet() + "\nfor: " + expression);
 		if (invokeContext != null) {
 			if (args != null && args.size() > 0) {
@@ -185,7 +192,7 @@ public class GroovyInvoker<T> extends ServiceInvoker<T> {
 			if (val instanceof Evaluation) {
 				val = ((Evaluation) val).getValue();
 			}
-			shell.setVariable(key, val);
+			binding.setVariable(key, val);
 		}
 	}
 
@@ -217,7 +224,24 @@ public class GroovyInvoker<T> extends ServiceInvoker<T> {
 	}
 
 	public void clean() {
-		shell = null;
+		// scripts are compiled by the script cache and bound per evaluation
+	}
+
+	/**
+	 * Compiles an expression prefixed by the static imports.
+	 */
+	private static class ImportsCompiler implements ScriptCache.ScriptCompiler {
+		private final ClassLoader loader;
+
+		ImportsCompiler(ClassLoader loader) {
+			this.loader = loader;
+		}
+
+		public Class<?> compile(GroovyCodeSource source) {
+			return new GroovyClassLoader(loader).parseClass(new GroovyCodeSource(
+					staticImports + source.getScriptText(), source.getName(),
+					GroovyShell.DEFAULT_CODE_BASE), false);
+		}
 	}
 
 	@Override
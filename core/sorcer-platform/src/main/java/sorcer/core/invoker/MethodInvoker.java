@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import sorcer.core.context.ServiceContext;
 import sorcer.eo.operator.Args;
 import sorcer.service.*;
+import sorcer.util.MethodTable;
 import sorcer.util.SorcerUtil;
 
 import java.lang.reflect.Constructor;
@@ -53,6 +54,40 @@ public class MethodInvoker<T> extends ServiceInvoker<T> implements MethodInvokin
 	private Object initObject;
 	protected Object target;
 	protected static int count;
+
+	// methods resolved by selector only and by selector and parameter types
+	private static final MethodTable namedMethods = new MethodTable();
+
+	private static final MethodTable publicMethods = new MethodTable();
+
+	private static final MethodTable.Resolver NAMED_METHOD_RESOLVER = new MethodTable.Resolver() {
+		@Override
+		public Method resolve(Class<?> type, String selector, Class<?>[] argTypes) {
+			for (Method mt : type.getDeclaredMethods()) {
+				if (mt.getName().equals(selector))
+					return mt;
+			}
+			return null;
+		}
+	};
+
+	private static final MethodTable.Resolver PUBLIC_METHOD_RESOLVER = new MethodTable.Resolver() {
+		@Override
+		public Method resolve(Class<?> type, String selector, Class<?>[] argTypes) {
+			try {
+				return type.getMethod(selector, argTypes);
+			} catch (NoSuchMethodException e) {
+				if (Context.class.isAssignableFrom(argTypes[0])) {
+					for (Method mt : type.getMethods()) {
+						if (mt.getName() != null && mt.getName().equals(selector))
+							return mt;
+					}
+				}
+				return null;
+			}
+		}
+	};
+
 	{
 		defaultName = "methodInvoker-";
 	}
@@ -193,14 +228,9 @@ public class MethodInvoker<T> extends ServiceInvoker<T> implements MethodInvokin
 			}
 			// if no paramTypes defined assume that the method name 'selector'
 			// is unique
+			MethodTable.Invoker invoker = null;
 			if (paramTypes == null) {
-				Method[] mts = evalClass.getDeclaredMethods();
-				for (Method mt : mts) {
-					if (mt.getName().equals(selector)) {
-						m = mt;
-						break;
-					}
-				}
+				invoker = namedMethods.get(evalClass, selector, null, NAMED_METHOD_RESOLVER);
 			} else {
 				if (selector == null) {
 					Method[] mts = evalClass.getDeclaredMethods();
@@ -236,24 +266,14 @@ public class MethodInvoker<T> extends ServiceInvoker<T> implements MethodInvokin
 						paramTypes = null;
 						parameters = null;
 					}
-					try {
-						m = evalClass.getMethod(selector, paramTypes);
-                    } catch(NoSuchMethodException e) {
-                        Method[] mts = evalClass.getMethods();
-                        if (Context.class.isAssignableFrom(paramTypes[0])) {
-                            for (Method mt : mts) {
-                                if (mt.getName() != null && mt.getName().equals(selector)) {
-                                    m = mt;
-                                    break;
-                                }
-                            }
-                        }
-                    }
+					invoker = publicMethods.get(evalClass, selector, paramTypes, PUBLIC_METHOD_RESOLVER);
 				}
 			}
+			if (invoker != null)
+				m = invoker.getMethod();
 			if (context != null)
 				((ServiceContext)context).getMogramStrategy().setCurrentSelector(selector);
-			val = m.invoke(target, parameters);
+			val = invoker != null ? invoker.invoke(target, parameters) : m.invoke(target, parameters);
 		} catch (Exception e) {
 			StringBuilder message = new StringBuilder();
 			message.append("** Error in object invoker").append("\n");
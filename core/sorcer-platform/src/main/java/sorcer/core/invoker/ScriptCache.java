@@ -0,0 +1,176 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.invoker;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import sorcer.util.Sorcer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The compiled Groovy scripts shared by {@link GroovyInvoker}s and netlets.
+ * A script is compiled once per source, class loader and profile into a
+ * {@link Script} class, and each evaluation creates an instance of the class
+ * with its own {@link Binding}, so that evaluating the same expression in a
+ * loop neither recompiles it nor defines a new class each time. The profile
+ * names the compiler configuration and the imports a script is compiled
+ * with. The classes are held until evicted by the size of the cache, set by
+ * the {@link sorcer.core.SorcerConstants#SCRIPT_CACHE_SIZE} property.
+ */
+public class ScriptCache {
+
+	/**
+	 * Compiles the source of a script missing in the cache.
+	 */
+	public interface ScriptCompiler {
+		Class<?> compile(GroovyCodeSource source);
+	}
+
+	private static ScriptCache instance;
+
+	// names the scripts as GroovyShell does
+	private static final AtomicInteger scriptCount = new AtomicInteger();
+
+	private final Cache<Key, Class<?>> classes;
+
+	ScriptCache(long size) {
+		classes = CacheBuilder.newBuilder()
+				.maximumSize(size)
+				.recordStats()
+				.build();
+	}
+
+	public static synchronized ScriptCache getScriptCache() {
+		if (instance == null)
+			instance = new ScriptCache(Sorcer.getScriptCacheSize());
+		return instance;
+	}
+
+	/**
+	 * Returns the class of the script compiled by a {@link GroovyClassLoader}
+	 * of the given loader with the default compiler configuration.
+	 */
+	public Class<?> getScriptClass(String source, ClassLoader loader) {
+		return getScriptClass(source, null, loader);
+	}
+
+	/**
+	 * Returns the class of the named script compiled by a
+	 * {@link GroovyClassLoader} of the given loader with the default compiler
+	 * configuration.
+	 */
+	public Class<?> getScriptClass(String source, String name, final ClassLoader loader) {
+		return getScriptClass(source, name, loader, null, new ScriptCompiler() {
+			public Class<?> compile(GroovyCodeSource codeSource) {
+				return new GroovyClassLoader(loader).parseClass(codeSource, false);
+			}
+		});
+	}
+
+	/**
+	 * Returns the class of the script, compiling it with the compiler if
+	 * missing.
+	 *
+	 * @param source the text of the script
+	 * @param name the name of the script file or null
+	 * @param loader the class loader the script is compiled for
+	 * @param profile the name of the compiler configuration or null
+	 * @param compiler the compiler of a missing script
+	 * @throws org.codehaus.groovy.control.CompilationFailedException
+	 *             if the script does not compile
+	 */
+	public Class<?> getScriptClass(final String source, final String name, ClassLoader loader,
+			String profile, final ScriptCompiler compiler) {
+		try {
+			return classes.get(new Key(source, loader, profile), new Callable<Class<?>>() {
+				public Class<?> call() {
+					String scriptName = name != null ? name
+							: "Script" + scriptCount.incrementAndGet() + ".groovy";
+					return compiler.compile(new GroovyCodeSource(source, scriptName,
+							GroovyShell.DEFAULT_CODE_BASE));
+				}
+			});
+		} catch (UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Creates a new instance of the script class bound to the binding.
+	 */
+	public static Script createScript(Class<?> scriptClass, Binding binding) {
+		return InvokerHelper.createScript(scriptClass, binding);
+	}
+
+	public long size() {
+		return classes.size();
+	}
+
+	public CacheStats getStats() {
+		return classes.stats();
+	}
+
+	public void clear() {
+		classes.invalidateAll();
+	}
+
+	private static class Key {
+		final String source;
+		final ClassLoader loader;
+		final String profile;
+
+		Key(String source, ClassLoader loader, String profile) {
+			this.source = source;
+			this.loader = loader;
+			this.profile = profile;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof Key))
+				return false;
+			Key key = (Key) o;
+			return loader == key.loader && source.equals(key.source)
+					&& (profile == null ? key.profile == null : profile.equals(key.profile));
+		}
+
+		@Override
+		public int hashCode() {
+			int result = source.hashCode();
+			result = 31 * result + System.identityHashCode(loader);
+			result = 31 * result + (profile != null ? profile.hashCode() : 0);
+			return result;
+		}
+	}
+}
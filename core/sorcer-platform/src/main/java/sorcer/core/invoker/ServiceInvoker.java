@@ -239,6 +239,18 @@ public class ServiceInvoker<T> extends Observable implements  Invocation<T>, Ide
 			
 	}
 
+	/**
+	 * <p>
+	 * Returns true if this invoker reads its invokeContext only through its
+	 * args, so its eval has to be recalculated only when one of them changes.
+	 * </p>
+	 *
+	 * @return true if the args of this invoker are all of its inputs
+	 */
+	public boolean hasDeclaredArgs() {
+		return false;
+	}
+
 	public void valueValid(boolean state) {
 		valueIsValid = state;
 	}
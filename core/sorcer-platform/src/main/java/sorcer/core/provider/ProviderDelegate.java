@@ -49,6 +49,7 @@ import sorcer.core.analytics.AnalyticsRecorder;
 import sorcer.core.context.Contexts;
 import sorcer.core.context.ServiceContext;
 import sorcer.core.context.model.ent.ProcModel;
+import sorcer.core.exertion.DeltaTask;
 import sorcer.core.exertion.ExertionEnvelop;
 import sorcer.core.exertion.NetTask;
 import sorcer.core.loki.member.LokiMemberUtil;
@@ -198,6 +199,19 @@ public class ProviderDelegate {
 
 	private int queueSize = 0;
 
+	// resolved methods of service beans and of the provider, see exertBeanTask and invokeMethod
+	private final MethodTable beanMethods = new MethodTable();
+
+	private final MethodTable providerMethods = new MethodTable();
+
+	private final MethodTable contextMethods = new MethodTable();
+
+	// max number of exertion envelopes taken from the space at once
+	private int takeBatchSize = 1;
+
+	// space takers wait for availability events instead of polling
+	private boolean takeOnNotify = false;
+
 	private int maximumPoolSize = 20;
 
 	private List<ExecutorService> spaceHandlingPools;
@@ -536,6 +550,20 @@ public class ProviderDelegate {
             logger.warn("Problem getting {}.{}", ServiceProvider.COMPONENT, SPACE_WORKER_QUEUE_SIZE, e);
         }
 
+        try {
+            takeBatchSize = (Integer) jconfig.getEntry(ServiceProvider.COMPONENT,
+                                                       SPACE_TAKE_BATCH_SIZE, int.class, 1);
+        } catch (Exception e) {
+            logger.warn("Problem getting {}.{}", ServiceProvider.COMPONENT, SPACE_TAKE_BATCH_SIZE, e);
+        }
+
+        try {
+            takeOnNotify = (Boolean) jconfig.getEntry(ServiceProvider.COMPONENT,
+                                                      SPACE_TAKE_ON_NOTIFY, boolean.class, false);
+        } catch (Exception e) {
+            logger.warn("Problem getting {}.{}", ServiceProvider.COMPONENT, SPACE_TAKE_ON_NOTIFY, e);
+        }
+
         try {
             maximumPoolSize = (Integer) jconfig.getEntry(ServiceProvider.COMPONENT, MAX_WORKER_POOL_SIZE, int.class,
                                                          20);
@@ -740,7 +768,9 @@ public class ProviderDelegate {
                                                                              spaceName,
                                                                              spaceGroup,
                                                                              workerTransactional,
-                                                                             queueSize == 0),
+                                                                             queueSize == 0,
+                                                                             takeBatchSize,
+                                                                             takeOnNotify),
 										spaceWorkerPool);
                 spaceTakers.add(worker);
             } else {
@@ -750,7 +780,9 @@ public class ProviderDelegate {
                                                                       spaceName,
                                                                       spaceGroup,
                                                                       workerTransactional,
-                                                                      queueSize == 0),
+                                                                      queueSize == 0,
+                                                                      takeBatchSize,
+                                                                      takeOnNotify),
                                         spaceWorkerPool,
                                         remoteLogging);
                 spaceTakers.add(worker);
@@ -781,13 +813,13 @@ public class ProviderDelegate {
 					worker = new SpaceIsReadyTaker(
 							new SpaceTaker.SpaceTakerData(envelop, memberInfo,
 									provider, spaceName, spaceGroup,
-									workerTransactional, queueSize == 0),
+									workerTransactional, queueSize == 0, takeBatchSize, takeOnNotify),
 							spaceWorkerPool);
                     spaceTakers.add(worker);
 				} else {
 					worker = new SpaceTaker(new SpaceTaker.SpaceTakerData(
 							envelop, memberInfo, provider, spaceName,
-							spaceGroup, workerTransactional, queueSize == 0),
+							spaceGroup, workerTransactional, queueSize == 0, takeBatchSize, takeOnNotify),
 							spaceWorkerPool, remoteLogging);
                     spaceTakers.add(worker);
 				}
@@ -1051,6 +1083,54 @@ public class ProviderDelegate {
 //		return task;
 	}
 
+    /**
+     * Selects the service bean method for a selector, the bean type and the
+     * argument types of the task context.
+     */
+    private static final MethodTable.Resolver BEAN_METHOD_RESOLVER = new MethodTable.Resolver() {
+        @Override
+        public Method resolve(Class<?> type, String selector, Class<?>[] argTypes) throws NoSuchMethodException {
+            if (selector.equals("invoke") && Mogram.class.isAssignableFrom(type)) {
+                return type.getMethod(selector, Context.class, Arg[].class);
+            } else if (selector.equals("evaluate") || selector.equals("explore")) {
+                return type.getMethod(selector, Context.class, Arg[].class);
+            } else if (selector.equals("exert") && ServiceShell.class.isAssignableFrom(type)) {
+                return type.getMethod(selector, Mogram.class, Arg[].class);
+            } else if (selector.equals("getValue") && Evaluation.class.isAssignableFrom(type)) {
+                return type.getMethod(selector, Arg[].class);
+            }
+            for (Method method : type.getMethods()) {
+                Class[] parmTypes = method.getParameterTypes();
+                if (parmTypes.length == 0 && argTypes.length == 0)
+                    return method;
+                if (method.getName().equals(selector) && parmTypes.length == argTypes.length) {
+                    for (int i = 0; i < parmTypes.length; i++) {
+                        if (argTypes[i].isAssignableFrom(parmTypes[i]))
+                            return method;
+                    }
+                }
+            }
+            return type.getMethod(selector, argTypes);
+        }
+    };
+
+    /**
+     * Selects the provider method taking a context, or the parameters of the
+     * context, for a selector.
+     */
+    private static final MethodTable.Resolver CONTEXT_METHOD_RESOLVER = new MethodTable.Resolver() {
+        @Override
+        public Method resolve(Class<?> type, String selector, Class<?>[] argTypes) throws NoSuchMethodException {
+            for (Method m : type.getMethods()) {
+                if (m.getName().equals(selector) && m.getParameterCount() == 1) {
+                    if (m.getParameterTypes()[0].isAssignableFrom(argTypes[0]))
+                        return m;
+                }
+            }
+            return type.getMethod(selector, argTypes);
+        }
+    };
+
     Task exertBeanTask(Task task, Object bean, Arg... args) throws ContextException {
         String selector = task.getProcessSignature().getSelector();
         if (bean != null) {
@@ -1066,43 +1146,16 @@ public class ProviderDelegate {
                 argTypes = cxt.getParameterTypes();
                 isContextual = false;
             }
-            Method m = null;
+            MethodTable.Invoker m = null;
             try {
                 // select the proper method for the bean type
-                if (selector.equals("invoke") && (bean instanceof Mogram)) {
-                    m = bean.getClass().getMethod(selector, Context.class, Arg[].class);
-                    isContextual = true;
-                } else if (selector.equals("evaluate") || selector.equals("explore")) {
-                    m = bean.getClass().getMethod(selector, Context.class, Arg[].class);
+                if ((selector.equals("invoke") && bean instanceof Mogram)
+                        || selector.equals("evaluate") || selector.equals("explore"))
                     isContextual = true;
-                } else if (selector.equals("exert") && bean instanceof ServiceShell) {
-                    m = bean.getClass().getMethod(selector, Mogram.class, Arg[].class);
+                else if ((selector.equals("exert") && bean instanceof ServiceShell)
+                        || (selector.equals("getValue") && bean instanceof Evaluation))
                     isContextual = false;
-                } else if (selector.equals("getValue") && bean instanceof Evaluation) {
-                    m = bean.getClass().getMethod(selector, Arg[].class);
-                    isContextual = false;
-                 } else {
-                    for(Method method : bean.getClass().getMethods()) {
-                        Class[] parmTypes = method.getParameterTypes();
-                        if(parmTypes.length==0 && argTypes.length==0) {
-                            m = method;
-                            break;
-                        }
-                        if (method.getName().equals(selector) && parmTypes.length==argTypes.length) {
-                            for (int i = 0; i < parmTypes.length; i++) {
-                                if (argTypes[i].isAssignableFrom(parmTypes[i])) {
-                                    m = method;
-                                    break;
-                                }
-                            }
-                            if(m!=null)
-                                break;
-                        }
-                    }
-					if(m==null) {
-                        m = bean.getClass().getMethod(selector, argTypes);
-                    }
-				}
+                m = beanMethods.get(bean.getClass(), selector, argTypes, BEAN_METHOD_RESOLVER);
                 if(logger.isTraceEnabled())
                     logger.trace("Executing service bean method: {} by: {} isContextual: {}",
                                  m, config.getProviderName(), isContextual);
@@ -1136,7 +1189,7 @@ public class ProviderDelegate {
         return task;
     }
 
-	private Context execContextualBean(Method m, Task task, Object impl, Arg... args)
+	private Context execContextualBean(MethodTable.Invoker m, Task task, Object impl, Arg... args)
 			throws ContextException, IllegalArgumentException,
 			IllegalAccessException, InvocationTargetException, RemoteException {
 		Context result;
@@ -1169,7 +1222,7 @@ public class ProviderDelegate {
 		return result;
 	}
 
-	private Context execParametricBean(Method m, Task task,
+	private Context execParametricBean(MethodTable.Invoker m, Task task,
 			Object impl, Arg... args) throws IllegalArgumentException,
 			IllegalAccessException, InvocationTargetException, ContextException, RemoteException {
 		Context result = task.getContext();
@@ -1260,7 +1313,7 @@ public class ProviderDelegate {
 			throw re;
 		} else
 			try {
-				Task result = (Task) ((Exerter)recipient).exert(task, null);
+				Task result = (Task) DeltaTask.merge(task, ((Exerter)recipient).exert(task, null));
 				if (result != null) {
 					visited.remove(serviceID);
 					return result;
@@ -1376,7 +1429,7 @@ public class ProviderDelegate {
 			throws ExertionException {
 		Class[] argTypes = new Class[] { Mogram.class };
 		try {
-			Method m = provider.getClass().getMethod(selector, argTypes);
+			MethodTable.Invoker m = providerMethods.get(provider.getClass(), selector, argTypes);
 			logger.info("Executing method: " + m + " by: "
 					+ config.getProviderName());
 
@@ -1399,22 +1452,13 @@ public class ProviderDelegate {
 				args = cxt.getArgs();
 				isContextual = false;
 			}
-			Method execMethod = null;
-			for(Method m : provider.getClass().getMethods()) {
-				if(m.getName().equals(selector) && m.getParameterCount()==1) {
-					if(m.getParameterTypes()[0].isAssignableFrom(argTypes[0])) {
-						execMethod = m;
-						break;
-					}
-				}
-			}
-			if(execMethod==null)
-				execMethod = provider.getClass().getMethod(selector, argTypes);
+			MethodTable.Invoker execMethod = contextMethods.get(provider.getClass(), selector, argTypes,
+																CONTEXT_METHOD_RESOLVER);
 			Context result;
             /*boolean monitored = MonitorCheck.monitor(execMethod);
 			int id = 0;
             if(monitored)*/
-            int id = analyticsRecorder.inprocess(selector);
+            long id = analyticsRecorder.inprocess(selector);
 			try {
 				if (isContextual) {
 					result = (ServiceContext) execMethod.invoke(provider, args);
@@ -3320,6 +3364,10 @@ public class ProviderDelegate {
 
 	public static final String SPACE_WORKER_QUEUE_SIZE = "workerQueueSize";
 
+	public static final String SPACE_TAKE_BATCH_SIZE = "workerTakeBatchSize";
+
+	public static final String SPACE_TAKE_ON_NOTIFY = "workerTakeOnNotify";
+
 	public static final String MAX_WORKER_POOL_SIZE = "maxWorkerPoolSize";
 
 	public static final String WORKER_TRANSACTION_LEASE_TIME = "workerTransactionLeaseTime";
@@ -50,6 +50,7 @@ import sorcer.core.analytics.MethodAnalytics;
 import sorcer.core.analytics.SystemAnalytics;
 import sorcer.core.context.ControlContext;
 import sorcer.core.context.ServiceContext;
+import sorcer.core.exertion.DeltaTask;
 import sorcer.core.exertion.NetTask;
 import sorcer.core.proxy.Outer;
 import sorcer.core.proxy.Partner;
@@ -1513,6 +1514,25 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 	@Override
 	public Mogram exert(Mogram mogram, Transaction txn, Arg... args) throws TransactionException,
 			ExertionException, RemoteException {
+		if (!DeltaTask.isDelta(mogram))
+			return exertMogram(mogram, txn, args);
+		// return only the changes to the task received, done on a snapshot of it
+		Task task = (Task) mogram;
+		try {
+			ServiceContext base = (ServiceContext) task.getDataContext();
+			int exceptionCount = task.getExceptions().size();
+			int traceCount = task.getControlContext().getTrace().size();
+			Mogram out = exertMogram(task.snapshot(), txn, args);
+			if (out instanceof Task)
+				return new DeltaTask((Task) out, base, exceptionCount, traceCount);
+			return out;
+		} catch (ContextException e) {
+			throw new ExertionException(e);
+		}
+	}
+
+	private Mogram exertMogram(Mogram mogram, Transaction txn, Arg... args) throws TransactionException,
+			ExertionException, RemoteException {
 		if (mogram instanceof Task) {
 			ServiceContext cxt;
 			try {
@@ -0,0 +1,148 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import net.jini.core.entry.Entry;
+import net.jini.core.event.EventRegistration;
+import net.jini.core.event.RemoteEvent;
+import net.jini.core.event.RemoteEventListener;
+import net.jini.core.lease.Lease;
+import net.jini.export.Exporter;
+import net.jini.jeri.BasicILFactory;
+import net.jini.jeri.BasicJeriExporter;
+import net.jini.jeri.tcp.TcpServerEndpoint;
+import net.jini.lease.LeaseListener;
+import net.jini.lease.LeaseRenewalEvent;
+import net.jini.lease.LeaseRenewalManager;
+import net.jini.space.JavaSpace05;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.Sorcer;
+
+import java.rmi.RemoteException;
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers for {@link JavaSpace05} availability events on a space taker's
+ * envelope template and wakes the taker up when matching entries are
+ * written, so an idle taker does not keep issuing takes. If the registration
+ * fails or its lease cannot be renewed the taker falls back to polling.
+ */
+public class SpaceAvailabilityListener implements RemoteEventListener, LeaseListener {
+    private static final Logger logger = LoggerFactory.getLogger(SpaceAvailabilityListener.class);
+
+    public static final long EVENT_LEASE_TIME = TimeUnit.MINUTES.toMillis(5);
+
+    private final Semaphore signals = new Semaphore(0);
+
+    private final LeaseRenewalManager lrm;
+
+    private Exporter exporter;
+
+    private RemoteEventListener proxy;
+
+    private JavaSpace05 space;
+
+    private volatile EventRegistration registration;
+
+    public SpaceAvailabilityListener(LeaseRenewalManager lrm) {
+        this.lrm = lrm;
+    }
+
+    /**
+     * Makes sure this listener is registered with the space for the template.
+     *
+     * @return true if availability events are delivered, otherwise the caller
+     * has to poll the space
+     */
+    public synchronized boolean register(JavaSpace05 space, Entry template) {
+        if (registration != null && space.equals(this.space))
+            return true;
+        cancelRegistration();
+        try {
+            if (proxy == null) {
+                exporter = new BasicJeriExporter(TcpServerEndpoint.getInstance(Sorcer.getHostAddress(), 0),
+                                                 new BasicILFactory());
+                proxy = (RemoteEventListener) exporter.export(this);
+            }
+            registration = space.registerForAvailabilityEvent(Collections.singleton(template), null, false,
+                                                              proxy, EVENT_LEASE_TIME, null);
+            lrm.renewUntil(registration.getLease(), Lease.FOREVER, EVENT_LEASE_TIME, this);
+            this.space = space;
+            logger.debug("Registered for availability of {}", template);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Unable to register for space availability events, polling the space", e);
+            registration = null;
+            return false;
+        }
+    }
+
+    /**
+     * Waits for an availability event.
+     *
+     * @return true if an event arrived, false if the timeout expired
+     */
+    public boolean await(long timeout) throws InterruptedException {
+        boolean available = signals.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        // one take round drains all entries signaled so far
+        signals.drainPermits();
+        return available;
+    }
+
+    /**
+     * Cancels the registration and unexports this listener.
+     */
+    public synchronized void unregister() {
+        cancelRegistration();
+        if (exporter != null) {
+            exporter.unexport(true);
+            exporter = null;
+            proxy = null;
+        }
+        signals.release();
+    }
+
+    private void cancelRegistration() {
+        if (registration == null)
+            return;
+        try {
+            lrm.remove(registration.getLease());
+            registration.getLease().cancel();
+        } catch (Exception e) {
+            logger.debug("Unable to cancel availability event lease", e);
+        }
+        registration = null;
+        space = null;
+    }
+
+    @Override
+    public void notify(RemoteEvent event) throws RemoteException {
+        signals.release();
+    }
+
+    @Override
+    public void notify(LeaseRenewalEvent event) {
+        logger.warn("Availability event lease expired, polling the space until registered again",
+                    event.getException());
+        registration = null;
+        // wake up the taker to register again
+        signals.release();
+    }
+}
@@ -18,10 +18,12 @@ package sorcer.core.provider;
 
 import net.jini.config.Configuration;
 import net.jini.core.entry.Entry;
+import net.jini.core.entry.UnusableEntryException;
 import net.jini.core.lease.Lease;
 import net.jini.core.lease.UnknownLeaseException;
 import net.jini.core.transaction.Transaction;
 import net.jini.lease.LeaseListener;
+import net.jini.entry.UnusableEntriesException;
 import net.jini.lease.LeaseRenewalManager;
 import net.jini.space.JavaSpace;
 import net.jini.space.JavaSpace05;
@@ -37,9 +39,12 @@ import sorcer.core.monitor.MonitoringSession;
 import sorcer.river.TX;
 import sorcer.service.*;
 import sorcer.service.space.SpaceAccessor;
+import sorcer.util.Backoff;
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -64,6 +69,9 @@ public class SpaceTaker implements Runnable {
 
 	public final static long SPACE_TIMEOUT = TimeUnit.SECONDS.toMillis(8); // 8 seconds
 
+	// first delay of the adaptive back-off when the space or workers are not available
+	protected final static long MIN_BACKOFF = 5;
+
 	protected long spaceTimeout = SPACE_TIMEOUT;
 
 	protected JavaSpace05 space;
@@ -74,6 +82,12 @@ public class SpaceTaker implements Runnable {
 
     private LeaseRenewalManager lrm;
 
+	// wakes up an idle taker when envelopes are written to the space
+	protected SpaceAvailabilityListener availability;
+
+	// true when the last take found no envelope
+	private boolean drained;
+
 	// controls the loop of this space worker
 	protected volatile boolean keepGoing = true;
     protected boolean remoteLogging;
@@ -101,6 +115,10 @@ public class SpaceTaker implements Runnable {
 		public String spaceGroup;
 		public boolean workerTransactional;
 		public boolean noQueue;
+		// max number of envelopes taken by a single space take
+		public int takeBatchSize = 1;
+		// wait for space availability events instead of polling
+		public boolean takeOnNotify;
 
 		public SpaceTakerData() {
 		}
@@ -117,6 +135,21 @@ public class SpaceTaker implements Runnable {
 			this.noQueue = noQueue;
 		}
 
+		public SpaceTakerData(ExertionEnvelop entry, LokiMemberUtil member,
+				Provider provider, String spaceName, String spaceGroup,
+				boolean workerIsTransactional, boolean noQueue, int takeBatchSize) {
+			this(entry, member, provider, spaceName, spaceGroup, workerIsTransactional, noQueue);
+			this.takeBatchSize = takeBatchSize;
+		}
+
+		public SpaceTakerData(ExertionEnvelop entry, LokiMemberUtil member,
+				Provider provider, String spaceName, String spaceGroup,
+				boolean workerIsTransactional, boolean noQueue, int takeBatchSize,
+				boolean takeOnNotify) {
+			this(entry, member, provider, spaceName, spaceGroup, workerIsTransactional, noQueue, takeBatchSize);
+			this.takeOnNotify = takeOnNotify;
+		}
+
 		public String toString() {
 			try {
 				return entry.describe();
@@ -154,6 +187,12 @@ public class SpaceTaker implements Runnable {
 		this.transactionLeaseTimeout = getTransactionLeaseTime();
 		this.spaceTimeout = getTimeOut();
 		this.isTransactional = data.workerTransactional;
+		if (data.takeOnNotify)
+			availability = createAvailabilityListener();
+	}
+
+	protected SpaceAvailabilityListener createAvailabilityListener() {
+		return new SpaceAvailabilityListener(lrm);
 	}
 
 	protected long getTransactionLeaseTime() {
@@ -243,73 +282,65 @@ public class SpaceTaker implements Runnable {
 	}
 	
 	public void run() {
+		if (data.takeBatchSize > 1 && !isTransactional) {
+			runBatched();
+			return;
+		}
 		String threadId = doThreadMonitorTaker(null);
 
 		Transaction.Created txnCreated = null;
+		Backoff backoff = new Backoff(MIN_BACKOFF, Math.max(MIN_BACKOFF, spaceTimeout / 6));
 
 		while (keepGoing) {
 			ExertionEnvelop ee;
-            Object envelopNoCast;
 			try {
-				space = SpaceAccessor.getSpace(data.spaceName);
+				space = getSpace();
 				if (space == null) {
-					Thread.sleep(spaceTimeout / 6);
+					backoff.idle();
 					continue;
 				}
 
-				if (data.noQueue) {
-					if (((ThreadPoolExecutor) pool).getActiveCount() != ((ThreadPoolExecutor) pool).getCorePoolSize()) {
-                        Transaction tx = null;
-						if (isTransactional) {
-							txnCreated = TX.createTransaction(transactionLeaseTimeout);
-							if (txnCreated == null) {
-                                logger.warn("SpaceTaker did not get TRANSACTION thread: {}", threadId);
-								Thread.sleep(spaceTimeout / 6);
-								continue;
-							}
-                            tx = txnCreated.transaction;
-						}
-                        envelopNoCast = space.take(data.entry, tx, spaceTimeout);
-                        ee = (ExertionEnvelop) envelopNoCast;
-					} else {
-                        /* Sleep for whats basically a clock tick to avoid thrashing */
-                        Thread.sleep(50);
+				if (data.noQueue && getFreeWorkers() <= 0) {
+					/* all workers are busy, back off to avoid thrashing */
+					backoff.idle();
+					continue;
+				}
+				long timeout = getTakeTimeout();
+				Transaction tx = null;
+				if (isTransactional) {
+					txnCreated = TX.createTransaction(transactionLeaseTimeout);
+					if (txnCreated == null) {
+						logger.warn("SpaceTaker did not get TRANSACTION thread: {}", threadId);
+						backoff.idle();
 						continue;
 					}
-				} else {
-					if (isTransactional) {
-						txnCreated = TX.createTransaction(transactionLeaseTimeout);
-						if (txnCreated == null) {
-							doLog("\t***warning: space taker did not get TRANSACTION.",
-									threadId, null);
-							Thread.sleep(spaceTimeout / 6);
-							continue;
-						}
-						ee = (ExertionEnvelop) space.take(data.entry,
-								txnCreated.transaction, spaceTimeout);
-					} else {
-						ee = (ExertionEnvelop) space.take(data.entry, null,
-								spaceTimeout);
-					}
+					tx = txnCreated.transaction;
 				}
+				ee = (ExertionEnvelop) space.take(data.entry, tx, timeout);
+				drained = ee == null;
 
 				// after 'take' timeout abort transaction and sleep for a while
-				// before 'taking' the next exertion
+				// before 'taking' the next exertion, unless waiting for events
 				if (ee == null) {
 					if (txnCreated != null) {
 						TX.abortTransaction(txnCreated);
-						try {
-                            Thread.sleep(spaceTimeout / 2);
-                        } catch (InterruptedException ie) {
-                            keepGoing = false;
-                            break;
-                        }
+						if (timeout != JavaSpace.NO_WAIT) {
+							try {
+								Thread.sleep(spaceTimeout / 2);
+							} catch (InterruptedException ie) {
+								keepGoing = false;
+								break;
+							}
+						}
 					}
 
 					txnCreated = null;
 					continue;
 				}
-                pool.execute(new SpaceWorker(ee, txnCreated, data.provider, remoteLogging));
+				backoff.reset();
+                pool.execute(createWorker(ee, txnCreated));
+			} catch (InterruptedException ie) {
+				keepGoing = false;
 			} catch (Exception ex) {
                 logger.warn("Problem with SpaceTaker", ex);
 			}
@@ -319,6 +350,94 @@ public class SpaceTaker implements Runnable {
 		doThreadMonitorTaker(threadId);
 	}
 
+	/**
+	 * Takes envelopes in batches with a single {@link JavaSpace05#take(Collection,
+	 * Transaction, long, long)} call, taking up to as many envelopes as there
+	 * are free workers (at most {@link SpaceTakerData#takeBatchSize}). Used for
+	 * non-transactional workers only, as each worker commits its own transaction.
+	 */
+	protected void runBatched() {
+		String threadId = doThreadMonitorTaker(null);
+		logger.info("Space taker for {} takes batches of up to {} envelopes", data, data.takeBatchSize);
+		Collection<ExertionEnvelop> templates = Collections.singletonList(data.entry);
+		Backoff backoff = new Backoff(MIN_BACKOFF, Math.max(MIN_BACKOFF, spaceTimeout / 6));
+
+		while (keepGoing) {
+			try {
+				space = getSpace();
+				if (space == null) {
+					backoff.idle();
+					continue;
+				}
+				int free = Math.min(data.takeBatchSize, getFreeWorkers());
+				if (free <= 0) {
+					backoff.idle();
+					continue;
+				}
+				long timeout = getTakeTimeout();
+				Collection entries;
+				try {
+					// blocks until at least one envelope is available or the timeout expires
+					entries = space.take(templates, null, timeout, free);
+				} catch (UnusableEntriesException e) {
+					for (UnusableEntryException ue : (Collection<UnusableEntryException>) e.getUnusableEntryExceptions())
+						logger.warn("Unusable exertion envelop taken from space", ue);
+					entries = e.getEntries();
+				}
+				drained = entries.isEmpty();
+				if (drained)
+					continue;
+				backoff.reset();
+				for (Object entry : entries)
+					pool.execute(createWorker((ExertionEnvelop) entry, null));
+			} catch (InterruptedException ie) {
+				keepGoing = false;
+			} catch (Exception ex) {
+				logger.warn("Problem with SpaceTaker", ex);
+			}
+		}
+
+		doThreadMonitorTaker(threadId);
+	}
+
+	/**
+	 * Returns the timeout of the next take. A taker registered for availability
+	 * events waits for an event when the last take found nothing, and then takes
+	 * without blocking in the space. The wait is bounded by the space timeout, so
+	 * a lost event only delays the take. Without a registration the take blocks
+	 * in the space for the space timeout.
+	 */
+	protected long getTakeTimeout() throws InterruptedException {
+		if (availability == null || !availability.register(space, data.entry))
+			return spaceTimeout;
+		if (drained)
+			availability.await(spaceTimeout);
+		return JavaSpace.NO_WAIT;
+	}
+
+	/**
+	 * Returns the number of envelopes the worker pool can accept without
+	 * blocking or rejecting them.
+	 */
+	protected int getFreeWorkers() {
+		if (!(pool instanceof ThreadPoolExecutor))
+			return data.takeBatchSize;
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) pool;
+		if (data.noQueue)
+			return executor.getCorePoolSize() - executor.getActiveCount();
+		int idle = Math.max(0, executor.getMaximumPoolSize() - executor.getActiveCount());
+		return idle + executor.getQueue().remainingCapacity();
+	}
+
+	protected JavaSpace05 getSpace() {
+		return SpaceAccessor.getSpace(data.spaceName);
+	}
+
+	protected Runnable createWorker(ExertionEnvelop ee, Transaction.Created txnCreated)
+			throws UnknownLeaseException {
+		return new SpaceWorker(ee, txnCreated, data.provider, remoteLogging);
+	}
+
 	synchronized public Transaction.Created createTransaction() {
 		return TX.createTransaction(transactionLeaseTimeout);
 	}
@@ -356,6 +475,8 @@ public class SpaceTaker implements Runnable {
 
     public void destroy() {
         keepGoing = false;
+        if (availability != null)
+            availability.unregister();
     }
 
 
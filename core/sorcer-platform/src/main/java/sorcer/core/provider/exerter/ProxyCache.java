@@ -0,0 +1,248 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider.exerter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import net.jini.core.lookup.ServiceItem;
+import net.jini.lookup.ServiceDiscoveryEvent;
+import net.jini.lookup.ServiceDiscoveryListener;
+import net.jini.lookup.ServiceItemFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.provider.ServiceName;
+import sorcer.service.*;
+import sorcer.util.ProviderLocator;
+import sorcer.util.ServiceAccessor;
+import sorcer.util.Sorcer;
+
+import java.net.UnknownHostException;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The provider proxies used by {@link ServiceShell} for signatures without a
+ * bound provider. Cached proxies are not pinged before use; they are dropped
+ * when the lookup cache reports their provider removed or changed, when they
+ * expire, or when a call through them fails. A proxy that failed to connect
+ * is avoided for a while, so the proxy loaded in its place is an alternate
+ * provider if one is registered. The size and time to live of the cache are
+ * set by the {@link sorcer.core.SorcerConstants#PROXY_CACHE_SIZE} and
+ * {@link sorcer.core.SorcerConstants#PROXY_CACHE_TTL} properties.
+ */
+public class ProxyCache implements ServiceDiscoveryListener {
+	private final static Logger logger = LoggerFactory.getLogger(ProxyCache.class);
+
+	// time a proxy that failed to connect is avoided
+	static final long SUSPECT_TIME = 60 * 1000;
+
+	private static ProxyCache instance;
+
+	private final LoadingCache<Signature, Object> proxies;
+
+	// the proxies that failed to connect, expired after the suspect time
+	private final Cache<Object, Long> suspects;
+
+	private final AtomicLong failures = new AtomicLong();
+
+	private final AtomicLong retries = new AtomicLong();
+
+	private volatile boolean isListening;
+
+	ProxyCache(long size, long ttl, TimeUnit unit) {
+		proxies = CacheBuilder.newBuilder()
+				.maximumSize(size)
+				.expireAfterWrite(ttl, unit)
+				.recordStats()
+				.build(new CacheLoader<Signature, Object>() {
+					public Object load(Signature signature) throws SignatureException {
+						return lookup(signature);
+					}
+				});
+		suspects = CacheBuilder.newBuilder()
+				.maximumSize(size)
+				.expireAfterWrite(SUSPECT_TIME, TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	public static synchronized ProxyCache getProxyCache() {
+		if (instance == null)
+			instance = new ProxyCache(Sorcer.getProxyCacheSize(), Sorcer.getProxyCacheTtl(), TimeUnit.MINUTES);
+		return instance;
+	}
+
+	// package-private so that tests can look up proxies of their own
+	Object lookup(Signature signature) throws SignatureException {
+		listen();
+		Object proxy;
+		if (signature.getProviderName() instanceof ServiceName) {
+			try {
+				proxy = ProviderLocator.getProvider(signature);
+			} catch (SignatureException e) {
+				logger.warn("No available proxy for {}", signature, e);
+				return Context.none;
+			}
+			if (proxy == null) {
+				logger.warn("No available proxy for {}", signature);
+				return Context.none;
+			}
+			return proxy;
+		}
+		proxy = Accessor.get().getService(signature);
+		if (proxy != null && isSuspect(proxy) && Accessor.get() instanceof ServiceAccessor) {
+			ServiceItem item = ((ServiceAccessor) Accessor.get()).getServiceItem(signature,
+					new ServiceItemFilter() {
+						public boolean check(ServiceItem item) {
+							return !isSuspect(item.service);
+						}
+					});
+			if (item != null)
+				proxy = item.service;
+		}
+		if (proxy == null)
+			throw new SignatureException("No available proxy for: " + signature);
+		return proxy;
+	}
+
+	// invalidates proxies on lookup cache events if the accessor has a lookup cache
+	private void listen() {
+		if (!isListening && Accessor.get() instanceof ServiceAccessor) {
+			synchronized (this) {
+				if (!isListening)
+					isListening = ((ServiceAccessor) Accessor.get()).addLookupListener(this);
+			}
+		}
+	}
+
+	/**
+	 * Returns the proxy for the signature, or null if none is available.
+	 */
+	public Object get(Signature signature) {
+		try {
+			Object proxy = proxies.get(signature);
+			return proxy == Context.none ? null : proxy;
+		} catch (Exception e) {
+			logger.debug("No available proxy for {}", signature, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Drops the proxy that failed for the signature and returns an alternate
+	 * proxy to retry the call with, or null if the call is not to be retried.
+	 */
+	public Object failed(Signature signature, Object proxy, RemoteException failure) {
+		failures.incrementAndGet();
+		invalidate(proxy);
+		if (!isUnreachable(failure))
+			return null;
+		suspects.put(proxy, System.currentTimeMillis());
+		Object alternate = get(signature);
+		if (alternate == null || alternate.equals(proxy))
+			return null;
+		retries.incrementAndGet();
+		logger.info("Retrying {} with an alternate proxy after: {}", signature, failure.toString());
+		return alternate;
+	}
+
+	/**
+	 * Returns true if the call failed before reaching the provider, so that
+	 * it can be retried with another provider.
+	 */
+	static boolean isUnreachable(RemoteException failure) {
+		if (failure instanceof ConnectException || failure instanceof ConnectIOException
+				|| failure instanceof NoSuchObjectException || failure instanceof java.rmi.UnknownHostException)
+			return true;
+		Throwable cause = failure.getCause();
+		return cause instanceof java.net.ConnectException || cause instanceof UnknownHostException
+				|| cause instanceof java.net.NoRouteToHostException;
+	}
+
+	boolean isSuspect(Object proxy) {
+		return suspects.getIfPresent(proxy) != null;
+	}
+
+	/**
+	 * Drops the signatures cached with the proxy.
+	 */
+	public void invalidate(Object proxy) {
+		if (proxy == null)
+			return;
+		for (Map.Entry<Signature, Object> e : proxies.asMap().entrySet()) {
+			if (proxy.equals(e.getValue()))
+				proxies.invalidate(e.getKey());
+		}
+	}
+
+	public void invalidateAll() {
+		proxies.invalidateAll();
+	}
+
+	@Override
+	public void serviceAdded(ServiceDiscoveryEvent event) {
+		// signatures with no available proxy are looked up again
+		invalidate(Context.none);
+	}
+
+	@Override
+	public void serviceRemoved(ServiceDiscoveryEvent event) {
+		if (event.getPreEventServiceItem() != null) {
+			invalidate(event.getPreEventServiceItem().service);
+			suspects.invalidate(event.getPreEventServiceItem().service);
+		}
+	}
+
+	@Override
+	public void serviceChanged(ServiceDiscoveryEvent event) {
+		if (event.getPreEventServiceItem() != null)
+			invalidate(event.getPreEventServiceItem().service);
+		invalidate(Context.none);
+	}
+
+	/**
+	 * Returns the hit, miss, load and eviction counts of the cache.
+	 */
+	public CacheStats getStats() {
+		return proxies.stats();
+	}
+
+	public long getFailures() {
+		return failures.get();
+	}
+
+	public long getRetries() {
+		return retries.get();
+	}
+
+	public long size() {
+		return proxies.size();
+	}
+
+	@Override
+	public String toString() {
+		return "ProxyCache [size: " + size() + ", " + getStats() + ", failures: " + getFailures()
+				+ ", retries: " + getRetries() + "]";
+	}
+}
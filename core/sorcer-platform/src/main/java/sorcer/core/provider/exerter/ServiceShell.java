@@ -17,9 +17,6 @@
 
 package sorcer.core.provider.exerter;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import net.jini.core.lookup.ServiceID;
 import net.jini.core.transaction.Transaction;
 import net.jini.core.transaction.TransactionException;
@@ -40,6 +37,7 @@ import sorcer.core.deploy.ServiceDeployment;
 import sorcer.core.dispatch.DispatcherException;
 import sorcer.core.dispatch.ExertionSorter;
 import sorcer.core.dispatch.ProvisionManager;
+import sorcer.core.exertion.DeltaTask;
 import sorcer.core.exertion.ObjectTask;
 import sorcer.core.plexus.MorphFidelity;
 import sorcer.core.plexus.MultiFiMogram;
@@ -56,7 +54,6 @@ import sorcer.service.Signature.ReturnPath;
 import sorcer.service.Strategy.Access;
 import sorcer.service.modeling.Model;
 import sorcer.service.txmgr.TransactionManagerAccessor;
-import sorcer.util.ProviderLocator;
 import sorcer.util.Sorcer;
 
 import java.io.File;
@@ -66,7 +63,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 
 import static sorcer.eo.operator.*;
 
@@ -82,10 +78,10 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 	private static MutualExclusion locker;
 	// a reference to a provider running this mogram
 	private Exerter provider;
-	private static LoadingCache<Signature, Object> proxies;
+	// the signature of a provider proxy from the proxy cache
+	private Signature proxySignature;
 
 	public ServiceShell() {
-		setupProxyCache();
 	}
 
 	public ServiceShell(Mogram mogram) {
@@ -103,28 +99,6 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 		this.provider = provider;
 	}
 
-	private static void setupProxyCache() {
-		if (proxies == null) {
-			proxies = CacheBuilder.newBuilder()
-					.maximumSize(20)
-					.expireAfterWrite(30, TimeUnit.MINUTES)
-					.build(new CacheLoader<Signature, Object>() {
-						public Object load(Signature signature) throws SignatureException {
-							if (signature.getProviderName() instanceof ServiceName) {
-								try {
-									return ProviderLocator.getProvider(signature);
-								} catch (SignatureException e) {
-									e.printStackTrace();
-								}
-								logger.warn("No available proxy for {}", signature);
-								return Context.none;
-							} else
-								return Accessor.get().getService(signature);
-						}
-					});
-		}
-	}
-
 	public Mogram exert(Mogram xrt, Arg... entries)
 			throws TransactionException, MogramException, RemoteException {
 		try {
@@ -420,16 +394,11 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 				signature = new NetSignature("exert", Spacer.class, srvName);
 			}
 			provider = ((NetSignature) signature).getProvider();
+			proxySignature = null;
 			if (provider == null) {
-                // check proxy cache and ping with a provider name
-				try {
-					provider = proxies.get(signature);
-					// check if cached proxy is still alive
-					((Provider)provider).getProviderName();
-				} catch(Exception e) {
-					proxies.refresh(signature);
-					provider = proxies.get(signature);
-				}
+				// cached proxies are checked by their calls, see callProvider
+				provider = ProxyCache.getProxyCache().get(signature);
+				proxySignature = signature;
 				if (provider == null) {
 					String message =
 							String.format("Provider name: [%s], fiType: %s not found, make sure it is running and there is " +
@@ -506,7 +475,19 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 //				e.printStackTrace();
 //			}
 
-			Exertion result = provider.exert(exertion, transaction, entries);
+			Exertion result;
+			try {
+				result = DeltaTask.merge(exertion, provider.exert(exertion, transaction, entries));
+			} catch (RemoteException e) {
+				if (proxySignature == null)
+					throw e;
+				// retry once with an alternate proxy if the provider was not reached,
+				// the signature keeps its provider resolved again through the cache
+				Object alternate = ProxyCache.getProxyCache().failed(proxySignature, provider, e);
+				if (!(alternate instanceof Provider))
+					throw e;
+				result = DeltaTask.merge(exertion, ((Provider) alternate).exert(exertion, transaction, entries));
+			}
 			if (result != null && result.getExceptions().size() > 0) {
 				for (ThrowableTrace et : result.getExceptions()) {
 					Throwable t = et.getThrowable();
@@ -541,7 +522,7 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 				exertion.getId());
 		if (lr.didSucceed()) {
 			((ControlContext)exertion.getControlContext()).setMutexId(provider.getProviderID());
-			Exertion xrt = provider.exert(exertion, transaction);
+			Exertion xrt = DeltaTask.merge(exertion, provider.exert(exertion, transaction));
 			txn.commit();
 			return xrt;
 		} else {
@@ -838,7 +819,7 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 			} catch (SignatureException e) {
 				throw new MogramException(e);
 			}
-			return (T) prv.exert(mogram, txn);
+			return (T) DeltaTask.merge(mogram, prv.exert(mogram, txn));
 		} else if (service instanceof Jobber) {
 			Task out = (Task) ((Jobber)service).exert(mogram, txn);
 			return (T) out.getContext();
@@ -871,7 +852,7 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 		} catch (SignatureException e) {
 			throw new MogramException(e);
 		}
-		return (T) ((Exerter)service).exert(mogram, txn);
+		return (T) DeltaTask.merge(mogram, ((Exerter)service).exert(mogram, txn));
 	}
 
 	public Object exec(Service service, Arg... args)
@@ -33,7 +33,6 @@ import sorcer.core.provider.Provider;
 import sorcer.core.provider.exertmonitor.lease.MonitorLandlord;
 import sorcer.core.provider.exertmonitor.lease.MonitorLeasedResource;
 import sorcer.service.*;
-import sorcer.util.ObjectCloner;
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
@@ -51,8 +50,17 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
                                                                          MonitorManagementSession {
 	static final long serialVersionUID = -4427096084987355507L;
 
+	public transient static MonitorLandlord mLandlord;
+	public transient static MonitoringManagement sessionManager;
+	public transient static ExecutorService eventPool;
+	public transient static SessionStore sessionStore;
+	static transient final Logger logger = LoggerFactory.getLogger(MonitorSession.class);
+	static transient final int EVENT_TASK_POOL_MIN = 1;
+	static transient final int EVENT_TASK_POOL_MAX = 5;
+	static transient final long INITIAL_TIMEOUT = Long.MAX_VALUE;
+
 	// ThreadPool for event processing
-	{
+	static {
 		try {
 			eventPool = Executors.newFixedThreadPool(EVENT_TASK_POOL_MAX);
 		} catch (Exception e) {
@@ -60,13 +68,6 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 		}
 	}
 
-	public transient static MonitorLandlord mLandlord;
-	public transient static MonitoringManagement sessionManager;
-	public transient static ExecutorService eventPool;
-	static transient final Logger logger = LoggerFactory.getLogger(MonitorSession.class);
-	static transient final int EVENT_TASK_POOL_MIN = 1;
-	static transient final int EVENT_TASK_POOL_MAX = 5;
-	static transient final long INITIAL_TIMEOUT = Long.MAX_VALUE;
 	private Uuid cookie;
 	private ServiceExertion initialExertion;
 	private ServiceExertion runtimeExertion;
@@ -75,7 +76,11 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 	private RemoteEventListener listener;
 	private long expiration;
 	private long timeout;
+	// the time in milliseconds the session was last persisted by a session store
+	private long lastUpdate;
     private final AtomicInteger sequenceNumber = new AtomicInteger(1);
+	// the context set since the session was last persisted
+	private transient Context<?> changedContext;
 
 	// The state which is sorcer.core.monitor.ExertionState
 	// final int INITIAL = 1;
@@ -97,7 +102,7 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 			throw new NullPointerException("Assertion Failed: initialExertion cannot be NULL");
 
 		this.initialExertion = (ServiceExertion) ex;
-		runtimeExertion = (ServiceExertion) ObjectCloner.cloneAnnotated(ex);
+		runtimeExertion = ((ServiceExertion) ex).snapshot();
 		this.listener = listener;
 		init();
 		runtimeExertion.setStatus(Exec.INITIAL);
@@ -175,8 +180,8 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 		MonitorSession resource;
 		for (int i = 0; i < size(); i++) {
 			resource = get(i);
-			map.put(cookie, resource);
-			collectSessions(map);
+			map.put(resource.cookie, resource);
+			resource.collectSessions(map);
 		}
 		return map;
 	}
@@ -247,6 +252,7 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 				runtimeExertion.setStatus(aspect);
             runtimeExertion.setContext(ctx);
             runtimeExertion.setControlContext((ControlContext)controlContext);
+            changedContext = ctx;
 		}
 		persist();
 	}
@@ -269,6 +275,7 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
         if (runtimeExertion instanceof ServiceExertion) {
             runtimeExertion.setContext(ctx);
             runtimeExertion.setControlContext((ControlContext)controlContext);
+            changedContext = ctx;
         }
 
 		fireRemoteEvent();
@@ -291,6 +298,7 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 		runtimeExertion.setStatus(Exec.FAILED);
 		runtimeExertion.setContext(ctx);
         runtimeExertion.setControlContext((ControlContext)controlContext);
+        changedContext = ctx;
 
 		fireRemoteEvent();
 		notifyParent();
@@ -323,15 +331,27 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 		}
 	}
 
-	// Persist only the root session
+	public MonitorSession getParentSession() {
+		return parentResource;
+	}
+
+	public MonitorSession getRootSession() {
+		MonitorSession tempSession = this;
+		while (tempSession.parentResource != null)
+			tempSession = tempSession.parentResource;
+		return tempSession;
+	}
+
+	// Persist only this session node if there is a session store, otherwise the root session
 	private void persist() {
-	    MonitorSession tempSession = this;
-        do {
-            if (tempSession.parentResource!=null)
-                tempSession = tempSession.parentResource;
-        } while (tempSession.parentResource!=null);
-        logger.info("Persisting resource for exertion: " + tempSession.runtimeExertion.getName());
 		try {
+			if (sessionStore != null) {
+				logger.debug("Persisting resource for exertion: " + runtimeExertion.getName());
+				sessionStore.persist(this);
+				return;
+			}
+			MonitorSession tempSession = getRootSession();
+			logger.info("Persisting resource for exertion: " + tempSession.runtimeExertion.getName());
             sessionManager.persist(tempSession);
 		} catch (Exception e) {
 			logger.error("Problem persisting monitorSession: " + e.getMessage());
@@ -514,6 +534,43 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 		}
 	}
 
+	/**
+	 * Returns the context set since the session was last persisted, or null
+	 * if not changed, and clears it.
+	 */
+	public Context<?> takeChangedContext() {
+		Context<?> ctx = changedContext;
+		changedContext = null;
+		return ctx;
+	}
+
+	/**
+	 * Restores the state of this session persisted by a {@link SessionStore}.
+	 */
+	public void restore(int state, Context<?> ctx, ControlContext controlContext, long expiration, long timeout,
+						long lastUpdate) {
+		runtimeExertion.setStatus(state);
+		if (ctx != null)
+			runtimeExertion.setContext(ctx);
+		if (controlContext != null)
+			runtimeExertion.setControlContext(controlContext);
+		this.expiration = expiration;
+		this.timeout = timeout;
+		this.lastUpdate = lastUpdate;
+	}
+
+	/**
+	 * Returns the time in milliseconds this session was last persisted by a
+	 * {@link SessionStore}, or 0 if never.
+	 */
+	public long getLastUpdate() {
+		return lastUpdate;
+	}
+
+	public void setLastUpdate(long lastUpdate) {
+		this.lastUpdate = lastUpdate;
+	}
+
 	public void setCookie(Uuid cookie) {
 		this.cookie = cookie;
 	}
@@ -0,0 +1,36 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.provider.exertmonitor;
+
+import java.io.IOException;
+
+/**
+ * The local persistence of {@link MonitorSession}s used by the monitor
+ * instead of persisting the whole session tree through its
+ * {@link sorcer.core.monitor.MonitoringManagement} proxy.
+ */
+public interface SessionStore {
+
+	/**
+	 * Persists a new session tree.
+	 */
+	void register(MonitorSession session) throws IOException;
+
+	/**
+	 * Persists the changed state of a session node of a registered tree.
+	 */
+	void persist(MonitorSession session) throws IOException;
+}
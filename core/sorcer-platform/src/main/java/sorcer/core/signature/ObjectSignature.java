@@ -26,6 +26,7 @@ import sorcer.core.invoker.MethodInvoker;
 import sorcer.core.provider.exerter.ServiceShell;
 import sorcer.service.*;
 import sorcer.service.modeling.Modeling;
+import sorcer.util.MethodTable;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
@@ -54,6 +55,11 @@ public class ObjectSignature extends ServiceSignature {
 
 	private static Logger logger = LoggerFactory.getLogger(ObjectSignature.class);
 
+	// methods resolved for initInstance
+	private static final MethodTable publicMethods = new MethodTable();
+
+	private static final MethodTable declaredMethods = new MethodTable();
+
 	public ObjectSignature() {
 		this.serviceType.providerType = Object.class;
 	}
@@ -263,13 +269,14 @@ public class ObjectSignature extends ServiceSignature {
 	 */
 	public Object initInstance() throws SignatureException {
 		Object obj = null;
-		Method m = null;
+		MethodTable.Invoker m = null;
 
 		try {
 			if(operation.selector!=null) {
 				try {
-					Method selectorMethod = serviceType.providerType.getDeclaredMethod(operation.selector, argTypes);
-					if(Modifier.isStatic(selectorMethod.getModifiers())) {
+					MethodTable.Invoker selectorMethod = declaredMethods.get(serviceType.providerType,
+							operation.selector, argTypes, MethodTable.DECLARED);
+					if(Modifier.isStatic(selectorMethod.getMethod().getModifiers())) {
 						return  selectorMethod.invoke(null, args);
 					}
 				} catch (NoSuchMethodException e) {
@@ -283,14 +290,14 @@ public class ObjectSignature extends ServiceSignature {
 
 			if (argTypes != null) {
 				if (initSelector != null)
-					m = serviceType.providerType.getMethod(initSelector, argTypes);
+					m = publicMethods.get(serviceType.providerType, initSelector, argTypes);
 				else if (operation.selector != null)
-					m = serviceType.providerType.getMethod(operation.selector, argTypes);
+					m = publicMethods.get(serviceType.providerType, operation.selector, argTypes);
 			} else  {
 				if (initSelector != null)
-					m = serviceType.providerType.getMethod(initSelector);
+					m = publicMethods.get(serviceType.providerType, initSelector, null);
 				else
-					m = serviceType.providerType.getMethod(operation.selector);
+					m = publicMethods.get(serviceType.providerType, operation.selector, null);
 			}
 			if (args != null) {
 				obj = m.invoke(obj, args);
@@ -303,8 +310,8 @@ public class ObjectSignature extends ServiceSignature {
 			logger.error("initInstance failed", e);
 			try {
 				// check if that is SORCER service bean signature
-				m = serviceType.providerType.getMethod(operation.selector, Context.class);
-				if (m.getReturnType() == Context.class)
+				Method sm = serviceType.providerType.getMethod(operation.selector, Context.class);
+				if (sm.getReturnType() == Context.class)
 					return obj;
 				else
 					throw new SignatureException(e);
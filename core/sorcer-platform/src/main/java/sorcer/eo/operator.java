@@ -2927,6 +2927,10 @@ public class operator extends sorcer.operator {
 					cc.setShellRemote(false);
 			} else if (o instanceof Wait) {
 				cc.isWait((Wait) o);
+			} else if (o instanceof FailFast) {
+				cc.isFailFast((FailFast) o);
+			} else if (o instanceof Delta) {
+				cc.isDelta((Delta) o);
 			} else if (o instanceof Signature) {
 				sl.add((Signature) o);
 			} else if (o instanceof Opti) {
@@ -3496,7 +3500,7 @@ public class operator extends sorcer.operator {
 				block.setContext(context);
 				((ServiceContext)context).setScope(context);
 				// context for resetting to initial state after cleaning scopes
-				((ServiceContext)context).setInitContext((Context)ObjectCloner.clone(context));
+				((ServiceContext)context).setInitContext(((ServiceContext)context).snapshot());
 			}
 
 			for (Mogram m :mograms) {
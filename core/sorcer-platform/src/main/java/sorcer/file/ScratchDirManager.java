@@ -20,6 +20,7 @@ import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.data.DataService;
+import sorcer.file.remote.FileCache;
 import sorcer.util.Sorcer;
 
 import java.io.File;
@@ -30,7 +31,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.ZonedDateTime;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import static java.time.temporal.ChronoUnit.MILLIS;
@@ -42,6 +45,16 @@ import static sorcer.core.SorcerConstants.*;
 public class ScratchDirManager {
     final private static Logger log = LoggerFactory.getLogger(ScratchDirManager.class);
 
+    /**
+     * Cleans up a directory retained in the root of scratch dirs.
+     */
+    public interface Cleaner {
+        void cleanup(long cutOffTime);
+    }
+
+    // directories in the root cleaned up by their own cleaners in this JVM
+    final private static Map<Path, Cleaner> retained = new ConcurrentHashMap<>();
+
     final private static long CLEANUP_INTERVAL = TimeUnit.DAYS.toMillis(1);
     final private static String DEFAULT_ROOT = Paths.get(System.getProperty("java.io.tmpdir"), "scratch").toString();
 
@@ -69,6 +82,20 @@ public class ScratchDirManager {
         this(Paths.get(DataService.getDataDir()), getScratchTTL());
     }
 
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Retains the directory in the root from the cleanup of scratch dirs,
+     * the cleaner of the directory is called by each cleanup instead. The
+     * {@link FileCache#CACHE_DIR} is retained by any manager, whether its
+     * cache is used in this JVM or not.
+     */
+    public static void retain(Path dir, Cleaner cleaner) {
+        retained.put(dir.toAbsolutePath().normalize(), cleaner);
+    }
+
     public File getNewScratchDir() throws IOException {
         return getNewScratchDir(null);
     }
@@ -108,6 +135,15 @@ public class ScratchDirManager {
 
         try (DirectoryStream<Path> directoryStream = java.nio.file.Files.newDirectoryStream(root)) {
             for (Path file : directoryStream) {
+                Cleaner cleaner = retained.get(file.toAbsolutePath().normalize());
+                if (cleaner != null) {
+                    cleaner.cleanup(cutOffTime);
+                    continue;
+                }
+                // used by another JVM on the node
+                if (file.getFileName().toString().equals(FileCache.CACHE_DIR))
+                    continue;
+
                 boolean remove = Files.isDirectory(file) && isCutoffTime(file, cutOffTime);
 
                 if (!remove)
@@ -48,12 +48,19 @@ abstract public class AbstractRemoteFile implements RemoteFile {
     public File getValue() throws EvaluationException {
         try {
             File result = doGetFile();
-            String myChecksum = checksum(result);
-            if (!checksum.equals(myChecksum))
-                throw new IllegalStateException("File exists but has invalid checksum");
+            verify(result);
             return result;
         } catch (IOException e) {
             throw new EvaluationException("Error getting file", e);
         }
     }
+
+    /**
+     * Verifies the checksum of the file returned by {@link #doGetFile()}.
+     */
+    protected void verify(File file) throws IOException {
+        String myChecksum = checksum(file);
+        if (!checksum.equals(myChecksum))
+            throw new IllegalStateException("File exists but has invalid checksum");
+    }
 }
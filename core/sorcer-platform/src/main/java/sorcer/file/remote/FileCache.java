@@ -0,0 +1,388 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.file.remote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.file.ScratchDirManager;
+import sorcer.util.Sorcer;
+import sorcer.util.exec.ProcessExecutor;
+import sorcer.util.exec.ProcessOutput;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The remote files of a node, stored in a directory by their checksums. A
+ * file is downloaded and its checksum verified once, concurrent requests for
+ * a file missing in the cache share its download. The cached files are
+ * materialized into scratch dirs as hard links, or reflinks or copies where
+ * the file system does not link them, so that the same file used by many
+ * tasks is neither downloaded nor stored again.
+ * <p>
+ * The least recently used files are evicted once the cache exceeds its size,
+ * set in megabytes by the {@link sorcer.core.SorcerConstants#FILE_CACHE_SIZE}
+ * property. The cache directory is in the root of the scratch dirs, on their
+ * file system, and retained by the {@link ScratchDirManager}, whose cleanup
+ * evicts the files not used within the time to live of scratch dirs instead
+ * of removing the directory. A directory removed anyway is created again by
+ * the next load. Cached files are read only, a file modified
+ * through a link is not used again.
+ */
+public class FileCache {
+    final private static Logger log = LoggerFactory.getLogger(FileCache.class);
+
+    final public static String CACHE_DIR = "file-cache";
+
+    final private static String TEMP_PREFIX = "loading-";
+
+    /**
+     * Loads a file missing in the cache.
+     */
+    public interface Loader {
+        /**
+         * Writes the content of the file to the target.
+         */
+        void load(File target) throws IOException;
+    }
+
+    private static FileCache instance;
+
+    private final Path dir;
+
+    private final long maxSize;
+
+    // access ordered, the least recently used file first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    private final ConcurrentMap<String, CompletableFuture<File>> loading = new ConcurrentHashMap<>();
+
+    // cleared once a reflink fails, the file system does not support them
+    private volatile boolean reflinks = System.getProperty("os.name").startsWith("Linux");
+
+    /**
+     * @param dir the directory of the cached files
+     * @param maxSize the size in bytes of the cached files
+     */
+    public FileCache(Path dir, long maxSize) throws IOException {
+        this.dir = dir;
+        this.maxSize = maxSize;
+        Files.createDirectories(dir);
+        index();
+        ScratchDirManager.retain(dir, new ScratchDirManager.Cleaner() {
+            @Override
+            public void cleanup(long cutOffTime) {
+                evictUnused(cutOffTime);
+            }
+        });
+    }
+
+    public static synchronized FileCache getFileCache() throws IOException {
+        if (instance == null)
+            instance = new FileCache(ScratchDirManager.SCRATCH_DIR_FACTORY.getRoot().resolve(CACHE_DIR),
+                    Sorcer.getFileCacheSize() * 1024 * 1024);
+        return instance;
+    }
+
+    /**
+     * Returns the cached file with the checksum, loading it with the loader
+     * if missing. A thread requesting a file being loaded by another one
+     * waits for that load.
+     *
+     * @throws IOException if the file could not be loaded or its content does
+     *             not match the checksum
+     */
+    public File get(String checksum, Loader loader) throws IOException {
+        File file = lookup(checksum);
+        if (file != null)
+            return file;
+
+        CompletableFuture<File> load = new CompletableFuture<>();
+        CompletableFuture<File> running = loading.putIfAbsent(checksum, load);
+        if (running != null)
+            return await(running);
+        try {
+            // loaded by another thread since the lookup
+            file = lookup(checksum);
+            if (file == null)
+                file = load(checksum, loader);
+            load.complete(file);
+            return file;
+        } catch (IOException | RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(checksum, load);
+        }
+    }
+
+    /**
+     * Materializes the file with the checksum as the target, loading it into
+     * the cache if missing.
+     *
+     * @return the target
+     */
+    public File materialize(String checksum, Loader loader, File target) throws IOException {
+        File file = get(checksum, loader);
+        try {
+            link(file.toPath(), target.toPath());
+        } catch (NoSuchFileException e) {
+            if (Files.exists(file.toPath()))
+                throw e;
+            // evicted since returned, loaded again
+            link(get(checksum, loader).toPath(), target.toPath());
+        }
+        return target;
+    }
+
+    /**
+     * Returns the number of cached files.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the size in bytes of the cached files.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    private synchronized File lookup(String checksum) {
+        Entry entry = entries.get(checksum);
+        if (entry == null)
+            return null;
+        if (entry.file.length() != entry.length || entry.file.lastModified() != entry.modified) {
+            log.warn("Cached file {} was modified or removed, loading it again", entry.file);
+            remove(checksum);
+            return null;
+        }
+        entry.accessed = System.currentTimeMillis();
+        return entry.file;
+    }
+
+    private File load(String checksum, Loader loader) throws IOException {
+        Path temp;
+        try {
+            temp = Files.createTempFile(dir, TEMP_PREFIX, null);
+        } catch (NoSuchFileException e) {
+            log.warn("Cache directory {} was removed, creating it again", dir);
+            Files.createDirectories(dir);
+            removeMissing();
+            temp = Files.createTempFile(dir, TEMP_PREFIX, null);
+        }
+        try {
+            loader.load(temp.toFile());
+            String loaded = AbstractRemoteFile.checksum(temp.toFile());
+            if (!checksum.equals(loaded))
+                throw new IOException("Loaded file has invalid checksum " + loaded + ", expected " + checksum);
+            // shared by the links to it
+            temp.toFile().setReadOnly();
+            Path file = dir.resolve(checksum);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Cached {}", file);
+            return add(checksum, file.toFile(), System.currentTimeMillis());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private File await(CompletableFuture<File> load) throws IOException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a file being loaded");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private synchronized File add(String checksum, File file, long accessed) {
+        Entry entry = new Entry(file, accessed);
+        Entry old = entries.put(checksum, entry);
+        if (old != null)
+            size -= old.length;
+        size += entry.length;
+        evict();
+        return file;
+    }
+
+    private synchronized void remove(String checksum) {
+        Entry entry = entries.remove(checksum);
+        if (entry != null) {
+            size -= entry.length;
+            delete(entry.file);
+        }
+    }
+
+    // drops the entries of the files removed with the cache directory
+    private synchronized void removeMissing() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.file.exists()) {
+                iterator.remove();
+                size -= entry.length;
+            }
+        }
+    }
+
+    // evicts the least recently used files but the last one added
+    private synchronized void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && entries.size() > 1) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            size -= entry.length;
+            log.debug("Evicting {}", entry.file);
+            delete(entry.file);
+        }
+    }
+
+    /**
+     * Evicts the files not used within the time in milliseconds.
+     */
+    synchronized void evictUnused(long time) {
+        long cutOff = System.currentTimeMillis() - time;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.accessed >= cutOff)
+                continue;
+            iterator.remove();
+            size -= entry.length;
+            log.info("Removing {}", entry.file);
+            delete(entry.file);
+        }
+    }
+
+    // the links of an evicted file to scratch dirs keep its content
+    private static void delete(File file) {
+        file.setWritable(true);
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            log.warn("Could not remove cached file {}", file, e);
+        }
+    }
+
+    // indexes the files cached before, the least recently modified first
+    private void index() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(dir)) {
+            for (Path file : directoryStream) {
+                if (file.getFileName().toString().startsWith(TEMP_PREFIX))
+                    Files.deleteIfExists(file);
+                else if (Files.isRegularFile(file))
+                    files.add(file);
+            }
+        }
+        Collections.sort(files, new Comparator<Path>() {
+            @Override
+            public int compare(Path a, Path b) {
+                return Long.compare(a.toFile().lastModified(), b.toFile().lastModified());
+            }
+        });
+        for (Path file : files)
+            add(file.getFileName().toString(), file.toFile(), file.toFile().lastModified());
+    }
+
+    private void link(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+            return;
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            throw e;
+        } catch (FileSystemException | UnsupportedOperationException e) {
+            log.debug("Could not link {} to {}: {}", target, source, e.toString());
+        }
+        if (!reflink(source, target))
+            Files.copy(source, target);
+        // a copy of its own is writable by the task
+        target.toFile().setWritable(true);
+    }
+
+    private boolean reflink(Path source, Path target) throws IOException {
+        if (!reflinks)
+            return false;
+        String[] cmd = { "cp", "--reflink=always", source.toString(), target.toString() };
+        try {
+            if (ProcessExecutor.getProcessExecutor().exec(cmd, null, null, ProcessOutput.buffer(),
+                    ProcessOutput.tail(1024)).getExitValue() == 0)
+                return true;
+        } catch (TimeoutException e) {
+            log.warn("Could not reflink {} to {}", target, source, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted linking " + target);
+        }
+        log.info("Reflinks not supported, copying cached files");
+        reflinks = false;
+        Files.deleteIfExists(target);
+        return false;
+    }
+
+    private static class Entry {
+        final File file;
+        final long length;
+        final long modified;
+        long accessed;
+
+        Entry(File file, long accessed) {
+            this.file = file;
+            this.length = file.length();
+            this.modified = file.lastModified();
+            this.accessed = accessed;
+        }
+    }
+}
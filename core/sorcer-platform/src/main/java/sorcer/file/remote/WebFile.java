@@ -26,7 +26,8 @@ import java.io.Serializable;
 import java.net.URL;
 
 /**
- * Remote file that is copied over web using webster data appliance.
+ * Remote file that is copied over web using webster data appliance, once per
+ * node into the {@link FileCache}.
  *
  * @author Rafał Krupiński
  */
@@ -41,16 +42,26 @@ public class WebFile extends AbstractRemoteFile implements Serializable {
 
     @Override
     protected File doGetFile() throws IOException {
-        File localFile = getLocalPath();
-        try (FileOutputStream local = new FileOutputStream(localFile)) {
-            Resources.copy(remoteUrl, local);
-        }
-        return localFile;
+        return FileCache.getFileCache().materialize(checksum, new FileCache.Loader() {
+            @Override
+            public void load(File target) throws IOException {
+                try (FileOutputStream local = new FileOutputStream(target)) {
+                    Resources.copy(remoteUrl, local);
+                }
+            }
+        }, getLocalPath());
+    }
+
+    /**
+     * The file cache verified the checksum of the file when it was downloaded.
+     */
+    @Override
+    protected void verify(File file) {
     }
 
     @Override
     protected File getLocalPath() throws IOException {
-        File parent = new ScratchDirManager().getNewScratchDir("remote-file");
+        File parent = ScratchDirManager.SCRATCH_DIR_FACTORY.getNewScratchDir("remote-file");
         return new File(parent, checksum);
     }
 }
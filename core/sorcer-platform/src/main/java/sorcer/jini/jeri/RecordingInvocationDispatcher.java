@@ -48,7 +48,7 @@ public class RecordingInvocationDispatcher extends BasicInvocationDispatcher {
     @Override
     protected Object invoke(Remote impl, Method method, Object[] args, Collection context) throws Throwable {
         boolean monitor = MonitorCheck.check(method);
-        int id = 0;
+        long id = 0;
         if(monitor)
             id = recorder.inprocess(method.getName());
         try {
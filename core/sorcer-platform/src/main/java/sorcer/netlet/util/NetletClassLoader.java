@@ -147,6 +147,16 @@ public class NetletClassLoader extends URIClassLoader implements ClassAnnotation
         }
         for (URI uri : uris)
             super.addURI(uri);
+        searchPath = append(searchPath, uris);
+    }
+
+    private static URI[] append(URI[] path, URI[] uris) {
+        if (path == null || path.length == 0)
+            return uris;
+        URI[] result = new URI[path.length + uris.length];
+        System.arraycopy(path, 0, result, 0, path.length);
+        System.arraycopy(uris, 0, result, path.length, uris.length);
+        return result;
     }
 
     public void setCodebase(URL[] codebase) {
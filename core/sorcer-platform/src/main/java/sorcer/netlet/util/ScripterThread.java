@@ -18,7 +18,8 @@
 package sorcer.netlet.util;
 
 import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
 import net.jini.core.transaction.TransactionException;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
@@ -28,12 +29,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.context.ServiceContext;
 import sorcer.core.context.model.ent.Entry;
+import sorcer.core.invoker.ScriptCache;
 import sorcer.core.provider.exerter.ServiceShell;
 import sorcer.service.Mogram;
 import sorcer.service.MogramException;
 import sorcer.service.Domain;
 
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static sorcer.eo.operator.eval;
 import static sorcer.util.StringUtils.tName;
@@ -43,10 +51,12 @@ public class ScripterThread extends Thread {
     private Object result;
     private Object target = null;
     private boolean isExerted = true;
-    final private GroovyShell gShell;
     private NetletClassLoader classLoader;
     private ServiceShell serviceShell;
 
+    // the script cache profile of netlets
+    private static final String NETLET_PROFILE = ScripterThread.class.getName();
+
     private final static Logger logger = LoggerFactory.getLogger(ScripterThread.class
             .getName());
 
@@ -58,13 +68,6 @@ public class ScripterThread extends Thread {
         super(tName("Script"));
         this.classLoader = classLoader;
         this.isExerted = isExerted;
-
-        CompilerConfiguration compilerConfig = new CompilerConfiguration();
-        compilerConfig.setPluginFactory(new ShebangPreprocessorFactory());
-        compilerConfig.addCompilationCustomizers(getImports());
-        compilerConfig.addCompilationCustomizers(new ASTTransformationCustomizer(new GroovyCodebaseSupport(classLoader)));
-
-        gShell = new GroovyShell(classLoader, new Binding(), compilerConfig);
         this.script = script;
     }
 
@@ -72,14 +75,70 @@ public class ScripterThread extends Thread {
         ClassLoader currentCL = Thread.currentThread().getContextClassLoader();
         try {
             Thread.currentThread().setContextClassLoader(classLoader);
-            synchronized (gShell) {
-                target = gShell.evaluate(script);
-            }
+            final URL[] searchPath = getSearchPath(classLoader);
+            // netlets of loaders with the same parent and search path share the compiled scripts
+            Class<?> scriptClass = ScriptCache.getScriptCache().getScriptClass(script, null,
+                    classLoader.getParent(), NETLET_PROFILE + Arrays.toString(searchPath),
+                    new ScriptCache.ScriptCompiler() {
+                        public Class<?> compile(GroovyCodeSource source) {
+                            return compileScript(source, searchPath);
+                        }
+                    });
+            applyCodebase(scriptClass);
+            target = ScriptCache.createScript(scriptClass, new Binding()).run();
         } finally {
             Thread.currentThread().setContextClassLoader(currentCL);
         }
     }
 
+    /**
+     * Compiles the netlet for a loader of its own, with the parent and search path
+     * of the netlet loader, so that the cached class does not hold the netlet loader.
+     */
+    private Class<?> compileScript(GroovyCodeSource source, URL[] searchPath) {
+        NetletClassLoader compileLoader = new NetletClassLoader(new URI[0], classLoader.getURLs(),
+                classLoader.getParent(), null);
+        compileLoader.addURLs(searchPath);
+        return new GroovyClassLoader(compileLoader, getCompilerConfiguration(compileLoader))
+                .parseClass(source, false);
+    }
+
+    private CompilerConfiguration getCompilerConfiguration(NetletClassLoader compileLoader) {
+        CompilerConfiguration compilerConfig = new CompilerConfiguration();
+        compilerConfig.setPluginFactory(new ShebangPreprocessorFactory());
+        compilerConfig.addCompilationCustomizers(getImports());
+        compilerConfig.addCompilationCustomizers(new ASTTransformationCustomizer(new GroovyCodebaseSupport(compileLoader)));
+        return compilerConfig;
+    }
+
+    /**
+     * The codebase and classpath of a netlet are added by {@link GroovyCodebaseSupport}
+     * to the loader the netlet is compiled for, and applied to the netlet loader
+     * on each run.
+     */
+    private void applyCodebase(Class<?> scriptClass) {
+        ClassLoader cl = scriptClass.getClassLoader();
+        while (cl != null && !(cl instanceof NetletClassLoader))
+            cl = cl.getParent();
+        if (cl == null || cl == classLoader)
+            return;
+        NetletClassLoader compileLoader = (NetletClassLoader) cl;
+        List<URL> searchPath = new ArrayList<URL>(Arrays.asList(getSearchPath(compileLoader)));
+        searchPath.removeAll(Arrays.asList(getSearchPath(classLoader)));
+        if (!searchPath.isEmpty())
+            classLoader.addURLs(searchPath.toArray(new URL[searchPath.size()]));
+        if (compileLoader.getURLs() != null)
+            classLoader.setCodebase(compileLoader.getURLs());
+    }
+
+    private static URL[] getSearchPath(NetletClassLoader loader) {
+        try {
+            return loader.getSearchPath();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid search path of " + loader, e);
+        }
+    }
+
     public void run() {
         exert();
     }
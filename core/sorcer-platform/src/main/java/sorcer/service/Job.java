@@ -36,6 +36,7 @@ import sorcer.security.util.Auth;
 import sorcer.security.util.SorcerPrincipal;
 import sorcer.service.Signature.ReturnPath;
 import sorcer.service.Strategy.Access;
+import sorcer.util.ObjectCloner;
 import sorcer.util.SorcerUtil;
 
 import javax.security.auth.Subject;
@@ -602,4 +603,22 @@ public class Job extends CompoundExertion {
 		}
 	}
 
+	/**
+	 * Returns a copy of this job with snapshots of its contexts and component
+	 * mograms, nested jobs included, each component snapshot copying the
+	 * mutable values of its contexts and its signatures and fidelities.
+	 */
+	@Override
+	public Job snapshot() {
+		Job job = (Job) snapshotContexts();
+		job.mograms = new ArrayList<Mogram>(mograms.size());
+		for (Mogram mogram : mograms) {
+			Mogram copy = (Mogram) ObjectCloner.snapshot(mogram);
+			if (copy instanceof ServiceMogram && ((ServiceMogram) copy).parent == this)
+				((ServiceMogram) copy).parent = job;
+			job.mograms.add(copy);
+		}
+		return job;
+	}
+
 }
@@ -28,6 +28,7 @@ import sorcer.core.context.model.ent.Proc;
 import sorcer.core.deploy.DeploymentIdFactory;
 import sorcer.core.deploy.ServiceDeployment;
 import sorcer.core.invoker.ExertInvoker;
+import sorcer.core.plexus.MorphFidelity;
 import sorcer.core.provider.*;
 import sorcer.core.provider.exerter.ServiceShell;
 import sorcer.core.signature.NetSignature;
@@ -37,6 +38,7 @@ import sorcer.security.util.SorcerPrincipal;
 import sorcer.service.Signature.ReturnPath;
 import sorcer.service.Strategy.Access;
 import sorcer.service.Strategy.Flow;
+import sorcer.util.ObjectCloner;
 
 import javax.security.auth.Subject;
 import java.rmi.RemoteException;
@@ -1009,6 +1011,79 @@ public abstract class ServiceExertion extends ServiceMogram implements Exertion
         return getDataContext().getCurrentContext();
     }
 
+    /**
+     * Returns a copy of this exertion in its current state. By default the
+     * exertion is deep copied by serialization, tasks and jobs share the
+     * contents of their contexts with the copy, see
+     * {@link ServiceContext#snapshot()}.
+     */
+    public ServiceExertion snapshot() {
+        return (ServiceExertion) ObjectCloner.clone(this);
+    }
+
+    /**
+     * Returns a shallow copy of this exertion with snapshots of its data and
+     * control contexts, and deep copies of its signatures and fidelities bound
+     * to the copy.
+     */
+    protected ServiceExertion snapshotContexts() {
+        ServiceExertion copy;
+        try {
+            copy = (ServiceExertion) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        if (dataContext != null) {
+            copy.dataContext = dataContext.snapshot();
+            if (dataContext.getMogram() == this)
+                copy.dataContext.setExertion(copy);
+            if (scope == dataContext)
+                copy.scope = copy.dataContext;
+        }
+        if (controlContext != null) {
+            copy.controlContext = controlContext.snapshot();
+            if (controlContext.getMogram() == this)
+                copy.controlContext.setExertion(copy);
+            if (mogramStrategy == controlContext)
+                copy.mogramStrategy = copy.controlContext;
+        }
+        if (setters != null)
+            copy.setters = new ArrayList<Setter>(setters);
+        if (dependers != null)
+            copy.dependers = new ArrayList<Evaluation>(dependers);
+        if (!copyFidelities(copy))
+            return (ServiceExertion) ObjectCloner.clone(this);
+        return copy;
+    }
+
+    // copies the signatures and fidelities referring to this exertion and its contexts as the copy's
+    private boolean copyFidelities(ServiceExertion copy) {
+        Map<Object, Object> bound = new IdentityHashMap<Object, Object>();
+        bound.put(this, copy);
+        if (dataContext != null)
+            bound.put(dataContext, copy.dataContext);
+        if (controlContext != null)
+            bound.put(controlContext, copy.controlContext);
+        if (scope != null && scope != dataContext)
+            bound.put(scope, scope);
+        if (parent != null)
+            bound.put(parent, parent);
+        List<Signature> signatures = controlContext == null ? null : controlContext.getSignatures();
+        Object[] state = (Object[]) ObjectCloner.clone(new Object[] { serviceFidelities, selectedFidelity,
+                serviceMetafidelities, selectedMetafidelity, serviceMorphFidelity, fiManager, signatures }, bound);
+        if (state == null)
+            return false;
+        copy.serviceFidelities = (Map<String, ServiceFidelity>) state[0];
+        copy.selectedFidelity = (ServiceFidelity<Signature>) state[1];
+        copy.serviceMetafidelities = (Map<String, ServiceFidelity>) state[2];
+        copy.selectedMetafidelity = (ServiceFidelity) state[3];
+        copy.serviceMorphFidelity = (MorphFidelity) state[4];
+        copy.fiManager = (FidelityManagement) state[5];
+        if (signatures != null)
+            copy.controlContext.setSignatures((List<Signature>) state[6]);
+        return true;
+    }
+
     @Override
     public void appendTrace(String info) {
         getControlContext().appendTrace(info);
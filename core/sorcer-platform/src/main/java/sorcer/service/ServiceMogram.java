@@ -32,7 +32,7 @@ import java.util.*;
 /**
  * Created by sobolemw on 5/4/15.
  */
-public abstract class ServiceMogram implements Mogram, Exec, Serializable, SorcerConstants {
+public abstract class ServiceMogram implements Mogram, Exec, Serializable, Cloneable, SorcerConstants {
 
     protected final static Logger logger = LoggerFactory.getLogger(ServiceMogram.class.getName());
 
@@ -106,7 +106,7 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
 
     protected boolean isRevaluable = false;
 
-    protected boolean isChanged = false;
+    protected volatile boolean isChanged = false;
 
     // when mogram is changed then setValid == false
     protected boolean isValid = true;
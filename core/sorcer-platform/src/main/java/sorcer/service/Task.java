@@ -446,4 +446,9 @@ public class Task extends ServiceExertion {
 		return getFidelities().get(component);
 	}
 
+	@Override
+	public Task snapshot() {
+		return (Task) snapshotContexts();
+	}
+
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util;
+
+/**
+ * An adaptive (exponential) back-off for polling loops. Each consecutive idle
+ * round doubles the delay, starting at the min delay and capped at the max
+ * delay; any progress resets it. Not thread safe, one instance per loop.
+ */
+public class Backoff {
+    private final long minDelay;
+    private final long maxDelay;
+    private long delay;
+
+    /**
+     * @param minDelay first delay in milliseconds after progress
+     * @param maxDelay upper bound of the delay in milliseconds
+     */
+    public Backoff(long minDelay, long maxDelay) {
+        if (minDelay <= 0 || maxDelay < minDelay)
+            throw new IllegalArgumentException("min delay: " + minDelay + ", max delay: " + maxDelay);
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.delay = 0;
+    }
+
+    /**
+     * Returns the delay to wait for the next idle round and grows the delay
+     * for the round after.
+     */
+    public long next() {
+        delay = delay == 0 ? minDelay : Math.min(delay * 2, maxDelay);
+        return delay;
+    }
+
+    /**
+     * Sleeps for the next delay.
+     */
+    public void idle() throws InterruptedException {
+        Thread.sleep(next());
+    }
+
+    /**
+     * Resets the delay after progress was made.
+     */
+    public void reset() {
+        delay = 0;
+    }
+
+    public long getDelay() {
+        return delay;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A dispatch table of methods keyed by (class, selector, argument types).
+ * Each entry is resolved once with the caller's {@link Resolver} and bound to
+ * an {@link Invoker} backed by a {@link MethodHandle}, so repeated service
+ * calls skip the reflective method lookup. Entries are kept per class with a
+ * {@link ClassValue} and go away with the class loader of the class.
+ * <p>
+ * Call sites resolving methods in different ways use their own tables.
+ */
+public class MethodTable {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final ClassValue<ConcurrentMap<Key, Invoker>> methods = new ClassValue<ConcurrentMap<Key, Invoker>>() {
+        @Override
+        protected ConcurrentMap<Key, Invoker> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<Key, Invoker>();
+        }
+    };
+
+    /**
+     * Finds the method of a class for a selector and argument types.
+     */
+    public interface Resolver {
+        /**
+         * @return the method or null if there is none, null results are not cached
+         */
+        Method resolve(Class<?> type, String selector, Class<?>[] argTypes) throws NoSuchMethodException;
+    }
+
+    /**
+     * Resolver returning {@link Class#getMethod(String, Class[])}.
+     */
+    public static final Resolver PUBLIC = new Resolver() {
+        @Override
+        public Method resolve(Class<?> type, String selector, Class<?>[] argTypes) throws NoSuchMethodException {
+            return type.getMethod(selector, argTypes);
+        }
+    };
+
+    /**
+     * Resolver returning {@link Class#getDeclaredMethod(String, Class[])}.
+     */
+    public static final Resolver DECLARED = new Resolver() {
+        @Override
+        public Method resolve(Class<?> type, String selector, Class<?>[] argTypes) throws NoSuchMethodException {
+            return type.getDeclaredMethod(selector, argTypes);
+        }
+    };
+
+    /**
+     * Returns the invoker of the method resolved for the class, selector and
+     * argument types, resolving and binding it on first use.
+     *
+     * @return the invoker or null if the resolver found no method
+     * @throws NoSuchMethodException as thrown by the resolver
+     */
+    public Invoker get(Class<?> type, String selector, Class<?>[] argTypes, Resolver resolver)
+            throws NoSuchMethodException {
+        ConcurrentMap<Key, Invoker> table = methods.get(type);
+        Key key = new Key(selector, argTypes);
+        Invoker invoker = table.get(key);
+        if (invoker == null) {
+            Method method = resolver.resolve(type, selector, argTypes);
+            if (method == null)
+                return null;
+            invoker = new Invoker(method);
+            // the caller may reuse its argument types array
+            key = new Key(selector, argTypes == null ? null : argTypes.clone());
+            Invoker previous = table.putIfAbsent(key, invoker);
+            if (previous != null)
+                invoker = previous;
+        }
+        return invoker;
+    }
+
+    public Invoker get(Class<?> type, String selector, Class<?>[] argTypes) throws NoSuchMethodException {
+        return get(type, selector, argTypes, PUBLIC);
+    }
+
+    /**
+     * Number of methods bound for the class.
+     */
+    public int size(Class<?> type) {
+        return methods.get(type).size();
+    }
+
+    /**
+     * A method bound to a method handle taking the target and an argument
+     * array. Failures are reported like by {@link Method#invoke}, exceptions
+     * thrown by the method are wrapped in {@link InvocationTargetException}.
+     */
+    public static class Invoker {
+        private final Method method;
+        private final Class<?>[] parameterTypes;
+        // null when the method is not accessible through a public lookup
+        private final MethodHandle handle;
+
+        Invoker(Method method) {
+            this.method = method;
+            this.parameterTypes = method.getParameterTypes();
+            this.handle = bind(method);
+        }
+
+        private static MethodHandle bind(Method method) {
+            try {
+                MethodHandle handle = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+                if (Modifier.isStatic(method.getModifiers()))
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                return handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+            } catch (IllegalAccessException e) {
+                return null;
+            }
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public Object invoke(Object target, Object... args)
+                throws IllegalAccessException, InvocationTargetException {
+            if (args == null)
+                args = NO_ARGS;
+            // mismatches and primitive widening are left to reflection
+            if (handle == null || !matches(target, args))
+                return method.invoke(target, args);
+            try {
+                return handle.invokeExact(target, args);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private boolean matches(Object target, Object[] args) {
+            if (!Modifier.isStatic(method.getModifiers()) && !method.getDeclaringClass().isInstance(target))
+                return false;
+            if (args.length != parameterTypes.length)
+                return false;
+            for (int i = 0; i < args.length; i++) {
+                Class<?> type = parameterTypes[i];
+                if (args[i] == null ? type.isPrimitive() : !wrap(type).isInstance(args[i]))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return method.toString();
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive())
+            return type;
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private static final class Key {
+        private final String selector;
+        private final Class<?>[] argTypes;
+        private final int hash;
+
+        Key(String selector, Class<?>[] argTypes) {
+            this.selector = selector;
+            this.argTypes = argTypes;
+            this.hash = 31 * (selector == null ? 0 : selector.hashCode()) + Arrays.hashCode(argTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key key = (Key) obj;
+            return (selector == null ? key.selector == null : selector.equals(key.selector))
+                    && Arrays.equals(argTypes, key.argTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
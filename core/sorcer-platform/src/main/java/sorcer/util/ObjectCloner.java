@@ -17,12 +17,14 @@
 
 package sorcer.util;
 
-import java.io.IOException;
+import java.io.*;
 import java.rmi.MarshalledObject;
+import java.util.*;
 
 import net.jini.id.Uuid;
 import net.jini.id.UuidFactory;
 import net.jini.io.MarshalledInstance;
+import sorcer.core.context.ServiceContext;
 import sorcer.service.*;
 
 public class ObjectCloner {
@@ -38,6 +40,113 @@ public class ObjectCloner {
 		return null;
 	}
 
+	/**
+	 * Returns a snapshot of contexts, tasks and jobs sharing their contents
+	 * with the original until either is updated, a deep copy of other objects.
+	 */
+	public static Object snapshot(Object o) {
+		if (o instanceof ServiceContext)
+			return ((ServiceContext) o).snapshot();
+		else if (o instanceof ServiceExertion)
+			return ((ServiceExertion) o).snapshot();
+		return clone(o);
+	}
+
+	/**
+	 * Returns a deep copy of the object with the objects mapped by the bound
+	 * map, compared by identity, replaced by their values instead of copied,
+	 * or null if the object could not be copied. Used to copy the state bound
+	 * to an object, such as the signatures and fidelities of a mogram, for a
+	 * copy of the object.
+	 */
+	public static Object clone(Object o, Map<Object, Object> bound) {
+		final IdentityHashMap<Object, Object> substitutes = new IdentityHashMap<Object, Object>(bound);
+		final List<Object> values = new ArrayList<Object>();
+		// the classes of the copied objects, resolved as written
+		final Map<String, Class<?>> classes = new HashMap<String, Class<?>>();
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bytes) {
+				{
+					enableReplaceObject(true);
+				}
+
+				@Override
+				protected Object replaceObject(Object obj) {
+					if (obj == null || !substitutes.containsKey(obj))
+						return obj;
+					Object value = substitutes.get(obj);
+					if (!(value instanceof Substitute)) {
+						values.add(value);
+						value = new Substitute(values.size() - 1);
+						substitutes.put(obj, value);
+					}
+					return value;
+				}
+
+				@Override
+				protected void annotateClass(Class<?> cl) {
+					classes.put(cl.getName(), cl);
+				}
+
+				@Override
+				protected void annotateProxyClass(Class<?> cl) {
+					classes.put(Arrays.toString(names(cl.getInterfaces())), cl);
+				}
+			};
+			out.writeObject(o);
+			out.close();
+			ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())) {
+				{
+					enableResolveObject(true);
+				}
+
+				@Override
+				protected Object resolveObject(Object obj) {
+					if (obj instanceof Substitute)
+						return values.get(((Substitute) obj).index);
+					return obj;
+				}
+
+				@Override
+				protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+					Class<?> cl = classes.get(desc.getName());
+					return cl != null ? cl : super.resolveClass(desc);
+				}
+
+				@Override
+				protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+					Class<?> cl = classes.get(Arrays.toString(interfaces));
+					return cl != null ? cl : super.resolveProxyClass(interfaces);
+				}
+			};
+			return in.readObject();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (ClassNotFoundException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	private static String[] names(Class<?>[] classes) {
+		String[] names = new String[classes.length];
+		for (int i = 0; i < classes.length; i++)
+			names[i] = classes[i].getName();
+		return names;
+	}
+
+	// an object replaced by its bound value in a copy
+	private static class Substitute implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		final int index;
+
+		Substitute(int index) {
+			this.index = index;
+		}
+	}
+
 	public static Object cloneWithNewIDs(Object o) {
 		Object obj = null;
 		try {
@@ -28,6 +28,7 @@ import net.jini.discovery.DiscoveryManagement;
 import net.jini.discovery.LookupDiscoveryManager;
 import net.jini.lease.LeaseRenewalManager;
 import net.jini.lookup.LookupCache;
+import net.jini.lookup.ServiceDiscoveryListener;
 import net.jini.lookup.ServiceDiscoveryManager;
 import net.jini.lookup.ServiceItemFilter;
 import net.jini.lookup.entry.Name;
@@ -309,6 +310,30 @@ public class ServiceAccessor implements DynamicAccessor {
 		}
     }
 
+	/**
+	 * Returns a service item matching the signature and passing the filter.
+	 */
+	public ServiceItem getServiceItem(Signature signature, ServiceItemFilter filter) {
+		Class[] serviceTypes = signature.getMatchTypes() != null ? signature.getMatchTypes()
+				: new Class[] { signature.getServiceType() };
+		String name = overrideName(signature.getProviderName().getName(), serviceTypes[serviceTypes.length-1]);
+		Entry[] attrSets = new Entry[] { new Name(name) };
+		return getServiceItem(new ServiceTemplate(null, serviceTypes, attrSets), filter);
+	}
+
+	/**
+	 * Adds a listener for services added, removed and changed in the lookup
+	 * cache.
+	 *
+	 * @return false if no lookup cache is used
+	 */
+	public boolean addLookupListener(ServiceDiscoveryListener listener) {
+		if (lookupCache == null)
+			return false;
+		lookupCache.addListener(listener);
+		return true;
+	}
+
     public  Object getService(Signature signature) throws SignatureException {
         ServiceItem serviceItem = getServiceItem(signature);
         return serviceItem == null ? null : serviceItem.service;
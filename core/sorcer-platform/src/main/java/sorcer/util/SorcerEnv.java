@@ -663,6 +663,67 @@ public class SorcerEnv extends SOS {
 		return Integer.parseInt(getProperty(LOOKUP_MAX_MATCHES, "99"));
 	}
 
+	/**
+	 * Returns the maximum number of provider proxies cached by a service
+	 * shell.
+	 * 
+	 * @return size of the proxy cache
+	 */
+	public static int getProxyCacheSize() {
+		return Integer.parseInt(getProperty(PROXY_CACHE_SIZE, "20"));
+	}
+
+	/**
+	 * Returns the time in minutes a provider proxy is cached by a service
+	 * shell.
+	 * 
+	 * @return time to live of cached proxies
+	 */
+	public static long getProxyCacheTtl() {
+		return Long.parseLong(getProperty(PROXY_CACHE_TTL, "30"));
+	}
+
+	/**
+	 * Returns the maximum number of compiled Groovy scripts cached by
+	 * invokers and netlets.
+	 * 
+	 * @return size of the script cache
+	 */
+	public static int getScriptCacheSize() {
+		return Integer.parseInt(getProperty(SCRIPT_CACHE_SIZE, "256"));
+	}
+
+	/**
+	 * Returns the maximum number of native processes run at a time by the
+	 * process executor of the JVM, by default the number of processors.
+	 * 
+	 * @return the maximum number of running processes
+	 */
+	public static int getExecMaxProcesses() {
+		return Integer.parseInt(getProperty(EXEC_MAX_PROCESSES,
+				"" + Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Returns the time in seconds a native process is waited for before it is
+	 * killed, 0 if waited for until it exits.
+	 * 
+	 * @return timeout of native processes
+	 */
+	public static long getExecTimeout() {
+		return Long.parseLong(getProperty(EXEC_TIMEOUT, "0"));
+	}
+
+	/**
+	 * Returns the maximum size in megabytes of the remote files cached by a
+	 * node.
+	 * 
+	 * @return size of the file cache
+	 */
+	public static long getFileCacheSize() {
+		return Long.parseLong(getProperty(FILE_CACHE_SIZE, "1024"));
+	}
+
 	/**
 	 * Returns the properties. Implementers can use this method instead of the
 	 * access methods to cache the environment and optimize performance. Tag of
@@ -0,0 +1,174 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A writer thread committing the writes queued concurrently in groups, at
+ * most {@link #MAX_BATCH} writes in one transaction. If the transaction of a
+ * group fails, its writes are committed again one by one so that a failing
+ * write does not fail the others. The writer keeps running whatever a write
+ * throws, the writes not committed are completed exceptionally.
+ *
+ * @param <W> the type of the writes
+ */
+public abstract class GroupCommitWriter<W extends GroupCommitWriter.Write> implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+	/**
+	 * The maximum number of writes committed in one transaction.
+	 */
+	public static final int MAX_BATCH = 256;
+
+	private static final Write CLOSE = new Write();
+
+	private final BlockingQueue<Write> queue;
+
+	private final Thread thread;
+
+	/**
+	 * A queued write, its future is completed when the write is committed or
+	 * failed.
+	 */
+	public static class Write {
+		public final CompletableFuture<Void> done = new CompletableFuture<Void>();
+	}
+
+	/**
+	 * Creates the writer thread with the given name queuing up to the given
+	 * number of writes.
+	 */
+	protected GroupCommitWriter(String name, int capacity) {
+		queue = new LinkedBlockingQueue<Write>(capacity);
+		thread = new Thread(this, name);
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts the writer thread, once the subclass is initialized.
+	 */
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Commits the writes in one transaction, aborted if a write fails.
+	 */
+	protected abstract void commit(List<W> batch) throws Exception;
+
+	/**
+	 * Completes the future of the write, exceptionally if the failure is not
+	 * null.
+	 */
+	protected void done(W write, Throwable failure) {
+		if (failure == null)
+			write.done.complete(null);
+		else
+			write.done.completeExceptionally(failure);
+	}
+
+	/**
+	 * Queues the write, blocking while the queue is full.
+	 *
+	 * @return true if interrupted while the queue was full
+	 */
+	public boolean put(W write) {
+		return enqueue(write);
+	}
+
+	/**
+	 * Commits the writes queued so far and stops the writer.
+	 */
+	public void close() {
+		boolean interrupted = enqueue(CLOSE);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			interrupted = true;
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private boolean enqueue(Write write) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				queue.put(write);
+				return interrupted;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public void run() {
+		List<Write> queued = new ArrayList<Write>(MAX_BATCH);
+		List<W> batch = (List<W>) (List<?>) queued;
+		while (true) {
+			try {
+				queued.add(queue.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+			queue.drainTo(queued, MAX_BATCH - 1);
+			boolean close = queued.remove(CLOSE);
+			try {
+				if (!batch.isEmpty())
+					write(batch);
+			} catch (Throwable e) {
+				logger.error("Failed to write", e);
+				for (W write : batch) {
+					if (!write.done.isDone())
+						done(write, e);
+				}
+			}
+			if (close)
+				return;
+			queued.clear();
+		}
+	}
+
+	private void write(List<W> batch) {
+		try {
+			commit(batch);
+			for (W write : batch)
+				done(write, null);
+		} catch (Exception e) {
+			// write one by one not to fail the other writes
+			for (W write : batch) {
+				try {
+					commit(Collections.singletonList(write));
+					done(write, null);
+				} catch (Throwable we) {
+					logger.error("Failed to write " + write, we);
+					done(write, we);
+				}
+			}
+		}
+	}
+}
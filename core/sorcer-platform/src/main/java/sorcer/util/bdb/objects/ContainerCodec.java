@@ -0,0 +1,211 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import net.jini.io.MarshalInputStream;
+import net.jini.io.MarshalOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The codec of an object holding its values in a container, like the
+ * path/value map of a context or the rows of a table. The entries of the
+ * container are written first, with the strings, numbers and booleans as
+ * tuples. The object is written after them with Java serialization, the
+ * container being replaced by a placeholder holding the values not written
+ * as tuples, and rebuilt from the entries when the placeholder is read.
+ *
+ * @param <E> the entries of the container as read, before it is rebuilt
+ */
+abstract class ContainerCodec<E> implements RecordCodec {
+
+	// the value tags
+	private static final int NULL = 0;
+	private static final int STRING = 1;
+	private static final int DOUBLE = 2;
+	private static final int INTEGER = 3;
+	private static final int LONG = 4;
+	private static final int BOOLEAN = 5;
+	private static final int FLOAT = 6;
+	private static final int SERIAL = 7;
+
+	/**
+	 * Returns the container of the object, written as tuples.
+	 */
+	abstract Object containerOf(Object object);
+
+	/**
+	 * Writes the entries of the container, adding the values not written as
+	 * tuples to the serial values.
+	 */
+	abstract void writeEntries(Object container, TupleOutput out, List<Object> serialValues);
+
+	/**
+	 * Reads the entries written by {@link #writeEntries}.
+	 */
+	abstract E readEntries(TupleInput in);
+
+	/**
+	 * Rebuilds the container from its entries and serial values.
+	 */
+	abstract Object rebuild(E entries, List<Object> serialValues);
+
+	@Override
+	public void write(Object object, TupleOutput out, RecordFormat format) throws IOException {
+		Object container = containerOf(object);
+		List<Object> serialValues = new ArrayList<Object>();
+		writeEntries(container, out, serialValues);
+		ObjectOutputStream oos = new ContainerOutputStream(out, container, new Placeholder(serialValues));
+		oos.writeObject(object);
+		oos.flush();
+	}
+
+	@Override
+	public Object read(TupleInput in, RecordFormat format) throws IOException, ClassNotFoundException {
+		E entries = readEntries(in);
+		return new ContainerInputStream(in, entries).readObject();
+	}
+
+	static void writeValue(Object value, TupleOutput out, List<Object> serialValues) {
+		if (value == null) {
+			out.writeFast(NULL);
+		} else if (value instanceof String) {
+			out.writeFast(STRING);
+			out.writeString((String) value);
+		} else if (value instanceof Double) {
+			out.writeFast(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Integer) {
+			out.writeFast(INTEGER);
+			out.writePackedInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeFast(LONG);
+			out.writePackedLong((Long) value);
+		} else if (value instanceof Boolean) {
+			out.writeFast(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Float) {
+			out.writeFast(FLOAT);
+			out.writeFloat((Float) value);
+		} else {
+			out.writeFast(SERIAL);
+			out.writePackedInt(serialValues.size());
+			serialValues.add(value);
+		}
+	}
+
+	/**
+	 * Reads a value written by {@link #writeValue}, a serial value as a
+	 * reference resolved by {@link #valueOf}.
+	 */
+	static Object readValue(TupleInput in) {
+		int tag = in.readFast();
+		switch (tag) {
+			case NULL:
+				return null;
+			case STRING:
+				return in.readString();
+			case DOUBLE:
+				return in.readDouble();
+			case INTEGER:
+				return in.readPackedInt();
+			case LONG:
+				return in.readPackedLong();
+			case BOOLEAN:
+				return in.readBoolean();
+			case FLOAT:
+				return in.readFloat();
+			case SERIAL:
+				return new SerialRef(in.readPackedInt());
+			default:
+				throw new IllegalStateException("Unknown value tag: " + tag);
+		}
+	}
+
+	static Object valueOf(Object value, List<Object> serialValues) {
+		if (value instanceof SerialRef)
+			return serialValues.get(((SerialRef) value).index);
+		return value;
+	}
+
+	private static class SerialRef {
+		final int index;
+
+		SerialRef(int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * The container in the serialized object.
+	 */
+	private static class Placeholder implements Serializable {
+		static final long serialVersionUID = 6530312946287514378L;
+
+		private final ArrayList<Object> serialValues;
+
+		Placeholder(List<Object> serialValues) {
+			this.serialValues = new ArrayList<Object>(serialValues);
+		}
+	}
+
+	private static class ContainerOutputStream extends MarshalOutputStream {
+
+		private final Object container;
+
+		private final Placeholder placeholder;
+
+		ContainerOutputStream(OutputStream out, Object container, Placeholder placeholder) throws IOException {
+			super(out, Collections.emptySet());
+			this.container = container;
+			this.placeholder = placeholder;
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			return obj == container ? placeholder : obj;
+		}
+	}
+
+	private class ContainerInputStream extends MarshalInputStream {
+
+		private final E entries;
+
+		ContainerInputStream(InputStream in, E entries) throws IOException {
+			super(in, Thread.currentThread().getContextClassLoader(), false, null, Collections.emptySet());
+			this.entries = entries;
+			useCodebaseAnnotations();
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (obj instanceof Placeholder)
+				return rebuild(entries, ((Placeholder) obj).serialValues);
+			return obj;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import sorcer.core.context.PathMap;
+import sorcer.core.context.ServiceContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The codec of {@link ServiceContext}s writing the paths and values of
+ * their data as tuples.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+class ContextCodec extends ContainerCodec<List<Object>> {
+
+	static final int ID = 1;
+
+	@Override
+	public int getId() {
+		return ID;
+	}
+
+	@Override
+	public boolean accepts(Object object) {
+		return object instanceof ServiceContext && ((ServiceContext) object).getData() instanceof PathMap;
+	}
+
+	@Override
+	Object containerOf(Object object) {
+		return ((ServiceContext) object).getData();
+	}
+
+	@Override
+	void writeEntries(Object container, TupleOutput out, List<Object> serialValues) {
+		List<Map.Entry<String, Object>> entries = new ArrayList<Map.Entry<String, Object>>(
+				((Map<String, Object>) container).entrySet());
+		out.writePackedInt(entries.size());
+		for (Map.Entry<String, Object> entry : entries) {
+			out.writeString(entry.getKey());
+			writeValue(entry.getValue(), out, serialValues);
+		}
+	}
+
+	// the paths followed by their values
+	@Override
+	List<Object> readEntries(TupleInput in) {
+		int size = in.readPackedInt();
+		List<Object> entries = new ArrayList<Object>(2 * size);
+		for (int i = 0; i < size; i++) {
+			entries.add(in.readString());
+			entries.add(readValue(in));
+		}
+		return entries;
+	}
+
+	@Override
+	Object rebuild(List<Object> entries, List<Object> serialValues) {
+		PathMap data = new PathMap();
+		for (int i = 0; i < entries.size(); i += 2)
+			data.put(entries.get(i), valueOf(entries.get(i + 1), serialValues));
+		return data;
+	}
+}
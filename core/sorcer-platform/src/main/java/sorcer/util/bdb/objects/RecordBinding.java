@@ -0,0 +1,72 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.EntityBinding;
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.bind.tuple.TupleOutput;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.util.RuntimeExceptionWrapper;
+
+import java.io.IOException;
+
+/**
+ * RecordBinding binds the stored data of an entity to a record of the
+ * {@link RecordFormat}. The key of the entity is bound by the serial binding
+ * the store was written with before, which also reads the data not written
+ * as records.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class RecordBinding implements EntityBinding {
+
+	private final RecordFormat format;
+
+	private final EntityBinding serialBinding;
+
+	public RecordBinding(RecordFormat format, EntityBinding serialBinding) {
+		this.format = format;
+		this.serialBinding = serialBinding;
+	}
+
+	@Override
+	public Object entryToObject(DatabaseEntry key, DatabaseEntry data) {
+		if (!RecordFormat.isRecord(data))
+			return serialBinding.entryToObject(key, data);
+		try {
+			return format.readRecord(TupleBinding.entryToInput(data));
+		} catch (IOException e) {
+			throw new RuntimeExceptionWrapper(e);
+		} catch (ClassNotFoundException e) {
+			throw new RuntimeExceptionWrapper(e);
+		}
+	}
+
+	@Override
+	public void objectToKey(Object object, DatabaseEntry key) {
+		serialBinding.objectToKey(object, key);
+	}
+
+	@Override
+	public void objectToData(Object object, DatabaseEntry data) {
+		TupleOutput out = new TupleOutput();
+		try {
+			format.writeRecord(object, out);
+		} catch (IOException e) {
+			throw new RuntimeExceptionWrapper(e);
+		}
+		TupleBinding.outputToEntry(out, data);
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+
+import java.io.IOException;
+
+/**
+ * A RecordCodec writes and reads the objects of a type as the payload of the
+ * records of the {@link RecordFormat}. The id of the codec is stored in each
+ * record it writes, so it must be unique in the format and must not change
+ * once records are stored.
+ *
+ * @see RecordFormat#register(RecordCodec)
+ */
+public interface RecordCodec {
+
+	/**
+	 * Returns the id of this codec stored in the records it writes.
+	 */
+	int getId();
+
+	/**
+	 * Returns true if this codec writes the given object.
+	 */
+	boolean accepts(Object object);
+
+	/**
+	 * Writes the object, using the format for the nested objects if any.
+	 */
+	void write(Object object, TupleOutput out, RecordFormat format) throws IOException;
+
+	/**
+	 * Reads an object written by {@link #write}.
+	 */
+	Object read(TupleInput in, RecordFormat format) throws IOException, ClassNotFoundException;
+}
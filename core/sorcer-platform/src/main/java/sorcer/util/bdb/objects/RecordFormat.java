@@ -0,0 +1,159 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import com.sleepycat.je.DatabaseEntry;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * RecordFormat defines the records of the SORCER database stores. A record
+ * starts with a header of the {@link #MAGIC} byte, the format
+ * {@link #VERSION} and the id of the {@link RecordCodec} of its payload.
+ * The object of a record is written by the last registered codec accepting
+ * it, or by the serial codec, writing the object with Java serialization, if
+ * none does.
+ * <p>
+ * Records written with the serial bindings of earlier versions start with a
+ * type code of the object stream, never with the {@link #MAGIC} byte, so
+ * that both are read from the same store.
+ *
+ * @see RecordBinding
+ */
+public class RecordFormat {
+
+	/**
+	 * The first byte of a record, outside the type codes of object streams.
+	 */
+	public static final int MAGIC = 0xC0;
+
+	/**
+	 * The version of the records written, records of later versions are not
+	 * read.
+	 */
+	public static final int VERSION = 1;
+
+	private final RecordCodec serialCodec = new SerialCodec();
+
+	// the codecs by precedence, the last registered first
+	private final List<RecordCodec> codecs = new CopyOnWriteArrayList<RecordCodec>();
+
+	private final Map<Integer, RecordCodec> codecsById = new ConcurrentHashMap<Integer, RecordCodec>();
+
+	/**
+	 * Creates the format with the codecs of {@link sorcer.core.context.ServiceContext}s,
+	 * {@link sorcer.util.DataTable}s and {@link UuidObject}s.
+	 */
+	public RecordFormat() {
+		codecsById.put(serialCodec.getId(), serialCodec);
+		register(new UuidObjectCodec());
+		register(new TableCodec());
+		register(new ContextCodec());
+	}
+
+	/**
+	 * Registers the codec, taking precedence over the codecs registered before.
+	 *
+	 * @throws IllegalArgumentException if a codec with the same id is registered
+	 */
+	public void register(RecordCodec codec) {
+		RecordCodec registered = codecsById.get(codec.getId());
+		if (registered != null && registered != codec)
+			throw new IllegalArgumentException("Codec id " + codec.getId() + " of " + codec
+					+ " already registered by " + registered);
+		codecsById.put(codec.getId(), codec);
+		codecs.add(0, codec);
+	}
+
+	/**
+	 * Returns the codec writing the object.
+	 */
+	public RecordCodec getCodec(Object object) {
+		for (RecordCodec codec : codecs) {
+			if (codec.accepts(object))
+				return codec;
+		}
+		return serialCodec;
+	}
+
+	/**
+	 * Writes the record of the object.
+	 */
+	public void writeRecord(Object object, TupleOutput out) throws IOException {
+		RecordCodec codec = getCodec(object);
+		out.writeFast(MAGIC);
+		out.writeFast(VERSION);
+		out.writePackedInt(codec.getId());
+		codec.write(object, out, this);
+	}
+
+	/**
+	 * Reads the object of a record.
+	 */
+	public Object readRecord(TupleInput in) throws IOException, ClassNotFoundException {
+		if (in.readFast() != MAGIC)
+			throw new IOException("Not a SORCER record");
+		int version = in.readFast();
+		if (version > VERSION)
+			throw new IOException("Unsupported record version: " + version);
+		return codecOf(in.readPackedInt()).read(in, this);
+	}
+
+	/**
+	 * Writes an object nested in a record with the codec of the object,
+	 * prefixed by its length, so that codecs can write more data after it.
+	 */
+	public void writeObject(Object object, TupleOutput out) throws IOException {
+		RecordCodec codec = getCodec(object);
+		TupleOutput nested = new TupleOutput();
+		codec.write(object, nested, this);
+		out.writePackedInt(codec.getId());
+		out.writePackedInt(nested.getBufferLength());
+		out.writeFast(nested.getBufferBytes(), 0, nested.getBufferLength());
+	}
+
+	/**
+	 * Reads an object written by {@link #writeObject}.
+	 */
+	public Object readObject(TupleInput in) throws IOException, ClassNotFoundException {
+		RecordCodec codec = codecOf(in.readPackedInt());
+		int length = in.readPackedInt();
+		TupleInput nested = new TupleInput(in.getBufferBytes(), in.getBufferOffset(), length);
+		in.skipFast(length);
+		return codec.read(nested, this);
+	}
+
+	/**
+	 * Returns true if the data is a record of this format, false if written
+	 * with a serial binding.
+	 */
+	public static boolean isRecord(DatabaseEntry data) {
+		return data.getSize() > 0 && (data.getData()[data.getOffset()] & 0xff) == MAGIC;
+	}
+
+	private RecordCodec codecOf(int id) throws IOException {
+		RecordCodec codec = codecsById.get(id);
+		if (codec == null)
+			throw new IOException("No codec registered with id: " + id);
+		return codec;
+	}
+}
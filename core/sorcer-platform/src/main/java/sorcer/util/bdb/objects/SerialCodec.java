@@ -0,0 +1,59 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import net.jini.io.MarshalInputStream;
+import net.jini.io.MarshalOutputStream;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+
+/**
+ * The codec of the objects of no other codec, written with Java
+ * serialization annotated with the codebases of their classes.
+ */
+class SerialCodec implements RecordCodec {
+
+	static final int ID = 0;
+
+	@Override
+	public int getId() {
+		return ID;
+	}
+
+	@Override
+	public boolean accepts(Object object) {
+		return true;
+	}
+
+	@Override
+	public void write(Object object, TupleOutput out, RecordFormat format) throws IOException {
+		ObjectOutputStream oos = new MarshalOutputStream(out, Collections.emptySet());
+		oos.writeObject(object);
+		oos.flush();
+	}
+
+	@Override
+	public Object read(TupleInput in, RecordFormat format) throws IOException, ClassNotFoundException {
+		MarshalInputStream ois = new MarshalInputStream(in, Thread.currentThread().getContextClassLoader(),
+				false, null, Collections.emptySet());
+		ois.useCodebaseAnnotations();
+		return ois.readObject();
+	}
+}
@@ -26,7 +26,17 @@ import com.sleepycat.bind.tuple.TupleBinding;
 import com.sleepycat.collections.StoredMap;
 import com.sleepycat.collections.StoredSortedMap;
 import com.sleepycat.collections.StoredValueSet;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.CursorConfig;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DatabaseException;
+import com.sleepycat.je.LockMode;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
 import net.jini.id.Uuid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import sorcer.core.context.ServiceContext;
 import sorcer.core.provider.DatabaseStorer.Store;
 import sorcer.core.provider.ProviderRuntime;
@@ -37,10 +47,17 @@ import sorcer.util.DataTable;
 import sorcer.util.ModelTable;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * ExertionDatabaseViews defines the data bindings and collection views for the
  * exertion database.
+ * <p>
+ * The exertions, contexts, tables and UuidObjects are stored as records of
+ * the {@link RecordFormat}, the records written by earlier versions with
+ * serial bindings being read as before until {@link #migrate() migrated}.
  * 
  * @author Mike Sobolewski
  */
@@ -52,11 +69,26 @@ public class SorcerDatabaseViews {
 	protected StoredMap contextMap;
 	protected StoredMap tableMap;
 	protected StoredMap uuidObjectMap;
+
+	private static final Logger logger = LoggerFactory.getLogger(SorcerDatabaseViews.class);
+
+	// the number of records migrated in one transaction
+	private static final int MIGRATION_BATCH = 100;
+
+	private final SorcerDatabase db;
+
+	private final RecordFormat recordFormat = new RecordFormat();
+
+	private RecordBinding exertionBinding;
+	private RecordBinding contextBinding;
+	private RecordBinding tableBinding;
+	private RecordBinding uuidObjectBinding;
 	
 	/**
 	 * Create the data bindings and collection views.
 	 */
 	public SorcerDatabaseViews(SorcerDatabase db) {
+		this.db = db;
 		// Create the data bindings.
 		ClassCatalog catalog = db.getClassCatalog();
 		SerialBinding runtimeKeyBinding = new SerialBinding(catalog, Uuid.class);
@@ -72,33 +104,33 @@ public class SorcerDatabaseViews {
 				runtimeDataBinding, true);
 		
 		SerialBinding exertiontKeyBinding = new SerialBinding(catalog, UuidKey.class);
-		EntityBinding exertionDataBinding = new ExertionBinding(catalog,
-				UuidKey.class, ServiceExertion.class);
+		exertionBinding = new RecordBinding(recordFormat, new ExertionBinding(catalog,
+				UuidKey.class, ServiceExertion.class));
 	
 		exertionMap = new StoredSortedMap(db.getExertionDatabase(),
-				exertiontKeyBinding, exertionDataBinding, true);
+				exertiontKeyBinding, exertionBinding, true);
 		
 		SerialBinding contextKeyBinding = new SerialBinding(catalog, UuidKey.class);
-		EntityBinding contextDataBinding = new ContextBinding(catalog,
-				UuidKey.class, MarshalledData.class);
+		contextBinding = new RecordBinding(recordFormat, new ContextBinding(catalog,
+				UuidKey.class, MarshalledData.class));
 		
 		contextMap = new StoredMap(db.getContextDatabase(),
-				contextKeyBinding, contextDataBinding, true);
+				contextKeyBinding, contextBinding, true);
 		
 		SerialBinding tableKeyBinding = new SerialBinding(catalog, UuidKey.class);
-		EntityBinding tableDataBinding = new TableBinding(catalog,
-				UuidKey.class, MarshalledData.class);
+		tableBinding = new RecordBinding(recordFormat, new TableBinding(catalog,
+				UuidKey.class, MarshalledData.class));
 		
 		tableMap = new StoredMap(db.getTableDatabase(),
-				tableKeyBinding, tableDataBinding, true);
+				tableKeyBinding, tableBinding, true);
 	
 			
 		SerialBinding objectKeyBinding = new SerialBinding(catalog, UuidKey.class);
-		EntityBinding objectDataBinding = new UuidObjectBinding(catalog,
-				UuidKey.class, MarshalledData.class);
+		uuidObjectBinding = new RecordBinding(recordFormat, new UuidObjectBinding(catalog,
+				UuidKey.class, MarshalledData.class));
 		
 		uuidObjectMap = new StoredMap(db.getUuidObjectDatabase(),
-				objectKeyBinding, objectDataBinding, true);
+				objectKeyBinding, uuidObjectBinding, true);
 	}
 
 	// The views returned below can be accessed using the java.util.Map or
@@ -176,6 +208,79 @@ public class SorcerDatabaseViews {
 	public StoredValueSet<UuidObject> getUuidObjectSet() {
 		return (StoredValueSet) uuidObjectMap.values();
 	}
+
+	/**
+	 * Return the record format of the exertion, context, table and UuidObject
+	 * storage containers, to register the codecs of application types with.
+	 */
+	public RecordFormat getRecordFormat() {
+		return recordFormat;
+	}
+
+	/**
+	 * Rewrite the records of the exertion, context, table and UuidObject
+	 * storage containers written with the serial bindings of earlier versions
+	 * in the {@link RecordFormat}. The records not rewritten, since their
+	 * objects cannot be read, are still read with the serial bindings.
+	 *
+	 * @return the number of records rewritten
+	 */
+	public int migrate() throws DatabaseException {
+		return migrate(db.getExertionDatabase(), exertionBinding)
+				+ migrate(db.getContextDatabase(), contextBinding)
+				+ migrate(db.getTableDatabase(), tableBinding)
+				+ migrate(db.getUuidObjectDatabase(), uuidObjectBinding);
+	}
+
+	private int migrate(Database database, RecordBinding binding) throws DatabaseException {
+		// the keys of the serial records, reading the first byte of the data only
+		List<DatabaseEntry> keys = new ArrayList<DatabaseEntry>();
+		DatabaseEntry key = new DatabaseEntry();
+		DatabaseEntry data = new DatabaseEntry();
+		data.setPartial(0, 1, true);
+		Cursor cursor = database.openCursor(null, CursorConfig.READ_COMMITTED);
+		try {
+			while (cursor.getNext(key, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (!RecordFormat.isRecord(data))
+					keys.add(new DatabaseEntry(Arrays.copyOfRange(key.getData(), key.getOffset(),
+							key.getOffset() + key.getSize())));
+			}
+		} finally {
+			cursor.close();
+		}
+
+		int migrated = 0;
+		for (int i = 0; i < keys.size(); i += MIGRATION_BATCH) {
+			Transaction txn = database.getEnvironment().beginTransaction(null, null);
+			try {
+				for (DatabaseEntry serialKey : keys.subList(i, Math.min(keys.size(), i + MIGRATION_BATCH))) {
+					DatabaseEntry serialData = new DatabaseEntry();
+					if (database.get(txn, serialKey, serialData, LockMode.RMW) != OperationStatus.SUCCESS
+							|| RecordFormat.isRecord(serialData))
+						continue;
+					DatabaseEntry record = new DatabaseEntry();
+					try {
+						Object entity = binding.entryToObject(serialKey, serialData);
+						if (entity == null)
+							continue;
+						binding.objectToData(entity, record);
+					} catch (RuntimeException e) {
+						logger.warn("Failed to migrate record of " + database.getDatabaseName(), e);
+						continue;
+					}
+					database.put(txn, serialKey, record);
+					migrated++;
+				}
+				txn.commit();
+			} catch (RuntimeException e) {
+				txn.abort();
+				throw e;
+			}
+		}
+		if (migrated > 0)
+			logger.info("Migrated {} serial records of {}", migrated, database.getDatabaseName());
+		return migrated;
+	}
 	
 	/**
 	 * ExertionBinding is used to bind the stored key/data entry pair to a
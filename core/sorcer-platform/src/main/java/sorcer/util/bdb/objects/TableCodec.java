@@ -0,0 +1,97 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import sorcer.util.DataTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The codec of {@link DataTable}s writing the cells of their rows as tuples.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+class TableCodec extends ContainerCodec<List<List<Object>>> {
+
+	static final int ID = 2;
+
+	@Override
+	public int getId() {
+		return ID;
+	}
+
+	@Override
+	public boolean accepts(Object object) {
+		return object instanceof DataTable && ((DataTable) object).getDataList() != null;
+	}
+
+	@Override
+	Object containerOf(Object object) {
+		return ((DataTable) object).getDataList();
+	}
+
+	@Override
+	void writeEntries(Object container, TupleOutput out, List<Object> serialValues) {
+		List<List<?>> rows = new ArrayList<List<?>>((List<List<?>>) container);
+		out.writePackedInt(rows.size());
+		for (List<?> row : rows) {
+			if (row == null) {
+				out.writePackedInt(-1);
+				continue;
+			}
+			List<?> cells = new ArrayList<Object>(row);
+			out.writePackedInt(cells.size());
+			for (Object cell : cells)
+				writeValue(cell, out, serialValues);
+		}
+	}
+
+	@Override
+	List<List<Object>> readEntries(TupleInput in) {
+		int size = in.readPackedInt();
+		List<List<Object>> rows = new ArrayList<List<Object>>(size);
+		for (int i = 0; i < size; i++) {
+			int cells = in.readPackedInt();
+			List<Object> row = null;
+			if (cells >= 0) {
+				row = new ArrayList<Object>(cells);
+				for (int j = 0; j < cells; j++)
+					row.add(readValue(in));
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	// the rows are synchronized lists as created by the table
+	@Override
+	Object rebuild(List<List<Object>> entries, List<Object> serialValues) {
+		List<List<?>> rows = Collections.synchronizedList(new ArrayList<List<?>>(entries.size()));
+		for (List<Object> row : entries) {
+			if (row == null) {
+				rows.add(null);
+				continue;
+			}
+			for (int i = 0; i < row.size(); i++)
+				row.set(i, valueOf(row.get(i), serialValues));
+			rows.add(Collections.synchronizedList(row));
+		}
+		return rows;
+	}
+}
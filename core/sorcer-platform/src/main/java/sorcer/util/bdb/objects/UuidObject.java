@@ -66,6 +66,17 @@ public class UuidObject implements SecureIdentifiable, Serializable {
 		if (id == null)
 			id = UuidFactory.generate();
 	}
+
+	// restores a stored object
+	UuidObject(Uuid id, String name, String description, SorcerPrincipal principal,
+			   Date dateCreated, Object object) {
+		this.id = id;
+		this.name = name;
+		this.description = description;
+		this.principal = principal;
+		this.dateCreated = dateCreated;
+		this.object = object;
+	}
     
     public final Uuid getId() {
         return id;
@@ -0,0 +1,74 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import net.jini.id.Uuid;
+import net.jini.id.UuidFactory;
+import sorcer.security.util.SorcerPrincipal;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * The codec of {@link UuidObject}s writing their fields as tuples, the
+ * principal and the wrapped object with the codecs of the format.
+ */
+class UuidObjectCodec implements RecordCodec {
+
+	static final int ID = 3;
+
+	@Override
+	public int getId() {
+		return ID;
+	}
+
+	@Override
+	public boolean accepts(Object object) {
+		return object != null && object.getClass() == UuidObject.class;
+	}
+
+	@Override
+	public void write(Object object, TupleOutput out, RecordFormat format) throws IOException {
+		UuidObject uuidObject = (UuidObject) object;
+		Uuid id = uuidObject.getId();
+		out.writeBoolean(id != null);
+		if (id != null) {
+			out.writeLong(id.getMostSignificantBits());
+			out.writeLong(id.getLeastSignificantBits());
+		}
+		out.writeString(uuidObject.getName());
+		out.writeString(uuidObject.getDescription());
+		Date dateCreated = uuidObject.getDateCreated();
+		out.writeBoolean(dateCreated != null);
+		if (dateCreated != null)
+			out.writeLong(dateCreated.getTime());
+		format.writeObject(uuidObject.getPrincipal(), out);
+		format.writeObject(uuidObject.getObject(), out);
+	}
+
+	@Override
+	public Object read(TupleInput in, RecordFormat format) throws IOException, ClassNotFoundException {
+		Uuid id = in.readBoolean() ? UuidFactory.create(in.readLong(), in.readLong()) : null;
+		String name = in.readString();
+		String description = in.readString();
+		Date dateCreated = in.readBoolean() ? new Date(in.readLong()) : null;
+		SorcerPrincipal principal = (SorcerPrincipal) format.readObject(in);
+		Object object = format.readObject(in);
+		return new UuidObject(id, name, description, principal, dateCreated, object);
+	}
+}
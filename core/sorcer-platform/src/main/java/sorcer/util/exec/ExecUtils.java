@@ -9,9 +9,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Utility methods to interact with and manage native processes started from
@@ -54,10 +60,14 @@ public class ExecUtils {
 			cmdarray[0] = "cmd";
 			cmdarray[1] = "/C";
 			cmdarray[2] = cmd;
-			return execCommand(Runtime.getRuntime().exec(cmdarray));
 		} else {
-			return execCommand(Runtime.getRuntime().exec(cmd));
-		}		
+			// split as Runtime.exec does
+			StringTokenizer st = new StringTokenizer(cmd);
+			cmdarray = new String[st.countTokens()];
+			for (int i = 0; st.hasMoreTokens(); i++)
+				cmdarray[i] = st.nextToken();
+		}
+		return exec(cmdarray);
 	}
 
     private static boolean isWindows() {
@@ -97,7 +107,21 @@ public class ExecUtils {
 			}
 			cmdarray = ncmdarray;
 		}
-		return execCommand(Runtime.getRuntime().exec(cmdarray));
+		return exec(cmdarray);
+	}
+
+	/**
+	 * Executes the command with the {@link ProcessExecutor} of the JVM,
+	 * bounding the processes running at a time.
+	 */
+	private static CmdResult exec(String[] cmdarray) throws IOException,
+			InterruptedException {
+		try {
+			return ProcessExecutor.getProcessExecutor().exec(cmdarray, null,
+					null, ProcessOutput.buffer(), ProcessOutput.buffer());
+		} catch (TimeoutException e) {
+			throw new IOException(Arrays.toString(cmdarray) + ": " + e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -173,14 +197,15 @@ public class ExecUtils {
 			final InputStream stdin, boolean outLogged) throws IOException,
 			InterruptedException {
 		// concurrency to avoid stdio deadlocks
-		Redir stdout = null;
+		ByteArrayOutputStream stdout = null;
+		Future<?> outPump = null;
 		String out = null;
 		if (!outLogged) {
-			stdout = new Redir(process.getInputStream());
-			new Thread(stdout).start();
+			stdout = new ByteArrayOutputStream();
+			outPump = ProcessExecutor.pump(process.getInputStream(), stdout, false);
 		}
-		Redir stderr = new Redir(process.getErrorStream());
-		new Thread(stderr).start();
+		ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+		Future<?> errPump = ProcessExecutor.pump(process.getErrorStream(), stderr, false);
 		// redirect input in the current thread
 		if (stdin != null) {
 			OutputStream pout = process.getOutputStream();
@@ -191,12 +216,12 @@ public class ExecUtils {
         logger.debug("exitValue: " + exitValue);
 
 		if (stdout != null) {
-			stdout.throwIfHadException();
-			out = new String(stdout.getResult());
+			await(outPump);
+			out = new String(stdout.toByteArray());
             logger.debug("out: " + out);
         }
-		stderr.throwIfHadException();
-		String err = new String(stderr.getResult());
+		await(errPump);
+		String err = new String(stderr.toByteArray());
 
 		return new CmdResult(exitValue, out, err);
 	}
@@ -221,20 +246,18 @@ public class ExecUtils {
 	public static CmdResult execCommandNoBlocking(final Process process,
 			final InputStream stdin) throws IOException, InterruptedException {
 		// concurrency to avoid stdio deadlocks
-		Redir stdout = new Redir(process.getInputStream());
-		Redir stderr = new Redir(process.getErrorStream());
-		new Thread(stdout).start();
-		new Thread(stderr).start();
+		ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+		ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+		ProcessExecutor.pump(process.getInputStream(), stdout, false);
+		ProcessExecutor.pump(process.getErrorStream(), stderr, false);
 		// redirect input in the current thread
 		if (stdin != null) {
 			OutputStream pout = process.getOutputStream();
 			new RedirectingInputStream(stdin, true, true).redirectAll(pout);
 		}
 
-		stdout.throwIfHadException();
-		stderr.throwIfHadException();
-		String out = new String(stdout.getResult());
-		String err = new String(stderr.getResult());
+		String out = new String(stdout.toByteArray());
+		String err = new String(stderr.toByteArray());
 
 		return new CmdResult(-1, out, err);
 	}
@@ -294,11 +317,23 @@ public class ExecUtils {
 		final int exitValue;
 		final String out;
 		final String err;
+		final File outFile;
+		final File errFile;
 
 		public CmdResult(int exitValue, String out, String err) {
+			this(exitValue, out, err, null, null);
+		}
+
+		/**
+		 * Creates the result of a command with its output written to files,
+		 * the out and err being the text kept in memory, if any.
+		 */
+		public CmdResult(int exitValue, String out, String err, File outFile, File errFile) {
 			this.exitValue = exitValue;
 			this.out = out;
 			this.err = err;
+			this.outFile = outFile;
+			this.errFile = errFile;
 		}
 
 		public int getExitValue() {
@@ -312,6 +347,20 @@ public class ExecUtils {
 		public String getErr() {
 			return err;
 		}
+
+		/**
+		 * Returns the file the standard output was written to or null.
+		 */
+		public File getOutFile() {
+			return outFile;
+		}
+
+		/**
+		 * Returns the file the standard error was written to or null.
+		 */
+		public File getErrFile() {
+			return errFile;
+		}
 		
 		@Override
 		public String toString() {
@@ -387,45 +436,23 @@ public class ExecUtils {
 		}
 	}
 
-	private static class Redir implements Runnable {
-		final Pipe pipe;
-		IOException ex;
-
-		Redir(InputStream is) {
-			ByteArrayOutputStream bos = new ByteArrayOutputStream();
-			BrokenPipeHandler bph = new BrokenPipeHandler() {
-				public void brokenPipe(IOException ex, InputStream src,
-						OutputStream sink) {
-					setException(ex);
-				}
-			};
-			this.pipe = new Pipe(is, bos, bph, true, true);
-		}
-
-		public void run() {
-			pipe.run();
-		}
-
-		synchronized void setException(IOException e) {
-			this.ex = e;
-		}
-
-		synchronized void throwIfHadException() throws IOException {
-			if (ex != null)
-				throw ex;
-		}
-
-		public byte[] getResult() {
-			return ((ByteArrayOutputStream) pipe.sink).toByteArray();
+	private static void await(Future<?> pump) throws IOException,
+			InterruptedException {
+		try {
+			pump.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
 		}
 	}
 
 	private static class ProcessHandler {
 		final Process process;
-		final Thread tstdin;
-		final Thread tstdout;
-		final Thread tstderr;
-		final Thread texitHandler;
+		final Runnable tstdin;
+		final Runnable tstdout;
+		final Runnable tstderr;
+		final Runnable texitHandler;
 
 		ProcessHandler(final Process process, InputStream stdin,
 				boolean inAutoFlush, boolean inAutoClose,
@@ -443,22 +470,22 @@ public class ExecUtils {
 			this.tstderr = createPipe(process.getErrorStream(), stderr,
 					errBrokenHandler, errAutoFlush, errAutoClose);
 			if (exitHandler != null) {
-				this.texitHandler = new Thread(new ExitHandler(process,
-						exitHandler));
+				this.texitHandler = new ExitHandler(process, exitHandler);
 			} else {
 				texitHandler = null;
 			}
 		}
 
 		void start() {
+			// pumped by the threads shared with the process executor
 			if (tstdin != null)
-				tstdin.start();
+				ProcessExecutor.submit(tstdin);
 			if (tstdout != null)
-				tstdout.start();
+				ProcessExecutor.submit(tstdout);
 			if (tstderr != null)
-				tstderr.start();
+				ProcessExecutor.submit(tstderr);
 			if (texitHandler != null)
-				texitHandler.start();
+				ProcessExecutor.submit(texitHandler);
 		}
 
 		private static class ExitHandler implements Runnable {
@@ -483,7 +510,7 @@ public class ExecUtils {
 			}
 		}
 
-		private static Thread createPipe(InputStream src, OutputStream sink,
+		private static Runnable createPipe(InputStream src, OutputStream sink,
 				BrokenPipeHandler bph, boolean autoFlush, boolean autoClose)
 				throws IOException {
 			if (src == null) {
@@ -495,8 +522,7 @@ public class ExecUtils {
 					src.close();
 				return null;
 			} else {
-				return new Thread(
-						new Pipe(src, sink, bph, autoFlush, autoClose));
+				return new Pipe(src, sink, bph, autoFlush, autoClose);
 			}
 		}
 	}
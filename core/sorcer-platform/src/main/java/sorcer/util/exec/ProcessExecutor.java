@@ -0,0 +1,288 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util.exec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.Sorcer;
+import sorcer.util.exec.ExecUtils.CmdResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes native processes with their standard streams pumped by a pool of
+ * threads shared by all processes of the JVM, and their output streamed to
+ * {@link ProcessOutput}s. The number of processes running at a time is
+ * bounded, a process started over the limit waits for a running one to exit.
+ * A process not exited within its timeout, or whose waiting thread is
+ * interrupted, is killed.
+ * <p>
+ * The executor of the JVM is bounded by the
+ * {@link sorcer.core.SorcerConstants#EXEC_MAX_PROCESSES} property and its
+ * processes time out after {@link sorcer.core.SorcerConstants#EXEC_TIMEOUT}
+ * seconds, if set. Providers running external processes may create their own
+ * executors with the limits of their configuration.
+ */
+public class ProcessExecutor {
+	private final static Logger logger = LoggerFactory.getLogger(ProcessExecutor.class);
+
+	// time a destroyed process is given to exit before it is killed forcibly
+	static final long KILL_GRACE = 2000;
+
+	private static final int PUMP_BUFFER = 8192;
+
+	private static final ExecutorService pumps = Executors.newCachedThreadPool(new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "ProcessExecutor-pump-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private static ProcessExecutor instance;
+
+	private final int maxProcesses;
+
+	private final Semaphore permits;
+
+	private final long timeout;
+
+	/**
+	 * @param maxProcesses the processes running at a time
+	 * @param timeout the time in milliseconds a process is waited for before
+	 *            it is killed, 0 to wait until it exits
+	 */
+	public ProcessExecutor(int maxProcesses, long timeout) {
+		if (maxProcesses < 1)
+			throw new IllegalArgumentException("maxProcesses: " + maxProcesses);
+		this.maxProcesses = maxProcesses;
+		this.permits = new Semaphore(maxProcesses, true);
+		this.timeout = timeout;
+	}
+
+	public static synchronized ProcessExecutor getProcessExecutor() {
+		if (instance == null)
+			instance = new ProcessExecutor(Sorcer.getExecMaxProcesses(),
+					TimeUnit.SECONDS.toMillis(Sorcer.getExecTimeout()));
+		return instance;
+	}
+
+	/**
+	 * Pumps the source to the sink with a thread of the shared pool, closing
+	 * the sink at the end of the source.
+	 */
+	public static Future<?> pump(final InputStream src, final OutputStream sink, final boolean autoFlush) {
+		return pumps.submit(new Callable<Void>() {
+			public Void call() throws IOException {
+				new RedirectingInputStream(src, autoFlush, true, PUMP_BUFFER).redirectAll(sink);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Runs the task with a thread of the shared pool.
+	 */
+	static Future<?> submit(Runnable task) {
+		return pumps.submit(task);
+	}
+
+	/**
+	 * Starts the command once fewer than the maximum processes are running.
+	 *
+	 * @param cmdarray the command and its arguments
+	 * @param dir the working directory or null for the current one
+	 * @param stdin the standard input or null for none
+	 * @param out the sink of the standard output
+	 * @param err the sink of the standard error
+	 * @return the running process
+	 * @throws InterruptedException if interrupted while waiting to start
+	 */
+	public Execution start(String[] cmdarray, File dir, InputStream stdin,
+			ProcessOutput out, ProcessOutput err) throws IOException, InterruptedException {
+		permits.acquire();
+		Process process;
+		try {
+			ProcessBuilder builder = new ProcessBuilder(cmdarray);
+			if (dir != null)
+				builder.directory(dir);
+			process = builder.start();
+		} catch (IOException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+		logger.debug("started {}", Arrays.toString(cmdarray));
+		return new Execution(process, stdin, out, err);
+	}
+
+	/**
+	 * Executes the command and waits for it to exit within the timeout of
+	 * this executor. The output kept by the sinks is returned as the output
+	 * of the result.
+	 *
+	 * @throws TimeoutException if the process was killed at the timeout
+	 * @throws InterruptedException if interrupted, the process is killed
+	 */
+	public CmdResult exec(String[] cmdarray, File dir, InputStream stdin,
+			ProcessOutput out, ProcessOutput err) throws IOException, InterruptedException, TimeoutException {
+		return exec(cmdarray, dir, stdin, out, err, timeout);
+	}
+
+	/**
+	 * Executes the command and waits for it to exit within the given timeout
+	 * in milliseconds, 0 to wait until it exits.
+	 *
+	 * @see #exec(String[], File, InputStream, ProcessOutput, ProcessOutput)
+	 */
+	public CmdResult exec(String[] cmdarray, File dir, InputStream stdin,
+			ProcessOutput out, ProcessOutput err, long timeout)
+			throws IOException, InterruptedException, TimeoutException {
+		Execution execution = start(cmdarray, dir, stdin, out, err);
+		int exitValue = execution.waitFor(timeout);
+		return new CmdResult(exitValue, out.getText(), err.getText(), out.getFile(), err.getFile());
+	}
+
+	public int getMaxProcesses() {
+		return maxProcesses;
+	}
+
+	/**
+	 * Returns the number of processes running.
+	 */
+	public int getRunningCount() {
+		return maxProcesses - permits.availablePermits();
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * A process started by the executor with its streams being pumped.
+	 */
+	public class Execution {
+		private final Process process;
+		private final Future<?> outPump;
+		private final Future<?> errPump;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Execution(final Process process, InputStream stdin, ProcessOutput out, ProcessOutput err)
+				throws IOException {
+			this.process = process;
+			outPump = pump(process.getInputStream(), out, false);
+			errPump = pump(process.getErrorStream(), err, false);
+			if (stdin != null)
+				pump(stdin, process.getOutputStream(), true);
+			else
+				process.getOutputStream().close();
+			// the process holds its permit until it exits, waited for or not
+			submit(new Runnable() {
+				public void run() {
+					try {
+						process.waitFor();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						release();
+					}
+				}
+			});
+		}
+
+		/**
+		 * Waits for the process to exit and its output to be pumped.
+		 *
+		 * @param timeout the time in milliseconds to wait, 0 to wait until
+		 *            the process exits
+		 * @return the exit value of the process
+		 * @throws TimeoutException if the process was killed at the timeout
+		 * @throws InterruptedException if interrupted, the process is killed
+		 */
+		public int waitFor(long timeout) throws IOException, InterruptedException, TimeoutException {
+			try {
+				if (timeout > 0) {
+					if (!process.waitFor(timeout, TimeUnit.MILLISECONDS)) {
+						cancel();
+						throw new TimeoutException("Process killed after " + timeout + " ms");
+					}
+				} else {
+					process.waitFor();
+				}
+				await(outPump);
+				await(errPump);
+			} catch (InterruptedException e) {
+				cancel();
+				throw e;
+			}
+			return process.exitValue();
+		}
+
+		/**
+		 * Kills the process, forcibly if it does not exit when destroyed.
+		 */
+		public void cancel() {
+			process.destroy();
+			try {
+				if (!process.waitFor(KILL_GRACE, TimeUnit.MILLISECONDS))
+					process.destroyForcibly();
+			} catch (InterruptedException e) {
+				process.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		public boolean isAlive() {
+			return process.isAlive();
+		}
+
+		public Process getProcess() {
+			return process;
+		}
+
+		private void await(Future<?> pump) throws IOException, InterruptedException {
+			try {
+				pump.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException)
+					throw (IOException) e.getCause();
+				throw new IOException(e.getCause());
+			}
+		}
+
+		private void release() {
+			if (released.compareAndSet(false, true))
+				permits.release();
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util.exec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The sink of the standard output or error of a native process pumped by the
+ * {@link ProcessExecutor}. The output is kept in memory, all of it or its
+ * tail, written to a file or passed line by line to a handler, so that the
+ * output of a process printing more than fits in memory is streamed instead
+ * of buffered.
+ */
+public abstract class ProcessOutput extends OutputStream {
+
+	/**
+	 * Handles the lines of an output.
+	 */
+	public interface LineHandler {
+		void line(String line);
+	}
+
+	private long count;
+
+	/**
+	 * Returns an output kept in memory.
+	 */
+	public static ProcessOutput buffer() {
+		return new Buffer();
+	}
+
+	/**
+	 * Returns an output keeping its last bytes up to the capacity.
+	 */
+	public static ProcessOutput tail(int capacity) {
+		return new Tail(capacity);
+	}
+
+	/**
+	 * Returns an output written to the file.
+	 */
+	public static ProcessOutput file(File file) throws IOException {
+		return new FileOutput(file);
+	}
+
+	/**
+	 * Returns an output passing each line to the handler.
+	 */
+	public static ProcessOutput lines(LineHandler handler) {
+		return new Lines(handler);
+	}
+
+	/**
+	 * Appends the bytes to this output.
+	 */
+	protected abstract void append(byte[] b, int off, int len) throws IOException;
+
+	/**
+	 * Returns the text kept by this output, all of it or its tail, or null if
+	 * none is kept.
+	 */
+	public abstract String getText();
+
+	/**
+	 * Returns the file the output is written to or null.
+	 */
+	public File getFile() {
+		return null;
+	}
+
+	/**
+	 * Returns the number of bytes written.
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns true if the text kept is not all of the output.
+	 */
+	public boolean isTruncated() {
+		return false;
+	}
+
+	@Override
+	public synchronized void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public synchronized void write(byte[] b, int off, int len) throws IOException {
+		append(b, off, len);
+		count += len;
+	}
+
+	private static class Buffer extends ProcessOutput {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		@Override
+		protected void append(byte[] b, int off, int len) {
+			bytes.write(b, off, len);
+		}
+
+		@Override
+		public synchronized String getText() {
+			return new String(bytes.toByteArray());
+		}
+	}
+
+	private static class Tail extends ProcessOutput {
+		private final byte[] ring;
+		private int position;
+		private boolean wrapped;
+
+		Tail(int capacity) {
+			ring = new byte[capacity];
+		}
+
+		@Override
+		protected void append(byte[] b, int off, int len) {
+			if (len >= ring.length) {
+				System.arraycopy(b, off + len - ring.length, ring, 0, ring.length);
+				position = 0;
+				wrapped = true;
+				return;
+			}
+			int first = Math.min(len, ring.length - position);
+			System.arraycopy(b, off, ring, position, first);
+			System.arraycopy(b, off + first, ring, 0, len - first);
+			if (position + len >= ring.length)
+				wrapped = true;
+			position = (position + len) % ring.length;
+		}
+
+		@Override
+		public synchronized String getText() {
+			if (!wrapped)
+				return new String(ring, 0, position);
+			byte[] text = new byte[ring.length];
+			System.arraycopy(ring, position, text, 0, ring.length - position);
+			System.arraycopy(ring, 0, text, ring.length - position, position);
+			return new String(text);
+		}
+
+		@Override
+		public boolean isTruncated() {
+			return getCount() > ring.length;
+		}
+	}
+
+	private static class FileOutput extends ProcessOutput {
+		private final File file;
+		private final OutputStream out;
+
+		FileOutput(File file) throws IOException {
+			this.file = file;
+			out = new BufferedOutputStream(new FileOutputStream(file));
+		}
+
+		@Override
+		protected void append(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public String getText() {
+			return null;
+		}
+
+		@Override
+		public File getFile() {
+			return file;
+		}
+
+		@Override
+		public synchronized void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public synchronized void close() throws IOException {
+			out.close();
+		}
+	}
+
+	private static class Lines extends ProcessOutput {
+		private final LineHandler handler;
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		Lines(LineHandler handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		protected void append(byte[] b, int off, int len) {
+			int start = off;
+			for (int i = off; i < off + len; i++) {
+				if (b[i] == '\n') {
+					line.write(b, start, i - start);
+					endLine();
+					start = i + 1;
+				}
+			}
+			line.write(b, start, off + len - start);
+		}
+
+		private void endLine() {
+			byte[] bytes = line.toByteArray();
+			int length = bytes.length;
+			if (length > 0 && bytes[length - 1] == '\r')
+				length--;
+			line.reset();
+			handler.line(new String(bytes, 0, length));
+		}
+
+		@Override
+		public String getText() {
+			return null;
+		}
+
+		@Override
+		public synchronized void close() {
+			if (line.size() > 0)
+				endLine();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package sorcer.core.analytics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguous() {
+        Assert.assertEquals(0, LatencyHistogram.indexOf(0));
+        long low = 0;
+        for (int i = 0; i < LatencyHistogram.indexOf(Long.MAX_VALUE); i++) {
+            long high = LatencyHistogram.highestValueOf(i);
+            Assert.assertEquals(i, LatencyHistogram.indexOf(low));
+            Assert.assertEquals(i, LatencyHistogram.indexOf(high));
+            Assert.assertTrue(high - low <= Math.max(0, low / LatencyHistogram.SUB_BUCKETS));
+            low = high + 1;
+        }
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 10000; v++)
+            histogram.record(v * 1000);
+        long[] values = LatencyHistogram.getValuesAtPercentiles(histogram.getCounts(), histogram.getMax(), 50, 95, 99, 100);
+        long[] expected = {5000000, 9500000, 9900000, 10000000};
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertTrue(values[i] + " for " + expected[i], values[i] >= expected[i]);
+            Assert.assertTrue(values[i] + " for " + expected[i],
+                              values[i] <= expected[i] + expected[i] / LatencyHistogram.SUB_BUCKETS);
+        }
+        Assert.assertEquals(10000000, histogram.getMax());
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = LatencyHistogram.getValuesAtPercentiles(histogram.getCounts(), histogram.getMax(), 50, 99);
+        Assert.assertEquals(0, values[0]);
+        Assert.assertEquals(0, values[1]);
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            pool.execute(new Runnable() {
+                @Override public void run() {
+                    for (int i = 0; i < 100000; i++)
+                        histogram.record(thread * 100000 + i);
+                }
+            });
+        }
+        pool.shutdown();
+        Assert.assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+        long total = 0;
+        for (long count : histogram.getCounts())
+            total += count;
+        Assert.assertEquals(800000, total);
+        Assert.assertEquals(799999, histogram.getMax());
+    }
+}
@@ -0,0 +1,66 @@
+package sorcer.core.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.*;
+
+public class AttributeTableTest {
+
+    private AttributeTable newTable() {
+        AttributeTable table = new AttributeTable();
+        table.put("arg/x1", "set1");
+        table.put("arg/x2", "set1");
+        table.put("arg/x3", "set2");
+        return table;
+    }
+
+    @Test
+    public void testIndexFollowsUpdates() {
+        AttributeTable table = newTable();
+        Assert.assertEquals(Arrays.asList("arg/x2", "arg/x1"), table.getPaths("set1"));
+        table.put("arg/x2", "set2");
+        table.remove("arg/x3");
+        table.put("arg/x4", "set2");
+        Assert.assertEquals(Arrays.asList("arg/x1"), table.getPaths("set1"));
+        Assert.assertEquals(Arrays.asList("arg/x4", "arg/x2"), table.getPaths("set2"));
+        Assert.assertTrue(table.getPaths("set3").isEmpty());
+    }
+
+    @Test
+    public void testViewsAndCopies() throws Exception {
+        AttributeTable table = newTable();
+        table.getPaths("set1");
+        table.keySet().remove("arg/x1");
+        Assert.assertEquals(Arrays.asList("arg/x2"), table.getPaths("set1"));
+        for (Map.Entry<String, String> e : table.entrySet())
+            e.setValue("set3");
+        Assert.assertEquals(2, table.getPaths("set3").size());
+
+        AttributeTable copy = (AttributeTable) table.clone();
+        copy.put("arg/x5", "set3");
+        Assert.assertEquals(2, table.getPaths("set3").size());
+        Assert.assertEquals(3, copy.getPaths("set3").size());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(copy);
+        out.close();
+        AttributeTable read = (AttributeTable) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        Assert.assertEquals(new HashSet<String>(copy.getPaths("set3")),
+                new HashSet<String>(read.getPaths("set3")));
+    }
+
+    @Test
+    public void testIntersection() {
+        List<List<String>> paths = new ArrayList<List<String>>();
+        paths.add(Arrays.asList("a", "b", "c", "d"));
+        paths.add(Arrays.asList("d", "b"));
+        paths.add(Arrays.asList("c", "b", "d"));
+        Assert.assertEquals(Arrays.asList("d", "b"), AttributeTable.intersection(paths));
+        paths.add(Collections.<String>emptyList());
+        Assert.assertTrue(AttributeTable.intersection(paths).isEmpty());
+    }
+}
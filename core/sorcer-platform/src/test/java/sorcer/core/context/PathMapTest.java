@@ -0,0 +1,143 @@
+package sorcer.core.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class PathMapTest {
+
+    private PathMap<Object> newMap() {
+        PathMap<Object> map = new PathMap<Object>();
+        map.put("arg/x1", 1.0);
+        map.put("arg/x10", 10.0);
+        map.put("arg/x1/y", 2.0);
+        map.put("result/y", 3.0);
+        map.put("argument", 4.0);
+        return map;
+    }
+
+    @Test
+    public void testPrefixAndSubtree() {
+        PathMap<Object> map = newMap();
+        Assert.assertEquals(Arrays.asList("arg/x1", "arg/x1/y", "arg/x10", "argument"), map.prefixedPaths("arg"));
+        Assert.assertEquals(Arrays.asList("arg/x1", "arg/x1/y"), map.subtreePaths("arg/x1"));
+        Assert.assertEquals(Collections.emptyList(), map.subtreePaths("arg/x"));
+        Assert.assertEquals(Arrays.asList("arg/x1/y", "result/y"), map.suffixedPaths("/y"));
+    }
+
+    @Test
+    public void testIndexFollowsUpdates() {
+        PathMap<Object> map = newMap();
+        map.remove("arg/x1/y");
+        Iterator<Map.Entry<String, Object>> i = map.entrySet().iterator();
+        while (i.hasNext()) {
+            if (i.next().getKey().equals("argument"))
+                i.remove();
+        }
+        map.keySet().remove("result/y");
+        Assert.assertEquals(Arrays.asList("arg/x1", "arg/x10"), map.sortedPaths());
+        Assert.assertEquals(Collections.emptyList(), map.suffixedPaths("y"));
+        map.clear();
+        Assert.assertTrue(map.sortedPaths().isEmpty());
+    }
+
+    @Test
+    public void testSnapshot() {
+        PathMap<Object> map = newMap();
+        PathMap<Object> copy = map.snapshot();
+        map.put("arg/x1", 5.0);
+        copy.remove("result/y");
+        copy.put("arg/x2", 6.0);
+        Assert.assertEquals(5.0, map.get("arg/x1"));
+        Assert.assertEquals(1.0, copy.get("arg/x1"));
+        Assert.assertEquals(3.0, map.get("result/y"));
+        Assert.assertNull(map.get("arg/x2"));
+        Assert.assertEquals(Arrays.asList("arg/x1", "arg/x1/y", "arg/x10", "argument", "result/y"), map.sortedPaths());
+        Assert.assertEquals(Arrays.asList("arg/x1", "arg/x1/y", "arg/x10", "arg/x2", "argument"), copy.sortedPaths());
+        Assert.assertEquals(Arrays.asList("arg/x1/y"), copy.suffixedPaths("/y"));
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(5, copy.size());
+    }
+
+    @Test
+    public void testSnapshotOfMutableValues() {
+        PathMap<Object> map = newMap();
+        List<Double> values = new ArrayList<Double>(Arrays.asList(1.0, 2.0));
+        map.put("arg/values", values);
+        PathMap<Object> copy = map.snapshot();
+        ((List<Double>) copy.get("arg/values")).add(3.0);
+        Assert.assertEquals(Arrays.asList(1.0, 2.0, 3.0), copy.get("arg/values"));
+        // the map snapshotted keeps its values
+        Assert.assertSame(values, map.get("arg/values"));
+        Assert.assertEquals(Arrays.asList(1.0, 2.0), values);
+        map.put("arg/x1", 5.0);
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            if (e.getKey().equals("arg/values"))
+                Assert.assertSame(values, e.getValue());
+        }
+        values.add(4.0);
+        Assert.assertEquals(Arrays.asList(1.0, 2.0, 3.0), copy.get("arg/values"));
+        // values read once are not copied again
+        Assert.assertSame(copy.get("arg/values"), copy.get("arg/values"));
+        for (Map.Entry<String, Object> e : copy.entrySet()) {
+            if (e.getKey().equals("arg/values"))
+                Assert.assertSame(copy.get("arg/values"), e.getValue());
+        }
+        // a snapshot of the snapshot copies the values of the snapshot
+        PathMap<Object> second = copy.snapshot();
+        ((List<Double>) second.get("arg/values")).add(5.0);
+        Assert.assertEquals(Arrays.asList(1.0, 2.0, 3.0), copy.get("arg/values"));
+        Assert.assertEquals(Arrays.asList(1.0, 2.0, 3.0, 5.0), second.get("arg/values"));
+    }
+
+    @Test
+    public void testSnapshotInPlaceChanges() {
+        PathMap<Object> map = newMap();
+        Map<String, List<Double>> nested = new HashMap<String, List<Double>>();
+        nested.put("values", new ArrayList<Double>(Arrays.asList(1.0, 2.0)));
+        double[] array = { 1.0, 2.0 };
+        map.put("arg/nested", nested);
+        map.put("arg/array", array);
+        PathMap<Object> copy = map.snapshot();
+        // changed in place through the map before the snapshot reads them
+        nested.get("values").add(3.0);
+        nested.put("other", new ArrayList<Double>());
+        array[0] = 5.0;
+        Map<String, List<Double>> copied = (Map<String, List<Double>>) copy.get("arg/nested");
+        Assert.assertEquals(Collections.singleton("values"), copied.keySet());
+        Assert.assertEquals(Arrays.asList(1.0, 2.0), copied.get("values"));
+        Assert.assertArrayEquals(new double[] { 1.0, 2.0 }, (double[]) copy.get("arg/array"), 0.0);
+        Assert.assertSame(nested, map.get("arg/nested"));
+    }
+
+    @Test
+    public void testDiff() {
+        PathMap<Object> base = newMap();
+        base.put("arg/values", new ArrayList<Double>(Arrays.asList(1.0, 2.0)));
+        base.put("arg/list", new ArrayList<Double>(Arrays.asList(5.0)));
+        PathMap<Object> map = base.snapshot();
+        map.put("arg/x1", 1.0);
+        map.put("result/y", 30.0);
+        map.put("result/z", 40.0);
+        map.remove("argument");
+        ((List<Double>) map.get("arg/values")).add(3.0);
+        // read, not changed
+        Assert.assertEquals(Arrays.asList(5.0), map.get("arg/list"));
+        List<String> removed = new ArrayList<String>();
+        Map<String, Object> changed = map.diff(base, removed);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("result/y", "result/z", "arg/values")),
+                changed.keySet());
+        Assert.assertEquals(Arrays.asList(1.0, 2.0, 3.0), changed.get("arg/values"));
+        Assert.assertEquals(Arrays.asList(1.0, 2.0), base.get("arg/values"));
+        Assert.assertEquals(Arrays.asList("argument"), removed);
+    }
+
+    @Test
+    public void testLiteralPrefix() {
+        Assert.assertEquals("arg/x", ServiceContext.literalPrefix("arg/x.*"));
+        Assert.assertEquals("arg/", ServiceContext.literalPrefix("arg/x*"));
+        Assert.assertEquals("", ServiceContext.literalPrefix("arg|res.*"));
+        Assert.assertEquals("", ServiceContext.literalPrefix(".*/y"));
+    }
+}
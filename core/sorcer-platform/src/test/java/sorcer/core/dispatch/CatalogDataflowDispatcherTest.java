@@ -0,0 +1,87 @@
+package sorcer.core.dispatch;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import sorcer.core.context.ServiceContext;
+import sorcer.service.*;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class CatalogDataflowDispatcherTest {
+    private DispatchScheduler scheduler = new DispatchScheduler(4, 8, 2);
+
+    private List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+    @After
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private Task newTask(String name) {
+        Task task = new Task(name);
+        task.setContext(new ServiceContext<Object>(name));
+        return task;
+    }
+
+    // the mapping the pipe operator leaves in the metacontext of the piped in context
+    private void pipe(Exertion from, Exertion to) throws ContextException {
+        Map<String, Map<String, String>> metaCtx = to.getDataContext().getMetacontext();
+        Map<String, String> mapping = metaCtx.get(Context.CONTEXT_ID);
+        if (mapping == null) {
+            mapping = new HashMap<String, String>();
+            metaCtx.put(Context.CONTEXT_ID, mapping);
+        }
+        mapping.put("arg/" + from.getName(), from.getDataContext().getId().toString());
+    }
+
+    @Test
+    public void testPipedStart() throws Exception {
+        Job job = new Job("dataflow");
+        Task a = newTask("a");
+        Task b = newTask("b");
+        Task c = newTask("c");
+        Task master = newTask("master");
+        pipe(a, b);
+        pipe(b, c);
+        pipe(a, master);
+
+        final CountDownLatch masterStarted = new CountDownLatch(1);
+        final boolean[] masterBeforeB = new boolean[1];
+        CatalogDataflowDispatcher dispatcher = new CatalogDataflowDispatcher(job, null, false, null, null) {
+            @Override
+            protected Exertion execExertion(Exertion exertion, Arg... args) {
+                events.add("start " + exertion.getName());
+                if (exertion.getName().equals("master")) {
+                    masterStarted.countDown();
+                } else if (exertion.getName().equals("b")) {
+                    // b is still running while the master runs
+                    try {
+                        masterBeforeB[0] = masterStarted.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                exertion.setStatus(Exec.DONE);
+                events.add("end " + exertion.getName());
+                return exertion;
+            }
+        };
+        dispatcher.scheduler = scheduler;
+        dispatcher.inputXrts = new ArrayList<Mogram>(Arrays.asList(a, b, c));
+        dispatcher.masterXrt = master;
+        dispatcher.doExec();
+
+        Assert.assertEquals(Exec.DONE, job.getStatus());
+        Assert.assertEquals(8, events.size());
+        // children start once the children piped into them are done
+        Assert.assertTrue(events.indexOf("end a") < events.indexOf("start b"));
+        Assert.assertTrue(events.indexOf("end b") < events.indexOf("start c"));
+        // the master does not wait for b that is not piped into it
+        Assert.assertTrue(masterBeforeB[0]);
+        Assert.assertTrue(events.indexOf("start master") < events.indexOf("end b"));
+        Assert.assertEquals(0, scheduler.getInFlight());
+    }
+}
@@ -0,0 +1,95 @@
+package sorcer.core.dispatch;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import sorcer.core.context.ServiceContext;
+import sorcer.service.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class CatalogParallelDispatcherTest {
+    private DispatchScheduler scheduler = new DispatchScheduler(4, 8, 2);
+
+    private List<String> started = Collections.synchronizedList(new ArrayList<String>());
+
+    @After
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private Task newTask(String name) {
+        Task task = new Task(name);
+        task.setContext(new ServiceContext<Object>(name));
+        return task;
+    }
+
+    // runs the exertions in the scheduler instead of the providers of the job
+    private CatalogParallelDispatcher newDispatcher(Job job, List<Mogram> exertions,
+                                                    final String failing) {
+        CatalogParallelDispatcher dispatcher = new CatalogParallelDispatcher(job, null, false, null, null) {
+            @Override
+            protected Exertion execExertion(Exertion exertion, Arg... args) {
+                started.add(exertion.getName());
+                if (exertion.getName().equals(failing)) {
+                    exertion.setStatus(Exec.FAILED);
+                    return exertion;
+                }
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exertion.setStatus(Exec.DONE);
+                return exertion;
+            }
+        };
+        dispatcher.scheduler = scheduler;
+        dispatcher.inputXrts = exertions;
+        return dispatcher;
+    }
+
+    @Test
+    public void testFailureKeepsSubmitting() throws Exception {
+        Job job = new Job("parallel");
+        List<Mogram> exertions = new ArrayList<Mogram>();
+        // more exertions than the job may run at once
+        for (int i = 0; i < 5; i++)
+            exertions.add(newTask("x" + i));
+        CatalogParallelDispatcher dispatcher = newDispatcher(job, exertions, "x0");
+        try {
+            dispatcher.doExec();
+            Assert.fail("failed exertion not reported");
+        } catch (ExertionException e) {
+            // expected
+        }
+        Assert.assertEquals(Exec.FAILED, job.getStatus());
+        Assert.assertEquals(5, started.size());
+        for (Mogram exertion : exertions) {
+            if (!exertion.getName().equals("x0"))
+                Assert.assertEquals(Exec.DONE, ((Exertion) exertion).getStatus());
+        }
+        Assert.assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        Job job = new Job("parallel");
+        job.getControlContext().setFailFast(true);
+        List<Mogram> exertions = new ArrayList<Mogram>();
+        for (int i = 0; i < 5; i++)
+            exertions.add(newTask("x" + i));
+        CatalogParallelDispatcher dispatcher = newDispatcher(job, exertions, "x0");
+        try {
+            dispatcher.doExec();
+            Assert.fail("failed exertion not reported");
+        } catch (ExertionException e) {
+            // expected
+        }
+        Assert.assertEquals(Exec.FAILED, job.getStatus());
+        // no exertion is submitted after the failure
+        Assert.assertTrue(started.size() < 5);
+    }
+}
@@ -0,0 +1,158 @@
+package sorcer.core.dispatch;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class DispatchSchedulerTest {
+    private DispatchScheduler scheduler = new DispatchScheduler(4, 8, 2);
+
+    @After
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testJobConcurrencyLimit() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        DispatchScheduler.JobSlot slot = scheduler.newJobSlot();
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        for (int i = 0; i < 2; i++) {
+            final int n = i;
+            results.add(scheduler.submit(slot, new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    release.await(5, TimeUnit.SECONDS);
+                    return n;
+                }
+            }));
+        }
+        Assert.assertEquals(0, slot.available());
+
+        // the job is saturated so the third exertion runs in the caller thread
+        final Thread caller = Thread.currentThread();
+        Future<Boolean> inline = scheduler.submit(slot, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return Thread.currentThread() == caller;
+            }
+        });
+        Assert.assertTrue(inline.isDone());
+        Assert.assertTrue(inline.get());
+        Assert.assertEquals(1, scheduler.getCallerRuns());
+
+        release.countDown();
+        for (int i = 0; i < results.size(); i++)
+            Assert.assertEquals(i, (int) DispatchScheduler.await(results.get(i)));
+        Assert.assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    public void testCompletionOrder() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        DispatchScheduler.JobSlot slot = scheduler.newJobSlot();
+        Future<String> slow = scheduler.submit(slot, new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await(5, TimeUnit.SECONDS);
+                return "slow";
+            }
+        });
+        Future<String> fast = scheduler.submit(slot, new Callable<String>() {
+            @Override
+            public String call() {
+                return "fast";
+            }
+        });
+        Assert.assertSame(fast, slot.takeCompleted());
+        Assert.assertFalse(slow.isDone());
+
+        // cancelling interrupts the running exertion and still reports its completion
+        Assert.assertTrue(slow.cancel(true));
+        Assert.assertSame(slow, slot.takeCompleted());
+        Assert.assertEquals(2, slot.available());
+    }
+
+    @Test
+    public void testActiveJobs() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Future<?> job = scheduler.submitJob(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, scheduler.getActiveJobs());
+        release.countDown();
+        job.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(0, scheduler.getActiveJobs());
+    }
+
+    @Test
+    public void testCallerClassLoader() throws Exception {
+        Callable<ClassLoader> contextLoader = new Callable<ClassLoader>() {
+            @Override
+            public ClassLoader call() {
+                return Thread.currentThread().getContextClassLoader();
+            }
+        };
+        Thread caller = Thread.currentThread();
+        ClassLoader original = caller.getContextClassLoader();
+        ClassLoader providerLoader = new URLClassLoader(new URL[0], original);
+        caller.setContextClassLoader(providerLoader);
+        try {
+            Assert.assertSame(providerLoader, scheduler.submit(scheduler.newJobSlot(), contextLoader).get());
+        } finally {
+            caller.setContextClassLoader(original);
+        }
+        // the threads of the pool do not keep the loader of an earlier caller
+        Assert.assertSame(original, scheduler.submit(scheduler.newJobSlot(), contextLoader).get());
+    }
+
+    @Test
+    public void testQueuedSubmit() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final DispatchScheduler.JobSlot slot = scheduler.newJobSlot();
+        Callable<Boolean> blocked = new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return release.await(5, TimeUnit.SECONDS);
+            }
+        };
+        Assert.assertNotNull(scheduler.trySubmit(slot, blocked));
+        Assert.assertNotNull(scheduler.trySubmit(slot, blocked));
+
+        // a saturated job is neither run in the caller thread nor queued by the scheduler
+        final Thread caller = Thread.currentThread();
+        Callable<Boolean> inCaller = new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return Thread.currentThread() == caller;
+            }
+        };
+        Assert.assertNull(scheduler.trySubmit(slot, inCaller));
+        Assert.assertEquals(0, scheduler.getCallerRuns());
+
+        // a waiting submit runs in the pool once a running exertion completes
+        release.countDown();
+        Future<Boolean> waited = scheduler.submitWaiting(slot, inCaller);
+        Assert.assertFalse(DispatchScheduler.await(waited));
+        Assert.assertEquals(0, scheduler.getCallerRuns());
+    }
+}
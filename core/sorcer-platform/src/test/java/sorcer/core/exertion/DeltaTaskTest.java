@@ -0,0 +1,82 @@
+package sorcer.core.exertion;
+
+import org.junit.Assert;
+import org.junit.Test;
+import sorcer.core.context.ServiceContext;
+import sorcer.service.ContextException;
+import sorcer.service.Exec;
+import sorcer.service.Task;
+import sorcer.util.ObjectCloner;
+
+import java.util.*;
+
+public class DeltaTaskTest {
+
+    private Task newTask() throws ContextException {
+        ServiceContext<Object> cxt = new ServiceContext<Object>("delta");
+        cxt.putValue("arg/x1", 1.0);
+        cxt.putValue("arg/x2", 2.0);
+        cxt.putValue("arg/values", new ArrayList<Double>(Arrays.asList(1.0, 2.0)));
+        cxt.putValue("arg/read", new ArrayList<Double>(Arrays.asList(5.0)));
+        Task task = new Task("delta");
+        task.setContext(cxt);
+        task.getControlContext().setDelta(true);
+        task.getControlContext().setTracable(true);
+        return task;
+    }
+
+    // the task received done as by ServiceProvider.exert
+    private DeltaTask exert(Task received) throws ContextException {
+        ServiceContext<Object> base = (ServiceContext<Object>) received.getDataContext();
+        int exceptionCount = received.getExceptions().size();
+        int traceCount = received.getControlContext().getTrace().size();
+        Task done = received.snapshot();
+        ServiceContext<Object> cxt = (ServiceContext<Object>) done.getDataContext();
+        cxt.putValue("result/y", 3.0);
+        cxt.remove("arg/x2");
+        ((List<Double>) cxt.get("arg/values")).add(3.0);
+        // read only
+        Assert.assertEquals(Arrays.asList(5.0), cxt.get("arg/read"));
+        done.getControlContext().addException(new IllegalStateException("failed"));
+        done.getControlContext().appendTrace("done");
+        done.setStatus(Exec.DONE);
+        return new DeltaTask(done, base, exceptionCount, traceCount);
+    }
+
+    @Test
+    public void testRemoteMerge() throws Exception {
+        Task sent = newTask();
+        // the provider receives and returns copies
+        DeltaTask delta = (DeltaTask) ObjectCloner.clone(exert((Task) ObjectCloner.clone(sent)));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("result/y", "arg/values")), delta.getChanged().keySet());
+        Assert.assertEquals(Arrays.asList("arg/x2"), delta.getRemoved());
+        Assert.assertSame(sent, DeltaTask.merge(sent, delta));
+        assertMerged(sent);
+    }
+
+    @Test
+    public void testInProcessMerge() throws Exception {
+        Task sent = newTask();
+        DeltaTask delta = exert(sent);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("result/y", "arg/values")), delta.getChanged().keySet());
+        // done on a snapshot, the task sent is unchanged until merged
+        ServiceContext<Object> cxt = (ServiceContext<Object>) sent.getDataContext();
+        Assert.assertEquals(2.0, cxt.get("arg/x2"));
+        Assert.assertEquals(Arrays.asList(1.0, 2.0), cxt.get("arg/values"));
+        Assert.assertTrue(sent.getExceptions().isEmpty());
+        Assert.assertTrue(sent.getControlContext().getTrace().isEmpty());
+        Assert.assertSame(sent, DeltaTask.merge(sent, delta));
+        assertMerged(sent);
+    }
+
+    private void assertMerged(Task task) throws ContextException {
+        ServiceContext<Object> cxt = (ServiceContext<Object>) task.getDataContext();
+        Assert.assertEquals(3.0, cxt.get("result/y"));
+        Assert.assertFalse(cxt.containsPath("arg/x2"));
+        Assert.assertEquals(Arrays.asList(1.0, 2.0, 3.0), cxt.get("arg/values"));
+        Assert.assertEquals(Arrays.asList(5.0), cxt.get("arg/read"));
+        Assert.assertEquals(1, task.getExceptions().size());
+        Assert.assertEquals(Arrays.asList("done"), task.getControlContext().getTrace());
+        Assert.assertEquals(Exec.DONE, task.getStatus());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.invoker;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.context.model.ent.ProcModel;
+import sorcer.core.exertion.LoopMogram;
+import sorcer.service.*;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.rmi.RemoteException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static sorcer.eo.operator.*;
+import static sorcer.po.operator.*;
+
+/**
+ * Measures the {@link GroovyInvoker} of a proc model evaluated in each
+ * iteration of a {@link LoopMogram}, with the script compiled once by the
+ * {@link ScriptCache}, and compares it with evaluating the same expression by
+ * a new {@link GroovyShell} each time, compiling a new class per evaluation,
+ * as the invoker did before the cache.
+ */
+public class GroovyInvokerBenchmark {
+    private final static Logger logger = LoggerFactory.getLogger(GroovyInvokerBenchmark.class);
+
+    private static final int ITERATIONS = 500;
+
+    private static final String EXPRESSION = "x + y";
+
+    private final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+    public static class Adder {
+        public Context add(Context context) throws ContextException {
+            context.putValue("sum", (Double) context.getValue("sum") + (Double) context.getValue("z"));
+            // the invoker is evaluated again with the new x
+            context.putValue("x", (Double) context.getValue("x") + 1.0);
+            return context;
+        }
+    }
+
+    /**
+     * Evaluates the expression by a new shell bound to the args each time.
+     */
+    public static class ShellInvoker extends ServiceInvoker<Object> {
+        private final String expression;
+
+        public ShellInvoker(String name, String expression, String... names) {
+            super(name);
+            this.expression = expression;
+            setArgs(args((Object[]) names));
+        }
+
+        @Override
+        public Object getValue(Arg... entries) throws EvaluationException, RemoteException {
+            Binding binding = new Binding();
+            try {
+                for (Arg arg : args)
+                    binding.setVariable(arg.getName(), invokeContext.getValue(arg.getName()));
+            } catch (ContextException e) {
+                throw new EvaluationException(e);
+            }
+            return new GroovyShell(Thread.currentThread().getContextClassLoader(), binding)
+                    .evaluate(expression);
+        }
+    }
+
+    @Test
+    public void shellInvokers() throws Exception {
+        long classes = classLoading.getTotalLoadedClassCount();
+        long time = loop(new ShellInvoker("z", EXPRESSION, "x", "y"));
+        logger.info("shell: {} iterations/s, {} classes loaded",
+                rate(ITERATIONS, time), classLoading.getTotalLoadedClassCount() - classes);
+    }
+
+    @Test
+    public void cachedInvokers() throws Exception {
+        long misses = ScriptCache.getScriptCache().getStats().missCount();
+        long hits = ScriptCache.getScriptCache().getStats().hitCount();
+        long classes = classLoading.getTotalLoadedClassCount();
+        long time = loop(invoker("z", EXPRESSION, args("x", "y")));
+        logger.info("cached: {} iterations/s, {} classes loaded, script cache: {}",
+                rate(ITERATIONS, time), classLoading.getTotalLoadedClassCount() - classes,
+                ScriptCache.getScriptCache().getStats());
+
+        // the expression is compiled once for all iterations
+        assertEquals(1, ScriptCache.getScriptCache().getStats().missCount() - misses);
+        assertTrue(ScriptCache.getScriptCache().getStats().hitCount() - hits >= ITERATIONS - 1);
+    }
+
+    // exerts the loop of a task summing the invoker of its model, returns the time in ns
+    private long loop(ServiceInvoker z) throws Exception {
+        ProcModel model = procModel("sum", proc("x", 0.0), proc("y", 2.0), proc("sum", 0.0));
+        add(model, z);
+        Task task = task("add", sig("add", Adder.class), model);
+        LoopMogram loop = loop(0, ITERATIONS, task);
+
+        long start = System.nanoTime();
+        LoopMogram out = exert(loop);
+        long time = System.nanoTime() - start;
+        assertTrue(out.getExceptions().isEmpty());
+        return time;
+    }
+
+    private static long rate(int count, long nanos) {
+        return count * 1000000000L / Math.max(nanos, 1);
+    }
+}
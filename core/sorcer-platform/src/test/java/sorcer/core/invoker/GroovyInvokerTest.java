@@ -0,0 +1,56 @@
+package sorcer.core.invoker;
+
+import com.google.common.cache.CacheStats;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+import static sorcer.po.operator.proc;
+
+public class GroovyInvokerTest {
+
+    private static CacheStats stats() {
+        return ScriptCache.getScriptCache().getStats();
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        GroovyInvoker<Double> invoker = new GroovyInvoker<Double>("x + y + 0.25", proc("x", 1.0), proc("y", 2.0));
+        CacheStats before = stats();
+        Assert.assertEquals(3.25, invoker.getValue(), 0.0);
+        Assert.assertEquals(3.25, invoker.getValue(), 0.0);
+        // another invoker of the same expression uses the same script class
+        Assert.assertEquals(3.25, new GroovyInvoker<Double>("x + y + 0.25",
+                proc("x", 1.0), proc("y", 2.0)).getValue(), 0.0);
+        CacheStats after = stats().minus(before);
+        Assert.assertEquals(1, after.missCount());
+        Assert.assertEquals(2, after.hitCount());
+    }
+
+    @Test
+    public void testFreshBinding() throws Exception {
+        // the script sets a variable of its binding that the next evaluation must not see
+        GroovyInvoker<Boolean> invoker = new GroovyInvoker<Boolean>(
+                "def seen = this.binding.hasVariable('leak'); leak = x; seen", proc("x", 1.0));
+        Assert.assertEquals(Boolean.FALSE, invoker.getValue());
+        Assert.assertEquals(Boolean.FALSE, invoker.getValue());
+    }
+
+    @Test
+    public void testScriptFileEdit() throws Exception {
+        File script = File.createTempFile("invoker", ".groovy");
+        try {
+            FileUtils.writeStringToFile(script, "x + 1");
+            GroovyInvoker<Double> invoker = new GroovyInvoker<Double>(script, proc("x", 1.0));
+            Assert.assertEquals(2.0, invoker.getValue(), 0.0);
+            Assert.assertEquals(2.0, invoker.getValue(), 0.0);
+
+            FileUtils.writeStringToFile(script, "x + 2");
+            Assert.assertEquals(3.0, invoker.getValue(), 0.0);
+        } finally {
+            script.delete();
+        }
+    }
+}
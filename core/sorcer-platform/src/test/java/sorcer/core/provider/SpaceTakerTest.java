@@ -0,0 +1,208 @@
+package sorcer.core.provider;
+
+import net.jini.core.entry.Entry;
+import net.jini.core.event.RemoteEvent;
+import net.jini.core.transaction.Transaction;
+import net.jini.space.JavaSpace;
+import net.jini.space.JavaSpace05;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.exertion.ExertionEnvelop;
+import sorcer.util.Backoff;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives space takers against an in-memory space with a simulated round trip
+ * per take call.
+ */
+public class SpaceTakerTest {
+    private final static Logger logger = LoggerFactory.getLogger(SpaceTakerTest.class);
+
+    private static final int ENVELOPS = 400;
+
+    private static final long ROUND_TRIP = 2;
+
+    @Test
+    public void testBackoff() {
+        Backoff backoff = new Backoff(5, 30);
+        Assert.assertEquals(5, backoff.next());
+        Assert.assertEquals(10, backoff.next());
+        Assert.assertEquals(20, backoff.next());
+        Assert.assertEquals(30, backoff.next());
+        Assert.assertEquals(30, backoff.next());
+        backoff.reset();
+        Assert.assertEquals(5, backoff.next());
+    }
+
+    @Test
+    public void testBatchedTakeThroughput() throws Exception {
+        TakeStats single = takeAll(1);
+        TakeStats batched = takeAll(16);
+        logger.info("single take: {} ms, {} calls; batched take: {} ms, {} calls",
+                single.millis, single.calls, batched.millis, batched.calls);
+        Assert.assertEquals(ENVELOPS, single.calls);
+        Assert.assertTrue(batched.calls < single.calls / 4);
+    }
+
+    @Test
+    public void testTakeOnNotify() throws Exception {
+        final BlockingQueue<ExertionEnvelop> entries = new LinkedBlockingQueue<ExertionEnvelop>();
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger takes = new AtomicInteger();
+        final JavaSpace05 space = (JavaSpace05) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { JavaSpace05.class }, new InMemorySpace(entries, calls) {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        takes.incrementAndGet();
+                        return super.invoke(proxy, method, args);
+                    }
+                });
+        final SpaceAvailabilityListener listener = new SpaceAvailabilityListener(null) {
+            @Override
+            public synchronized boolean register(JavaSpace05 space, Entry template) {
+                return true;
+            }
+
+            @Override
+            public synchronized void unregister() {
+                notify((RemoteEvent) null);
+            }
+        };
+        final CountDownLatch done = new CountDownLatch(1);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(1));
+        SpaceTaker.SpaceTakerData data = new SpaceTaker.SpaceTakerData(new ExertionEnvelop(), null, null,
+                "test", null, false, false, 1, true);
+        SpaceTaker taker = new SpaceTaker(data, pool, false) {
+            @Override
+            protected SpaceAvailabilityListener createAvailabilityListener() {
+                return listener;
+            }
+
+            @Override
+            protected JavaSpace05 getSpace() {
+                return space;
+            }
+
+            @Override
+            protected Runnable createWorker(ExertionEnvelop ee, Transaction.Created txnCreated) {
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                };
+            }
+        };
+        Thread thread = new Thread(taker);
+        thread.start();
+        try {
+            // an idle taker takes once and then waits for an availability event
+            Thread.sleep(200);
+            Assert.assertEquals(1, takes.get());
+            entries.add(new ExertionEnvelop());
+            listener.notify((RemoteEvent) null);
+            Assert.assertTrue(done.await(2, TimeUnit.SECONDS));
+        } finally {
+            taker.destroy();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            pool.shutdownNow();
+        }
+    }
+
+    private TakeStats takeAll(int batchSize) throws Exception {
+        final BlockingQueue<ExertionEnvelop> entries = new LinkedBlockingQueue<ExertionEnvelop>();
+        for (int i = 0; i < ENVELOPS; i++)
+            entries.add(new ExertionEnvelop());
+        final AtomicInteger calls = new AtomicInteger();
+        final JavaSpace05 space = (JavaSpace05) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { JavaSpace05.class }, new InMemorySpace(entries, calls));
+
+        final CountDownLatch done = new CountDownLatch(ENVELOPS);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(64));
+        SpaceTaker.SpaceTakerData data = new SpaceTaker.SpaceTakerData(new ExertionEnvelop(), null, null,
+                "test", null, false, false, batchSize);
+        SpaceTaker taker = new SpaceTaker(data, pool, false) {
+            @Override
+            protected JavaSpace05 getSpace() {
+                return space;
+            }
+
+            @Override
+            protected Runnable createWorker(ExertionEnvelop ee, Transaction.Created txnCreated) {
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                };
+            }
+        };
+        long start = System.nanoTime();
+        Thread thread = new Thread(taker);
+        thread.start();
+        try {
+            Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        } finally {
+            taker.destroy();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            pool.shutdownNow();
+        }
+        return new TakeStats(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), calls.get());
+    }
+
+    private static class TakeStats {
+        final long millis;
+        final int calls;
+
+        TakeStats(long millis, int calls) {
+            this.millis = millis;
+            this.calls = calls;
+        }
+    }
+
+    /**
+     * Handles the single and multi take operations of JavaSpace05 with a
+     * simulated remote round trip.
+     */
+    private static class InMemorySpace implements InvocationHandler {
+        private final BlockingQueue<ExertionEnvelop> entries;
+        private final AtomicInteger calls;
+
+        InMemorySpace(BlockingQueue<ExertionEnvelop> entries, AtomicInteger calls) {
+            this.entries = entries;
+            this.calls = calls;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().equals("take"))
+                throw new UnsupportedOperationException(method.getName());
+            Thread.sleep(ROUND_TRIP);
+            long timeout = (Long) args[2];
+            ExertionEnvelop first = timeout == JavaSpace.NO_WAIT ? entries.poll()
+                    : entries.poll(timeout, TimeUnit.MILLISECONDS);
+            if (first != null)
+                calls.incrementAndGet();
+            if (args[0] instanceof Entry)
+                return first;
+            List<ExertionEnvelop> taken = new ArrayList<ExertionEnvelop>();
+            if (first != null) {
+                taken.add(first);
+                entries.drainTo(taken, (int) ((Long) args[3] - 1));
+            }
+            return (Collection<ExertionEnvelop>) taken;
+        }
+    }
+}
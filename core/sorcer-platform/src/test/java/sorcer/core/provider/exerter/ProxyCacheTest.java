@@ -0,0 +1,123 @@
+package sorcer.core.provider.exerter;
+
+import net.jini.core.lookup.ServiceItem;
+import net.jini.lookup.ServiceDiscoveryEvent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import sorcer.core.signature.NetSignature;
+import sorcer.service.Context;
+import sorcer.service.Signature;
+
+import java.rmi.ConnectException;
+import java.rmi.MarshalException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ProxyCacheTest {
+
+    interface Adder {
+    }
+
+    private final Signature signature = new NetSignature("add", Adder.class);
+    private final Object first = "first proxy";
+    private final Object second = "second proxy";
+    private TestCache cache;
+
+    // looks up the registered proxies not suspected
+    private static class TestCache extends ProxyCache {
+        final List<Object> registered = new ArrayList<Object>();
+        int lookups;
+
+        TestCache() {
+            super(10, 1, TimeUnit.MINUTES);
+        }
+
+        @Override
+        Object lookup(Signature signature) {
+            lookups++;
+            for (Object proxy : registered) {
+                if (!isSuspect(proxy))
+                    return proxy;
+            }
+            return Context.none;
+        }
+    }
+
+    @Before
+    public void init() {
+        cache = new TestCache();
+        cache.registered.add(first);
+        cache.registered.add(second);
+    }
+
+    @Test
+    public void testIsUnreachable() {
+        Assert.assertTrue(ProxyCache.isUnreachable(new ConnectException("refused")));
+        Assert.assertTrue(ProxyCache.isUnreachable(
+                new RemoteException("failed", new java.net.ConnectException("refused"))));
+        Assert.assertTrue(ProxyCache.isUnreachable(
+                new RemoteException("failed", new java.net.UnknownHostException("host"))));
+        // may have reached the provider
+        Assert.assertFalse(ProxyCache.isUnreachable(new RemoteException("failed in provider")));
+        Assert.assertFalse(ProxyCache.isUnreachable(new MarshalException("failed writing")));
+    }
+
+    @Test
+    public void testRetryWithAlternate() {
+        Assert.assertSame(first, cache.get(signature));
+        Assert.assertSame(first, cache.get(signature));
+        Assert.assertEquals(1, cache.lookups);
+
+        Assert.assertSame(second, cache.failed(signature, first, new ConnectException("refused")));
+        Assert.assertTrue(cache.isSuspect(first));
+        Assert.assertEquals(1, cache.getRetries());
+        Assert.assertSame(second, cache.get(signature));
+        Assert.assertEquals(2, cache.lookups);
+
+        // not retried, the call may have reached the provider
+        Assert.assertNull(cache.failed(signature, second, new RemoteException("failed in provider")));
+        Assert.assertFalse(cache.isSuspect(second));
+        Assert.assertEquals(2, cache.getFailures());
+        Assert.assertEquals(1, cache.getRetries());
+        // dropped anyway
+        Assert.assertSame(second, cache.get(signature));
+        Assert.assertEquals(3, cache.lookups);
+
+        // no alternate
+        cache.registered.remove(first);
+        Assert.assertNull(cache.failed(signature, second, new ConnectException("refused")));
+        Assert.assertNull(cache.get(signature));
+    }
+
+    @Test
+    public void testLookupEvents() {
+        Assert.assertSame(first, cache.get(signature));
+        cache.failed(signature, first, new ConnectException("refused"));
+        cache.registered.remove(first);
+        cache.serviceRemoved(new ServiceDiscoveryEvent(this, new ServiceItem(null, first, null), null));
+        // the proxy removed is no longer suspected
+        Assert.assertFalse(cache.isSuspect(first));
+        Assert.assertSame(second, cache.get(signature));
+
+        int lookups = cache.lookups;
+        cache.serviceRemoved(new ServiceDiscoveryEvent(this, new ServiceItem(null, second, null), null));
+        cache.registered.remove(second);
+        Assert.assertNull(cache.get(signature));
+        Assert.assertEquals(lookups + 1, cache.lookups);
+        // signatures without a proxy are looked up again when a service is added
+        Assert.assertNull(cache.get(signature));
+        Assert.assertEquals(lookups + 1, cache.lookups);
+        cache.registered.add(first);
+        cache.serviceAdded(new ServiceDiscoveryEvent(this, null, new ServiceItem(null, first, null)));
+        Assert.assertSame(first, cache.get(signature));
+
+        cache.serviceChanged(new ServiceDiscoveryEvent(this, new ServiceItem(null, first, null),
+                new ServiceItem(null, first, null)));
+        lookups = cache.lookups;
+        Assert.assertSame(first, cache.get(signature));
+        Assert.assertEquals(lookups + 1, cache.lookups);
+    }
+}
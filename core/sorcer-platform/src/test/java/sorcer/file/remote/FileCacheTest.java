@@ -0,0 +1,201 @@
+package sorcer.file.remote;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import sorcer.file.ScratchDirManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Remote files cached by their checksums and materialized into scratch dirs.
+ */
+public class FileCacheTest {
+
+    private Path root;
+    private File source;
+    private String checksum;
+
+    @Before
+    public void init() throws IOException {
+        root = Files.createTempDirectory("file-cache-test");
+        source = write("source", "input deck");
+        checksum = AbstractRemoteFile.checksum(source);
+    }
+
+    @After
+    public void clean() throws IOException {
+        FileUtils.deleteDirectory(root.toFile());
+    }
+
+    @Test
+    public void singleLoad() throws Exception {
+        final FileCache cache = new FileCache(root.resolve(FileCache.CACHE_DIR), 1024);
+        final CopyLoader loader = new CopyLoader(source, 200);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<File>> files = new ArrayList<Future<File>>();
+        for (int i = 0; i < 8; i++) {
+            files.add(callers.submit(new Callable<File>() {
+                public File call() throws Exception {
+                    start.await();
+                    return cache.get(checksum, loader);
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<File> file : files)
+            assertEquals(root.resolve(FileCache.CACHE_DIR).resolve(checksum).toFile(), file.get());
+        callers.shutdown();
+
+        assertEquals(1, loader.loads.get());
+        cache.get(checksum, loader);
+        assertEquals(1, loader.loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void materializeLinks() throws Exception {
+        FileCache cache = new FileCache(root.resolve(FileCache.CACHE_DIR), 1024);
+        File first = root.resolve("first").toFile();
+        File second = root.resolve("second").toFile();
+        cache.materialize(checksum, new CopyLoader(source, 0), first);
+        cache.materialize(checksum, new CopyLoader(source, 0), second);
+
+        assertEquals("input deck", FileUtils.readFileToString(second));
+        File cached = cache.get(checksum, new CopyLoader(source, 0));
+        assertTrue(Files.isSameFile(cached.toPath(), first.toPath()));
+        assertTrue(Files.isSameFile(first.toPath(), second.toPath()));
+        // indexed again by a new cache
+        assertEquals(1, new FileCache(cache.getDir(), 1024).size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        FileCache cache = new FileCache(root.resolve(FileCache.CACHE_DIR), 25);
+        File a = write("a", "0123456789");
+        File b = write("b", "abcdefghij");
+        File c = write("c", "ABCDEFGHIJ");
+        CopyLoader aLoader = new CopyLoader(a, 0);
+        CopyLoader bLoader = new CopyLoader(b, 0);
+        File linked = root.resolve("linked").toFile();
+        cache.get(AbstractRemoteFile.checksum(a), aLoader);
+        cache.materialize(AbstractRemoteFile.checksum(b), bLoader, linked);
+        // a used since b was loaded
+        cache.get(AbstractRemoteFile.checksum(a), aLoader);
+        cache.get(AbstractRemoteFile.checksum(c), new CopyLoader(c, 0));
+
+        assertEquals(2, cache.size());
+        assertEquals(20, cache.getSize());
+        cache.get(AbstractRemoteFile.checksum(a), aLoader);
+        assertEquals(1, aLoader.loads.get());
+        cache.get(AbstractRemoteFile.checksum(b), bLoader);
+        assertEquals(2, bLoader.loads.get());
+        // the link of an evicted file keeps its content
+        assertEquals("abcdefghij", FileUtils.readFileToString(linked));
+    }
+
+    @Test
+    public void invalidChecksum() throws Exception {
+        FileCache cache = new FileCache(root.resolve(FileCache.CACHE_DIR), 1024);
+        try {
+            cache.get(checksum, new CopyLoader(write("other", "other deck"), 0));
+            fail("invalid file cached");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(0, cache.size());
+        assertEquals(0, root.resolve(FileCache.CACHE_DIR).toFile().list().length);
+    }
+
+    @Test
+    public void retainedByScratchCleanup() throws Exception {
+        ScratchDirManager manager = new ScratchDirManager(root, 0);
+        FileCache cache = new FileCache(root.resolve(FileCache.CACHE_DIR), 1024);
+        File scratchDir = Files.createDirectories(root.resolve("remote-file")).toFile();
+        cache.materialize(checksum, new CopyLoader(source, 0), new File(scratchDir, checksum));
+
+        Thread.sleep(2000);
+        manager.cleanup1(100);
+
+        assertFalse(scratchDir.exists());
+        assertTrue(Files.isDirectory(cache.getDir()));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void retainedWithoutCache() throws Exception {
+        // the cache of another JVM sharing the scratch root
+        File cacheDir = Files.createDirectories(root.resolve(FileCache.CACHE_DIR)).toFile();
+        File scratchDir = Files.createDirectories(root.resolve("remote-file")).toFile();
+        ScratchDirManager manager = new ScratchDirManager(root, 0);
+
+        Thread.sleep(2000);
+        manager.cleanup1(100);
+
+        assertFalse(scratchDir.exists());
+        assertTrue(cacheDir.isDirectory());
+    }
+
+    @Test
+    public void loadAfterRemovedDir() throws Exception {
+        FileCache cache = new FileCache(root.resolve(FileCache.CACHE_DIR), 1024);
+        CopyLoader loader = new CopyLoader(source, 0);
+        cache.get(checksum, loader);
+        FileUtils.deleteDirectory(cache.getDir().toFile());
+
+        File other = write("other", "other deck");
+        File cached = cache.get(AbstractRemoteFile.checksum(other), new CopyLoader(other, 0));
+        assertEquals("other deck", FileUtils.readFileToString(cached));
+        // the removed file is no longer indexed
+        assertEquals(1, cache.size());
+        assertEquals(other.length(), cache.getSize());
+        cache.get(checksum, loader);
+        assertEquals(2, loader.loads.get());
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = root.resolve(name).toFile();
+        FileUtils.writeStringToFile(file, content);
+        return file;
+    }
+
+    private static class CopyLoader implements FileCache.Loader {
+        final File source;
+        final long delay;
+        final AtomicInteger loads = new AtomicInteger();
+
+        CopyLoader(File source, long delay) {
+            this.source = source;
+            this.delay = delay;
+        }
+
+        @Override
+        public void load(File target) throws IOException {
+            loads.incrementAndGet();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            FileUtils.copyFile(source, target);
+        }
+    }
+}
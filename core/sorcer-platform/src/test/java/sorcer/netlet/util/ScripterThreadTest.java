@@ -0,0 +1,81 @@
+package sorcer.netlet.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import sorcer.core.invoker.ScriptCache;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+
+public class ScripterThreadTest {
+
+    private final ClassLoader parent = getClass().getClassLoader();
+
+    private NetletClassLoader newLoader() {
+        return new NetletClassLoader(new URI[0], new URL[0], parent, null);
+    }
+
+    private static Object eval(String script, NetletClassLoader loader) {
+        ScripterThread thread = new ScripterThread(script, loader);
+        thread.evalScript();
+        return thread.getTarget();
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+        for (ClassLoader cl = loader; cl != null; cl = cl.getParent()) {
+            if (cl == ancestor)
+                return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void testCacheHit() {
+        String script = "// testCacheHit\nthis";
+        NetletClassLoader first = newLoader();
+        NetletClassLoader second = newLoader();
+        long hits = ScriptCache.getScriptCache().getStats().hitCount();
+        Object firstTarget = eval(script, first);
+        Object secondTarget = eval(script, second);
+        Assert.assertNotSame(firstTarget, secondTarget);
+        Assert.assertSame(firstTarget.getClass(), secondTarget.getClass());
+        Assert.assertEquals(hits + 1, ScriptCache.getScriptCache().getStats().hitCount());
+        // compiled for a loader of its own, not holding the netlet loaders
+        ClassLoader compileLoader = firstTarget.getClass().getClassLoader();
+        Assert.assertFalse(isAncestor(first, compileLoader));
+        Assert.assertFalse(isAncestor(second, compileLoader));
+        Assert.assertTrue(isAncestor(parent, compileLoader));
+    }
+
+    @Test
+    public void testCodebasePerRun() throws Exception {
+        String script = "@Codebase('http://localhost:9010/test-dl.jar')\nimport java.util.List\nthis";
+        URL codebase = new URL("http://localhost:9010/test-dl.jar");
+        NetletClassLoader first = newLoader();
+        NetletClassLoader second = newLoader();
+        eval(script, first);
+        long hits = ScriptCache.getScriptCache().getStats().hitCount();
+        eval(script, second);
+        Assert.assertEquals(hits + 1, ScriptCache.getScriptCache().getStats().hitCount());
+        // applied to the loader of each run
+        for (NetletClassLoader loader : Arrays.asList(first, second)) {
+            Assert.assertArrayEquals(new URL[]{codebase}, loader.getURLs());
+            Assert.assertTrue(Arrays.asList(loader.getSearchPath()).contains(codebase));
+        }
+    }
+
+    @Test
+    public void testSearchPathMiss() throws Exception {
+        String script = "// testSearchPathMiss\nthis";
+        NetletClassLoader first = newLoader();
+        NetletClassLoader other = newLoader();
+        other.addURLs(new URL[]{new URL("http://localhost:9010/other-dl.jar")});
+        Object firstTarget = eval(script, first);
+        long misses = ScriptCache.getScriptCache().getStats().missCount();
+        // classes may resolve differently with another search path
+        Object otherTarget = eval(script, other);
+        Assert.assertEquals(misses + 1, ScriptCache.getScriptCache().getStats().missCount());
+        Assert.assertNotSame(firstTarget.getClass(), otherTarget.getClass());
+    }
+}
@@ -0,0 +1,68 @@
+package sorcer.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+public class MethodTableTest {
+    private MethodTable table = new MethodTable();
+
+    public static class Bean {
+        public String echo(String value) {
+            return value;
+        }
+
+        public long twice(long value) {
+            return value * 2;
+        }
+
+        public static int one() {
+            return 1;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    @Test
+    public void testInvokerIsBoundOnce() throws Exception {
+        MethodTable.Invoker invoker = table.get(Bean.class, "echo", new Class[] { String.class });
+        Assert.assertEquals("a", invoker.invoke(new Bean(), "a"));
+        Assert.assertSame(invoker, table.get(Bean.class, "echo", new Class[] { String.class }));
+        Assert.assertEquals(1, table.size(Bean.class));
+    }
+
+    @Test
+    public void testStaticAndPrimitiveArgs() throws Exception {
+        Assert.assertEquals(1, table.get(Bean.class, "one", null).invoke(null));
+        MethodTable.Invoker twice = table.get(Bean.class, "twice", new Class[] { long.class });
+        Assert.assertEquals(4L, twice.invoke(new Bean(), 2L));
+        // widening is done by reflection
+        Assert.assertEquals(4L, twice.invoke(new Bean(), 2));
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        MethodTable.Invoker echo = table.get(Bean.class, "echo", new Class[] { String.class });
+        try {
+            echo.invoke(new Bean(), 1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            table.get(Bean.class, "fail", new Class[0]).invoke(new Bean());
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            table.get(Bean.class, "missing", null);
+            Assert.fail();
+        } catch (NoSuchMethodException e) {
+            Assert.assertEquals(0, table.size(Object.class));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package sorcer.util.bdb;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class GroupCommitWriterTest {
+
+    static class TestWrite extends GroupCommitWriter.Write {
+        final String value;
+
+        TestWrite(String value) {
+            this.value = value;
+        }
+    }
+
+    // commits the values to a list, failing the batches with a failing value
+    static class TestWriter extends GroupCommitWriter<TestWrite> {
+        final List<String> committed = new ArrayList<String>();
+        final List<Integer> batches = new ArrayList<Integer>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+
+        TestWriter(int capacity) {
+            super("test-writer", capacity);
+        }
+
+        @Override
+        protected void commit(List<TestWrite> batch) throws Exception {
+            List<String> values = new ArrayList<String>();
+            for (TestWrite write : batch) {
+                if (write.value.equals("block")) {
+                    started.countDown();
+                    blocked.await();
+                } else if (write.value.equals("fail")) {
+                    throw new IllegalStateException("failed");
+                } else if (write.value.equals("error")) {
+                    throw new StackOverflowError();
+                }
+                values.add(write.value);
+            }
+            committed.addAll(values);
+            batches.add(batch.size());
+        }
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        TestWriter writer = new TestWriter(Integer.MAX_VALUE);
+        writer.start();
+        TestWrite block = new TestWrite("block");
+        writer.put(block);
+        writer.started.await(10, TimeUnit.SECONDS);
+        // queued while the writer commits
+        List<TestWrite> writes = new ArrayList<TestWrite>();
+        for (int i = 0; i < GroupCommitWriter.MAX_BATCH + 1; i++) {
+            writes.add(new TestWrite("w" + i));
+            writer.put(writes.get(i));
+        }
+        writer.blocked.countDown();
+        for (TestWrite write : writes)
+            write.done.get(10, TimeUnit.SECONDS);
+        writer.close();
+        Assert.assertEquals(GroupCommitWriter.MAX_BATCH + 2, writer.committed.size());
+        Assert.assertEquals(3, writer.batches.size());
+        Assert.assertEquals(GroupCommitWriter.MAX_BATCH, (int) writer.batches.get(1));
+    }
+
+    @Test
+    public void testFailedWrites() throws Exception {
+        TestWriter writer = new TestWriter(Integer.MAX_VALUE);
+        writer.start();
+        TestWrite block = new TestWrite("block");
+        writer.put(block);
+        writer.started.await(10, TimeUnit.SECONDS);
+        TestWrite first = new TestWrite("first");
+        TestWrite failing = new TestWrite("fail");
+        TestWrite error = new TestWrite("error");
+        TestWrite last = new TestWrite("last");
+        writer.put(first);
+        writer.put(failing);
+        writer.put(error);
+        writer.put(last);
+        writer.blocked.countDown();
+        // written one by one, the other writes of the batch are committed
+        first.done.get(10, TimeUnit.SECONDS);
+        last.done.get(10, TimeUnit.SECONDS);
+        assertFailed(failing, IllegalStateException.class);
+        assertFailed(error, StackOverflowError.class);
+
+        // still running
+        TestWrite after = new TestWrite("after");
+        writer.put(after);
+        after.done.get(10, TimeUnit.SECONDS);
+        writer.close();
+        Assert.assertTrue(writer.committed.containsAll(Arrays.asList("first", "last", "after")));
+        Assert.assertFalse(writer.committed.contains("fail"));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        TestWriter writer = new TestWriter(2);
+        writer.start();
+        writer.blocked.countDown();
+        List<TestWrite> writes = new ArrayList<TestWrite>();
+        for (int i = 0; i < 10; i++) {
+            writes.add(new TestWrite("w" + i));
+            writer.put(writes.get(i));
+        }
+        // the queued writes are committed before the writer stops
+        writer.close();
+        for (TestWrite write : writes)
+            Assert.assertTrue(write.done.isDone() && !write.done.isCompletedExceptionally());
+        Assert.assertEquals(10, writer.committed.size());
+    }
+
+    private static void assertFailed(TestWrite write, Class<? extends Throwable> type) throws Exception {
+        try {
+            write.done.get(10, TimeUnit.SECONDS);
+            Assert.fail("write committed: " + write.value);
+        } catch (ExecutionException e) {
+            Assert.assertTrue(type.isInstance(e.getCause()));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.EntryBinding;
+import com.sleepycat.bind.serial.SerialBinding;
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.LockMode;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.context.ServiceContext;
+import sorcer.util.DataTable;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Measures the record size and the put/get throughput of contexts and tables
+ * wrapped in {@link UuidObject}s stored as records of the {@link RecordFormat},
+ * and compares them with the serial binding of {@link MarshalledData} the
+ * stores were written with before, against a JE environment in a temporary
+ * directory.
+ */
+public class RecordFormatBenchmark {
+    private final static Logger logger = LoggerFactory.getLogger(RecordFormatBenchmark.class);
+
+    private static final int RECORDS = 2000;
+
+    // the records put in one transaction
+    private static final int BATCH = 100;
+
+    private File home;
+
+    private SorcerDatabase db;
+
+    private EntryBinding keyBinding;
+
+    private EntryBinding serialBinding;
+
+    private final RecordFormat format = new RecordFormat();
+
+    @Before
+    public void open() throws Exception {
+        home = Files.createTempDirectory("sorcer-record").toFile();
+        db = new SorcerDatabase(home.getPath());
+        keyBinding = new SerialBinding(db.getClassCatalog(), UuidKey.class);
+        serialBinding = new SerialBinding(db.getClassCatalog(), MarshalledData.class);
+    }
+
+    @After
+    public void close() throws Exception {
+        db.close();
+        File[] files = home.listFiles();
+        if (files != null) {
+            for (File file : files)
+                file.delete();
+        }
+        home.delete();
+    }
+
+    interface Codec {
+        void write(UuidObject object, DatabaseEntry data) throws Exception;
+
+        UuidObject read(DatabaseEntry data) throws Exception;
+    }
+
+    private final Codec serial = new Codec() {
+        public void write(UuidObject object, DatabaseEntry data) throws Exception {
+            serialBinding.objectToEntry(new MarshalledData(object), data);
+        }
+
+        public UuidObject read(DatabaseEntry data) throws Exception {
+            return (UuidObject) ((MarshalledData) serialBinding.entryToObject(data)).get();
+        }
+    };
+
+    private final Codec record = new Codec() {
+        public void write(UuidObject object, DatabaseEntry data) throws Exception {
+            TupleOutput out = new TupleOutput();
+            format.writeRecord(object, out);
+            data.setData(out.getBufferBytes(), 0, out.getBufferLength());
+        }
+
+        public UuidObject read(DatabaseEntry data) throws Exception {
+            return (UuidObject) format.readRecord(new TupleInput(data.getData(), data.getOffset(), data.getSize()));
+        }
+    };
+
+    private static ServiceContext newContext(int i) throws Exception {
+        ServiceContext context = new ServiceContext("context-" + i);
+        for (int p = 0; p < 50; p++)
+            context.putValue("design/var-" + p, (double) p * i);
+        for (int p = 0; p < 10; p++)
+            context.putValue("design/name-" + p, "value-" + p);
+        return context;
+    }
+
+    private static DataTable newTable(int i) {
+        List<List<?>> rows = new ArrayList<List<?>>();
+        List<String> columns = new ArrayList<String>();
+        for (int c = 0; c < 10; c++)
+            columns.add("c" + c);
+        for (int r = 0; r < 100; r++) {
+            List<Object> row = new ArrayList<Object>();
+            for (int c = 0; c < 10; c++)
+                row.add((double) r * c + i);
+            rows.add(row);
+        }
+        return new DataTable(rows, columns);
+    }
+
+    private void run(String type, List<UuidObject> objects, String name, Codec codec) throws Exception {
+        Database database = db.getUuidObjectDatabase();
+        List<DatabaseEntry> keys = new ArrayList<DatabaseEntry>(objects.size());
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < objects.size(); i += BATCH) {
+            Transaction txn = db.getEnvironment().beginTransaction(null, null);
+            for (UuidObject object : objects.subList(i, Math.min(objects.size(), i + BATCH))) {
+                DatabaseEntry key = new DatabaseEntry();
+                DatabaseEntry data = new DatabaseEntry();
+                keyBinding.objectToEntry(new UuidKey(object.getId()), key);
+                codec.write(object, data);
+                bytes += data.getSize();
+                database.put(txn, key, data);
+                keys.add(key);
+            }
+            txn.commit();
+        }
+        long put = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (DatabaseEntry key : keys) {
+            DatabaseEntry data = new DatabaseEntry();
+            assertEquals(OperationStatus.SUCCESS, database.get(null, key, data, LockMode.DEFAULT));
+            assertNotNull(codec.read(data).getObject());
+        }
+        long get = System.nanoTime() - start;
+
+        logger.info("{} {}: {} bytes/record, put {} records/s, get {} records/s", type, name,
+                    bytes / objects.size(), objects.size() * 1000000000L / put,
+                    objects.size() * 1000000000L / get);
+        for (DatabaseEntry key : keys)
+            database.delete(null, key);
+    }
+
+    @Test
+    public void contexts() throws Exception {
+        List<UuidObject> objects = new ArrayList<UuidObject>(RECORDS);
+        for (int i = 0; i < RECORDS; i++)
+            objects.add(new UuidObject(newContext(i)));
+        run("context", objects, "serial", serial);
+        run("context", objects, "record", record);
+    }
+
+    @Test
+    public void tables() throws Exception {
+        List<UuidObject> objects = new ArrayList<UuidObject>(RECORDS / 10);
+        for (int i = 0; i < RECORDS / 10; i++)
+            objects.add(new UuidObject(newTable(i)));
+        run("table", objects, "serial", serial);
+        run("table", objects, "record", record);
+    }
+}
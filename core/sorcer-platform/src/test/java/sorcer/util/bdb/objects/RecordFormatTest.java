@@ -0,0 +1,117 @@
+package sorcer.util.bdb.objects;
+
+import com.sleepycat.bind.serial.SerialBinding;
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.LockMode;
+import org.junit.Assert;
+import org.junit.Test;
+import sorcer.core.context.ServiceContext;
+import sorcer.util.DataTable;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RecordFormatTest {
+
+    private final RecordFormat format = new RecordFormat();
+
+    private Object roundTrip(Object object) throws Exception {
+        TupleOutput out = new TupleOutput();
+        format.writeRecord(object, out);
+        DatabaseEntry data = new DatabaseEntry(out.getBufferBytes(), 0, out.getBufferLength());
+        Assert.assertTrue(RecordFormat.isRecord(data));
+        return format.readRecord(new TupleInput(out.getBufferBytes(), 0, out.getBufferLength()));
+    }
+
+    static ServiceContext newContext() throws Exception {
+        ServiceContext context = new ServiceContext("record");
+        context.putValue("arg/x1", 20.0);
+        context.putValue("arg/x2", 80);
+        context.putValue("arg/name", "adder");
+        context.putValue("arg/flag", true);
+        context.putValue("arg/list", new ArrayList<Integer>(Arrays.asList(1, 2, 3)));
+        return context;
+    }
+
+    @Test
+    public void testContext() throws Exception {
+        ServiceContext context = newContext();
+        Assert.assertEquals(ContextCodec.ID, format.getCodec(context).getId());
+        ServiceContext read = (ServiceContext) roundTrip(context);
+        Assert.assertEquals(context.getId(), read.getId());
+        Assert.assertEquals(context.getName(), read.getName());
+        Assert.assertEquals(context.getData().keySet(), read.getData().keySet());
+        Assert.assertEquals(20.0, read.getValue("arg/x1"));
+        Assert.assertEquals(80, read.getValue("arg/x2"));
+        Assert.assertEquals("adder", read.getValue("arg/name"));
+        Assert.assertEquals(true, read.getValue("arg/flag"));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), read.getValue("arg/list"));
+    }
+
+    @Test
+    public void testTable() throws Exception {
+        List<List<?>> rows = new ArrayList<List<?>>();
+        rows.add(new ArrayList<Object>(Arrays.asList(1.0, "a", null)));
+        rows.add(new ArrayList<Object>(Arrays.asList(2.0, "b", new int[]{1})));
+        DataTable table = new DataTable(rows, Arrays.asList("x", "y", "z"));
+        Assert.assertEquals(TableCodec.ID, format.getCodec(table).getId());
+        DataTable read = (DataTable) roundTrip(table);
+        Assert.assertEquals(2, read.getRowCount());
+        Assert.assertEquals(2.0, read.getValue(1, "x"));
+        Assert.assertEquals("a", read.getValue(0, "y"));
+        Assert.assertNull(read.getValue(0, "z"));
+        Assert.assertArrayEquals(new int[]{1}, (int[]) read.getValue(1, "z"));
+        Assert.assertEquals(table.getColumnIdentifiers(), read.getColumnIdentifiers());
+    }
+
+    @Test
+    public void testUuidObjectAndSerialFallback() throws Exception {
+        UuidObject object = new UuidObject(newContext(), "context");
+        Assert.assertEquals(UuidObjectCodec.ID, format.getCodec(object).getId());
+        UuidObject read = (UuidObject) roundTrip(object);
+        Assert.assertEquals(object.getId(), read.getId());
+        Assert.assertEquals(object.getName(), read.getName());
+        Assert.assertEquals("context", read.getDescription());
+        Assert.assertEquals(object.getDateCreated(), read.getDateCreated());
+        Assert.assertEquals(object.getPrincipal().getName(), read.getPrincipal().getName());
+        Assert.assertEquals(20.0, ((ServiceContext) read.getObject()).getValue("arg/x1"));
+
+        Assert.assertEquals(SerialCodec.ID, format.getCodec(new java.util.Date(1)).getId());
+        Assert.assertEquals(new java.util.Date(1), roundTrip(new java.util.Date(1)));
+    }
+
+    @Test
+    public void testMigration() throws Exception {
+        File home = Files.createTempDirectory("sorcer-record").toFile();
+        SorcerDatabase db = new SorcerDatabase(home.getPath());
+        try {
+            SorcerDatabaseViews views = new SorcerDatabaseViews(db);
+            // a record written with the serial binding
+            UuidObject object = new UuidObject("legacy");
+            DatabaseEntry key = new DatabaseEntry();
+            DatabaseEntry data = new DatabaseEntry();
+            new SerialBinding(db.getClassCatalog(), UuidKey.class).objectToEntry(new UuidKey(object.getId()), key);
+            new SerialBinding(db.getClassCatalog(), MarshalledData.class).objectToEntry(new MarshalledData(object), data);
+            db.getUuidObjectDatabase().put(null, key, data);
+            views.getUuidObjectSet().add(new UuidObject("current"));
+
+            Assert.assertEquals("legacy", views.getUuidObjectMap().get(new UuidKey(object.getId())).getObject());
+            Assert.assertEquals(1, views.migrate());
+            Assert.assertEquals(0, views.migrate());
+            db.getUuidObjectDatabase().get(null, key, data, LockMode.DEFAULT);
+            Assert.assertTrue(RecordFormat.isRecord(data));
+            Assert.assertEquals("legacy", views.getUuidObjectMap().get(new UuidKey(object.getId())).getObject());
+            Assert.assertEquals(2, views.getUuidObjectSet().size());
+        } finally {
+            db.close();
+            for (File file : home.listFiles())
+                file.delete();
+            home.delete();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package sorcer.util.exec;
+
+import org.junit.Before;
+import org.junit.Test;
+import sorcer.util.exec.ExecUtils.CmdResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Native processes run by the {@link ProcessExecutor} with their output
+ * streamed to {@link ProcessOutput}s.
+ */
+public class ProcessExecutorTest {
+
+	// prints the numbers 1 to 10000, a line each
+	private static final String[] COUNT = { "sh", "-c", "i=1; while [ $i -le 10000 ]; do echo $i; i=$((i+1)); done" };
+
+	@Before
+	public void unix() {
+		assumeFalse(System.getProperty("os.name").startsWith("Win"));
+	}
+
+	@Test
+	public void tailOfOutput() throws Exception {
+		ProcessExecutor executor = new ProcessExecutor(2, 0);
+		ProcessOutput out = ProcessOutput.tail(16);
+		CmdResult result = executor.exec(COUNT, null, null, out, ProcessOutput.buffer());
+		assertEquals(0, result.getExitValue());
+		assertEquals("9998\n9999\n10000\n", result.getOut());
+		assertTrue(out.isTruncated());
+		assertEquals(48894, out.getCount());
+	}
+
+	@Test
+	public void outputToFile() throws Exception {
+		File file = File.createTempFile("process-out", ".txt");
+		try {
+			CmdResult result = new ProcessExecutor(2, 0).exec(COUNT, null, null,
+					ProcessOutput.file(file), ProcessOutput.buffer());
+			assertNull(result.getOut());
+			assertEquals(file, result.getOutFile());
+			List<String> lines = Files.readAllLines(file.toPath());
+			assertEquals(10000, lines.size());
+			assertEquals("10000", lines.get(9999));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void linesOfOutput() throws Exception {
+		final List<String> lines = new ArrayList<String>();
+		String[] cmd = { "cat" };
+		new ProcessExecutor(2, 0).exec(cmd, null, new ByteArrayInputStream("a\r\nb\nc".getBytes()),
+				ProcessOutput.lines(new ProcessOutput.LineHandler() {
+					public void line(String line) {
+						lines.add(line);
+					}
+				}), ProcessOutput.buffer());
+		assertEquals(3, lines.size());
+		assertEquals("a", lines.get(0));
+		assertEquals("c", lines.get(2));
+	}
+
+	@Test
+	public void timeoutKillsProcess() throws Exception {
+		ProcessExecutor executor = new ProcessExecutor(1, 200);
+		String[] cmd = { "sleep", "30" };
+		long start = System.currentTimeMillis();
+		try {
+			executor.exec(cmd, null, null, ProcessOutput.buffer(), ProcessOutput.buffer());
+			fail("process not killed");
+		} catch (TimeoutException e) {
+			// expected
+		}
+		assertTrue(System.currentTimeMillis() - start < 10000);
+		// the permit of the killed process is released when it exits
+		CmdResult result = executor.exec(new String[] { "true" }, null, null,
+				ProcessOutput.buffer(), ProcessOutput.buffer());
+		assertEquals(0, result.getExitValue());
+	}
+
+	@Test
+	public void boundedProcesses() throws Exception {
+		final ProcessExecutor executor = new ProcessExecutor(2, 0);
+		final AtomicInteger maxRunning = new AtomicInteger();
+		ExecutorService callers = Executors.newFixedThreadPool(6);
+		List<Future<CmdResult>> results = new ArrayList<Future<CmdResult>>();
+		for (int i = 0; i < 6; i++) {
+			results.add(callers.submit(new Callable<CmdResult>() {
+				public CmdResult call() throws Exception {
+					ProcessExecutor.Execution execution = executor.start(new String[] { "sleep", "0.2" },
+							null, null, ProcessOutput.buffer(), ProcessOutput.buffer());
+					maxRunning.accumulateAndGet(executor.getRunningCount(), Math::max);
+					return new CmdResult(execution.waitFor(0), null, null);
+				}
+			}));
+		}
+		for (Future<CmdResult> result : results)
+			assertEquals(0, result.get().getExitValue());
+		callers.shutdown();
+		assertTrue(maxRunning.get() <= 2);
+		assertFalse(maxRunning.get() == 0);
+	}
+}
@@ -164,6 +164,57 @@ public class ProcModels {
 	}
 
 
+	@Test
+	public void incrementalParModel() throws Exception {
+		ProcModel pm = procModel(proc("x", 10.0), proc("y", 20.0),
+				proc("add", invoker("x + y", args("x", "y"))),
+				proc("twice", invoker("add * 2", args("add"))),
+				proc("triple", invoker("y * 3", args("y"))));
+
+		assertEquals(pm.getDependents("x"), set("add"));
+		assertEquals(pm.getDependents("add"), set("twice"));
+		assertTrue(eval(pm, "twice").equals(60.0));
+		assertTrue(eval(pm, "triple").equals(60.0));
+
+		// only the procs downstream of x are recalculated
+		setValue(pm, "x", 100.0);
+		assertFalse(pm.getProc("add").isValid());
+		assertFalse(pm.getProc("twice").isValid());
+		assertTrue(pm.getProc("triple").isValid());
+		assertTrue(eval(pm, "twice").equals(240.0));
+		assertTrue(eval(pm, "triple").equals(60.0));
+
+		setValue(pm, "y", 30.0);
+		assertFalse(pm.getProc("triple").isValid());
+		assertTrue(eval(pm, "twice").equals(260.0));
+		assertTrue(eval(pm, "triple").equals(90.0));
+	}
+
+
+	@Test
+	public void incrementalMixedParModel() throws Exception {
+		// a lambda proc between Groovy procs
+		ProcModel pm = procModel(proc("x", 10.0),
+				proc("y", invoker("y", (Context<Double> cxt) -> value(cxt, "x") + 1.0, args("x"))),
+				proc("z", invoker("y * 2", args("y"))),
+				proc("w", invoker("z + 1", args("z"))),
+				proc("v", invoker("x * 3", args("x"))));
+
+		assertFalse(pm.isTracked(pm.getProc("y")));
+		assertFalse(pm.isTracked(pm.getProc("z")));
+		assertFalse(pm.isTracked(pm.getProc("w")));
+		assertTrue(pm.isTracked(pm.getProc("v")));
+		assertTrue(eval(pm, "w").equals(23.0));
+		assertTrue(eval(pm, "v").equals(30.0));
+
+		// x reaches z and w through the lambda
+		setValue(pm, "x", 20.0);
+		assertTrue(eval(pm, "z").equals(42.0));
+		assertTrue(eval(pm, "w").equals(43.0));
+		assertTrue(eval(pm, "v").equals(60.0));
+	}
+
+
 	@Test
 	public void parModelTest() throws Exception {
 		ProcModel pm = procModel(proc("x", 10.0), proc("y", 20.0),
@@ -0,0 +1,89 @@
+package sorcer.sml.arithmetic;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sorcer.test.ProjectContext;
+import org.sorcer.test.SorcerTestRunner;
+import sorcer.arithmetic.provider.impl.AdderImpl;
+import sorcer.arithmetic.provider.impl.MultiplierImpl;
+import sorcer.arithmetic.provider.impl.SubtractorImpl;
+import sorcer.service.Context;
+import sorcer.util.MethodTable;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static sorcer.co.operator.*;
+import static sorcer.eo.operator.*;
+
+/**
+ * Compares the per-call reflective lookup of service bean methods with the
+ * cached dispatch table used by the provider delegate.
+ */
+@RunWith(SorcerTestRunner.class)
+@ProjectContext("examples/sml")
+public class BeanDispatchBenchmark {
+	private final static Logger logger = LoggerFactory.getLogger(BeanDispatchBenchmark.class);
+
+	private static final int WARMUP = 2000;
+
+	private static final int ITERATIONS = 20000;
+
+	private static final Class[] ARG_TYPES = new Class[] { Context.class };
+
+	@Test
+	public void adder() throws Exception {
+		compare(new AdderImpl(), "add", context("add", inVal("arg/x1", 20.0), inVal("arg/x2", 80.0)), 100.0);
+	}
+
+	@Test
+	public void multiplier() throws Exception {
+		compare(new MultiplierImpl(), "multiply", context("multiply", inVal("arg/x1", 10.0), inVal("arg/x2", 50.0)), 500.0);
+	}
+
+	@Test
+	public void subtractor() throws Exception {
+		compare(new SubtractorImpl(), "subtract", context("subtract", inVal("arg/x1", 80.0), inVal("arg/x2", 20.0)), 60.0);
+	}
+
+	private void compare(Object bean, String selector, Context cxt, double expected) throws Exception {
+		MethodTable table = new MethodTable();
+		assertEquals(expected, value((Context) lookupAndInvoke(bean, selector, cxt), "result/eval"));
+		assertEquals(expected, value((Context) table.get(bean.getClass(), selector, ARG_TYPES).invoke(bean, cxt), "result/eval"));
+
+		for (int i = 0; i < WARMUP; i++) {
+			lookupAndInvoke(bean, selector, cxt);
+			table.get(bean.getClass(), selector, ARG_TYPES).invoke(bean, cxt);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			lookupAndInvoke(bean, selector, cxt);
+		long reflective = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			table.get(bean.getClass(), selector, ARG_TYPES).invoke(bean, cxt);
+		long cached = System.nanoTime() - start;
+
+		logger.info("{}.{}: lookup and invoke {} ns/op, dispatch table {} ns/op",
+				bean.getClass().getSimpleName(), selector, reflective / ITERATIONS, cached / ITERATIONS);
+	}
+
+	// the method selection done for each task before the dispatch table
+	private Object lookupAndInvoke(Object bean, String selector, Context cxt) throws Exception {
+		Method m = null;
+		for (Method method : bean.getClass().getMethods()) {
+			Class[] parmTypes = method.getParameterTypes();
+			if (method.getName().equals(selector) && parmTypes.length == ARG_TYPES.length
+					&& ARG_TYPES[0].isAssignableFrom(parmTypes[0])) {
+				m = method;
+				break;
+			}
+		}
+		if (m == null)
+			m = bean.getClass().getMethod(selector, ARG_TYPES);
+		return m.invoke(bean, cxt);
+	}
+}
@@ -0,0 +1,98 @@
+package sorcer.sml.contexts;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sorcer.test.ProjectContext;
+import org.sorcer.test.SorcerTestRunner;
+import sorcer.core.context.ServiceContext;
+import sorcer.service.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static sorcer.eo.operator.*;
+
+/**
+ * Compares association lookups scanning the attribute tables of a 10k path
+ * context with the lookups of the inverted attribute index.
+ */
+@RunWith(SorcerTestRunner.class)
+@ProjectContext("examples/sml")
+public class AssociationBenchmark {
+	private final static Logger logger = LoggerFactory.getLogger(AssociationBenchmark.class);
+
+	private static final int PATHS = 10000;
+
+	private static final int SETS = 100;
+
+	private static final int ITERATIONS = 200;
+
+	private ServiceContext<Double> newContext() throws Exception {
+		ServiceContext<Double> cxt = (ServiceContext<Double>) context("associations");
+		for (int i = 0; i < PATHS; i++) {
+			String path = "arg/x" + i;
+			cxt.putValue(path, (double) i);
+			tag(cxt, path, "tag|set" + (i % SETS));
+			tag(cxt, path, "triplet|a" + (i % 10) + "|b" + (i % SETS) + "|c");
+		}
+		return cxt;
+	}
+
+	@Test
+	public void singletonAssociation() throws Exception {
+		ServiceContext<Double> cxt = newContext();
+		assertEquals(PATHS / SETS, cxt.markedPaths("tag|set7").size());
+		assertEquals(PATHS / SETS, scan(cxt, "tag", "set7").size());
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			scan(cxt, "tag", "set" + (i % SETS));
+		long scanned = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			cxt.markedPaths("tag|set" + (i % SETS));
+		long indexed = System.nanoTime() - start;
+
+		logger.info("tag lookup in {} paths: scan {} us/op, index {} us/op",
+				PATHS, scanned / ITERATIONS / 1000, indexed / ITERATIONS / 1000);
+	}
+
+	@Test
+	public void compositeAssociation() throws Exception {
+		ServiceContext<Double> cxt = newContext();
+		assertEquals(PATHS / SETS, cxt.markedPaths("triplet|a7|b7|c").size());
+		assertEquals(0, cxt.markedPaths("triplet|a7|b8|c").size());
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			List<String> matches = scan(cxt, "1", "a" + (i % 10));
+			matches.retainAll(scan(cxt, "2", "b" + (i % SETS)));
+			matches.retainAll(scan(cxt, "3", "c"));
+		}
+		long scanned = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			cxt.markedPaths("triplet|a" + (i % 10) + "|b" + (i % SETS) + "|c");
+		long indexed = System.nanoTime() - start;
+
+		logger.info("triplet lookup in {} paths: scan {} us/op, index {} us/op",
+				PATHS, scanned / ITERATIONS / 1000, indexed / ITERATIONS / 1000);
+	}
+
+	// the attribute table scan done for each lookup before the index
+	private List<String> scan(Context cxt, String attribute, String value) {
+		Map<String, String> values = (Map<String, String>) cxt.getMetacontext().get(attribute);
+		List<String> paths = new ArrayList<String>();
+		for (String path : values.keySet()) {
+			if (values.get(path).equals(value))
+				paths.add(path);
+		}
+		return paths;
+	}
+}
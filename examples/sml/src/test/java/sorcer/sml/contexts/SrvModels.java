@@ -11,9 +11,11 @@ import sorcer.arithmetic.provider.impl.AdderImpl;
 import sorcer.arithmetic.provider.impl.AveragerImpl;
 import sorcer.arithmetic.provider.impl.MultiplierImpl;
 import sorcer.arithmetic.provider.impl.SubtractorImpl;
+import sorcer.core.context.model.srv.SrvModel;
 import sorcer.core.provider.rendezvous.ServiceJobber;
 import sorcer.service.Block;
 import sorcer.service.Context;
+import sorcer.service.ContextException;
 import sorcer.service.Job;
 import sorcer.service.Strategy.Flow;
 import sorcer.service.Task;
@@ -22,6 +24,7 @@ import sorcer.service.Domain;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static sorcer.co.operator.*;
 import static sorcer.co.operator.asis;
 import static sorcer.eo.operator.*;
@@ -260,6 +263,54 @@ public class SrvModels {
         logger.info("model: " + mdl);
     }
 
+    @Test
+    public void evaluateParallelServiceModel() throws Exception {
+
+        // independent entries evaluated concurrently
+        Model mdl = srvModel(
+                inVal("multiply/x1", 10.0), inVal("multiply/x2", 50.0),
+                inVal("add/x1", 20.0), inVal("add/x2", 80.0),
+                ent(sig("multiply", MultiplierImpl.class, result("multiply/out",
+                        inPaths("multiply/x1", "multiply/x2")))),
+                ent(sig("add", AdderImpl.class, result("add/out",
+                        inPaths("add/x1", "add/x2")))),
+                ent(sig("subtract", SubtractorImpl.class, result("model/response",
+                        inPaths("multiply/out", "add/out")))),
+                response("subtract", "add", "multiply"),
+                Flow.PAR);
+
+        assertTrue(((SrvModel) mdl).isParallel());
+        Context out = response(mdl);
+        logger.info("out: " + out);
+        assertTrue(get(out, "subtract").equals(400.0));
+        assertTrue(get(out, "add").equals(100.0));
+        assertTrue(get(out, "multiply").equals(500.0));
+    }
+
+    @Test
+    public void cyclicParallelServiceModel() throws Exception {
+
+        Model mdl = srvModel(
+                inVal("add/x1", 20.0), inVal("add/x2", 80.0),
+                ent(sig("add", AdderImpl.class, result("add/out",
+                        inPaths("add/x1", "add/x2")))),
+                ent(sig("subtract", SubtractorImpl.class, result("model/response",
+                        inPaths("add/out", "add/x2")))),
+                Flow.PAR);
+
+        dependsOn(mdl, ent("add", paths("subtract")), ent("subtract", paths("add")));
+        try {
+            eval(mdl, "subtract");
+            fail("cyclic dependency not detected");
+        } catch (ContextException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null && !(cause.getMessage() != null
+                    && cause.getMessage().startsWith("Cyclic")))
+                cause = cause.getCause();
+            assertTrue(cause.getMessage().startsWith("Cyclic"));
+        }
+    }
+
     @Test
     public void exertModelToTaskMogram() throws Exception {
 
@@ -18,6 +18,7 @@
 package sorcer.core.provider.caller;
 
 import com.sun.jini.start.LifeCycle;
+import net.jini.config.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.context.model.ent.SysCall;
@@ -25,19 +26,55 @@ import sorcer.core.provider.SysCaller;
 import sorcer.core.provider.ServiceProvider;
 import sorcer.service.Context;
 import sorcer.service.ContextException;
+import sorcer.util.Sorcer;
+import sorcer.util.exec.ProcessExecutor;
+
 import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("unchecked")
 public class SysCallerProvider extends ServiceProvider implements SysCaller {
 
 	private static Logger logger = LoggerFactory.getLogger(SysCallerProvider.class);
 
+	/**
+	 * The configuration entry of the maximum number of system calls run at a
+	 * time by this provider.
+	 */
+	public static final String MAX_PROCESSES = "maxProcesses";
+
+	/**
+	 * The configuration entry of the time in seconds a system call is waited
+	 * for before it is killed, 0 to wait until it exits.
+	 */
+	public static final String PROCESS_TIMEOUT = "processTimeout";
+
+	private ProcessExecutor processExecutor;
+
 	public SysCallerProvider() throws Exception {
 		// do nothing
 	}
 
 	public SysCallerProvider(String[] args, LifeCycle lifeCycle) throws Exception {
 		super(args, lifeCycle);
+		setupProcessExecutor();
+	}
+
+	protected void setupProcessExecutor() {
+		Configuration config = delegate.getDeploymentConfig();
+		int maxProcesses = Sorcer.getExecMaxProcesses();
+		long timeout = Sorcer.getExecTimeout();
+		try {
+			maxProcesses = (Integer) config.getEntry(ServiceProvider.COMPONENT,
+					MAX_PROCESSES, int.class, maxProcesses);
+			timeout = (Long) config.getEntry(ServiceProvider.COMPONENT,
+					PROCESS_TIMEOUT, long.class, timeout);
+		} catch (Exception e) {
+			// do nothing, default values are used
+		}
+		logger.info("Running up to " + maxProcesses + " system calls"
+				+ (timeout > 0 ? " killed after " + timeout + " s" : ""));
+		processExecutor = new ProcessExecutor(maxProcesses, TimeUnit.SECONDS.toMillis(timeout));
 	}
 
 	@Override
@@ -46,6 +83,8 @@ public class SysCallerProvider extends ServiceProvider implements SysCaller {
 		if (name == null)
 			name = context.getName();
         SysCall caller = new SysCall(name, context);
+        if (processExecutor != null)
+            caller.setProcessExecutor(processExecutor);
         return caller.getValue();
 	}
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.provider.cataloger;
+
+import net.jini.core.entry.Entry;
+import net.jini.core.lookup.ServiceID;
+import net.jini.core.lookup.ServiceItem;
+import net.jini.lookup.entry.Name;
+import org.rioproject.admin.ServiceActivityProvider;
+import sorcer.core.analytics.AnalyticsProducer;
+import sorcer.core.analytics.MethodAnalytics;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A service item registered with the {@link ServiceCataloger} along with the
+ * keys it is indexed by and the load of its provider. The liveness and load
+ * are updated by {@link #probe()}; the selections since the last probe are
+ * counted so that the load between probes can be estimated.
+ */
+public class CatalogEntry {
+
+	private static final AtomicLong sequence = new AtomicLong();
+
+	private final ServiceItem item;
+
+	private final Set<String> types;
+
+	private final Set<String> names;
+
+	private volatile boolean alive = true;
+
+	// the number of operations in process reported by the provider
+	private volatile int outstanding;
+
+	// the average execution time in milliseconds reported by the provider
+	private volatile double latency = Double.NaN;
+
+	private final AtomicInteger pending = new AtomicInteger();
+
+	private final AtomicLong lastSelected = new AtomicLong();
+
+	private final AtomicBoolean probing = new AtomicBoolean();
+
+	private int failures;
+
+	public CatalogEntry(ServiceItem item) {
+		this.item = item;
+		types = getTypes(item.service);
+		names = getNames(item);
+	}
+
+	static Set<String> getTypes(Object service) {
+		Set<String> types = new HashSet<String>();
+		if (service != null)
+			addTypes(service.getClass(), types);
+		return types;
+	}
+
+	private static void addTypes(Class type, Set<String> types) {
+		for (Class c : type.getInterfaces()) {
+			if (types.add(c.getName()))
+				addTypes(c, types);
+		}
+	}
+
+	private static Set<String> getNames(ServiceItem item) {
+		Set<String> names = new HashSet<String>();
+		if (item.attributeSets != null) {
+			for (Entry e : item.attributeSets) {
+				if (e instanceof Name && ((Name) e).name != null)
+					names.add(((Name) e).name);
+			}
+		}
+		if (item.service != null && !(item.service instanceof Proxy))
+			names.add(item.service.getClass().getName());
+		return names;
+	}
+
+	/**
+	 * Checks the provider of this entry and updates its liveness and load
+	 * with the analytics recorded by the provider. Returns false if the
+	 * previous probe is still in progress.
+	 */
+	boolean probe() {
+		if (!probing.compareAndSet(false, true))
+			return false;
+		try {
+			Object service = item.service;
+			if (service instanceof AnalyticsProducer) {
+				Map<String, MethodAnalytics> analytics = ((AnalyticsProducer) service).getMethodAnalytics();
+				int active = 0;
+				long callTime = 0;
+				long calls = 0;
+				if (analytics != null) {
+					for (MethodAnalytics ma : analytics.values()) {
+						active += ma.getNumActiveOperations();
+						callTime += ma.getTotalCallTime();
+						calls += ma.getTotalOperationCalls();
+					}
+				}
+				outstanding = active;
+				if (calls > 0)
+					latency = callTime / (double) calls / 1000000;
+			} else if (service instanceof ServiceActivityProvider) {
+				((ServiceActivityProvider) service).isActive();
+			}
+			pending.set(0);
+			failures = 0;
+			alive = true;
+		} catch (Exception e) {
+			failures++;
+			alive = false;
+		} finally {
+			probing.set(false);
+		}
+		return true;
+	}
+
+	void selected() {
+		pending.incrementAndGet();
+		lastSelected.set(sequence.incrementAndGet());
+	}
+
+	public ServiceItem getItem() {
+		return item;
+	}
+
+	public ServiceID getServiceID() {
+		return item.serviceID;
+	}
+
+	public Set<String> getTypes() {
+		return types;
+	}
+
+	public Set<String> getNames() {
+		return names;
+	}
+
+	public boolean isAlive() {
+		return alive;
+	}
+
+	public int getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Returns the outstanding requests of the provider: the operations in
+	 * process at the last probe plus the selections since.
+	 */
+	public int getOutstanding() {
+		return outstanding + pending.get();
+	}
+
+	/**
+	 * Returns the average execution time of the provider in milliseconds, or
+	 * NaN if not known yet.
+	 */
+	public double getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Returns the sequence number of the last selection of this entry, zero
+	 * if never selected.
+	 */
+	public long getLastSelected() {
+		return lastSelected.get();
+	}
+
+	@Override
+	public String toString() {
+		return names + " sid: " + item.serviceID + (alive ? "" : " (down)")
+				+ ", outstanding: " + getOutstanding() + ", latency: " + latency;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.provider.cataloger;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Selects the provider to return by the {@link ServiceCataloger} among the
+ * live providers matching a lookup. The selector is set with the
+ * {@link sorcer.core.SorcerConstants#P_CATALOGER_SELECTOR} property, either
+ * by one of the names <code>round-robin</code>, <code>least-outstanding</code>
+ * and <code>latency-weighted</code>, or by the name of a class implementing
+ * this interface.
+ */
+public interface ProviderSelector {
+
+	/**
+	 * Returns the selected entry of the non-empty list of candidates.
+	 */
+	CatalogEntry select(List<CatalogEntry> candidates);
+
+	/**
+	 * Selects the provider selected least recently.
+	 */
+	class RoundRobin implements ProviderSelector {
+		public CatalogEntry select(List<CatalogEntry> candidates) {
+			CatalogEntry selected = candidates.get(0);
+			for (int i = 1; i < candidates.size(); i++) {
+				if (candidates.get(i).getLastSelected() < selected.getLastSelected())
+					selected = candidates.get(i);
+			}
+			return selected;
+		}
+	}
+
+	/**
+	 * Selects the provider with the fewest outstanding requests, round-robin
+	 * among equally loaded providers.
+	 */
+	class LeastOutstanding implements ProviderSelector {
+		public CatalogEntry select(List<CatalogEntry> candidates) {
+			CatalogEntry selected = candidates.get(0);
+			int min = selected.getOutstanding();
+			for (int i = 1; i < candidates.size(); i++) {
+				CatalogEntry entry = candidates.get(i);
+				int outstanding = entry.getOutstanding();
+				if (outstanding < min || (outstanding == min
+						&& entry.getLastSelected() < selected.getLastSelected())) {
+					selected = entry;
+					min = outstanding;
+				}
+			}
+			return selected;
+		}
+	}
+
+	/**
+	 * Selects a provider at random with a probability inversely proportional
+	 * to its average execution time. Providers with no execution time
+	 * recorded yet are weighted as the average provider.
+	 */
+	class LatencyWeighted implements ProviderSelector {
+		public CatalogEntry select(List<CatalogEntry> candidates) {
+			if (candidates.size() == 1)
+				return candidates.get(0);
+			double[] weights = new double[candidates.size()];
+			double known = 0;
+			int count = 0;
+			for (int i = 0; i < weights.length; i++) {
+				double latency = candidates.get(i).getLatency();
+				if (!Double.isNaN(latency)) {
+					weights[i] = 1 / Math.max(latency, 0.001);
+					known += weights[i];
+					count++;
+				}
+			}
+			double unknown = count > 0 ? known / count : 1;
+			double total = 0;
+			for (int i = 0; i < weights.length; i++) {
+				if (Double.isNaN(candidates.get(i).getLatency()))
+					weights[i] = unknown;
+				total += weights[i];
+			}
+			double r = ThreadLocalRandom.current().nextDouble() * total;
+			for (int i = 0; i < weights.length; i++) {
+				r -= weights[i];
+				if (r < 0)
+					return candidates.get(i);
+			}
+			return candidates.get(weights.length - 1);
+		}
+	}
+}
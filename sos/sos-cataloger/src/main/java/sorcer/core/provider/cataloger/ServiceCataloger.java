@@ -33,7 +33,6 @@ import net.jini.lookup.ServiceDiscoveryManager;
 import net.jini.lookup.entry.Name;
 import net.jini.lookup.entry.UIDescriptor;
 import net.jini.lookup.ui.MainUI;
-import org.rioproject.admin.ServiceActivityProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -41,7 +40,6 @@ import sorcer.core.exertion.NetTask;
 import sorcer.core.provider.Cataloger;
 import sorcer.core.provider.Provider;
 import sorcer.core.provider.ServiceProvider;
-import sorcer.core.provider.cataloger.ServiceCataloger.CatalogerInfo.InterfaceList;
 import sorcer.core.provider.cataloger.ui.CatalogerUI;
 import sorcer.core.signature.NetSignature;
 import sorcer.jini.lookup.entry.SorcerServiceInfo;
@@ -50,6 +48,7 @@ import sorcer.service.Service;
 import sorcer.service.Task;
 import sorcer.serviceui.UIDescriptorFactory;
 import sorcer.serviceui.UIFrameFactory;
+import sorcer.util.ConfigurableThreadFactory;
 import sorcer.util.GenericUtil;
 import sorcer.util.SOS;
 import sorcer.util.Sorcer;
@@ -64,8 +63,7 @@ import java.net.URL;
 import java.rmi.RemoteException;
 import java.rmi.server.RMIClassLoader;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.*;
 
 /**
  * The facility for maintaining a cache of all SORCER providers {@link Service}s
@@ -74,33 +72,27 @@ import java.util.concurrent.ConcurrentMap;
  * <p>
  * <ul>
  * <li>It uses <code>ServiceDiscoveryManager</code> with lookup cache.<br>
- * <li>It uses an internal map for storing services called {@link CatalogerInfo}
- * <li>The key of the map is an {@link InterfaceList}, the eval is the list of
- * service proxies (<code>ServiceItem<code>s)
- * <li>{@link InterfaceList} is a list of interfaces with <code>equals</code>
- * overridden such that for <code>(interfaceList1.equals(interfaceList2)</code>
- * returns <code>true</code> if all elements contained in
- * <code>interfaceList2</code> are contained in <code>interfaceList1</code>.
- * <li><code>get</code> and <code>put</code> method of {@link CatalogerInfo} are
- * overridden to do nothing.
+ * <li>It uses an internal index for storing services called {@link CatalogerInfo}
+ * <li>Each service item is indexed by its <code>ServiceID</code>, by the
+ * interfaces implemented by its proxy, and by its provider names, so lookups
+ * do not scan the catalog.
+ * <li>The liveness and load of the providers are updated by the lookup cache
+ * events and by a background prober reading the providers' analytics, not by a
+ * remote call on each lookup.
  * </ul>
  * <p>
  * Only access to {@link CatalogerInfo} is via a setValue of "service-aware" methods.
  * They include
  * <ol>
- * <li><code>addServiceItem(SeviceItem)</code>: adds an entry to this hash map
- * such that the key is the <code>InterfaceList</code> describing the service.
- * eval is the serviceItem itself. Value is added always to the first to
- * improve load balancing heuristics (assuming that the latest served service is
- * always removed and added to the end
+ * <li><code>addServiceItem(SeviceItem)</code>: adds the serviceItem to the
+ * indexes, replacing the one with the same <code>ServiceID</code>.
  * 
  * <li> <code>getServiceItem(String[] interfaces), String providerName))</code>:
- * not only returns the serviceItem with the following specs, but also removes
- * and adds the sericeItem to the end of the list to provide load-balancing
+ * returns the serviceItem selected by the {@link ProviderSelector} among the
+ * live providers with the following specs to provide load-balancing
  * 
- * <li>synchronized <code>getServiceItem(ServiceID serviceID)</code> returns a
- * service with a serviceID, with the same load-balancing feature mentioned
- * above
+ * <li><code>getServiceItem(ServiceID serviceID)</code> returns a
+ * service with a serviceID
  * 
  * <li> <code>getServiceMethods())</code> returns a hash map with the key as a
  * service interface (those interfaces package name starting with
@@ -127,6 +119,10 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 
 	private String[] locators = null;
 
+	private static final int PROBER_THREADS = 4;
+
+	private ScheduledExecutorService prober;
+
 	public LookupLocator[] getLL() throws RemoteException {
 		LookupLocator[] specificLocators = null;
 		String sls = getProperty(P_LOCATORS);
@@ -223,10 +219,23 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 			cache = lookupMgr.createLookupCache(template, null,
 					new CatalogerEventListener(cinfo));
 
+			cinfo.setSelector(createSelector(getProperty(P_CATALOGER_SELECTOR, "round-robin")));
+			long interval = Long.parseLong(getProperty(P_CATALOGER_PROBE_INTERVAL, "10"));
+			ConfigurableThreadFactory tf = new ConfigurableThreadFactory();
+			tf.setDaemon(true);
+			tf.setNameFormat("Cataloger-prober-%2$s");
+			prober = Executors.newScheduledThreadPool(PROBER_THREADS, tf);
+			prober.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					cinfo.probe(prober);
+				}
+			}, interval, interval, TimeUnit.SECONDS);
+
 			logger.info("-----------------------------");
 			logger.info("Matching services that are: " + templateMatch);
 			logger.info(P_GROUPS + ": " + Arrays.toString(groups));
 			logger.info(P_LOCATORS + ": " + Arrays.toString(specificLocators));
+			logger.info(P_CATALOGER_SELECTOR + ": " + cinfo.getSelector().getClass().getSimpleName());
 			logger.info("------------------------------");
 		} catch (IOException ex) {
 			ex.printStackTrace();
@@ -235,6 +244,34 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 		}
 	}
 
+	/**
+	 * Returns the provider selector for one of the names
+	 * <code>round-robin</code>, <code>least-outstanding</code> and
+	 * <code>latency-weighted</code>, or the name of a
+	 * {@link ProviderSelector} class.
+	 */
+	static ProviderSelector createSelector(String name) {
+		if ("round-robin".equals(name))
+			return new ProviderSelector.RoundRobin();
+		else if ("least-outstanding".equals(name))
+			return new ProviderSelector.LeastOutstanding();
+		else if ("latency-weighted".equals(name))
+			return new ProviderSelector.LatencyWeighted();
+		try {
+			return (ProviderSelector) Class.forName(name).newInstance();
+		} catch (Exception e) {
+			logger.warn("Unable to create provider selector: " + name + ", using round-robin", e);
+			return new ProviderSelector.RoundRobin();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (prober != null)
+			prober.shutdownNow();
+		super.destroy();
+	}
+
 //	public void setLogger(Logger logger) {
 //		ServiceCataloger.logger = logger;
 //	}
@@ -393,26 +430,21 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 	}
 
 	/**
-	 * A customized &quot;sorcer provider&quot; aware a map of the cataloger
+	 * A customized &quot;sorcer provider&quot; aware index of the cataloger
 	 * info.
 	 * <p>
-	 * The key of the cataloger info is the <code>InterfaceList</code>. This
-	 * inner <code>InterfaceList</code> is an array list of interface names with
-	 * overridden <code>equals</code> such that it follows the following
-	 * semantics: <code>arrayList1.equals(arrayList2</code> iff all interfaces
-	 * of arrayList2 are contained in arrayList1.<br>
-	 * The key eval in <code>InterfaceList</code> is the list of service items
-	 * implementing its key interfaces. Methods <code>get</code> and
-	 * <code>put</code> are overridden to do nothing.
-	 * <p>
-	 * The method <code>addServiceItem(SeviceItem)</code> adds an entry to this
-	 * map such that the key is the <code>InterfaceList</code> describing this
-	 * service, the eval is the serviceItem itself.
+	 * Each registered service item is held by a {@link CatalogEntry} indexed by
+	 * its <code>ServiceID</code>, by each of the interfaces implemented by its
+	 * proxy, and by its provider names. A lookup by interfaces starts from the
+	 * shortest list of entries indexed by one of the interfaces and keeps the
+	 * entries implementing all of them, so it does not scan the catalog.
 	 * <p>
 	 * The method
-	 * <code>getServiceItem(String[] interfaces, String providerName)</code> not
-	 * only returns the serviceItem with the following specs, but also removes
-	 * and adds the sericeItem to the end of the list to provide load-balancing
+	 * <code>getServiceItem(Class[] interfaces, String providerName)</code>
+	 * returns the service item selected by the {@link ProviderSelector} among
+	 * the matching providers that are alive. The liveness and load of the
+	 * providers are updated by {@link #probe(ExecutorService)} in the
+	 * background, not on lookup.
 	 * <p>
 	 * The method <code>getServiceItem(ServiceID serviceID)</code> returns a
 	 * service with a given serviceID
@@ -422,11 +454,10 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 	 */
 	protected static class CatalogerInfo {
 		Cataloger cataloger = null;
-		final ConcurrentMap<InterfaceList, List<ServiceItem>> interfaceListMap = new ConcurrentHashMap<CatalogerInfo.InterfaceList, List<ServiceItem>>();
-
-        public ConcurrentMap<InterfaceList, List<ServiceItem>> getInterfaceListMap() {
-            return interfaceListMap;
-        }
+		final ConcurrentMap<ServiceID, CatalogEntry> entries = new ConcurrentHashMap<ServiceID, CatalogEntry>();
+		final ConcurrentMap<String, List<CatalogEntry>> typeIndex = new ConcurrentHashMap<String, List<CatalogEntry>>();
+		final ConcurrentMap<String, List<CatalogEntry>> nameIndex = new ConcurrentHashMap<String, List<CatalogEntry>>();
+		private volatile ProviderSelector selector = new ProviderSelector.RoundRobin();
 
 		private class CatalogObservable extends Observable {
 			public void tellOfAction(String action) {
@@ -458,43 +489,34 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 			this.cataloger = cataloger;
 		}
 
-		public void remove(CatalogerInfo.InterfaceList key) {
-			interfaceListMap.remove(key);
+		public void setSelector(ProviderSelector selector) {
+			this.selector = selector;
 		}
 
-		public void remove(ServiceItem value) {
-            InterfaceList found = null;
-            ServiceItem itemFound = null;
-            for (Map.Entry<InterfaceList, List<ServiceItem>> entry : interfaceListMap
-                    .entrySet()) {
-                for (ServiceItem item : entry.getValue()) {
-                    if (item.serviceID.equals(value.serviceID)) {
-                        found = entry.getKey();
-                        itemFound = item;
-                        break;
-                    }
-                }
-            }
-        }
+		public ProviderSelector getSelector() {
+			return selector;
+		}
 
+		public Collection<CatalogEntry> getEntries() {
+			return entries.values();
+		}
 
-		public void removeServiceItem(ServiceItem sItem) {
-			InterfaceList searchInterfaceList = new InterfaceList(sItem.service
-					.getClass().getInterfaces());
-			List<ServiceItem> value;
-            logger.info("Removing ServiceItem from Cataloger: " + sItem.toString());
-
-			for (InterfaceList key : interfaceListMap.keySet()) {
-                if (key.containsAllInterfaces(searchInterfaceList)) {
-					value = interfaceListMap.get(key);
-                    if (value != null) {
-						if (value.size() == 1)
-							remove(key);
-						else
-							removeFrom(value, sItem);
-					}
+		/**
+		 * Removes the service item with the same service ID as the given one.
+		 */
+		public void remove(ServiceItem value) {
+			if (value != null && value.serviceID != null) {
+				synchronized (this) {
+					CatalogEntry entry = entries.remove(value.serviceID);
+					if (entry != null)
+						unindex(entry);
 				}
 			}
+		}
+
+		public void removeServiceItem(ServiceItem sItem) {
+			logger.info("Removing ServiceItem from Cataloger: " + sItem.toString());
+			remove(sItem);
 			observable.tellOfAction("UPDATEDPLEASE");
 		}
 
@@ -503,72 +525,51 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 			observable.addObserver(observer);
 		}
 
-		public List<ServiceItem> getAll(InterfaceList interfaceList) {
-			List<ServiceItem> sItems = new ArrayList<ServiceItem>();
-			for (Map.Entry<InterfaceList, List<ServiceItem>> entry : interfaceListMap.entrySet()) {
-                if(logger.isDebugEnabled())
-				logger.debug("list = " + entry.getValue());
-				if (entry.getKey().containsAllInterfaces(interfaceList)) {
-					logger.info("Cataloger found matching interface list: "+ entry.getValue());
-					sItems.addAll(interfaceListMap.get(entry.getKey()));
-				}
+		public void addServiceItem(ServiceItem sItem) {
+			CatalogEntry entry = new CatalogEntry(sItem);
+			CatalogEntry previous;
+			synchronized (this) {
+				previous = entries.put(sItem.serviceID, entry);
+				if (previous != null)
+					unindex(previous);
+				for (String type : entry.getTypes())
+					index(typeIndex, type, entry);
+				for (String name : entry.getNames())
+					index(nameIndex, name, entry);
 			}
-			return sItems;
+			if (previous != null)
+				logger.info("ServiceItem replaced for {} sid: {}", getName(sItem.attributeSets), sItem.serviceID);
+			else
+				logger.info("ServiceItem added for {} sid: {}, {} services cataloged",
+							getName(sItem.attributeSets), sItem.serviceID, entries.size());
+			logger.debug("Added new service, calling notify");
+			observable.tellOfAction("UPDATEDPLEASE");
 		}
 
-		private boolean alreadyHas(ServiceItem item, List<ServiceItem> list) {
-			boolean has = false;
-			for(ServiceItem si : list) {
-				if(si.serviceID.equals(item.serviceID)) {
-					has = true;
-					break;
-				}
+		// index lists are copied on write, so lookups read them without locking
+		private static void index(ConcurrentMap<String, List<CatalogEntry>> index, String key, CatalogEntry entry) {
+			List<CatalogEntry> list = index.get(key);
+			if (list == null) {
+				list = new CopyOnWriteArrayList<CatalogEntry>();
+				index.put(key, list);
 			}
-			return has;
+			list.add(entry);
 		}
 
-		public void addServiceItem(ServiceItem sItem) {
-			InterfaceList keyList = new InterfaceList(sItem.service.getClass().getInterfaces());
-			List<ServiceItem> sItems = interfaceListMap.get(keyList);
-			if(sItems!=null) {
-				List<ServiceItem> workingList = new ArrayList<>();
-				workingList.addAll(sItems);
-				boolean added = false;
-				for (ServiceItem si : sItems) {
-					if(!alreadyHas(si, workingList)) {
-						workingList.add(0, sItem);
-						added = true;
-					}
-				}
-				interfaceListMap.put(keyList, workingList);
-				if(added) {
-					StringBuilder sb = new StringBuilder();
-					for (ServiceItem i : workingList) {
-						if (sb.length() > 0)
-							sb.append("\n");
-						sb.append("\t")
-						  .append(getName(i.attributeSets))
-						  .append(" sid: ").append(i.serviceID)
-						  .append(" rid: ").append(((ReferentUuid) i.service).getReferentUuid());
-					}
-					logger.info("ServiceItem list for {} was {} now {}\n{}",
-								getName(sItem.attributeSets),
-								sItems.size(),
-								workingList.size(),
-								sb.toString());
-				} else {
-					logger.info("ServiceItem list unchanged for {}",
-								getName(sItem.attributeSets));
-				}
-			} else {
-				sItems = new ArrayList<>();
-				sItems.add(0, sItem);
-				interfaceListMap.put(keyList, sItems);
-				logger.info("ServiceItem list created for {}",
-							getName(sItem.attributeSets));
+		private static void unindex(ConcurrentMap<String, List<CatalogEntry>> index, String key, CatalogEntry entry) {
+			List<CatalogEntry> list = index.get(key);
+			if (list != null) {
+				list.remove(entry);
+				if (list.isEmpty())
+					index.remove(key);
 			}
-			logger.debug("Added new service, calling notify");
-			observable.tellOfAction("UPDATEDPLEASE");
+		}
+
+		private void unindex(CatalogEntry entry) {
+			for (String type : entry.getTypes())
+				unindex(typeIndex, type, entry);
+			for (String name : entry.getNames())
+				unindex(nameIndex, name, entry);
 		}
 
 		private String getName(Entry[] entries) {
@@ -582,40 +583,69 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 			return name;
 		}
 
-        private void removeFrom(List<ServiceItem> sis, ServiceItem si) {
-			if (si.service == null)
-				return;
-			for (int i = 0; i < sis.size(); i++)
-				if (si.service.equals(sis.get(i).service)) {
-					sis.remove(i);
-					return;
+		private static String getServiceName(ServiceItem item) {
+			if (item.service instanceof Proxy) {
+				for (Entry a : item.attributeSets) {
+					if (a instanceof Name)
+						return ((Name) a).name;
 				}
+				return null;
+			}
+			return item.service.getClass().getName();
 		}
 
 		public String toString() {
 			StringBuilder sb = new StringBuilder();
-			List<ServiceItem> sItems;
-			for(Map.Entry<InterfaceList, List<ServiceItem>> entry : interfaceListMap.entrySet()){
-				sItems = entry.getValue();
-				sb.append("\n");
-				if (sItems != null && sItems.size() > 0
-						&& sItems.get(0) != null) {
-					if (sItems.get(0).attributeSets[0] instanceof Name)
-						sb.append(((Name) (sItems.get(0).attributeSets[0])).name);
-					else
-						sb.append(sItems.get(0).attributeSets[0]);
-
-					for (int i = 1; i < sItems.size(); i++) {
-						if (sItems.get(i).attributeSets[0] instanceof Name)
-							sb.append(",").append(((Name) (sItems.get(i).attributeSets[0])).name);
-						else
-							sb.append(",").append(sItems.get(i).attributeSets[0]);
-					}
-					sb.append("==>\n");
-					sb.append(entry.getKey());
+			sb.append(selector.getClass().getSimpleName());
+			for (CatalogEntry entry : entries.values())
+				sb.append("\n").append(entry);
+			return sb.toString();
+		}
+
+		/**
+		 * Returns the entries indexed by all the given interfaces and by the
+		 * provider name if not null, alive or not.
+		 */
+		List<CatalogEntry> getEntries(Class[] interfaces, String providerName) {
+			List<String> types = new ArrayList<String>();
+			if (interfaces != null) {
+				for (Class c : interfaces) {
+					if (c != null)
+						types.add(c.getName());
 				}
 			}
-			return sb.toString();
+			Collection<CatalogEntry> candidates;
+			if (providerName != null) {
+				candidates = nameIndex.get(providerName);
+			} else if (types.isEmpty()) {
+				candidates = entries.values();
+			} else {
+				candidates = null;
+				for (String type : types) {
+					List<CatalogEntry> list = typeIndex.get(type);
+					if (list == null)
+						return Collections.emptyList();
+					if (candidates == null || list.size() < candidates.size())
+						candidates = list;
+				}
+			}
+			if (candidates == null)
+				return Collections.emptyList();
+			List<CatalogEntry> matching = new ArrayList<CatalogEntry>(candidates.size());
+			for (CatalogEntry entry : candidates) {
+				if (entry.getTypes().containsAll(types))
+					matching.add(entry);
+			}
+			return matching;
+		}
+
+		private static List<CatalogEntry> alive(List<CatalogEntry> list) {
+			List<CatalogEntry> alive = new ArrayList<CatalogEntry>(list.size());
+			for (CatalogEntry entry : list) {
+				if (entry.isAlive())
+					alive.add(entry);
+			}
+			return alive;
 		}
 
 		/**
@@ -624,93 +654,34 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 		 * first parameter = String[] of interfaces<br>
 		 * second parameter = providerName if any
 		 * <p>
-		 * This method provides automatic load balancing by providing the
-		 * serviceItem from the beginning and by removing it and adding to the
-		 * end upon each request.
+		 * This method provides automatic load balancing by returning the
+		 * serviceItem selected by the provider selector among the matching
+		 * providers that are alive.
 		 */
 		public ServiceItem getServiceItem(Class[] interfaces,
 				String providerName) {
-
-			logger.info("providerName = " + providerName + "\ninterfaces: "
-					+ GenericUtil.arrayToString(interfaces));
-
-			List<ServiceItem> list = getAll(new InterfaceList(interfaces));
-			logger.info("Cinfo getServiceItem, got: " + list);
-			if (providerName != null && providerName.equals(ANY))
+			if (logger.isDebugEnabled())
+				logger.debug("providerName = " + providerName + "\ninterfaces: "
+						+ GenericUtil.arrayToString(interfaces));
+			if (providerName != null && (providerName.equals(ANY) || providerName.length() == 0))
 				providerName = null;
-			if (list == null)
+			List<CatalogEntry> list = alive(getEntries(interfaces, providerName));
+			if (list.isEmpty())
 				return null;
-
-			ServiceItem sItem;
-			// provide load balancing and check if still alive
-			if (providerName == null || providerName.length() == 0) {
-				do {
-					if (list.size() == 0)
-						return null;
-					sItem = list.remove(0);
-					if (sItem != null) {
-						if (isAlive(sItem)) {
-							list.add(sItem);
-							return sItem;
-						} else {
-							// not Alive anymore removing from cataloger
-							removeServiceItem(sItem);
-						}
-					}
-				} while (sItem != null);
-			} else {
-				net.jini.core.entry.Entry[] attrs;
-				for (int i = 0; i < list.size(); i++) {
-					attrs = list.get(i).attributeSets;
-					for (net.jini.core.entry.Entry et : attrs) {
-						if (et instanceof Name
-								&& providerName.equals(((Name) et).name)) {
-							sItem = list.remove(i);
-                            if (sItem != null) {
-                                if (isAlive(sItem)) {
-                                    list.add(sItem);
-                                    return sItem;
-                                } else {
-                                    // not Alive anymore removing from cataloger
-                                    removeServiceItem(sItem);
-                                }
-                            }
-						}
-					}
-				}
-			}
-			return null;
+			CatalogEntry selected = selector.select(list);
+			selected.selected();
+			return selected.getItem();
 		}
 
-		// there's no other better way of doing this because of the structure we
-		// maintain.
-		// we need to iterate through each and every one of the list and get the
-		// service
 		public ServiceItem getServiceItem(ServiceID serviceID) {
-			Collection<List<ServiceItem>> c = interfaceListMap.values();
-			if (c == null)
-				return null;
-			List<ServiceItem> sItems;
-			ServiceItem sItem;
-			for (Iterator<List<ServiceItem>> it = c.iterator(); it.hasNext();) {
-				sItems = it.next();
-				for (int i = 0; i < sItems.size(); i++) {
-					if (serviceID.equals((sItems.get(i)).serviceID)) {
-						sItem = sItems.remove(i);
-						sItems.add(sItem);
-						return sItem;
-					}
-				}
-			}
-			return null;
+			CatalogEntry entry = entries.get(serviceID);
+			return entry != null ? entry.getItem() : null;
 		}
 
 		public List<ServiceItem> getAllServiceItems() {
 			List<ServiceItem> items = new ArrayList<ServiceItem>();
-			for (Map.Entry<InterfaceList, List<ServiceItem>> entry : interfaceListMap
-					.entrySet()) {
-				items.addAll(entry.getValue());
-			}
+			for (CatalogEntry entry : entries.values())
+				items.add(entry.getItem());
 			return items;
 		}
 
@@ -719,91 +690,107 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 			// if maxItems is less or 0 then get all possible ServiceItems
 			if (maxItems <= 0)
 				maxItems = Integer.MAX_VALUE;
-			if (providerName != null && providerName.equals(ANY))
+			if (providerName != null && (providerName.equals(ANY) || providerName.length() == 0))
 				providerName = null;
-			// logger.debug("Looking for interfaces: " + interfaces);
-			List<ServiceItem> list = interfaceListMap.get(new InterfaceList(
-					interfaces));
-			// logger.debug("Got list: " + list.toString());
-			if (list == null)
+			List<CatalogEntry> list = alive(getEntries(interfaces, providerName));
+			if (list.isEmpty())
 				return null;
+			// provide load balancing, the selected item first
+			CatalogEntry selected = selector.select(list);
+			selected.selected();
+			list.remove(selected);
+			list.add(0, selected);
+			int size = Math.min(maxItems, list.size());
+			ServiceItem[] sitems = new ServiceItem[size];
+			for (int i = 0; i < size; i++)
+				sitems[i] = list.get(i).getItem();
+			return sitems;
+		}
 
-			ServiceItem sItem;
-			// provide load balancing
-			if (providerName == null || "".equals(providerName)) {
-				sItem = list.remove(0);
-				list.add(sItem);
-				ArrayList<ServiceItem> arItems = new ArrayList<ServiceItem>();
-				Iterator<ServiceItem> it = list.iterator();
-				while (it.hasNext() && arItems.size() < maxItems) {
-					// Check if provider is still alive
-					ServiceItem si = it.next();
-					if (isAlive(si) && (!arItems.contains(si)))
-						arItems.add(si);
-				}
-				ServiceItem[] sitems = new ServiceItem[arItems.size()];
-				for (int i = 0; i < arItems.size(); i++) {
-					sitems[i] = arItems.get(i);
+		/**
+		 * Returns at most maxMatches live items matching the template.
+		 */
+		public List<ServiceItem> lookup(ServiceTemplate tmpl, int maxMatches) {
+			List<ServiceItem> result = new ArrayList<ServiceItem>();
+			if (tmpl.serviceID != null) {
+				CatalogEntry entry = entries.get(tmpl.serviceID);
+				if (entry != null)
+					result.add(entry.getItem());
+				return result;
+			}
+			SRVITEM:
+			for (CatalogEntry entry : getEntries(tmpl.serviceTypes, null)) {
+				if (result.size() >= maxMatches)
+					break;
+				if (!entry.isAlive())
+					continue;
+				if (tmpl.attributeSetTemplates != null) {
+					List<Entry> sItemEntryList = Arrays.asList(entry.getItem().attributeSets);
+					for (Entry attr : tmpl.attributeSetTemplates) {
+						if (!sItemEntryList.contains(attr))
+							continue SRVITEM;
+					}
 				}
-				return sitems;
-			} else {
-				net.jini.core.entry.Entry[] attrs;
-				List<ServiceItem> slist = new ArrayList<ServiceItem>();
-				Iterator<ServiceItem> it = list.iterator();
-				ServiceItem si = null;
-				while (it.hasNext() && slist.size() < maxItems) {
-					si = it.next();
-					attrs = si.attributeSets;
-					if (attrs != null && attrs.length > 0
-							&& (attrs[0] instanceof Name)
-							&& providerName.equals(((Name) attrs[0]).name)) {
-						if (isAlive(si) && (!slist.contains(si))) {
-							slist.add(si);
+				logger.info("Service " + entry.getServiceID() + " is adding to results for: " + tmpl.toString());
+				result.add(entry.getItem());
+			}
+			return result;
+		}
+
+		/**
+		 * Probes the cataloged providers with the executor, skipping those
+		 * still being probed.
+		 */
+		public void probe(ExecutorService executor) {
+			for (final CatalogEntry entry : entries.values()) {
+				executor.execute(new Runnable() {
+					public void run() {
+						boolean wasAlive = entry.isAlive();
+						if (entry.probe() && wasAlive != entry.isAlive()) {
+							if (entry.isAlive())
+								logger.info("Service ID: " + entry.getServiceID() + " is alive again");
+							else
+								logger.warn("Service ID: " + entry.getServiceID() + " is not Alive anymore");
+							observable.tellOfAction("UPDATEDPLEASE");
 						}
 					}
-				}
-				ServiceItem[] sitems = new ServiceItem[slist.size()];
-				for (int i = 0; i < slist.size(); i++) {
-					sitems[i] = slist.get(i);
-				}
-				return sitems;
+				});
 			}
 		}
 
+		/**
+		 * Returns the item of the provider with the given name, the first one
+		 * if more than one.
+		 */
+		private ServiceItem getNamedItem(String providerName) {
+			if (providerName == null)
+				return null;
+			List<CatalogEntry> list = nameIndex.get(providerName);
+			if (list == null)
+				return null;
+			for (CatalogEntry entry : list) {
+				if (providerName.equals(getServiceName(entry.getItem())))
+					return entry.getItem();
+			}
+			return null;
+		}
 
 		public Map<String, String> getProviderMethods() throws RemoteException {
 			logger.info("Inside GetProviderMethods");
 			observable.tellOfAction("UPDATEDPLEASEPM");
 			Map<String, String> map = new HashMap<String, String>();
-			Collection<List<ServiceItem>> c = interfaceListMap.values();
-			if (c == null) {
-				return map;
-			}
 			Type[] clazz;
 			Object service;
-			String serviceName = null;
-			net.jini.core.entry.Entry[] attributes;
-			for (List<ServiceItem> sItems : c) {
-				// get the first service proxy
-				service = sItems.get(0).service;
-				// get proxy interfaces
-				clazz = service.getClass().getInterfaces();
-				attributes = sItems.get(0).attributeSets;
-				for (int i = 0; i < attributes.length; i++) {
-					if (service instanceof Proxy) {
-						if (attributes[i] instanceof Name) {
-							serviceName = ((Name) attributes[i]).name;
-							break;
-						}
-					} else
-						serviceName = service.getClass().getName();
-				}
+			String serviceName;
+			for (CatalogEntry entry : entries.values()) {
+				service = entry.getItem().service;
+				serviceName = getServiceName(entry.getItem());
 				// list only interfaces of the Service type in package name
-				if (service instanceof Service) {
-					if (map.get(serviceName) == null) {
-						map.put(serviceName, SorcerUtil.arrayToString(clazz)
-								+ ";;" + SorcerUtil.arrayToString(attributes));
-					}
+				if (service instanceof Service && map.get(serviceName) == null) {
+					// get proxy interfaces
+					clazz = service.getClass().getInterfaces();
+					map.put(serviceName, SorcerUtil.arrayToString(clazz)
+							+ ";;" + SorcerUtil.arrayToString(entry.getItem().attributeSets));
 				}
 			}
 			logger.info("getProviderMethods>>map:\n" + map);
@@ -814,31 +801,13 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 			logger.info("Inside GetProviderMethods");
 			observable.tellOfAction("UPDATEDPLEASEPM");
 			Map<String, URL[]> map = new HashMap<String, URL[]>();
-			Collection<List<ServiceItem>> c = interfaceListMap.values();
-			if (c == null) {
-				return map;
-			}
-			Type[] clazz;
 			Object service;
-			String serviceName = null;
-			net.jini.core.entry.Entry[] attributes;
-			for (List<ServiceItem> sItems : c) {
-				// get the first service proxy
-				service = sItems.get(0).service;
-				// get proxy interfaces
-
-				attributes = sItems.get(0).attributeSets;
-				for (int i = 0; i < attributes.length; i++) {
-					if (service instanceof Proxy) {
-						if (attributes[i] instanceof Name) {
-							serviceName = ((Name) attributes[i]).name;
-							break;
-						}
-					} else
-						serviceName = service.getClass().getName();
-				}
+			String serviceName;
+			for (CatalogEntry entry : entries.values()) {
+				service = entry.getItem().service;
+				serviceName = getServiceName(entry.getItem());
 				// list only interfaces of the Service type in package name
-				if (service instanceof Service) {
+				if (service instanceof Service && map.get(serviceName) == null) {
 					String annotation = RMIClassLoader.getClassAnnotation(service.getClass());
 					if(annotation!=null && annotation.length()>0) {
 						StringTokenizer tok = new StringTokenizer(annotation, " ");
@@ -853,9 +822,7 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 							}
 							i++;
 						}
-						if (map.get(serviceName) == null) {
-							map.put(serviceName, urls);
-						}
+						map.put(serviceName, urls);
 					}
 				}
 			}
@@ -870,81 +837,18 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 		 * @throws RemoteException
 		 */
 		public String[] getInterfaceList(String providerName) {
-			Collection<List<ServiceItem>> c = interfaceListMap.values();
-			if (c == null) {
+			ServiceItem item = getNamedItem(providerName);
+			if (item == null)
 				return new String[0];
+			Type[] interfaceList = item.service.getClass().getInterfaces();
+			List<String> toReturn = new ArrayList<String>(interfaceList.length);
+			for (int i = 0; i < interfaceList.length; i++) {
+				// remove the interface part!
+				String currentInterface = interfaceList[i].toString().substring(10);
+				if (!Arrays.asList(interfaceIgnoreList).contains(currentInterface))
+					toReturn.add(currentInterface);
 			}
-			Type[] interfaceList;
-			Object service;
-			String serviceName = null;
-			net.jini.core.entry.Entry[] attributes;
-			Set set = interfaceListMap.keySet();
-			InterfaceList key;
-			for (Iterator<InterfaceList> it = set.iterator(); it.hasNext();) {
-				key = it.next();
-				List<ServiceItem> sItems = interfaceListMap.get(key);
-				for (int k = 0; k < sItems.size(); k++) {
-					service = sItems.get(k).service;
-					// logger.info(".........  attributes: "+ service);
-					attributes = sItems.get(k).attributeSets;
-					for (int i = 0; i < attributes.length; i++) {
-						if (service instanceof Proxy) {
-							if (attributes[i] instanceof Name) {
-								serviceName = ((Name) attributes[i]).name;
-								break;
-							}
-						} else
-							serviceName = service.getClass().getName();
-					}
-					if (serviceName.equals(providerName)) {
-
-						interfaceList = service.getClass().getInterfaces();
-
-						int count = 0;
-						for (int i = 0; i < interfaceList.length; i++) {
-							// logger.info("interface "+interfaceList[i].toString());
-							String currentInterface = interfaceList[i]
-									.toString().substring(10); // remove the
-							// interface
-							// part!
-							boolean onList = false;
-							for (int j = 0; j < interfaceIgnoreList.length; j++) {
-								if (currentInterface
-										.equals(interfaceIgnoreList[j])) {
-									onList = true;
-									break;
-								}
-							}
-							if (!onList)
-								count++;
-
-						}
-						String[] toReturn = new String[count];
-						count = 0;
-						for (int i = 0; i < interfaceList.length; i++) {
-							// logger.info("interface "+interfaceList[i].toString());
-							String currentInterface = interfaceList[i]
-									.toString().substring(10); // remove the
-							// interface part!
-							boolean onList = false;
-							for (int j = 0; j < interfaceIgnoreList.length; j++) {
-								if (currentInterface
-										.equals(interfaceIgnoreList[j])) {
-									onList = true;
-									break;
-								}
-							}
-							if (!onList) {
-								toReturn[count] = currentInterface;
-								count++;
-							}
-
-						}
-						return toReturn;
-					}
-				}
-			}
-			return new String[0];
+			return toReturn.toArray(new String[toReturn.size()]);
 		}
 
 		/**
@@ -956,52 +860,21 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 		 */
 		public String[] getMethodsList(String providerName, String interfaceName)
 				throws RemoteException {
-			logger.info("Inside Get Methods List");
-			Collection<List<ServiceItem>> c = interfaceListMap.values();
-			if (c == null) {
-				return new String[0];
-			}
-
-			Class[] interfaceList;
-			Object service;
-			String serviceName = null;
-			net.jini.core.entry.Entry[] attributes;
 			logger.info("Provider Tag " + providerName + " interface name "
 					+ interfaceName);
-			for (Map.Entry<InterfaceList, List<ServiceItem>> entry : interfaceListMap
-					.entrySet()) {
-				for (ServiceItem item : entry.getValue()) {
-					service = item.service;
-					attributes = item.attributeSets;
-					for (int i = 0; i < attributes.length; i++) {
-						if (service instanceof Proxy) {
-							if (attributes[i] instanceof Name) {
-								serviceName = ((Name) attributes[i]).name;
-								break;
-							}
-						} else
-							serviceName = service.getClass().getName();
-					}
-					if (serviceName.equals(providerName)) {
-						interfaceList = service.getClass().getInterfaces();
-						for (int i = 0; i < interfaceList.length; i++) {
-							if (interfaceList[i].toString().equals(
-									interfaceName)) {
-								logger.info("Found interface" + interfaceName);
-								Method methods[] = interfaceList[i]
-										.getMethods();
-								logger.info("Methods Found" + methods.length);
-								String meths[] = new String[methods.length];
-								for (int j = 0; j < methods.length; j++) {
-									meths[j] = methods[j].getName();
-								}
-                                Set<String> setTemp = new HashSet(Arrays.asList(meths));
-                                return setTemp.toArray(new String[setTemp.size()]);
-							}
-
-						}
-
-					}
+			ServiceItem item = getNamedItem(providerName);
+			if (item == null)
+				return new String[0];
+			Class[] interfaceList = item.service.getClass().getInterfaces();
+			for (int i = 0; i < interfaceList.length; i++) {
+				if (interfaceList[i].toString().equals(interfaceName)) {
+					logger.info("Found interface" + interfaceName);
+					Method methods[] = interfaceList[i].getMethods();
+					logger.info("Methods Found" + methods.length);
+					Set<String> setTemp = new HashSet<String>();
+					for (int j = 0; j < methods.length; j++)
+						setTemp.add(methods[j].getName());
+					return setTemp.toArray(new String[setTemp.size()]);
 				}
 			}
 			return new String[0];
@@ -1009,47 +882,22 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 
 		public Context exertService(String providerName, Class serviceType,
 				String methodName, Context theContext)  {
-			Collection<List<ServiceItem>> c = interfaceListMap.values();
-			if (c == null) {
-				return null;
-			}
-			List<ServiceItem> sItems;
-			Object service;
-			String serviceName = null;
-			net.jini.core.entry.Entry[] attributes;
-			InterfaceList key;
-			for(Map.Entry<InterfaceList, List<ServiceItem>> entry : interfaceListMap.entrySet()) {
-				for(ServiceItem item : entry.getValue()) {
-					service = item.service;
-					attributes = item.attributeSets;
-					for (int i = 0; i < attributes.length; i++) {
-						if (service instanceof Proxy) {
-							if (attributes[i] instanceof Name) {
-								serviceName = ((Name) attributes[i]).name;
-								break;
-							}
-						} else
-							serviceName = service.getClass().getName();
-					}
-					if (serviceName.equals(providerName)) {
-						if (service instanceof sorcer.core.provider.Provider) {
-							logger.info("service is a provider!");
-							try {
-								sorcer.core.provider.Provider temp = (sorcer.core.provider.Provider) service;
-								NetSignature method = new NetSignature(
-										methodName, serviceType);
-								Task task = new NetTask(serviceType
-										+ methodName, method);
-								task.setContext(theContext);
-								NetTask task2 = (NetTask) temp.exert(task,
-										null);
-								return task2.getContext();
-							} catch (Exception e) {
-								logger.info("error converting to provider"
-										+ e.getMessage());
-							}
-						}
-					}
+			ServiceItem item = getNamedItem(providerName);
+			if (item != null && item.service instanceof sorcer.core.provider.Provider) {
+				logger.info("service is a provider!");
+				try {
+					sorcer.core.provider.Provider temp = (sorcer.core.provider.Provider) item.service;
+					NetSignature method = new NetSignature(
+							methodName, serviceType);
+					Task task = new NetTask(serviceType
+							+ methodName, method);
+					task.setContext(theContext);
+					NetTask task2 = (NetTask) temp.exert(task,
+							null);
+					return task2.getContext();
+				} catch (Exception e) {
+					logger.info("error converting to provider"
+							+ e.getMessage());
 				}
 			}
 			return null;
@@ -1120,42 +968,6 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 			}
 			return ilist;
 		}
-
-		/**
-		 * See above CatalogerInfo for comments.
-		 */
-		public static class InterfaceList extends ArrayList<Class> {
-			private static final long serialVersionUID = 1L;
-
-			public InterfaceList(Class[] clazz) {
-				if (clazz != null && clazz.length > 0)
-					for (int i = 0; i < clazz.length; i++)
-						add(clazz[i]);
-			}
-
-			public boolean containsAllInterfaces(InterfaceList interfaceList) {
-				Set<Class> all = new HashSet<Class>(this);
-				for (int i = 0; i < size(); i++) {
-					all.addAll(Arrays.asList(get(i).getInterfaces()));
-				}
-				return getServiceList(all).containsAll(
-						getServiceList(interfaceList));
-			}
-
-			private List<String> getServiceList(
-					Collection<Class> interfaceCollection) {
-				List<String> serviceList = new ArrayList<String>();
-				for (Class service : interfaceCollection) {
-					serviceList.add("" + service);
-				}
-				return serviceList;
-			}
-			
-			public boolean equals(InterfaceList otherList) {
-				return this.containsAllInterfaces(otherList)
-						&& otherList.containsAllInterfaces(this);
-			}
-		}// end of InterfaceList
 	}// end of CatalogerInfo
 
 	// As these are not remote listeners, and the CatalogerInfo is thread safe,
@@ -1225,30 +1037,6 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 	}
 
 
-    /**
-     * Tests if provider is still alive.
-     *
-     * @param si service to check
-     * @return true if a provider is alive, otherwise false
-     */
-    private static boolean isAlive(ServiceItem si) {
-        if (si == null)
-            return false;
-        try {
-            if (si.service instanceof ServiceActivityProvider) {
-                boolean result = ((ServiceActivityProvider)si.service).isActive();
-            } else if (si.service instanceof Provider) {
-                String name = ((Provider) si.service).getProviderName();
-            }
-            return true;
-        } catch (Exception e) {
-            logger.warn("Service ID: " + si.serviceID
-					+ " is not Alive anymore");
-            // throw e;
-            return false;
-        }
-	}
-
 	/**
 	 * Returns at most maxMatches items matching the template, plus the total
 	 * number of items that match the template. The return eval is never null,
@@ -1269,49 +1057,7 @@ public class ServiceCataloger extends ServiceProvider implements Cataloger {
 	 */
 	public ServiceMatches lookup(ServiceTemplate tmpl, int maxMatches)
 			throws RemoteException {
-        List<ServiceItem> result = new LinkedList<ServiceItem>();
-        if(cinfo==null){
-            logger.warn("Cataloger not initialized");
-        } else
-        for (Map.Entry<InterfaceList, List<ServiceItem>> entry : cinfo.getInterfaceListMap().entrySet()) {
-            List<ServiceItem> serviceItems;
-            List<ServiceItem> down = new LinkedList<ServiceItem>();
-            synchronized (entry) {
-                serviceItems = new LinkedList<ServiceItem>(entry.getValue());
-            }
-            SRVITEM:
-
-            for (ServiceItem serviceItem : serviceItems) {
-                if (tmpl.serviceID != null && tmpl.serviceID.equals(serviceItem.serviceID)) {
-                    result.add(serviceItem);
-                    //serviceID is unique, stop on first matching service
-                    break;
-                }
-
-                CatalogerInfo.InterfaceList interfaceList = entry.getKey();
-                if (interfaceList.containsAll(Arrays.asList(tmpl.serviceTypes))) {
-                    List<Entry> sItemEntryList = Arrays.asList(serviceItem.attributeSets);
-                    for (Entry attr : tmpl.attributeSetTemplates) {
-                        if (!sItemEntryList.contains(attr)) {
-                            continue SRVITEM;
-                        }
-                    }
-                    if (isAlive(serviceItem)) {
-                        logger.info("Service " + serviceItem.serviceID + " is adding to results for: " + tmpl.toString());
-                        result.add(serviceItem);
-                    } else {
-                        // not Alive anymore removing from cataloger
-                        down.add(serviceItem);
-                    }
-                    if (result.size() >= maxMatches) break;
-                }
-            }
-            synchronized (cinfo){
-                for(ServiceItem serviceItem: down)
-                        cinfo.removeServiceItem(serviceItem);
-            }
-
-        }
+        List<ServiceItem> result = cinfo.lookup(tmpl, maxMatches);
         return new ServiceMatches(result.toArray(new ServiceItem[result.size()]), result.size());
     }
 	public String returnString() throws RemoteException {
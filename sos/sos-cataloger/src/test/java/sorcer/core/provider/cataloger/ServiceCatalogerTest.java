@@ -0,0 +1,223 @@
+package sorcer.core.provider.cataloger;
+
+import net.jini.core.entry.Entry;
+import net.jini.core.lookup.ServiceID;
+import net.jini.core.lookup.ServiceItem;
+import net.jini.core.lookup.ServiceTemplate;
+import net.jini.lookup.entry.Name;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import sorcer.core.analytics.AnalyticsProducer;
+import sorcer.core.analytics.MethodAnalytics;
+import sorcer.core.analytics.SystemAnalytics;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Lookups of the cataloger index and the selection of its providers.
+ */
+public class ServiceCatalogerTest {
+
+    interface Adder {
+    }
+
+    interface Multiplier {
+    }
+
+    // reports the load set by a test to the probes
+    static class Probed implements AnalyticsProducer {
+        int active;
+        long callTime;
+        boolean down;
+
+        public Map<String, MethodAnalytics> getMethodAnalytics() throws IOException {
+            if (down)
+                throw new IOException("not reachable");
+            Map<String, MethodAnalytics> analytics = new HashMap<String, MethodAnalytics>();
+            analytics.put("exert", new MethodAnalytics(null, 0, 0, 0, null, "exert", active, null,
+                    callTime * 1000000, 1));
+            return analytics;
+        }
+
+        public MethodAnalytics getMethodAnalytics(String name) throws IOException {
+            return getMethodAnalytics().get(name);
+        }
+
+        public SystemAnalytics getSystemAnalytics() {
+            return null;
+        }
+    }
+
+    static class AdderProvider extends Probed implements Adder {
+    }
+
+    static class MultiplierProvider extends Probed implements Multiplier {
+    }
+
+    static class ArithmeticProvider extends Probed implements Adder, Multiplier {
+    }
+
+    private ServiceCataloger.CatalogerInfo info;
+    private long ids;
+
+    @Before
+    public void init() {
+        info = new ServiceCataloger.CatalogerInfo();
+    }
+
+    private ServiceItem add(Probed provider, String name) {
+        ServiceItem item = new ServiceItem(new ServiceID(0, ++ids), provider, new Entry[] { new Name(name) });
+        info.addServiceItem(item);
+        return item;
+    }
+
+    private CatalogEntry entry(ServiceItem item) {
+        return info.entries.get(item.serviceID);
+    }
+
+    @Test
+    public void testIndexIntersection() {
+        ServiceItem adder = add(new AdderProvider(), "Adder");
+        ServiceItem multiplier = add(new MultiplierProvider(), "Multiplier");
+        ServiceItem arithmetic = add(new ArithmeticProvider(), "Arithmetic");
+
+        Assert.assertEquals(2, info.getEntries(new Class[] { Adder.class }, null).size());
+        List<CatalogEntry> both = info.getEntries(new Class[] { Adder.class, Multiplier.class }, null);
+        Assert.assertEquals(1, both.size());
+        Assert.assertSame(arithmetic, both.get(0).getItem());
+        Assert.assertSame(arithmetic, info.getServiceItem(new Class[] { Multiplier.class, Adder.class }, null));
+        Assert.assertSame(adder, info.getServiceItem(new Class[] { Adder.class }, "Adder"));
+        Assert.assertNull(info.getServiceItem(new Class[] { Multiplier.class }, "Adder"));
+        Assert.assertNull(info.getServiceItem(new Class[] { Adder.class, Runnable.class }, null));
+        Assert.assertEquals(3, info.getEntries(null, null).size());
+        Assert.assertEquals(2, info.lookup(new ServiceTemplate(null, new Class[] { Multiplier.class }, null), 10).size());
+        Assert.assertSame(multiplier, info.lookup(new ServiceTemplate(null, new Class[] { Multiplier.class },
+                new Entry[] { new Name("Multiplier") }), 10).get(0));
+
+        // replaced and removed entries are no longer indexed
+        ServiceItem replaced = new ServiceItem(arithmetic.serviceID, new AdderProvider(), arithmetic.attributeSets);
+        info.addServiceItem(replaced);
+        Assert.assertTrue(info.getEntries(new Class[] { Adder.class, Multiplier.class }, null).isEmpty());
+        Assert.assertEquals(1, info.getEntries(new Class[] { Multiplier.class }, null).size());
+        info.remove(multiplier);
+        Assert.assertNull(info.typeIndex.get(Multiplier.class.getName()));
+        Assert.assertNull(info.nameIndex.get("Multiplier"));
+        Assert.assertEquals(2, info.getEntries(new Class[] { Adder.class }, null).size());
+        Assert.assertSame(replaced, info.getServiceItem(new Class[] { Adder.class }, "Arithmetic"));
+    }
+
+    @Test
+    public void testAliveFiltering() {
+        AdderProvider down = new AdderProvider();
+        ServiceItem first = add(down, "Adder");
+        ServiceItem second = add(new AdderProvider(), "Adder");
+        down.down = true;
+        Assert.assertTrue(entry(first).probe());
+        Assert.assertFalse(entry(first).isAlive());
+        Assert.assertEquals(1, entry(first).getFailures());
+
+        for (int i = 0; i < 3; i++)
+            Assert.assertSame(second, info.getServiceItem(new Class[] { Adder.class }, null));
+        ServiceItem[] items = info.getServiceItems(new Class[] { Adder.class }, null, 0);
+        Assert.assertEquals(1, items.length);
+        Assert.assertEquals(1, info.lookup(new ServiceTemplate(null, new Class[] { Adder.class }, null), 10).size());
+        // still indexed
+        Assert.assertEquals(2, info.getEntries(new Class[] { Adder.class }, null).size());
+        Assert.assertSame(first, info.getServiceItem(first.serviceID));
+
+        // alive again at the next probe
+        down.down = false;
+        Assert.assertTrue(entry(first).probe());
+        Assert.assertTrue(entry(first).isAlive());
+        Assert.assertEquals(0, entry(first).getFailures());
+        Assert.assertEquals(2, info.getServiceItems(new Class[] { Adder.class }, null, 0).length);
+    }
+
+    @Test
+    public void testRoundRobin() {
+        info.setSelector(ServiceCataloger.createSelector("round-robin"));
+        Assert.assertTrue(info.getSelector() instanceof ProviderSelector.RoundRobin);
+        List<ServiceItem> items = Arrays.asList(add(new AdderProvider(), "Adder"),
+                add(new AdderProvider(), "Adder"), add(new AdderProvider(), "Adder"));
+        Set<ServiceItem> selected = new HashSet<ServiceItem>();
+        for (int i = 0; i < 3; i++)
+            selected.add(info.getServiceItem(new Class[] { Adder.class }, null));
+        Assert.assertEquals(new HashSet<ServiceItem>(items), selected);
+        // the least recently selected again
+        ServiceItem first = info.getServiceItem(new Class[] { Adder.class }, null);
+        for (int i = 0; i < 2; i++)
+            Assert.assertNotSame(first, info.getServiceItem(new Class[] { Adder.class }, null));
+        Assert.assertSame(first, info.getServiceItem(new Class[] { Adder.class }, null));
+    }
+
+    @Test
+    public void testLeastOutstanding() {
+        info.setSelector(ServiceCataloger.createSelector("least-outstanding"));
+        AdderProvider busy = new AdderProvider();
+        AdderProvider idle = new AdderProvider();
+        busy.active = 3;
+        idle.active = 1;
+        ServiceItem busyItem = add(busy, "Adder");
+        ServiceItem idleItem = add(idle, "Adder");
+        entry(busyItem).probe();
+        entry(idleItem).probe();
+
+        // selections since the last probe count as outstanding
+        Assert.assertSame(idleItem, info.getServiceItem(new Class[] { Adder.class }, null));
+        Assert.assertSame(idleItem, info.getServiceItem(new Class[] { Adder.class }, null));
+        Assert.assertEquals(3, entry(idleItem).getOutstanding());
+        // equally loaded, the least recently selected
+        Assert.assertSame(busyItem, info.getServiceItem(new Class[] { Adder.class }, null));
+        Assert.assertSame(idleItem, info.getServiceItem(new Class[] { Adder.class }, null));
+
+        idle.active = 5;
+        entry(idleItem).probe();
+        Assert.assertEquals(5, entry(idleItem).getOutstanding());
+        Assert.assertSame(busyItem, info.getServiceItem(new Class[] { Adder.class }, null));
+    }
+
+    @Test
+    public void testLatencyWeighted() {
+        info.setSelector(ServiceCataloger.createSelector("latency-weighted"));
+        AdderProvider slow = new AdderProvider();
+        AdderProvider fast = new AdderProvider();
+        slow.callTime = 90;
+        fast.callTime = 10;
+        ServiceItem slowItem = add(slow, "Adder");
+        ServiceItem fastItem = add(fast, "Adder");
+        entry(slowItem).probe();
+        entry(fastItem).probe();
+        Assert.assertEquals(10, entry(fastItem).getLatency(), 0.001);
+
+        int fastSelections = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (info.getServiceItem(new Class[] { Adder.class }, null) == fastItem)
+                fastSelections++;
+        }
+        // selected with a probability of 0.9
+        Assert.assertTrue(fastSelections > 800 && fastSelections < 980);
+
+        // no latency known yet, weighted as the average provider
+        ServiceItem unknown = add(new AdderProvider(), "Adder");
+        Assert.assertTrue(Double.isNaN(entry(unknown).getLatency()));
+        int unknownSelections = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (info.getServiceItem(new Class[] { Adder.class }, null) == unknown)
+                unknownSelections++;
+        }
+        Assert.assertTrue(unknownSelections > 0 && unknownSelections < 500);
+    }
+
+    @Test
+    public void testSelectorNames() {
+        Assert.assertTrue(ServiceCataloger.createSelector(null) instanceof ProviderSelector.RoundRobin);
+        Assert.assertTrue(ServiceCataloger.createSelector("least-outstanding") instanceof ProviderSelector.LeastOutstanding);
+        Assert.assertTrue(ServiceCataloger.createSelector("latency-weighted") instanceof ProviderSelector.LatencyWeighted);
+        Assert.assertTrue(ServiceCataloger.createSelector(ProviderSelector.LeastOutstanding.class.getName())
+                instanceof ProviderSelector.LeastOutstanding);
+        // unknown selectors fall back to round-robin
+        Assert.assertTrue(ServiceCataloger.createSelector("no.such.Selector") instanceof ProviderSelector.RoundRobin);
+    }
+}
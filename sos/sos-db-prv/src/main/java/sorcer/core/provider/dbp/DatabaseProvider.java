@@ -50,6 +50,8 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.rmi.RemoteException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * @author Mike Sobolewski
@@ -65,6 +67,24 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 
 	private SorcerDatabaseViews views;
 
+	/**
+	 * The configuration entry of the number of writer threads, each writing
+	 * the objects of a stripe of object ids.
+	 */
+	public final static String WRITE_STRIPES = "writeStripes";
+
+	/**
+	 * The configuration entry of the maximum number of writes queued per
+	 * writer before the callers are blocked.
+	 */
+	public final static String WRITE_QUEUE_CAPACITY = "writeQueueCapacity";
+
+	private final static int DEFAULT_WRITE_STRIPES = 4;
+
+	private final static int DEFAULT_WRITE_QUEUE_CAPACITY = 1024;
+
+	private WritePipeline pipeline;
+
 	public DatabaseProvider() throws RemoteException {
 		super();
 	}
@@ -83,17 +103,18 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 		setupDatabase();
 	}
 
-    private Set<Uuid> objectsQueue = Collections.synchronizedSet(new HashSet<Uuid>());
-
 	public Uuid store(Object object) {
 		Object obj = object;
 //		if (!(object instanceof Identifiable)) {
 			obj = new UuidObject(object);
 //		}
-        PersistThread pt = new PersistThread(obj);
-		Uuid id = pt.getUuid();
-        pt.start();
-        return id;
+		final UuidObject uuidObject = (UuidObject) obj;
+		pipeline.submit(uuidObject.getId(), new Runnable() {
+			public void run() {
+				views.getUuidObjectSet().add(uuidObject);
+			}
+		});
+		return uuidObject.getId();
 	}
 
 	public Uuid update(Uuid uuid, Object object) throws InvalidObjectException {
@@ -101,226 +122,96 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 		if (!(object instanceof Identifiable)) {
 			uuidObject = new UuidObject(uuid, object);
 		}
-		UpdateThread ut = new UpdateThread(uuid, uuidObject);
-        Uuid id = ut.getUuid();
-		//TODO - added by PR, this slows it down but should prevent errors in tests...
-        //ut.start();
-		ut.run();
-        return id;
+		try {
+			submitUpdate(uuid, uuidObject).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+		return uuid;
 	}
 
 	public Uuid updateObject(URL url, Object object) throws InvalidObjectException {
+		Uuid uuid = SdbUtil.getUuid(url);
 		Object uuidObject = object;
 		if (!(object instanceof Identifiable)) {
-			uuidObject = new UuidObject(SdbUtil.getUuid(url), object);
+			uuidObject = new UuidObject(uuid, object);
 		}
-		UpdateThread ut = new UpdateThread(url, uuidObject);
-        Uuid id = ut.getUuid();
-        ut.start();
-		return id;
+		submitUpdate(uuid, uuidObject);
+		return uuid;
+	}
+
+	private CompletableFuture<Void> submitUpdate(final Uuid uuid, final Object object) {
+		return pipeline.submit(uuid, new Runnable() {
+			public void run() {
+				UuidKey key = new UuidKey(uuid);
+				StoredMap storedMap;
+				if (object instanceof Context) {
+					storedMap = views.getContextMap();
+				} else if (object instanceof Exertion) {
+					storedMap = views.getExertionMap();
+				} else if (object instanceof ModelTable) {
+					storedMap = views.getTableMap();
+				} else {
+					storedMap = views.getUuidObjectMap();
+				}
+				try {
+					storedMap.replace(key, object);
+				} catch (IllegalArgumentException ie) {
+					logger.warn("Problem updating object with key: " + key);
+					throw ie;
+				}
+			}
+		});
 	}
 
-    private void append(Uuid id, Object object) {
-        waitIfBusy(id);
-        objectsQueue.add(id);
-//		logger.info("new waiting: " + object + " id: " + id + " size: " + objectsQueue.size());
+	/**
+	 * Waits until the writes queued so far are committed.
+	 */
+	public void waitIfBusy() {
+		if (pipeline != null)
+			pipeline.flush();
 	}
 
-    private void waitIfBusy(Uuid uuid) {
-        while (objectsQueue.contains(uuid)) {
-            try {
-                Thread.sleep(50);
-            } catch (InterruptedException ie) {
-                logger.warn("Interrupted while waiting for retrieved object: " + uuid);
-            }
-        }
-    }
-
-    private synchronized Set<Uuid> getCurrentBusy(){
-        return new HashSet<Uuid>(objectsQueue);
-    }
-
-    public void waitIfBusy() {
-        Set<Uuid> currentlyBusy = getCurrentBusy();
-        while (!currentlyBusy.isEmpty()) {
-            try {
-                currentlyBusy.retainAll(objectsQueue);
-//                logger.info("currentlyBusy size: " + currentlyBusy.size());
-                Thread.sleep(50);
-            } catch (InterruptedException ie) {
-                logger.warn("Interrupted while busy :" + currentlyBusy.size());
-            }
-        }
-    }
-
 	public Object getObject(Uuid uuid) {
 		logger.info("Getting object: " + uuid);
-		waitIfBusy(uuid);
+		pipeline.await(uuid);
 		StoredMap<UuidKey, UuidObject> uuidObjectMap = views.getUuidObjectMap();
-
-		int tries = 0;
-		while (uuidObjectMap == null && tries < 100) {
-			logger.info("Didn't get UuidObjectMap, trying: " + tries);
-			try {
-				Thread.sleep(50);
-			} catch (InterruptedException ie) {
-			}
-			views.getUuidObjectMap();
-			tries++;
-		}
-
 		UuidObject uuidObj = uuidObjectMap.get(new UuidKey(uuid));
 		return uuidObj != null ? uuidObj.getObject() : null;
 	}
 
 	public Context getContext(Uuid uuid) {
-        try {
-            append(uuid, "context");
-            StoredMap<UuidKey, Context> cxtMap = views.getContextMap();
-            return cxtMap.get(new UuidKey(uuid));
-        } finally {
-            objectsQueue.remove(uuid);
-        }
+		pipeline.await(uuid);
+		StoredMap<UuidKey, Context> cxtMap = views.getContextMap();
+		return cxtMap.get(new UuidKey(uuid));
 	}
 
 	public Exertion getExertion(Uuid uuid) {
-        try {
-            append(uuid, "exertion");
-            StoredMap<UuidKey, Exertion> xrtMap = views.getExertionMap();
-		    return xrtMap.get(new UuidKey(uuid));
-        } finally {
-            objectsQueue.remove(uuid);
-        }
+		pipeline.await(uuid);
+		StoredMap<UuidKey, Exertion> xrtMap = views.getExertionMap();
+		return xrtMap.get(new UuidKey(uuid));
 	}
 
     public ModelTable getTable(Uuid uuid) {
-        try {
-            append(uuid, "dataTable");
-            StoredMap<UuidKey, ModelTable> xrtMap = views.getTableMap();
-            return xrtMap.get(new UuidKey(uuid));
-        } finally {
-            objectsQueue.remove(uuid);
-        }
+        pipeline.await(uuid);
+        StoredMap<UuidKey, ModelTable> xrtMap = views.getTableMap();
+        return xrtMap.get(new UuidKey(uuid));
     }
 
-	protected class PersistThread extends Thread {
-
-		Object object;
-		Uuid uuid;
-
-		public PersistThread(Object object) {
-            super("PersistThread-" + ((Identifiable)object).getId());
-			this.object = object;
-			this.uuid = ((UuidObject)object).getId();
-			append(uuid, object);
-		}
-
-		@SuppressWarnings("unchecked")
-		public void run() {
-			try {
-//				logger.info("persisting: " + object);
-				StoredValueSet storedSet = views.getUuidObjectSet();
-				storedSet.add(object);
-//				TODO
-//				Object inner = ((UuidObject)object).getObject();
-//				if (inner instanceof Context) {
-//					storedSet = views.getContextSet();
-//					storedSet.add(object);
-//				} else if (inner instanceof Exertion) {
-//					storedSet = views.getExertionSet();
-//					storedSet.add(object);
-//				} else if (inner instanceof ModelTable) {
-//					storedSet = views.getTableSet();
-//					storedSet.add(object);
-//				} else if (inner instanceof UuidObject) {
-//					storedSet = views.getUuidObjectSet();
-//					storedSet.add(object);
-//				}
-			} finally {
-				objectsQueue.remove(this.uuid);
-			}
-		}
-
-		public Uuid getUuid() {
-			return uuid;
-		}
-	}
-
-	protected class UpdateThread extends Thread {
-
-		Object object;
-		Uuid uuid;
-
-		public UpdateThread(Uuid uuid, Object object) throws InvalidObjectException {
-			this.uuid = uuid;
-			this.object = object;
-		}
-
-		public UpdateThread(URL url, Object object) throws InvalidObjectException {
-            super("UpdateThread-" + url);
-			this.object = object;
-			this.uuid = SdbUtil.getUuid(url);
-            append(uuid, object);
-		}
-
-		public void run() {
-            StoredMap storedMap = null;
-            UuidKey key = null;
-			try {
-                key = new UuidKey(uuid);
-                if (object instanceof Context) {
-                    storedMap = views.getContextMap();
-                    storedMap.replace(key, object);
-                } else if (object instanceof Exertion) {
-                    storedMap = views.getExertionMap();
-                    storedMap.replace(key, object);
-                } else if (object instanceof ModelTable) {
-                    storedMap = views.getTableMap();
-                    storedMap.replace(key, object);
-                } else if (object instanceof Object) {
-                    storedMap = views.getUuidObjectMap();
-                    storedMap.replace(key, object);
-                }
-            } catch (IllegalArgumentException ie) {
-                logger.warn("Problem updating object with key: " + key.toString()
-						+ "\n" + storedMap.get(key).toString());
-                objectsQueue.remove(this.uuid);
-                throw (ie);
-            } finally {
-                objectsQueue.remove(this.uuid);
-            }
-		}
-
-		public Uuid getUuid() {
-			return uuid;
-		}
-	}
-
-	protected class DeleteThread extends Thread {
-
-		Uuid uuid;
-		Store storeType;
-        StoredMap storedMap;
-
-        public DeleteThread(Uuid uuid, Store storeType) {
-            super("DeleteThread-" + uuid);
-            this.uuid = uuid;
-			this.storeType = storeType;
-            storedMap = getStoredMap(storeType);
-            append(uuid, "deleteThread");
-		}
-
-		public void run() {
-            try {
-                storedMap.remove(new UuidKey(uuid));
-            } finally {
-                objectsQueue.remove(this.uuid);
-            }
-		}
-
-		public Uuid getUuid() {
+	private Uuid delete(final Uuid uuid, Store storeType) {
+		final StoredMap storedMap = storedMapOf(storeType);
+		if (storedMap == null) {
+			logger.warn("No " + storeType + " store to delete object: " + uuid);
 			return uuid;
 		}
+		pipeline.submit(uuid, new Runnable() {
+			public void run() {
+				storedMap.remove(new UuidKey(uuid));
+			}
+		});
+		return uuid;
 	}
 
 	public Context contextStore(Context context) throws RemoteException,
@@ -364,11 +255,7 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 
 	public Uuid deleteObject(URL url) {
 		Store storeType = SdbUtil.getStoreType(url);
-		Uuid id = SdbUtil.getUuid(url);
-		DeleteThread dt = new DeleteThread(id, storeType);
-		dt.start();
-		id = dt.getUuid();
-		return id;
+		return delete(SdbUtil.getUuid(url), storeType);
 	}
 
 	public Object retrieve(URL url) {
@@ -531,6 +418,21 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 		logger.info("Opening provider's BDBJE in: " + dbHomeFile.getAbsolutePath());
 		db = new SorcerDatabase(dbHome);
 		views = new SorcerDatabaseViews(db);
+		int migrated = views.migrate();
+		if (migrated > 0)
+			logger.info("Migrated " + migrated + " serial records to the record format");
+		int stripes = DEFAULT_WRITE_STRIPES;
+		int capacity = DEFAULT_WRITE_QUEUE_CAPACITY;
+		try {
+			stripes = (Integer) config.getEntry(ServiceProvider.COMPONENT,
+					WRITE_STRIPES, int.class, DEFAULT_WRITE_STRIPES);
+			capacity = (Integer) config.getEntry(ServiceProvider.COMPONENT,
+					WRITE_QUEUE_CAPACITY, int.class, DEFAULT_WRITE_QUEUE_CAPACITY);
+		} catch (Exception e) {
+			// do nothing, default values are used
+		}
+		logger.info("Writing with " + stripes + " writers of up to " + capacity + " queued writes");
+		pipeline = new WritePipeline(db.getEnvironment(), stripes, capacity);
 	}
 	
 	/**
@@ -540,15 +442,9 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 	 */
 	public void destroy() {
 		try {
-            int tries=0;
-            try {
-                while (objectsQueue.size()>0 && tries<80) {
-                    Thread.sleep(50);
-                    tries++;
-                }
-                if (tries==80) logger.warn("Interrupted while objects where still being used; size: "
-                + objectsQueue.size());
-            } catch (InterruptedException ie) {}
+			if (pipeline != null) {
+				pipeline.close();
+			}
 			if (db != null) {
 				db.close();
 			}
@@ -580,6 +476,11 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 	
 	public StoredMap getStoredMap(Store storeType) {
         waitIfBusy();
+		return storedMapOf(storeType);
+	}
+
+	// the map of the store, not waiting for the queued writes
+	private StoredMap storedMapOf(Store storeType) {
 		StoredMap storedMap = null;
 		if (storeType == Store.context) {
 			storedMap = views.getContextMap();
@@ -618,23 +519,7 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 	
 	public Uuid deleteIdentifiable(Object object) {
 		Uuid id = (Uuid) ((Identifiable) object).getId();
-		DeleteThread dt = null;
-		if (object instanceof Context) {
-			dt = new DeleteThread(id, Store.context);
-		} else if (object instanceof Exertion) {
-			dt = new DeleteThread(id, Store.exertion);
-		} else if (object instanceof Variability) {
-			dt = new DeleteThread(id, Store.var);
-		} else if (object instanceof VariabilityModeling) {
-			dt = new DeleteThread(id, Store.varmodel);
-		} else if (object instanceof ModelTable) {
-            dt = new DeleteThread(id, Store.table);
-        } else {
-			dt = new DeleteThread(id, Store.object);			
-		}
-		dt.start();
-		id = dt.getUuid();
-		return id;
+		return delete(id, getStoreType(object));
 	}
 	
 	private int getStoreSize(Store type) {
@@ -0,0 +1,178 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.provider.dbp;
+
+import com.sleepycat.collections.CurrentTransaction;
+import com.sleepycat.je.DatabaseException;
+import com.sleepycat.je.Environment;
+import net.jini.id.Uuid;
+import sorcer.util.bdb.GroupCommitWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The write pipeline of the {@link DatabaseProvider}. The writes of an object
+ * are queued to one of a fixed number of stripes by the hash of the object
+ * id, and each stripe is written by a single {@link GroupCommitWriter}
+ * thread, so that the writes of an object are applied in the order they are
+ * submitted. A writer commits the writes queued in its stripe in one
+ * transaction of the collection views it writes to. The stripe queues are bounded, so callers
+ * are blocked when the writers fall behind.
+ * <p>
+ * Readers of an object wait on the future of its last pending write, if any,
+ * instead of polling for the write to be done.
+ */
+class WritePipeline {
+
+	private final CurrentTransaction currentTxn;
+
+	private final Stripe[] stripes;
+
+	// the last queued write by object id
+	private final ConcurrentMap<Uuid, Write> pending = new ConcurrentHashMap<Uuid, Write>();
+
+	private volatile boolean closed;
+
+	/**
+	 * Starts the writers of the given number of stripes, each queuing up to
+	 * the given number of writes, to the collection views of the environment.
+	 */
+	WritePipeline(Environment env, int stripeCount, int capacity) {
+		currentTxn = CurrentTransaction.getInstance(env);
+		stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe(i, capacity);
+			stripes[i].start();
+		}
+	}
+
+	/**
+	 * Queues the write of the object with the given id; the operation is
+	 * run by the writer of the stripe of the object in the writer's
+	 * transaction. Blocks while the queue of the stripe is full.
+	 *
+	 * @return the future completed when the write is committed
+	 */
+	CompletableFuture<Void> submit(Uuid id, Runnable operation) {
+		Write write = new Write(id, operation);
+		Stripe stripe = stripes[(id.hashCode() & Integer.MAX_VALUE) % stripes.length];
+		boolean interrupted = false;
+		// the last pending write of an object is the last one queued
+		synchronized (stripe) {
+			if (closed)
+				throw new IllegalStateException("Write pipeline closed");
+			pending.put(id, write);
+			interrupted = stripe.put(write);
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		return write.done;
+	}
+
+	/**
+	 * Waits until the writes of the object with the given id queued so far
+	 * are done, whether committed or failed.
+	 */
+	void await(Uuid id) {
+		Write write = pending.get(id);
+		if (write != null)
+			await(write);
+	}
+
+	/**
+	 * Waits until all the writes queued so far are done.
+	 */
+	void flush() {
+		for (Write write : new ArrayList<Write>(pending.values()))
+			await(write);
+	}
+
+	/**
+	 * Returns the number of objects with pending writes.
+	 */
+	int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Commits the queued writes and stops the writers.
+	 */
+	void close() {
+		closed = true;
+		// the writes queued by submits in progress are committed first
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.close();
+			}
+		}
+	}
+
+	private static void await(Write write) {
+		try {
+			write.done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// logged by the writer, readers get the last committed state
+		}
+	}
+
+	private class Stripe extends GroupCommitWriter<Write> {
+
+		Stripe(int index, int capacity) {
+			super("DatabaseProvider-writer-" + index, capacity);
+		}
+
+		@Override
+		protected void commit(List<Write> batch) throws DatabaseException {
+			currentTxn.beginTransaction(null);
+			try {
+				for (Write write : batch)
+					write.operation.run();
+				currentTxn.commitTransaction();
+			} catch (RuntimeException | Error e) {
+				currentTxn.abortTransaction();
+				throw e;
+			}
+		}
+
+		@Override
+		protected void done(Write write, Throwable failure) {
+			pending.remove(write.id, write);
+			super.done(write, failure);
+		}
+	}
+
+	private static class Write extends GroupCommitWriter.Write {
+		final Uuid id;
+		final Runnable operation;
+
+		Write(Uuid id, Runnable operation) {
+			this.id = id;
+			this.operation = operation;
+		}
+
+		@Override
+		public String toString() {
+			return "object: " + id;
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.provider.dbp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.bdb.objects.SorcerDatabase;
+import sorcer.util.bdb.objects.SorcerDatabaseViews;
+import sorcer.util.bdb.objects.UuidKey;
+import sorcer.util.bdb.objects.UuidObject;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the write throughput and the read-after-write latency of the
+ * {@link WritePipeline} against a JE environment in a temporary directory,
+ * and compares the throughput with a transaction committed per write.
+ */
+public class WritePipelineBenchmark {
+    private final static Logger logger = LoggerFactory.getLogger(WritePipelineBenchmark.class);
+
+    private static final int CLIENTS = 8;
+
+    private static final int WRITES = 500;
+
+    private static final int[] STRIPES = {1, 4};
+
+    private File home;
+
+    private SorcerDatabase db;
+
+    private SorcerDatabaseViews views;
+
+    @Before
+    public void open() throws Exception {
+        home = Files.createTempDirectory("sorcer-dbp").toFile();
+        db = new SorcerDatabase(home.getPath());
+        views = new SorcerDatabaseViews(db);
+    }
+
+    @After
+    public void close() throws Exception {
+        db.close();
+        File[] files = home.listFiles();
+        if (files != null) {
+            for (File file : files)
+                file.delete();
+        }
+        home.delete();
+    }
+
+    // runs the writes of the clients concurrently, returns the writes per second
+    private long run(final Writer writer) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            clients.execute(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < WRITES; i++)
+                        writer.write(new UuidObject("value-" + i));
+                }
+            });
+        }
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(5, TimeUnit.MINUTES));
+        writer.flush();
+        long elapsed = System.nanoTime() - start;
+        return CLIENTS * WRITES * 1000000000L / elapsed;
+    }
+
+    interface Writer {
+        void write(UuidObject object);
+
+        void flush();
+    }
+
+    @Test
+    public void throughput() throws Exception {
+        long committed = run(new Writer() {
+            public void write(UuidObject object) {
+                views.getUuidObjectSet().add(object);
+            }
+
+            public void flush() {
+            }
+        });
+        assertEquals(CLIENTS * WRITES, views.getUuidObjectSet().size());
+        logger.info("transaction per write: {} writes/s", committed);
+
+        for (int stripes : STRIPES) {
+            views.getUuidObjectSet().clear();
+            final WritePipeline pipeline = new WritePipeline(db.getEnvironment(), stripes, 1024);
+            long pipelined = run(new Writer() {
+                public void write(final UuidObject object) {
+                    pipeline.submit(object.getId(), new Runnable() {
+                        public void run() {
+                            views.getUuidObjectSet().add(object);
+                        }
+                    });
+                }
+
+                public void flush() {
+                    pipeline.flush();
+                }
+            });
+            pipeline.close();
+            assertEquals(0, pipeline.getPendingCount());
+            assertEquals(CLIENTS * WRITES, views.getUuidObjectSet().size());
+            logger.info("{} stripes: {} writes/s", stripes, pipelined);
+        }
+    }
+
+    @Test
+    public void readAfterWriteLatency() throws Exception {
+        final WritePipeline pipeline = new WritePipeline(db.getEnvironment(), 4, 1024);
+        final long[][] latencies = new long[CLIENTS][WRITES];
+        // the writes not read back after they were awaited
+        final AtomicInteger unread = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            final int client = c;
+            clients.execute(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < WRITES; i++) {
+                        final UuidObject object = new UuidObject("value-" + i);
+                        long start = System.nanoTime();
+                        pipeline.submit(object.getId(), new Runnable() {
+                            public void run() {
+                                views.getUuidObjectSet().add(object);
+                            }
+                        });
+                        pipeline.await(object.getId());
+                        UuidObject stored = views.getUuidObjectMap().get(new UuidKey(object.getId()));
+                        latencies[client][i] = System.nanoTime() - start;
+                        if (stored == null || !object.getObject().equals(stored.getObject()))
+                            unread.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(5, TimeUnit.MINUTES));
+        pipeline.close();
+        assertEquals(0, unread.get());
+        assertEquals(CLIENTS * WRITES, views.getUuidObjectSet().size());
+
+        long[] all = new long[CLIENTS * WRITES];
+        for (int c = 0; c < CLIENTS; c++)
+            System.arraycopy(latencies[c], 0, all, c * WRITES, WRITES);
+        Arrays.sort(all);
+        logger.info("read after write: p50 {} us, p99 {} us, max {} us",
+                    all[all.length / 2] / 1000, all[all.length * 99 / 100] / 1000, all[all.length - 1] / 1000);
+    }
+}
@@ -17,7 +17,6 @@
 
 package sorcer.core.provider.exertmonitor;
 
-import com.sleepycat.collections.StoredMap;
 import com.sleepycat.je.DatabaseException;
 import com.sun.jini.landlord.LeasedResource;
 import com.sun.jini.start.LifeCycle;
@@ -36,6 +35,8 @@ import sorcer.core.provider.MonitorManagementSession;
 import sorcer.core.provider.ServiceProvider;
 import sorcer.core.provider.exertmonitor.db.SessionDatabase;
 import sorcer.core.provider.exertmonitor.db.SessionDatabaseViews;
+import sorcer.core.provider.exertmonitor.db.SessionJournal;
+import sorcer.core.provider.exertmonitor.db.SessionNode;
 import sorcer.core.provider.exertmonitor.lease.MonitorLandlord;
 import sorcer.security.util.SorcerPrincipal;
 import sorcer.service.*;
@@ -45,8 +46,10 @@ import java.io.File;
 import java.io.IOException;
 import java.rmi.RemoteException;
 import java.security.Principal;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @SuppressWarnings("unchecked")
@@ -54,9 +57,8 @@ public class ExertMonitor extends ServiceProvider implements MonitoringManagemen
 	static transient final Logger logger = LoggerFactory.getLogger(ExertMonitor.class.getName());
 	private MonitorLandlord landlord;
 	private SessionDatabase db;
-	private StoredMap<UuidKey, MonitorManagementSession> resources;
+	private SessionJournal journal;
     private Map<Uuid, UuidKey> cacheSessionKeyMap = new HashMap<>();
-    private final Object resourcesWriteLock = new Object();
     private ExertMonitorEventHandler eventHandler;
 
 	public ExertMonitor(String[] args, LifeCycle lifeCycle) throws Exception {
@@ -85,23 +87,24 @@ public class ExertMonitor extends ServiceProvider implements MonitoringManagemen
         logger.debug("Opening BDBJE environment in: " + dbHomeFile);
 		db = new SessionDatabase(dbHome);
 		SessionDatabaseViews views = new SessionDatabaseViews(db);
-		resources = views.getSessionMap();
+		journal = new SessionJournal(db, views);
 
 		// statically initialize
 		MonitorSession.mLandlord = landlord;
 		MonitorSession.sessionManager = (MonitoringManagement) getServiceProxy();
+		MonitorSession.sessionStore = journal;
 
         eventHandler = new ExertMonitorEventHandler(getProviderConfiguration());
 	}
 
 	public Exertion register(RemoteEventListener lstnr, Exertion ex, long duration) throws MonitorException {
 		MonitorSession resource = new MonitorSession(ex, lstnr, duration);
-		synchronized (resourcesWriteLock) {
-			try {
-				persist(resource);
-			} catch (IOException e) {
-				logger.warn("Problem persisting Exertion", e);
-			}
+		try {
+			journal.register(resource);
+		} catch (IOException e) {
+			// not indexed, the session could not be found by its cookies
+			landlord.remove(resource);
+			throw new MonitorException("Problem persisting Exertion", e);
 		}
 		return resource.getRuntimeExertion();
 	}
@@ -135,38 +138,32 @@ public class ExertMonitor extends ServiceProvider implements MonitoringManagemen
 	}
 	
 	private MonitorSession findSessionResource(Uuid cookie) throws MonitorException {
-		MonitorSession resource;
-
 		// Check if landlord is keeping it in memory
 		Map<Uuid, LeasedResource> lresources = landlord.getResources();
 		if (lresources.get(cookie) != null)
 			return (MonitorSession) lresources.get(cookie);
 
-		for(Map.Entry<Uuid, LeasedResource> entry : lresources.entrySet()) {
-			resource = ((MonitorSession) entry.getValue()).getSessionResource(cookie);
+		// Find the root session indexed for the cookie, kept by the landlord
+		// or retrieved from the database
+		Uuid root = journal.getRootCookie(cookie);
+		if (root != null) {
+			MonitorSession session = (MonitorSession) lresources.get(root);
+			if (session == null)
+				session = getSession(root);
+			MonitorSession resource = session != null ? session.getSessionResource(cookie) : null;
 			if (resource != null)
 				return resource;
 		}
 
-		// if (landlord.getResource(cookie)!=null) return
-		// (SessionResource)landlord.getResource(cookie);
-
-		// Ok it's not with landlord. So we retrieve it from the database
-		synchronized (resourcesWriteLock) {
-            Iterator<Map.Entry<UuidKey, MonitorManagementSession>> si = resources.entrySet().iterator();
-            Map.Entry<UuidKey, MonitorManagementSession> next;
-            while (si.hasNext()) {
-                next = si.next();
-                try {
-                    resource = getSession(next.getKey()).getSessionResource(cookie);
-                } catch (Exception e) {
-                    throw new MonitorException(e);
-                }
-                if (resource != null)
-                    return resource;
-            }
-        }
-        return null;
+		// Not indexed, scan the sessions kept by the landlord
+		for (LeasedResource leased : lresources.values()) {
+			MonitorSession resource = ((MonitorSession) leased).getSessionResource(cookie);
+			if (resource != null) {
+				logger.warn("Session {} not indexed, found by the landlord", cookie);
+				return resource;
+			}
+		}
+		return null;
     }
 
     /**
@@ -308,37 +305,53 @@ public class ExertMonitor extends ServiceProvider implements MonitoringManagemen
 	public Map<Uuid, ExertionInfo> getMonitorableExertionInfo(Exec.State state,
 															  Principal principal) throws MonitorException {
         logger.debug("Trying to get exertionInfos for: {} for: {}", (state==null?"null":state.toString()), principal);
-		Map<Uuid, ExertionInfo> table = new HashMap<>();
 		try {
-			if (resources==null) return table;
-			Iterator<UuidKey> ki = resources.keySet().iterator();
-			UuidKey key;
-			while (ki.hasNext()) {
-				key = ki.next();
-                MonitorSession monSession = getSession(key);
-                table.putAll(getMonitorableExertionInfo(monSession, key, state, principal));
-			}
+			if (journal==null) return new HashMap<>();
+			return getMonitorableExertionInfo(journal.getNodes(((SorcerPrincipal) principal).getId(),
+															   getStateKey(state)));
 		} catch (Exception e) {
 			logger.error("Failed getting ExertionInfo for principal: {}, State: {}",
                          principal.getName(), (state==null?"null":state.toString()), e);
 			throw new MonitorException(e);
 		}
-		return table;
 	}
 
-    private Map<Uuid, ExertionInfo> getMonitorableExertionInfo(MonitorSession monitorSession, UuidKey key, Exec.State state, Principal principal) throws RemoteException,MonitorException {
-        Map<Uuid, ExertionInfo> table = new HashMap<>();
-        logger.debug("Trying to get exertionInfos for: {} state: {} for: {}", monitorSession, (state==null?"null":state.toString()), principal);
-        ServiceExertion xrt = (ServiceExertion) (monitorSession).getRuntimeExertion();
-        if (xrt.getPrincipal().getId()
-                .equals(((SorcerPrincipal) principal).getId())) {
-            if (state == null || state.equals(Exec.State.NULL)
-                    || xrt.getStatus() == state.ordinal()) {
-                table.put(xrt.getId(), new ExertionInfo(xrt, key.getId()));
+	public Map<Uuid, ExertionInfo> getMonitorableExertionInfo(Exec.State state, Principal principal,
+															  long since, int offset, int limit) throws MonitorException {
+		logger.debug("Trying to get exertionInfos for: {} for: {} since: {}", (state==null?"null":state.toString()), principal, since);
+		try {
+			if (journal==null) return new HashMap<>();
+			return getMonitorableExertionInfo(journal.getNodes(((SorcerPrincipal) principal).getId(),
+															   getStateKey(state), since, offset, limit));
+		} catch (Exception e) {
+			logger.error("Failed getting ExertionInfo for principal: {}, State: {}",
+						 principal.getName(), (state==null?"null":state.toString()), e);
+			throw new MonitorException(e);
+		}
+	}
+
+	private static Integer getStateKey(Exec.State state) {
+		return state == null || state.equals(Exec.State.NULL) ? null : state.ordinal();
+	}
+
+	// reads only the sessions of the matching nodes, once per root session
+    private Map<Uuid, ExertionInfo> getMonitorableExertionInfo(Map<Uuid, SessionNode> nodes) throws IOException {
+        Map<Uuid, ExertionInfo> table = new LinkedHashMap<>();
+        Map<Uuid, Map<Uuid, MonitorManagementSession>> trees = new HashMap<>();
+        for (Map.Entry<Uuid, SessionNode> entry : nodes.entrySet()) {
+            SessionNode node = entry.getValue();
+            Map<Uuid, MonitorManagementSession> tree = trees.get(node.getRoot());
+            if (tree == null) {
+                MonitorSession root = journal.getSession(node.getRoot());
+                tree = root != null ? root.getSessions() : new HashMap<Uuid, MonitorManagementSession>();
+                trees.put(node.getRoot(), tree);
             }
-        }
-        for (MonitorSession internalSession : monitorSession) {
-            table.putAll(getMonitorableExertionInfo(internalSession, key, state, principal));
+            MonitorSession session = (MonitorSession) tree.get(entry.getKey());
+            if (session == null)
+                continue;
+            ExertionInfo info = new ExertionInfo(session.getRuntimeExertion(), node.getRoot());
+            info.setLastUpdateDate(new Date(node.getLastUpdate()));
+            table.put(info.getId(), info);
         }
         return table;
     }
@@ -365,7 +378,7 @@ public class ExertMonitor extends ServiceProvider implements MonitoringManagemen
             else
                 return null;
         }
-		Iterator<UuidKey> ki = resources.keySet().iterator();
+		Iterator<UuidKey> ki = journal.getSessionKeys().iterator();
 		while (ki.hasNext()) {
 			lkey = ki.next();
 			ex = (getSession(lkey)).getRuntimeExertion();
@@ -403,6 +416,7 @@ public class ExertMonitor extends ServiceProvider implements MonitoringManagemen
 
 	public void destroy() {
 		try {
+			journal.close();
 			db.close();
 		} catch (DatabaseException e) {
 			e.printStackTrace();
@@ -418,21 +432,17 @@ public class ExertMonitor extends ServiceProvider implements MonitoringManagemen
 	@Override
 	public boolean persist(MonitorManagementSession session) throws IOException {
         logger.warn("Persist {}", session);
-		resources.put(new UuidKey(((MonitorSession)session).getCookie()), session);
+		journal.register((MonitorSession)session);
 		return true;
 	}
 	
 	public MonitorSession getSession(UuidKey key) throws MonitorException {
-		try {
-			return (MonitorSession) resources.get(key);
-		} catch (Exception e) {
-			throw new MonitorException(e);
-		}
+		return getSession(key.getId());
 	}
 
 	public MonitorSession getSession(Uuid key) throws MonitorException {
 		try {
-			return (MonitorSession) resources.get(new UuidKey(key));
+			return journal.getSession(key);
 		} catch (Exception e) {
 			throw new MonitorException(e);
 		}
@@ -3,11 +3,17 @@ package sorcer.core.provider.exertmonitor.db;
 import java.io.File;
 
 import com.sleepycat.bind.serial.StoredClassCatalog;
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.bind.tuple.TupleOutput;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.SecondaryConfig;
+import com.sleepycat.je.SecondaryDatabase;
+import com.sleepycat.je.SecondaryKeyCreator;
 
 /**
  * SessionDatabase defines the storage containers for the ExertMonitor database.
@@ -18,9 +24,21 @@ public class SessionDatabase {
 
     private static final String CLASS_CATALOG = "java_class_catalog";
     private static final String SESSION_STORE = "sesion_store";
+    private static final String NODE_STORE = "session_node_store";
+    private static final String DELTA_STORE = "session_delta_store";
+    private static final String PRINCIPAL_INDEX = "session_principal_index";
+    private static final String STATE_INDEX = "session_state_index";
+    private static final String PARENT_INDEX = "session_parent_index";
+    private static final String TIME_INDEX = "session_time_index";
 
     private Environment env;
     private Database sessionDb;
+    private Database nodeDb;
+    private Database deltaDb;
+    private SecondaryDatabase principalIndex;
+    private SecondaryDatabase stateIndex;
+    private SecondaryDatabase parentIndex;
+    private SecondaryDatabase timeIndex;
     private StoredClassCatalog javaCatalog;
 
     /**
@@ -48,6 +66,71 @@ public class SessionDatabase {
         // Open the Berkeley DB database for the monitor session
         // store.  The store is opened with no duplicate keys allowed.
         sessionDb = env.openDatabase(null, SESSION_STORE, dbConfig);
+
+        // Open the index of session nodes by their root sessions, and the
+        // journal of session node updates keyed by root session and sequence.
+        nodeDb = env.openDatabase(null, NODE_STORE, dbConfig);
+        deltaDb = env.openDatabase(null, DELTA_STORE, dbConfig);
+
+        // Open the secondary indices of the session nodes by the principal,
+        // state and parent of their exertions, and by their update time.
+        principalIndex = openIndex(PRINCIPAL_INDEX, new NodeKeyCreator() {
+            boolean createKey(SessionNode node, TupleOutput key) {
+                if (node.getPrincipalId() == null)
+                    return false;
+                key.writeString(node.getPrincipalId());
+                return true;
+            }
+        });
+        stateIndex = openIndex(STATE_INDEX, new NodeKeyCreator() {
+            boolean createKey(SessionNode node, TupleOutput key) {
+                key.writeInt(node.getState());
+                return true;
+            }
+        });
+        parentIndex = openIndex(PARENT_INDEX, new NodeKeyCreator() {
+            boolean createKey(SessionNode node, TupleOutput key) {
+                if (node.getParent() == null)
+                    return false;
+                SessionNode.writeUuid(node.getParent(), key);
+                return true;
+            }
+        });
+        timeIndex = openIndex(TIME_INDEX, new NodeKeyCreator() {
+            boolean createKey(SessionNode node, TupleOutput key) {
+                key.writeLong(node.getLastUpdate());
+                return true;
+            }
+        });
+    }
+
+    private SecondaryDatabase openIndex(String name, SecondaryKeyCreator keyCreator)
+        throws DatabaseException {
+        SecondaryConfig config = new SecondaryConfig();
+        config.setTransactional(true);
+        config.setAllowCreate(true);
+        config.setAllowPopulate(true);
+        config.setSortedDuplicates(true);
+        config.setKeyCreator(keyCreator);
+        return env.openSecondaryDatabase(null, name, nodeDb, config);
+    }
+
+    /**
+     * Creates the secondary key of a session node record.
+     */
+    private static abstract class NodeKeyCreator implements SecondaryKeyCreator {
+        private static final SessionNode.NodeBinding nodeBinding = new SessionNode.NodeBinding();
+
+        public boolean createSecondaryKey(SecondaryDatabase secondary, DatabaseEntry key,
+                                          DatabaseEntry data, DatabaseEntry result) {
+            TupleOutput out = new TupleOutput();
+            if (!createKey(nodeBinding.entryToObject(data), out))
+                return false;
+            TupleBinding.outputToEntry(out, result);
+            return true;
+        }
+
+        abstract boolean createKey(SessionNode node, TupleOutput key);
     }
 
     /**
@@ -70,6 +153,48 @@ public class SessionDatabase {
     public final Database getSessionDatabase() {
         return sessionDb;
     }
+
+    /**
+     * Return the session node records by session node cookies.
+     */
+    public final Database getNodeDatabase() {
+        return nodeDb;
+    }
+
+    /**
+     * Return the index of session nodes by the principal ids of their exertions.
+     */
+    public final SecondaryDatabase getPrincipalIndex() {
+        return principalIndex;
+    }
+
+    /**
+     * Return the index of session nodes by the states of their exertions.
+     */
+    public final SecondaryDatabase getStateIndex() {
+        return stateIndex;
+    }
+
+    /**
+     * Return the index of session nodes by their parent session cookies.
+     */
+    public final SecondaryDatabase getParentIndex() {
+        return parentIndex;
+    }
+
+    /**
+     * Return the index of session nodes by their last update times.
+     */
+    public final SecondaryDatabase getTimeIndex() {
+        return timeIndex;
+    }
+
+    /**
+     * Return the session node updates storage container.
+     */
+    public final Database getDeltaDatabase() {
+        return deltaDb;
+    }
     
     /**
      * Close all stores (closing a store automatically closes its indices).
@@ -77,6 +202,12 @@ public class SessionDatabase {
     public void close()
         throws DatabaseException {
         // Close secondary databases, then primary databases.
+        timeIndex.close();
+        parentIndex.close();
+        stateIndex.close();
+        principalIndex.close();
+        deltaDb.close();
+        nodeDb.close();
         sessionDb.close();
         // And don't forget to close the catalog and the environment.
         javaCatalog.close();
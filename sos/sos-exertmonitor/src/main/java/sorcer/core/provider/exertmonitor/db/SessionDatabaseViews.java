@@ -2,6 +2,7 @@ package sorcer.core.provider.exertmonitor.db;
 
 import java.io.IOException;
 
+import net.jini.id.Uuid;
 import sorcer.core.provider.MonitorManagementSession;
 import sorcer.core.provider.exertmonitor.MonitorSession;
 import sorcer.util.bdb.objects.MarshalledData;
@@ -25,6 +26,8 @@ public class SessionDatabaseViews {
 	
 	private StoredMap<UuidKey, MonitorManagementSession>  sessionMap;
 
+	private StoredMap<Uuid, SessionNode> nodeMap;
+
 	/**
 	 * Create the data bindings and collection views.
 	 */
@@ -37,6 +40,8 @@ public class SessionDatabaseViews {
 		
 		sessionMap = new StoredMap(db.getSessionDatabase(),
 				sessionKeyBinding, sessionDataBinding, true);
+		nodeMap = new StoredMap(db.getNodeDatabase(),
+				new SessionNode.UuidBinding(), new SessionNode.NodeBinding(), true);
 	}
 
 	// The views returned below can be accessed using the java.util.Map or
@@ -52,6 +57,13 @@ public class SessionDatabaseViews {
 		return sessionMap;
 	}
 	
+	/**
+	 * Return a map view of the session node records by session node cookies.
+	 */
+	public StoredMap<Uuid, SessionNode> getNodeMap() {
+		return nodeMap;
+	}
+
 	/**
 	 * Return an entity setValue view of the session storage container.
 	 */
@@ -0,0 +1,142 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.provider.exertmonitor.db;
+
+import net.jini.id.Uuid;
+import net.jini.io.MarshalInputStream;
+import net.jini.io.MarshalOutputStream;
+import sorcer.core.context.ControlContext;
+import sorcer.core.provider.exertmonitor.MonitorSession;
+import sorcer.service.Context;
+import sorcer.service.Exertion;
+import sorcer.service.ServiceExertion;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The state of a single {@link MonitorSession} node appended to the session
+ * journal when the node is updated. The data context is recorded only if set
+ * since the previous record of the node. The exertions referenced by the
+ * contexts are recorded by their ids and resolved against the session tree
+ * the delta is applied to, so a delta never carries the exertion graph.
+ */
+class SessionDelta implements Serializable {
+
+	static final long serialVersionUID = 6371902835270915622L;
+
+	private final Uuid cookie;
+
+	private final int state;
+
+	private final long expiration;
+
+	private final long timeout;
+
+	private final long lastUpdate;
+
+	private final Context<?> context;
+
+	private final ControlContext controlContext;
+
+	SessionDelta(MonitorSession session) {
+		ServiceExertion exertion = (ServiceExertion) session.getRuntimeExertion();
+		cookie = session.getCookie();
+		state = session.getState();
+		expiration = session.getExpiration();
+		timeout = session.getTimeout();
+		lastUpdate = session.getLastUpdate();
+		context = session.takeChangedContext();
+		controlContext = exertion.getControlContext();
+	}
+
+	Uuid getCookie() {
+		return cookie;
+	}
+
+	/**
+	 * Restores the recorded state to the session node.
+	 */
+	void applyTo(MonitorSession session) {
+		session.restore(state, context, controlContext, expiration, timeout, lastUpdate);
+	}
+
+	byte[] toBytes() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		ObjectOutputStream out = new DeltaOutputStream(bytes);
+		out.writeObject(this);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	static SessionDelta fromBytes(byte[] data, int offset, int length, Map<Uuid, Exertion> exertions)
+			throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new DeltaInputStream(new ByteArrayInputStream(data, offset, length), exertions);
+		try {
+			return (SessionDelta) in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * The id of an exertion referenced by a delta.
+	 */
+	private static class ExertionRef implements Serializable {
+		static final long serialVersionUID = -1385326207472648270L;
+
+		private final Uuid id;
+
+		private ExertionRef(Uuid id) {
+			this.id = id;
+		}
+	}
+
+	private static class DeltaOutputStream extends MarshalOutputStream {
+
+		private DeltaOutputStream(OutputStream out) throws IOException {
+			super(out, Collections.emptySet());
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (obj instanceof ServiceExertion)
+				return new ExertionRef(((ServiceExertion) obj).getId());
+			return obj;
+		}
+	}
+
+	private static class DeltaInputStream extends MarshalInputStream {
+
+		private final Map<Uuid, Exertion> exertions;
+
+		private DeltaInputStream(InputStream in, Map<Uuid, Exertion> exertions) throws IOException {
+			super(in, Thread.currentThread().getContextClassLoader(), false, null, Collections.emptySet());
+			this.exertions = exertions;
+			useCodebaseAnnotations();
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (obj instanceof ExertionRef)
+				return exertions.get(((ExertionRef) obj).id);
+			return obj;
+		}
+	}
+}
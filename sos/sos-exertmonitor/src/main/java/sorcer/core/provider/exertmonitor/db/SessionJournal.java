@@ -0,0 +1,531 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.provider.exertmonitor.db;
+
+import com.sleepycat.bind.EntryBinding;
+import com.sleepycat.bind.serial.SerialBinding;
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import com.sleepycat.collections.StoredMap;
+import com.sleepycat.je.*;
+import net.jini.id.Uuid;
+import net.jini.id.UuidFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.provider.MonitorManagementSession;
+import sorcer.core.provider.exertmonitor.MonitorSession;
+import sorcer.core.provider.exertmonitor.SessionStore;
+import sorcer.service.Exertion;
+import sorcer.util.bdb.GroupCommitWriter;
+import sorcer.util.bdb.objects.MarshalledData;
+import sorcer.util.bdb.objects.UuidKey;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The {@link SessionStore} of the ExertMonitor persisting each session tree
+ * once, when registered, and then only the updated session nodes. A session
+ * tree is stored as a base record of the whole tree, an index record per
+ * session node referring to its root, and a journal of {@link SessionDelta}s
+ * of the nodes updated since the base was written. A stored session is
+ * rebuilt by applying its deltas to the base when read. The deltas of a
+ * session are compacted into a new base when the root session is done or
+ * failed, or when they outnumber the nodes of the session.
+ * <p>
+ * The session nodes are indexed by the principal, state and parent of their
+ * exertions, and by their last update time, so that they are queried
+ * without reading the sessions.
+ * <p>
+ * The records are written by a single {@link GroupCommitWriter} thread that
+ * commits the writes queued concurrently in one transaction; callers of
+ * {@link #persist} wait until their write is committed, at most
+ * {@link #WRITE_TIMEOUT} seconds.
+ *
+ * @see SessionDatabase
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class SessionJournal implements SessionStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(SessionJournal.class);
+
+	// the minimum number of deltas of a session compacted into its base
+	private static final int MIN_COMPACTION = 64;
+
+	// the number of stored sessions rebuilt from their deltas kept in memory
+	private static final int CACHE_SIZE = 128;
+
+	/**
+	 * The time in seconds a caller waits for its write to be committed.
+	 */
+	public static final long WRITE_TIMEOUT = 60;
+
+	private final SessionDatabase db;
+
+	private final StoredMap<UuidKey, MonitorManagementSession> sessionMap;
+
+	private final StoredMap<Uuid, SessionNode> nodeMap;
+
+	private final EntryBinding keyBinding;
+
+	private final EntryBinding dataBinding;
+
+	private final SessionNode.UuidBinding uuidBinding = new SessionNode.UuidBinding();
+
+	private final SessionNode.NodeBinding nodeBinding = new SessionNode.NodeBinding();
+
+	// the sequence and the number of deltas journaled by root session
+	private final Map<Uuid, Log> logs = new ConcurrentHashMap<Uuid, Log>();
+
+	// the recently updated and rebuilt sessions by root session
+	private final Map<Uuid, MonitorSession> sessions = Collections.synchronizedMap(
+			new LinkedHashMap<Uuid, MonitorSession>(CACHE_SIZE, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Uuid, MonitorSession> eldest) {
+					return size() > CACHE_SIZE;
+				}
+			});
+
+	private final Writer writer = new Writer();
+
+	private volatile boolean closed;
+
+	private static class Log {
+		long sequence;
+		int deltas;
+		int nodes;
+	}
+
+	public SessionJournal(SessionDatabase db, SessionDatabaseViews views) {
+		this.db = db;
+		sessionMap = views.getSessionMap();
+		nodeMap = views.getNodeMap();
+		keyBinding = new SerialBinding(db.getClassCatalog(), UuidKey.class);
+		dataBinding = new SerialBinding(db.getClassCatalog(), MarshalledData.class);
+		writer.start();
+		if (nodeMap.isEmpty() && !sessionMap.isEmpty())
+			indexSessions();
+	}
+
+	// indexes the nodes of the sessions stored before the nodes were indexed
+	private void indexSessions() {
+		logger.info("Indexing {} stored sessions", sessionMap.size());
+		for (UuidKey key : sessionMap.keySet()) {
+			try {
+				register(getSession(key.getId()));
+			} catch (Exception e) {
+				logger.warn("Failed to index session: " + key, e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the base record of the session tree, the index records of its
+	 * nodes, and drops the deltas of the session if any.
+	 */
+	@Override
+	public void register(MonitorSession session) throws IOException {
+		MonitorSession root = session.getRootSession();
+		Write write;
+		synchronized (root) {
+			write = base(root);
+		}
+		sessions.put(root.getCookie(), root);
+		await(write);
+	}
+
+	/**
+	 * Appends the delta of the updated session node, or writes a new base
+	 * record of its tree if the root session is done or failed, or the
+	 * deltas of the tree are to be compacted.
+	 */
+	@Override
+	public void persist(MonitorSession session) throws IOException {
+		MonitorSession root = session.getRootSession();
+		Uuid rootCookie = root.getCookie();
+		Write write;
+		synchronized (root) {
+			session.setLastUpdate(System.currentTimeMillis());
+			Log log = logs.get(rootCookie);
+			if (log == null) {
+				log = new Log();
+				log.sequence = lastSequence(rootCookie);
+				log.nodes = root.getSessions().size();
+				logs.put(rootCookie, log);
+			}
+			if (session == root && (root.isDone() || root.isFailed())) {
+				write = base(root);
+				logs.remove(rootCookie);
+			} else if (log.deltas >= Math.max(MIN_COMPACTION, log.nodes)) {
+				write = base(root);
+				log.deltas = 0;
+			} else {
+				MonitorSession parent = session.getParentSession();
+				SessionNode node = new SessionNode(session, rootCookie,
+						parent != null ? parent.getCookie() : null);
+				write = delta(rootCookie, ++log.sequence, new SessionDelta(session).toBytes(),
+						session.getCookie(), node);
+				log.deltas++;
+			}
+		}
+		sessions.put(rootCookie, root);
+		await(write);
+	}
+
+	/**
+	 * Returns the root session with the given cookie, or null if not stored.
+	 */
+	public MonitorSession getSession(Uuid cookie) throws IOException {
+		MonitorSession session = sessions.get(cookie);
+		if (session != null)
+			return session;
+		session = (MonitorSession) sessionMap.get(new UuidKey(cookie));
+		if (session == null)
+			return null;
+		applyDeltas(session);
+		MonitorSession cached = sessions.get(cookie);
+		if (cached != null)
+			return cached;
+		sessions.put(cookie, session);
+		return session;
+	}
+
+	/**
+	 * Returns the cookie of the root session of the session node with the
+	 * given cookie, or null if the node is not indexed.
+	 */
+	public Uuid getRootCookie(Uuid cookie) {
+		SessionNode node = nodeMap.get(cookie);
+		return node == null ? null : node.getRoot();
+	}
+
+	/**
+	 * Returns the session nodes by their cookies of the exertions of the
+	 * principal with the given id, and in the given state, any if null.
+	 */
+	public Map<Uuid, SessionNode> getNodes(String principalId, Integer state) throws IOException {
+		Map<Uuid, SessionNode> nodes = new LinkedHashMap<Uuid, SessionNode>();
+		DatabaseEntry principalKey = new DatabaseEntry();
+		DatabaseEntry stateKey = new DatabaseEntry();
+		DatabaseEntry key = new DatabaseEntry();
+		DatabaseEntry data = new DatabaseEntry();
+		TupleOutput out = new TupleOutput();
+		out.writeString(principalId);
+		TupleBinding.outputToEntry(out, principalKey);
+		SecondaryCursor principals = db.getPrincipalIndex().openCursor(null, CursorConfig.READ_COMMITTED);
+		SecondaryCursor states = null;
+		try {
+			if (principals.getSearchKey(principalKey, key, data, LockMode.DEFAULT) != OperationStatus.SUCCESS)
+				return nodes;
+			if (state == null) {
+				do {
+					nodes.put(uuidBinding.entryToObject(key), nodeBinding.entryToObject(data));
+				} while (principals.getNextDup(principalKey, key, data, LockMode.DEFAULT) == OperationStatus.SUCCESS);
+				return nodes;
+			}
+			// the nodes both of the principal and in the state
+			out = new TupleOutput();
+			out.writeInt(state);
+			TupleBinding.outputToEntry(out, stateKey);
+			states = db.getStateIndex().openCursor(null, CursorConfig.READ_COMMITTED);
+			if (states.getSearchKey(stateKey, data, LockMode.DEFAULT) != OperationStatus.SUCCESS)
+				return nodes;
+			JoinCursor join = db.getNodeDatabase().join(new Cursor[] { principals, states }, null);
+			try {
+				while (join.getNext(key, data, LockMode.DEFAULT) == OperationStatus.SUCCESS)
+					nodes.put(uuidBinding.entryToObject(key), nodeBinding.entryToObject(data));
+			} finally {
+				join.close();
+			}
+			return nodes;
+		} catch (DatabaseException e) {
+			throw new IOException("Failed to query the sessions of: " + principalId, e);
+		} finally {
+			if (states != null)
+				states.close();
+			principals.close();
+		}
+	}
+
+	/**
+	 * Returns a page of the session nodes by their cookies of the exertions
+	 * of the principal with the given id, and in the given state, any if null,
+	 * updated at or after the given time in milliseconds in the order of their
+	 * last update. The first <code>offset</code> matching nodes are skipped,
+	 * and at most <code>limit</code> nodes are returned.
+	 */
+	public Map<Uuid, SessionNode> getNodes(String principalId, Integer state, long since, int offset, int limit)
+			throws IOException {
+		Map<Uuid, SessionNode> nodes = new LinkedHashMap<Uuid, SessionNode>();
+		DatabaseEntry timeKey = new DatabaseEntry();
+		DatabaseEntry key = new DatabaseEntry();
+		DatabaseEntry data = new DatabaseEntry();
+		TupleOutput out = new TupleOutput();
+		out.writeLong(since);
+		TupleBinding.outputToEntry(out, timeKey);
+		SecondaryCursor cursor = db.getTimeIndex().openCursor(null, CursorConfig.READ_COMMITTED);
+		try {
+			OperationStatus status = cursor.getSearchKeyRange(timeKey, key, data, LockMode.DEFAULT);
+			while (status == OperationStatus.SUCCESS && nodes.size() < limit) {
+				SessionNode node = nodeBinding.entryToObject(data);
+				if ((principalId == null || principalId.equals(node.getPrincipalId()))
+						&& (state == null || state == node.getState()) && offset-- <= 0)
+					nodes.put(uuidBinding.entryToObject(key), node);
+				status = cursor.getNext(timeKey, key, data, LockMode.DEFAULT);
+			}
+			return nodes;
+		} catch (DatabaseException e) {
+			throw new IOException("Failed to query the sessions updated since: " + since, e);
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Returns the child session nodes by their cookies of the session with
+	 * the given cookie.
+	 */
+	public Map<Uuid, SessionNode> getChildNodes(Uuid parent) throws IOException {
+		Map<Uuid, SessionNode> nodes = new LinkedHashMap<Uuid, SessionNode>();
+		DatabaseEntry parentKey = new DatabaseEntry();
+		DatabaseEntry key = new DatabaseEntry();
+		DatabaseEntry data = new DatabaseEntry();
+		uuidBinding.objectToEntry(parent, parentKey);
+		SecondaryCursor cursor = db.getParentIndex().openCursor(null, CursorConfig.READ_COMMITTED);
+		try {
+			OperationStatus status = cursor.getSearchKey(parentKey, key, data, LockMode.DEFAULT);
+			while (status == OperationStatus.SUCCESS) {
+				nodes.put(uuidBinding.entryToObject(key), nodeBinding.entryToObject(data));
+				status = cursor.getNextDup(parentKey, key, data, LockMode.DEFAULT);
+			}
+			return nodes;
+		} catch (DatabaseException e) {
+			throw new IOException("Failed to query the child sessions of: " + parent, e);
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Returns the keys of the stored root sessions.
+	 */
+	public Set<UuidKey> getSessionKeys() {
+		return sessionMap.keySet();
+	}
+
+	/**
+	 * Commits the queued writes and stops the writer.
+	 */
+	public void close() {
+		closed = true;
+		// the writes queued by submits in progress are committed first
+		synchronized (writer) {
+			writer.close();
+		}
+	}
+
+	private void applyDeltas(MonitorSession session) throws IOException {
+		Map<Uuid, MonitorManagementSession> nodes = session.getSessions();
+		Map<Uuid, Exertion> exertions = new HashMap<Uuid, Exertion>();
+		for (MonitorManagementSession node : nodes.values()) {
+			Exertion exertion = ((MonitorSession) node).getRuntimeExertion();
+			exertions.put((Uuid) exertion.getId(), exertion);
+		}
+		Uuid cookie = session.getCookie();
+		DatabaseEntry key = deltaKey(cookie, 0);
+		DatabaseEntry data = new DatabaseEntry();
+		Cursor cursor = db.getDeltaDatabase().openCursor(null, CursorConfig.READ_COMMITTED);
+		try {
+			OperationStatus status = cursor.getSearchKeyRange(key, data, LockMode.DEFAULT);
+			while (status == OperationStatus.SUCCESS && isDeltaOf(key, cookie)) {
+				SessionDelta delta = SessionDelta.fromBytes(data.getData(), data.getOffset(),
+						data.getSize(), exertions);
+				MonitorSession node = (MonitorSession) nodes.get(delta.getCookie());
+				if (node != null)
+					delta.applyTo(node);
+				status = cursor.getNext(key, data, LockMode.DEFAULT);
+			}
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Failed to read the updates of session: " + cookie, e);
+		} catch (DatabaseException e) {
+			throw new IOException("Failed to read the updates of session: " + cookie, e);
+		} finally {
+			cursor.close();
+		}
+	}
+
+	// the sequence of the last delta of the session, or 0 if none
+	private long lastSequence(Uuid cookie) throws IOException {
+		DatabaseEntry key = deltaKey(cookie, Long.MAX_VALUE);
+		DatabaseEntry data = new DatabaseEntry();
+		data.setPartial(0, 0, true);
+		Cursor cursor = db.getDeltaDatabase().openCursor(null, CursorConfig.READ_COMMITTED);
+		try {
+			OperationStatus status = cursor.getSearchKeyRange(key, data, LockMode.DEFAULT);
+			if (status == OperationStatus.SUCCESS)
+				status = cursor.getPrev(key, data, LockMode.DEFAULT);
+			else
+				status = cursor.getLast(key, data, LockMode.DEFAULT);
+			if (status == OperationStatus.SUCCESS && isDeltaOf(key, cookie)) {
+				TupleInput in = TupleBinding.entryToInput(key);
+				in.readLong();
+				in.readLong();
+				return in.readLong();
+			}
+			return 0;
+		} catch (DatabaseException e) {
+			throw new IOException("Failed to read the updates of session: " + cookie, e);
+		} finally {
+			cursor.close();
+		}
+	}
+
+	private static DatabaseEntry deltaKey(Uuid cookie, long sequence) {
+		TupleOutput out = new TupleOutput();
+		out.writeLong(cookie.getMostSignificantBits());
+		out.writeLong(cookie.getLeastSignificantBits());
+		out.writeLong(sequence);
+		DatabaseEntry key = new DatabaseEntry();
+		TupleBinding.outputToEntry(out, key);
+		return key;
+	}
+
+	private static boolean isDeltaOf(DatabaseEntry key, Uuid cookie) {
+		TupleInput in = TupleBinding.entryToInput(key);
+		return UuidFactory.create(in.readLong(), in.readLong()).equals(cookie);
+	}
+
+	private Write base(MonitorSession root) throws IOException {
+		final Uuid cookie = root.getCookie();
+		final DatabaseEntry key = new DatabaseEntry();
+		final DatabaseEntry data = new DatabaseEntry();
+		keyBinding.objectToEntry(new UuidKey(cookie), key);
+		dataBinding.objectToEntry(new MarshalledData(root), data);
+		final Map<Uuid, SessionNode> nodes = new HashMap<Uuid, SessionNode>();
+		collectNodes(root, cookie, null, System.currentTimeMillis(), nodes);
+		return submit(new Write() {
+			void apply(Transaction txn) throws DatabaseException {
+				db.getSessionDatabase().put(txn, key, data);
+				for (Map.Entry<Uuid, SessionNode> node : nodes.entrySet())
+					putNode(txn, node.getKey(), node.getValue());
+				deleteDeltas(txn, cookie);
+			}
+		});
+	}
+
+	// the nodes keep the time they were last persisted, the new ones are stamped with the given time
+	private static void collectNodes(MonitorSession session, Uuid root, Uuid parent, long time,
+									 Map<Uuid, SessionNode> nodes) {
+		if (session.getLastUpdate() == 0)
+			session.setLastUpdate(time);
+		nodes.put(session.getCookie(), new SessionNode(session, root, parent));
+		for (MonitorSession child : session)
+			collectNodes(child, root, session.getCookie(), time, nodes);
+	}
+
+	private Write delta(Uuid cookie, long sequence, byte[] bytes, final Uuid nodeCookie, final SessionNode node)
+			throws IOException {
+		final DatabaseEntry key = deltaKey(cookie, sequence);
+		final DatabaseEntry data = new DatabaseEntry(bytes);
+		return submit(new Write() {
+			void apply(Transaction txn) throws DatabaseException {
+				db.getDeltaDatabase().put(txn, key, data);
+				putNode(txn, nodeCookie, node);
+			}
+		});
+	}
+
+	private void putNode(Transaction txn, Uuid cookie, SessionNode node) throws DatabaseException {
+		DatabaseEntry key = new DatabaseEntry();
+		DatabaseEntry data = new DatabaseEntry();
+		uuidBinding.objectToEntry(cookie, key);
+		nodeBinding.objectToEntry(node, data);
+		db.getNodeDatabase().put(txn, key, data);
+	}
+
+	private void deleteDeltas(Transaction txn, Uuid cookie) throws DatabaseException {
+		DatabaseEntry key = deltaKey(cookie, 0);
+		DatabaseEntry data = new DatabaseEntry();
+		data.setPartial(0, 0, true);
+		Cursor cursor = db.getDeltaDatabase().openCursor(txn, null);
+		try {
+			OperationStatus status = cursor.getSearchKeyRange(key, data, LockMode.RMW);
+			while (status == OperationStatus.SUCCESS && isDeltaOf(key, cookie)) {
+				cursor.delete();
+				status = cursor.getNext(key, data, LockMode.RMW);
+			}
+		} finally {
+			cursor.close();
+		}
+	}
+
+	private Write submit(Write write) throws IOException {
+		boolean interrupted;
+		synchronized (writer) {
+			if (closed)
+				throw new IOException("Session journal closed");
+			interrupted = writer.put(write);
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		return write;
+	}
+
+	private static void await(Write write) throws IOException {
+		try {
+			write.done.get(WRITE_TIMEOUT, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for the session write");
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to write the session", e.getCause());
+		} catch (TimeoutException e) {
+			throw new IOException("The session was not written within " + WRITE_TIMEOUT + " s");
+		}
+	}
+
+	private class Writer extends GroupCommitWriter<Write> {
+
+		Writer() {
+			super("SessionJournal-writer", Integer.MAX_VALUE);
+		}
+
+		@Override
+		protected void commit(List<Write> batch) throws DatabaseException {
+			Transaction txn = db.getEnvironment().beginTransaction(null, null);
+			try {
+				for (Write write : batch)
+					write.apply(txn);
+				txn.commit();
+			} catch (RuntimeException | Error e) {
+				txn.abort();
+				throw e;
+			}
+		}
+	}
+
+	private static abstract class Write extends GroupCommitWriter.Write {
+		abstract void apply(Transaction txn) throws DatabaseException;
+
+		@Override
+		public String toString() {
+			return "session";
+		}
+	}
+}
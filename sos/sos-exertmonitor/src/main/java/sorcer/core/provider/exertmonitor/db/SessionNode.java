@@ -0,0 +1,156 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.provider.exertmonitor.db;
+
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import net.jini.id.Uuid;
+import net.jini.id.UuidFactory;
+import sorcer.core.provider.exertmonitor.MonitorSession;
+import sorcer.security.util.SorcerPrincipal;
+import sorcer.service.ServiceExertion;
+
+/**
+ * The index record of a session node: its root and parent sessions, and the
+ * principal, state and last update time of its exertion, by which the
+ * session nodes are queried without reading the sessions.
+ */
+public class SessionNode {
+
+	private final Uuid root;
+
+	private final Uuid parent;
+
+	private final Uuid exertionId;
+
+	private final String principalId;
+
+	private final int state;
+
+	private final long lastUpdate;
+
+	SessionNode(MonitorSession session, Uuid root, Uuid parent) {
+		ServiceExertion exertion = (ServiceExertion) session.getRuntimeExertion();
+		SorcerPrincipal principal = exertion.getPrincipal();
+		this.root = root;
+		this.parent = parent;
+		exertionId = exertion.getId();
+		principalId = principal != null ? principal.getId() : null;
+		state = session.getState();
+		lastUpdate = session.getLastUpdate();
+	}
+
+	private SessionNode(Uuid root, Uuid parent, Uuid exertionId, String principalId, int state, long lastUpdate) {
+		this.root = root;
+		this.parent = parent;
+		this.exertionId = exertionId;
+		this.principalId = principalId;
+		this.state = state;
+		this.lastUpdate = lastUpdate;
+	}
+
+	/**
+	 * Returns the cookie of the root session of this node.
+	 */
+	public Uuid getRoot() {
+		return root;
+	}
+
+	/**
+	 * Returns the cookie of the parent session of this node, or null if root.
+	 */
+	public Uuid getParent() {
+		return parent;
+	}
+
+	public Uuid getExertionId() {
+		return exertionId;
+	}
+
+	public String getPrincipalId() {
+		return principalId;
+	}
+
+	public int getState() {
+		return state;
+	}
+
+	/**
+	 * Returns the time in milliseconds the node was last persisted.
+	 */
+	public long getLastUpdate() {
+		return lastUpdate;
+	}
+
+	static void writeUuid(Uuid id, TupleOutput out) {
+		out.writeLong(id.getMostSignificantBits());
+		out.writeLong(id.getLeastSignificantBits());
+	}
+
+	static Uuid readUuid(TupleInput in) {
+		return UuidFactory.create(in.readLong(), in.readLong());
+	}
+
+	/**
+	 * Binds a cookie to a key sorted by the cookie bits.
+	 */
+	static class UuidBinding extends TupleBinding<Uuid> {
+		@Override
+		public Uuid entryToObject(TupleInput in) {
+			return readUuid(in);
+		}
+
+		@Override
+		public void objectToEntry(Uuid id, TupleOutput out) {
+			writeUuid(id, out);
+		}
+	}
+
+	/**
+	 * Binds a node to its tuple record.
+	 */
+	static class NodeBinding extends TupleBinding<SessionNode> {
+		@Override
+		public SessionNode entryToObject(TupleInput in) {
+			Uuid root = readUuid(in);
+			Uuid parent = in.readBoolean() ? readUuid(in) : null;
+			Uuid exertionId = readUuid(in);
+			String principalId = in.readString();
+			int state = in.readInt();
+			long lastUpdate = in.readLong();
+			return new SessionNode(root, parent, exertionId, principalId, state, lastUpdate);
+		}
+
+		@Override
+		public void objectToEntry(SessionNode node, TupleOutput out) {
+			writeUuid(node.root, out);
+			out.writeBoolean(node.parent != null);
+			if (node.parent != null)
+				writeUuid(node.parent, out);
+			writeUuid(node.exertionId, out);
+			out.writeString(node.principalId);
+			out.writeInt(node.state);
+			out.writeLong(node.lastUpdate);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "[Session node root=" + root + ", exertion=" + exertionId + ", principal=" + principalId
+				+ ", state=" + state + ", updated=" + lastUpdate + ']';
+	}
+}
@@ -0,0 +1,234 @@
+package sorcer.core.provider.exertmonitor.db;
+
+import net.jini.id.Uuid;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import sorcer.core.context.ServiceContext;
+import sorcer.core.provider.exertmonitor.MonitorSession;
+import sorcer.security.util.SorcerPrincipal;
+import sorcer.service.Exec;
+import sorcer.service.Job;
+import sorcer.service.Task;
+import sorcer.util.bdb.objects.UuidKey;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Session trees persisted as base records and journals of session deltas.
+ */
+public class SessionJournalTest {
+
+    private File home;
+    private SessionDatabase db;
+    private SessionDatabaseViews views;
+    private SessionJournal journal;
+    private MonitorSession root;
+    private MonitorSession first;
+    private MonitorSession second;
+
+    @Before
+    public void init() throws Exception {
+        home = Files.createTempDirectory("session-journal-test").toFile();
+        open();
+        Job job = new Job("job");
+        job.setPrincipal(newPrincipal("alice"));
+        job.addMogram(newTask("first", "alice"));
+        job.addMogram(newTask("second", "bob"));
+        root = new MonitorSession(job, null, 60000);
+        first = root.get(0);
+        second = root.get(1);
+        journal.register(root);
+    }
+
+    @After
+    public void clean() throws Exception {
+        close();
+        for (File file : home.listFiles())
+            file.delete();
+        home.delete();
+    }
+
+    private void open() throws Exception {
+        db = new SessionDatabase(home.getPath());
+        views = new SessionDatabaseViews(db);
+        journal = new SessionJournal(db, views);
+        MonitorSession.sessionStore = journal;
+    }
+
+    private void close() throws Exception {
+        MonitorSession.sessionStore = null;
+        journal.close();
+        db.close();
+    }
+
+    private static SorcerPrincipal newPrincipal(String id) {
+        SorcerPrincipal principal = new SorcerPrincipal(id);
+        principal.setId(id);
+        return principal;
+    }
+
+    private static Task newTask(String name, String principalId) throws Exception {
+        ServiceContext<Object> cxt = new ServiceContext<Object>(name);
+        cxt.putValue("arg/x", 1.0);
+        Task task = new Task(name);
+        task.setContext(cxt);
+        task.setPrincipal(newPrincipal(principalId));
+        return task;
+    }
+
+    // updates the session with a new context holding the result
+    private static void update(MonitorSession session, double result, int state) throws Exception {
+        ServiceContext<Object> cxt = new ServiceContext<Object>(session.getRuntimeExertion().getName());
+        cxt.putValue("result/y", result);
+        session.update(cxt, session.getRuntimeExertion().getControlContext(), state);
+    }
+
+    private static Object result(MonitorSession session) throws Exception {
+        return session.getRuntimeExertion().getDataContext().getValue("result/y");
+    }
+
+    private static Object[] cookies(MonitorSession... sessions) {
+        Object[] cookies = new Object[sessions.length];
+        for (int i = 0; i < sessions.length; i++)
+            cookies[i] = sessions[i].getCookie();
+        return cookies;
+    }
+
+    private static void assertNodes(Map<Uuid, SessionNode> nodes, MonitorSession... sessions) {
+        Assert.assertArrayEquals(cookies(sessions), nodes.keySet().toArray());
+    }
+
+    private long lastUpdate(MonitorSession session) {
+        return views.getNodeMap().get(session.getCookie()).getLastUpdate();
+    }
+
+    private long deltas() throws Exception {
+        return db.getDeltaDatabase().count();
+    }
+
+    // the root session as read from the database
+    private MonitorSession reopen() throws Exception {
+        close();
+        open();
+        return journal.getSession(root.getCookie());
+    }
+
+    @Test
+    public void testDelta() throws Exception {
+        Assert.assertEquals(0, deltas());
+        Assert.assertEquals(3, db.getNodeDatabase().count());
+        Assert.assertEquals(root.getCookie(), journal.getRootCookie(second.getCookie()));
+
+        update(first, 2.0, Exec.RUNNING);
+        Assert.assertEquals(1, deltas());
+        // the base is not written again
+        MonitorSession base = (MonitorSession) views.getSessionMap().get(new UuidKey(root.getCookie()));
+        Assert.assertEquals(Exec.INITIAL, base.getSessionResource(first.getCookie()).getState());
+        Assert.assertEquals(Exec.RUNNING, views.getNodeMap().get(first.getCookie()).getState());
+
+        // the context is recorded only if set since the previous delta
+        first.getRuntimeExertion().setStatus(Exec.UPDATED);
+        journal.persist(first);
+        Assert.assertEquals(2, deltas());
+        MonitorSession restored = reopen().getSessionResource(first.getCookie());
+        Assert.assertEquals(Exec.UPDATED, restored.getState());
+        Assert.assertEquals(2.0, result(restored));
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        for (int i = 0; i < 64; i++)
+            update(i % 2 == 0 ? first : second, i, Exec.RUNNING);
+        Assert.assertEquals(64, deltas());
+        // compacted into a new base once the deltas reach the minimum
+        update(first, 64, Exec.RUNNING);
+        Assert.assertEquals(0, deltas());
+        MonitorSession base = (MonitorSession) views.getSessionMap().get(new UuidKey(root.getCookie()));
+        Assert.assertEquals(64.0, result(base.getSessionResource(first.getCookie())));
+        Assert.assertEquals(63.0, result(base.getSessionResource(second.getCookie())));
+
+        update(second, 65, Exec.DONE);
+        Assert.assertEquals(1, deltas());
+        // and when the root session is done
+        update(root, 66, Exec.DONE);
+        Assert.assertEquals(0, deltas());
+        base = (MonitorSession) views.getSessionMap().get(new UuidKey(root.getCookie()));
+        Assert.assertEquals(Exec.DONE, base.getState());
+        Assert.assertEquals(65.0, result(base.getSessionResource(second.getCookie())));
+    }
+
+    @Test
+    public void testRestore() throws Exception {
+        update(first, 2.0, Exec.RUNNING);
+        update(second, 3.0, Exec.FAILED);
+        MonitorSession restored = reopen();
+        Assert.assertNotSame(root, restored);
+        Assert.assertEquals(Exec.RUNNING, restored.getSessionResource(first.getCookie()).getState());
+        Assert.assertEquals(2.0, result(restored.getSessionResource(first.getCookie())));
+        Assert.assertEquals(Exec.FAILED, restored.getSessionResource(second.getCookie()).getState());
+        Assert.assertEquals(3.0, result(restored.getSessionResource(second.getCookie())));
+
+        // journaled after the deltas written before
+        Uuid cookie = first.getCookie();
+        update(restored.getSessionResource(cookie), 4.0, Exec.DONE);
+        Assert.assertEquals(3, deltas());
+        restored = reopen();
+        Assert.assertEquals(Exec.DONE, restored.getSessionResource(cookie).getState());
+        Assert.assertEquals(4.0, result(restored.getSessionResource(cookie)));
+        Assert.assertEquals(3.0, result(restored.getSessionResource(second.getCookie())));
+    }
+
+    @Test
+    public void testIndexes() throws Exception {
+        Assert.assertEquals(new HashSet<Object>(Arrays.asList(cookies(root, first))),
+                journal.getNodes("alice", null).keySet());
+        assertNodes(journal.getNodes("bob", null), second);
+        Assert.assertTrue(journal.getNodes("carol", null).isEmpty());
+
+        update(first, 2.0, Exec.RUNNING);
+        assertNodes(journal.getNodes("alice", Exec.RUNNING), first);
+        assertNodes(journal.getNodes("alice", Exec.INITIAL), root);
+        Assert.assertTrue(journal.getNodes("bob", Exec.RUNNING).isEmpty());
+
+        Assert.assertEquals(new HashSet<Object>(Arrays.asList(cookies(first, second))),
+                journal.getChildNodes(root.getCookie()).keySet());
+        Assert.assertTrue(journal.getChildNodes(first.getCookie()).isEmpty());
+        Assert.assertEquals(root.getCookie(), views.getNodeMap().get(second.getCookie()).getParent());
+        Assert.assertNull(views.getNodeMap().get(root.getCookie()).getParent());
+    }
+
+    @Test
+    public void testPaging() throws Exception {
+        Thread.sleep(10);
+        update(second, 2.0, Exec.RUNNING);
+        Thread.sleep(10);
+        update(first, 3.0, Exec.RUNNING);
+        long registered = lastUpdate(root);
+        Assert.assertTrue(registered < lastUpdate(second) && lastUpdate(second) < lastUpdate(first));
+
+        // in the order of their last update
+        assertNodes(journal.getNodes(null, null, 0, 0, 10), root, second, first);
+        assertNodes(journal.getNodes(null, null, 0, 1, 1), second);
+        assertNodes(journal.getNodes(null, null, 0, 3, 10));
+        assertNodes(journal.getNodes("alice", null, 0, 0, 10), root, first);
+        assertNodes(journal.getNodes(null, Exec.RUNNING, 0, 1, 10), first);
+        assertNodes(journal.getNodes(null, null, lastUpdate(second), 0, 10), second, first);
+
+        // a new base keeps the update times of the nodes not updated
+        long firstUpdate = lastUpdate(first);
+        long secondUpdate = lastUpdate(second);
+        Thread.sleep(10);
+        update(root, 4.0, Exec.DONE);
+        Assert.assertEquals(0, deltas());
+        Assert.assertEquals(firstUpdate, lastUpdate(first));
+        Assert.assertEquals(secondUpdate, lastUpdate(second));
+        Assert.assertTrue(lastUpdate(root) > firstUpdate);
+        assertNodes(journal.getNodes(null, null, 0, 0, 10), second, first, root);
+    }
+}
@@ -22,11 +22,16 @@ import sorcer.resolver.SorcerResolver;
 import sorcer.resolver.SorcerResolverException;
 
 import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
 import java.rmi.server.RMIClassLoader;
 import java.rmi.server.RMIClassLoaderSpi;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * SORCER class
@@ -41,10 +46,18 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
      */
     private final Map<String, Set<String>> artifactToCodebase = new ConcurrentHashMap<String, Set<String>>();
     /**
-     * A table of classes to artifact: codebase. This will ensure that if the annotation is requested for a class that
-     * has it's classpath resolved from an artifact, that the artifact URL is passed back instead of the resolved
-     * (local) classpath.
+     * A table of resolved codebases to the artifact codebases they were resolved from. This will ensure that if the
+     * annotation is requested for a class that has it's classpath resolved from an artifact, that the artifact URL is
+     * passed back instead of the resolved (local) classpath.
      */
+    private final Map<String, String> codebaseToArtifact = new ConcurrentHashMap<String, String>();
+    /**
+     * A table of class loaders to the annotations of their classes, valid until a new codebase is resolved. The
+     * class loaders are weakly referenced, the entries of collected loaders are removed on the next update.
+     */
+    private final ConcurrentMap<LoaderKey, Annotation> annotations = new ConcurrentHashMap<LoaderKey, Annotation>();
+    private final ReferenceQueue<ClassLoader> collectedLoaders = new ReferenceQueue<ClassLoader>();
+    private final AtomicInteger generation = new AtomicInteger();
     private static final Logger logger = LoggerFactory.getLogger(SorcerResolvingLoader.class);
     private static SorcerResolver sorcerResolver;
     static {
@@ -99,18 +112,19 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
 
     @Override
     public String getClassAnnotation(final Class<?> aClass) {
+        ClassLoader classLoader = aClass.getClassLoader();
+        int current = generation.get();
+        Annotation cached = classLoader != null ? annotations.get(new LoaderKey(classLoader)) : null;
+        if (cached != null && cached.generation == current)
+            return cached.annotation;
         String loaderAnnotation = loader.getClassAnnotation(aClass);
-        String artifact = null;
-        if(loaderAnnotation!=null) {
-            for(Map.Entry<String, Set<String>> entry : artifactToCodebase.entrySet()) {
-                String resolvedCodebase = join(entry.getValue(), CODEBASE_SEPARATOR);
-                if(resolvedCodebase.equals(loaderAnnotation)) {
-                    artifact = entry.getKey();
-                    break;
-                }
-            }
-        }
+        String artifact = loaderAnnotation != null ? codebaseToArtifact.get(loaderAnnotation) : null;
         String annotation = artifact==null?loaderAnnotation:artifact;
+        // classes of the bootstrap loader are annotated with the codebase property, not cached
+        if (classLoader != null) {
+            expungeCollectedLoaders();
+            annotations.put(new LoaderKey(classLoader, collectedLoaders), new Annotation(annotation, current));
+        }
         if(logger.isDebugEnabled())
             logger.debug("Annotation for {} is {}", aClass.getName(), annotation);
         return annotation;
@@ -120,7 +134,7 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
         String adaptedCodebase;
         if(codebase!=null && codebase.startsWith("artifact:")) {
             String[] artifacts = codebase.split(CODEBASE_SEPARATOR);
-            Set<String> jarsSet = new HashSet<String>();
+            Set<String> jarsSet = new LinkedHashSet<String>();
             for (String artf : artifacts) {
                 if (artf != null) {
                     Set<String> adaptedCodebaseSet;
@@ -128,7 +142,7 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
                         adaptedCodebaseSet = artifactToCodebase.get(artf);
                         if (adaptedCodebaseSet == null)
                             try {
-                                adaptedCodebaseSet = new HashSet<String>();
+                                adaptedCodebaseSet = new LinkedHashSet<String>();
                                 for (String path : sorcerResolver.doResolve(artf)) {
                                     // ignore pom files
                                     if (path.endsWith(".pom"))
@@ -136,6 +150,7 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
                                     adaptedCodebaseSet.add(new File(path).toURI().toURL().toExternalForm());
                                 }
                                 artifactToCodebase.put(artf, adaptedCodebaseSet);
+                                addCodebase(join(adaptedCodebaseSet, CODEBASE_SEPARATOR), artf);
                                 logger.debug("Resolved {} to {}", artf, adaptedCodebaseSet);
                             } catch (SorcerResolverException e) {
                                 logger.warn("Unable to resolve {}", artf, e);
@@ -147,12 +162,72 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
                 }
             }
             adaptedCodebase = join(jarsSet, CODEBASE_SEPARATOR);
+            addCodebase(adaptedCodebase, codebase);
         }  else {
             adaptedCodebase = codebase;
         }
         return adaptedCodebase;
     }
 
+    private void addCodebase(String resolvedCodebase, String artifact) {
+        if (codebaseToArtifact.containsKey(resolvedCodebase))
+            return;
+        codebaseToArtifact.put(resolvedCodebase, artifact);
+        generation.incrementAndGet();
+    }
+
+    private void expungeCollectedLoaders() {
+        Reference<? extends ClassLoader> collected;
+        while ((collected = collectedLoaders.poll()) != null)
+            annotations.remove(collected);
+    }
+
+    /**
+     * The annotation of the classes of a class loader, valid until a new codebase is resolved. URLs added to a
+     * URLClassLoader later on do not change the annotation of its classes.
+     */
+    private static class Annotation {
+        final String annotation;
+        final int generation;
+
+        Annotation(String annotation, int generation) {
+            this.annotation = annotation;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * A weak reference to a class loader compared by the identity of the loader, a collected loader is only equal
+     * to its own key so that its entry can be removed.
+     */
+    private static class LoaderKey extends WeakReference<ClassLoader> {
+        private final int hash;
+
+        LoaderKey(ClassLoader classLoader) {
+            super(classLoader);
+            hash = System.identityHashCode(classLoader);
+        }
+
+        LoaderKey(ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+            super(classLoader, queue);
+            hash = System.identityHashCode(classLoader);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof LoaderKey))
+                return false;
+            ClassLoader classLoader = get();
+            return classLoader != null && classLoader == ((LoaderKey) o).get();
+        }
+    }
 
     /**
      * Copied from StringUtils to avoid dependency on sorcer-platform
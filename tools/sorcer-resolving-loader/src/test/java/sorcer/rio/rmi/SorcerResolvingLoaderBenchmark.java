@@ -0,0 +1,177 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.rio.rmi;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.resolver.SorcerResolver;
+
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the marshalling throughput of an object graph annotated by the
+ * {@link SorcerResolvingLoader} with N resolved artifacts, and compares the
+ * annotation lookups with a scan of the resolved codebases.
+ */
+public class SorcerResolvingLoaderBenchmark {
+    private final static Logger logger = LoggerFactory.getLogger(SorcerResolvingLoaderBenchmark.class);
+
+    private static final String ARTIFACT = "artifact:org.sorcer/benchmark-%d/1.0";
+
+    private static final int[] ARTIFACTS = {10, 100, 1000};
+
+    private static final int ITERATIONS = 2000;
+
+    static {
+        System.setProperty("sorcer.resolver.class", JarResolver.class.getName());
+        // the annotation of the classes of the application class loader
+        System.setProperty("java.rmi.server.codebase",
+                           SorcerResolvingLoader.join(codebase(String.format(ARTIFACT, 0)),
+                                                      SorcerResolvingLoader.CODEBASE_SEPARATOR));
+    }
+
+    /**
+     * Resolves an artifact to its jar and a dependency jar.
+     */
+    public static class JarResolver extends SorcerResolver {
+        @Override public String[] resolveUrl(String artifact) {
+            String name = artifact.substring(artifact.indexOf('/') + 1, artifact.lastIndexOf('/'));
+            return new String[]{"/tmp/sorcer-lib/" + name + "/" + name + "-1.0.jar",
+                                "/tmp/sorcer-lib/" + name + "/" + name + "-dl-1.0.jar"};
+        }
+
+        @Override public String[] resolveCoords(String coords) {
+            return resolveUrl("artifact:" + coords.replace(':', '/'));
+        }
+
+        @Override public URL getLocation(String path) {
+            return null;
+        }
+    }
+
+    private static List<String> codebase(String artifact) {
+        List<String> urls = new ArrayList<String>();
+        for (String path : new JarResolver().resolveUrl(artifact)) {
+            try {
+                urls.add(new File(path).toURI().toURL().toExternalForm());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return urls;
+    }
+
+    public static class Item implements Serializable {
+        static final long serialVersionUID = 1L;
+        String name;
+        Double value;
+        int[] indexes = {1, 2, 3};
+        Map<String, Date> dates = new HashMap<String, Date>();
+
+        Item(int i) {
+            name = "item-" + i;
+            value = (double) i;
+            dates.put(name, new Date(i));
+        }
+    }
+
+    /**
+     * Writes the annotation of each class as RMI marshal streams do.
+     */
+    static class AnnotatingOutputStream extends ObjectOutputStream {
+        private final SorcerResolvingLoader loader;
+
+        AnnotatingOutputStream(OutputStream out, SorcerResolvingLoader loader) throws IOException {
+            super(out);
+            this.loader = loader;
+        }
+
+        @Override protected void annotateClass(Class<?> cl) throws IOException {
+            writeObject(loader.getClassAnnotation(cl));
+        }
+    }
+
+    private SorcerResolvingLoader newLoader(int artifacts, Map<String, Set<String>> codebases) throws Exception {
+        SorcerResolvingLoader loader = new SorcerResolvingLoader();
+        for (int i = 0; i < artifacts; i++) {
+            String artifact = String.format(ARTIFACT, i);
+            loader.loadClass(artifact, Item.class.getName(), null);
+            codebases.put(artifact, new LinkedHashSet<String>(codebase(artifact)));
+        }
+        return loader;
+    }
+
+    @Test
+    public void marshalling() throws Exception {
+        List<Item> graph = new ArrayList<Item>();
+        for (int i = 0; i < 100; i++)
+            graph.add(new Item(i));
+
+        for (int artifacts : ARTIFACTS) {
+            SorcerResolvingLoader loader = newLoader(artifacts, new HashMap<String, Set<String>>());
+            assertEquals(String.format(ARTIFACT, 0), loader.getClassAnnotation(Item.class));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                bytes.reset();
+                ObjectOutputStream out = new AnnotatingOutputStream(bytes, loader);
+                out.writeObject(graph);
+                out.close();
+            }
+            long elapsed = System.nanoTime() - start;
+            logger.info("{} artifacts: {} marshals/s of {} bytes",
+                        artifacts, ITERATIONS * 1000000000L / elapsed, bytes.size());
+        }
+    }
+
+    @Test
+    public void annotationLookup() throws Exception {
+        for (int artifacts : ARTIFACTS) {
+            Map<String, Set<String>> codebases = new HashMap<String, Set<String>>();
+            SorcerResolvingLoader loader = newLoader(artifacts, codebases);
+            String annotation = System.getProperty("java.rmi.server.codebase");
+            assertEquals(String.format(ARTIFACT, 0), scan(codebases, annotation));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                scan(codebases, annotation);
+            long scanned = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                loader.getClassAnnotation(Item.class);
+            long indexed = System.nanoTime() - start;
+
+            logger.info("{} artifacts: scan {} ns/op, index {} ns/op",
+                        artifacts, scanned / ITERATIONS, indexed / ITERATIONS);
+        }
+    }
+
+    // the lookup of the artifact by joining and comparing each resolved codebase
+    private static String scan(Map<String, Set<String>> codebases, String annotation) {
+        for (Map.Entry<String, Set<String>> entry : codebases.entrySet()) {
+            if (SorcerResolvingLoader.join(entry.getValue(), SorcerResolvingLoader.CODEBASE_SEPARATOR).equals(annotation))
+                return entry.getKey();
+        }
+        return null;
+    }
+}
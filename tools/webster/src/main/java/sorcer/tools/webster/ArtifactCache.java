@@ -0,0 +1,271 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.tools.webster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A bounded in-memory cache of the files served by {@link Webster}, keyed by
+ * their resolved path. Each entry holds the length, modification time and ETag
+ * of a file, its content if kept, and a gzip variant of the content if it
+ * compresses well. Files of already compressed types, such as jars and
+ * archives, have no gzip variant. An entry is reloaded when the file's length
+ * or modification time changes. Files larger than the maximum entry size are
+ * not cached; the least recently used entries are evicted to keep the cache
+ * within its size.
+ * <p>
+ * The cache is disabled unless a size is set for Webster.
+ */
+public class ArtifactCache {
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactCache.class.getName());
+    public static final long DEFAULT_MAX_ENTRY_SIZE = 8 * 1024 * 1024;
+    // the size accounted for the fields of an entry
+    static final int ENTRY_OVERHEAD = 256;
+    private static final Set<String> COMPRESSED_TYPES = new HashSet<String>(Arrays.asList(
+            "jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz", "7z", "png", "jpg", "jpeg", "gif"));
+
+    private final long size;
+    private final long maxEntrySize;
+    private final boolean keepContent;
+    private long cached;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(64, 0.75f, true);
+    // paths being loaded by an executor
+    private final Set<String> loading = new HashSet<String>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ArtifactCache(long size, long maxEntrySize) {
+        this(size, maxEntrySize, true);
+    }
+
+    /**
+     * @param keepContent false if the files are sent from disk and only their
+     *            gzip variants are kept
+     */
+    public ArtifactCache(long size, long maxEntrySize, boolean keepContent) {
+        this.size = size;
+        this.maxEntrySize = Math.min(maxEntrySize, size);
+        this.keepContent = keepContent;
+    }
+
+    /**
+     * Returns the entry of the current content of the file, loading it if
+     * missing, or null if the file is not cacheable.
+     */
+    public Entry get(File file) {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        Entry entry = lookup(file, length, lastModified);
+        if (entry != null || !isCacheable(file, length))
+            return entry;
+        return load(file, length, lastModified);
+    }
+
+    /**
+     * Returns the entry of the current content of the file, or null if it is
+     * missing and then loaded by the executor, so that the caller does not
+     * wait for the file to be read and compressed.
+     */
+    public Entry get(final File file, Executor loader) {
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        Entry entry = lookup(file, length, lastModified);
+        if (entry != null || loader == null || !isCacheable(file, length))
+            return entry;
+        final String path = file.getAbsolutePath();
+        synchronized (this) {
+            if (!loading.add(path))
+                return null;
+        }
+        try {
+            loader.execute(new Runnable() {
+                public void run() {
+                    try {
+                        load(file, length, lastModified);
+                    } finally {
+                        loaded(path);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loaded(path);
+        }
+        return null;
+    }
+
+    private synchronized void loaded(String path) {
+        loading.remove(path);
+    }
+
+    private Entry lookup(File file, long length, long lastModified) {
+        String path = file.getAbsolutePath();
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry != null && entry.length == length && entry.lastModified == lastModified) {
+                hits.incrementAndGet();
+                return entry;
+            }
+            if (entry != null)
+                remove(path);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private boolean isCacheable(File file, long length) {
+        return length <= maxEntrySize && (keepContent || !isCompressed(file.getName())) && file.isFile();
+    }
+
+    /**
+     * Returns true for the names of files of already compressed types.
+     */
+    static boolean isCompressed(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_TYPES.contains(name.substring(dot + 1).toLowerCase());
+    }
+
+    private Entry load(File file, long length, long lastModified) {
+        String path = file.getAbsolutePath();
+        Entry entry;
+        try {
+            entry = read(file, length, lastModified);
+        } catch (IOException e) {
+            logger.warn("Caching " + path, e);
+            return null;
+        }
+        if (entry == null)
+            return null;
+        synchronized (this) {
+            Entry previous = entries.put(path, entry);
+            if (previous != null)
+                cached -= previous.size();
+            cached += entry.size();
+            Iterator<Entry> lru = entries.values().iterator();
+            while (cached > size && lru.hasNext()) {
+                Entry evicted = lru.next();
+                if (evicted == entry)
+                    continue;
+                lru.remove();
+                cached -= evicted.size();
+                evictions.incrementAndGet();
+            }
+        }
+        return entry;
+    }
+
+    private Entry read(File file, long length, long lastModified) throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        // not cached while the file is being written
+        if (content.length != length || file.lastModified() != lastModified || file.length() != length)
+            return null;
+        byte[] compressed = null;
+        if (!isCompressed(file.getName()) && content.length > 0) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 2 + 64);
+            GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+            gzip.write(content);
+            gzip.close();
+            if (bytes.size() < content.length * 9L / 10)
+                compressed = bytes.toByteArray();
+        }
+        return new Entry(keepContent ? content : null, compressed, length, lastModified,
+                NioServer.etag(length, lastModified));
+    }
+
+    private void remove(String path) {
+        Entry entry = entries.remove(path);
+        if (entry != null)
+            cached -= entry.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cached = 0;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the number of bytes held by the cache.
+     */
+    public synchronized long getSize() {
+        return cached;
+    }
+
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ArtifactCache [entries: " + getCount() + ", size: " + getSize() + ", hits: " + getHits()
+                + ", misses: " + getMisses() + ", evictions: " + getEvictions() + "]";
+    }
+
+    public static class Entry {
+        // null if not kept
+        final byte[] content;
+        final byte[] gzip;
+        final long length;
+        final long lastModified;
+        final String etag;
+
+        Entry(byte[] content, byte[] gzip, long length, long lastModified, String etag) {
+            this.content = content;
+            this.gzip = gzip;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.etag = etag;
+        }
+
+        long size() {
+            return ENTRY_OVERHEAD + (content != null ? content.length : 0) + (gzip != null ? gzip.length : 0);
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public boolean hasGzip() {
+            return gzip != null;
+        }
+    }
+}
@@ -0,0 +1,619 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.tools.webster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * The non-blocking mode of {@link Webster}. A single selector thread accepts
+ * connections, parses requests and writes responses. Files are sent with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} without
+ * copying them into the heap, connections are kept alive for further and
+ * pipelined requests, GET and HEAD support a single byte range and
+ * conditional requests by ETag and If-Modified-Since, and PUT bodies are
+ * written to disk as they arrive. With an {@link ArtifactCache}, clients
+ * accepting gzip get the precompressed variants of the files, read and
+ * compressed by the Webster thread pool.
+ */
+class NioServer implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(NioServer.class.getName());
+    private static final Charset ASCII = Charset.forName("ISO-8859-1");
+    static final int BUFFER_SIZE = 16 * 1024;
+    static final int MAX_HEADER_SIZE = 64 * 1024;
+    static final int DEFAULT_KEEP_ALIVE = 30000;
+
+    private final Webster webster;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final long keepAlive;
+    private final String tempDir;
+    private volatile boolean run = true;
+    // used by the selector thread only
+    private final SimpleDateFormat httpDate;
+
+    NioServer(Webster webster, InetAddress address, int port, int soTimeout, String tempDir) throws IOException {
+        this.webster = webster;
+        this.keepAlive = soTimeout > 0 ? soTimeout : DEFAULT_KEEP_ALIVE;
+        this.tempDir = tempDir;
+        httpDate = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        httpDate.setTimeZone(TimeZone.getTimeZone("GMT"));
+        server = ServerSocketChannel.open();
+        try {
+            server.socket().bind(new InetSocketAddress(address, port));
+            server.configureBlocking(false);
+            selector = Selector.open();
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    ServerSocket getSocket() {
+        return server.socket();
+    }
+
+    void terminate() {
+        run = false;
+        selector.wakeup();
+    }
+
+    public void run() {
+        long lastCheck = System.currentTimeMillis();
+        try {
+            while (run) {
+                selector.select(1000);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable())
+                            connection.read();
+                        if (key.isValid() && key.isWritable())
+                            connection.write();
+                    } catch (IOException e) {
+                        if (logger.isDebugEnabled())
+                            logger.debug("Closing connection from " + connection.from, e);
+                        connection.close();
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastCheck > 1000) {
+                    closeIdle(now);
+                    lastCheck = now;
+                }
+            }
+        } catch (IOException e) {
+            if (run)
+                logger.warn("Processing HTTP Request", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection)
+                    ((Connection) key.attachment()).close();
+            }
+            try {
+                selector.close();
+                server.close();
+            } catch (IOException e) {
+                logger.warn("Exception closing Webster ServerSocketChannel");
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    private void closeIdle(long now) {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                Connection connection = (Connection) key.attachment();
+                if (now - connection.lastActive > keepAlive)
+                    connection.close();
+            }
+        }
+    }
+
+    static String etag(long length, long lastModified) {
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    static boolean accepts(String encodings, String encoding) {
+        if (encodings == null)
+            return false;
+        for (String accepted : encodings.split(",")) {
+            int q = accepted.indexOf(';');
+            String name = (q < 0 ? accepted : accepted.substring(0, q)).trim();
+            if (name.equalsIgnoreCase(encoding))
+                return q < 0 || !accepted.substring(q + 1).replace(" ", "").matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    private String formatDate(long time) {
+        return httpDate.format(new Date(time));
+    }
+
+    private long parseDate(String date) {
+        try {
+            return httpDate.parse(date).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    static boolean matches(String tags, String etag) {
+        for (String tag : tags.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first and last byte of a single range satisfiable for the
+     * length, null if the header is not a single byte range, or an empty array
+     * if the range is not satisfiable.
+     */
+    static long[] parseRange(String range, long length) {
+        if (range == null || !range.startsWith("bytes=") || range.indexOf(',') >= 0)
+            return null;
+        String spec = range.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0)
+            return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start, end;
+            if (first.isEmpty()) {
+                if (last.isEmpty())
+                    return null;
+                long suffix = Long.parseLong(last);
+                if (suffix == 0 || length == 0)
+                    return new long[0];
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = length - 1;
+                if (!last.isEmpty()) {
+                    long requested = Long.parseLong(last);
+                    if (requested < start)
+                        return null;
+                    end = Math.min(requested, end);
+                }
+                if (start >= length)
+                    return new long[0];
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static class Request {
+        String method;
+        String fileName;
+        String version;
+        final Map<String, String> header = new HashMap<String, String>();
+
+        String get(String field) {
+            return header.get(field.toLowerCase());
+        }
+
+        boolean isKeepAlive() {
+            String connection = get("Connection");
+            if ("HTTP/1.1".equals(version))
+                return !"close".equalsIgnoreCase(connection);
+            return "keep-alive".equalsIgnoreCase(connection);
+        }
+    }
+
+    private class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final String from;
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        long lastActive = System.currentTimeMillis();
+        // the response in progress
+        ByteBuffer out;
+        ByteBuffer body;
+        FileChannel file;
+        long filePosition;
+        long fileRemaining;
+        boolean close;
+        // the PUT in progress
+        FileChannel upload;
+        File uploadFile;
+        File uploadTarget;
+        long uploadRemaining;
+        String uploadStatus;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            from = channel.socket().getInetAddress().getHostAddress() + ":" + channel.socket().getPort();
+        }
+
+        void read() throws IOException {
+            lastActive = System.currentTimeMillis();
+            int read = channel.read(in);
+            if (read == -1) {
+                if (upload != null)
+                    abortUpload();
+                close();
+                return;
+            }
+            process();
+        }
+
+        void write() throws IOException {
+            lastActive = System.currentTimeMillis();
+            if (out != null) {
+                channel.write(out);
+                if (out.hasRemaining())
+                    return;
+                out = null;
+            }
+            if (body != null) {
+                channel.write(body);
+                if (body.hasRemaining())
+                    return;
+                body = null;
+            }
+            if (file != null) {
+                while (fileRemaining > 0) {
+                    long sent = file.transferTo(filePosition, fileRemaining, channel);
+                    if (sent <= 0)
+                        return;
+                    filePosition += sent;
+                    fileRemaining -= sent;
+                }
+                file.close();
+                file = null;
+            }
+            if (close) {
+                close();
+                return;
+            }
+            // continue with pipelined requests
+            process();
+        }
+
+        void process() throws IOException {
+            while (out == null && body == null && file == null && key.isValid()) {
+                if (upload != null) {
+                    if (!receive())
+                        break;
+                    continue;
+                }
+                Request request = parse();
+                if (request == null)
+                    break;
+                handle(request);
+            }
+            if (!key.isValid())
+                return;
+            if (out != null || body != null || file != null)
+                key.interestOps(SelectionKey.OP_WRITE);
+            else
+                key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private Request parse() throws IOException {
+            int end = headerEnd();
+            if (end < 0) {
+                if (!in.hasRemaining()) {
+                    if (in.capacity() >= MAX_HEADER_SIZE) {
+                        respond("431 Request Header Fields Too Large", null, false);
+                    } else {
+                        ByteBuffer larger = ByteBuffer.allocate(in.capacity() * 2);
+                        in.flip();
+                        larger.put(in);
+                        in = larger;
+                    }
+                }
+                return null;
+            }
+            String text = new String(in.array(), 0, end, ASCII);
+            in.flip();
+            in.position(end + 4);
+            in.compact();
+            String[] lines = text.split("\r\n");
+            StringTokenizer tokenizer = new StringTokenizer(lines[0], " ");
+            if (tokenizer.countTokens() < 2) {
+                respond("400 Bad Request", null, false);
+                return null;
+            }
+            Request request = new Request();
+            request.method = tokenizer.nextToken();
+            String fileName = tokenizer.nextToken();
+            request.fileName = fileName.startsWith("/") ? fileName.substring(1) : fileName;
+            request.version = tokenizer.hasMoreTokens() ? tokenizer.nextToken() : "HTTP/1.0";
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0)
+                    request.header.put(lines[i].substring(0, colon).trim().toLowerCase(),
+                            lines[i].substring(colon + 1).trim());
+            }
+            if (logger.isDebugEnabled())
+                logger.debug("From: " + from + ", Request: " + lines[0]);
+            return request;
+        }
+
+        private int headerEnd() {
+            byte[] bytes = in.array();
+            for (int i = 0; i + 3 < in.position(); i++) {
+                if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n')
+                    return i;
+            }
+            return -1;
+        }
+
+        private void handle(Request request) throws IOException {
+            boolean keepAlive = request.isKeepAlive();
+            if (request.method.equals("GET")) {
+                get(request, keepAlive, true);
+            } else if (request.method.equals("HEAD")) {
+                get(request, keepAlive, false);
+            } else if (request.method.equals("PUT")) {
+                put(request, keepAlive);
+            } else if (request.method.equals("DELETE")) {
+                delete(request, keepAlive);
+            } else {
+                if (logger.isDebugEnabled())
+                    logger.debug("bad request [" + request.method + "] from " + from);
+                respond("400 Bad Request", null, false);
+            }
+        }
+
+        private void get(Request request, boolean keepAlive, boolean withBody) throws IOException {
+            File getFile = webster.parseFileName(request.fileName);
+            if (getFile.isDirectory()) {
+                byte[] listing = webster.listDirectory(getFile).getBytes(ASCII);
+                respond("200 OK", webster.getMimeType("txt"), listing.length, null, keepAlive);
+                if (withBody)
+                    append(ByteBuffer.wrap(listing));
+                return;
+            } else if (!getFile.exists()) {
+                respond("404 Not Found", null, keepAlive);
+                return;
+            }
+            ArtifactCache cache = webster.getCache();
+            // loaded by the pool on a miss, not by the selector thread
+            ArtifactCache.Entry cached = cache != null ? cache.get(getFile, webster.getPool()) : null;
+            long length = cached != null ? cached.length : getFile.length();
+            long lastModified = cached != null ? cached.lastModified : getFile.lastModified();
+            String etag = cached != null ? cached.etag : etag(length, lastModified);
+            // the gzip variant has its own ETag and is not served for ranges
+            boolean gzip = cached != null && cached.gzip != null && request.get("Range") == null
+                    && accepts(request.get("Accept-Encoding"), "gzip");
+            String gzipEtag = etag.substring(0, etag.length() - 1) + "-gz\"";
+            StringBuilder fields = new StringBuilder();
+            fields.append("ETag: ").append(gzip ? gzipEtag : etag).append("\r\n");
+            fields.append("Last-Modified: ").append(formatDate(lastModified)).append("\r\n");
+            fields.append("Accept-Ranges: bytes\r\n");
+            if (cached != null && cached.gzip != null)
+                fields.append("Vary: Accept-Encoding\r\n");
+            String ifNoneMatch = request.get("If-None-Match");
+            String ifModifiedSince = request.get("If-Modified-Since");
+            if (ifNoneMatch != null ? matches(ifNoneMatch, gzip ? gzipEtag : etag)
+                    : ifModifiedSince != null && lastModified / 1000 <= parseDate(ifModifiedSince) / 1000) {
+                respond("304 Not Modified", null, -1, fields.toString(), keepAlive);
+                return;
+            }
+            long[] range = null;
+            String ifRange = request.get("If-Range");
+            if (ifRange == null || ifRange.equals(etag) || parseDate(ifRange) / 1000 == lastModified / 1000)
+                range = parseRange(request.get("Range"), length);
+            String contentType = webster.getMimeType(request.fileName);
+            long start = 0;
+            long count = length;
+            // the content is sent from the file unless compressed
+            byte[] content = null;
+            if (gzip) {
+                content = cached.gzip;
+                count = content.length;
+                fields.append("Content-Encoding: gzip\r\n");
+            }
+            if (range != null && range.length == 0) {
+                fields.append("Content-Range: bytes */").append(length).append("\r\n");
+                respond("416 Range Not Satisfiable", null, 0, fields.toString(), keepAlive);
+                return;
+            } else if (range != null) {
+                start = range[0];
+                count = range[1] - range[0] + 1;
+                fields.append("Content-Range: bytes ").append(range[0]).append("-").append(range[1])
+                        .append("/").append(length).append("\r\n");
+                respond("206 Partial Content", contentType, count, fields.toString(), keepAlive);
+            } else {
+                respond("200 OK", contentType, count, fields.toString(), keepAlive);
+            }
+            if (withBody && count > 0 && content != null) {
+                body = ByteBuffer.wrap(content, (int) start, (int) count);
+            } else if (withBody && count > 0) {
+                file = FileChannel.open(getFile.toPath(), StandardOpenOption.READ);
+                filePosition = start;
+                fileRemaining = count;
+            }
+            if (logger.isDebugEnabled())
+                logger.debug("Do " + request.method + ": input=" + request.fileName + ", parsed=" + getFile
+                        + ", file size: [" + count + "]");
+        }
+
+        private void put(Request request, boolean keepAlive) throws IOException {
+            if (tempDir == null) {
+                respond("405 Method Not Allowed", "Webster is in read-only mode", false);
+                return;
+            }
+            String length = request.get("Content-Length");
+            if (length == null) {
+                respond("411 Length Required", null, false);
+                return;
+            }
+            try {
+                uploadRemaining = Long.parseLong(length);
+            } catch (NumberFormatException e) {
+                respond("400 Bad Request", null, false);
+                return;
+            }
+            uploadTarget = new File(tempDir + File.separator + request.fileName);
+            uploadStatus = uploadTarget.exists() ? "200 OK" : "201 Created";
+            File parentDir = uploadTarget.getParentFile();
+            if (!parentDir.exists() && parentDir.mkdirs() && logger.isDebugEnabled())
+                logger.debug("Created " + parentDir.getPath());
+            // written aside so that the file is never served partially written
+            uploadFile = new File(parentDir, uploadTarget.getName() + ".part");
+            upload = FileChannel.open(uploadFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            close = !keepAlive;
+            if (logger.isDebugEnabled())
+                logger.debug("Putting " + request.fileName + " size: " + uploadRemaining);
+        }
+
+        // writes the received part of the body, returns true if the body is complete
+        private boolean receive() throws IOException {
+            in.flip();
+            try {
+                while (in.hasRemaining() && uploadRemaining > 0) {
+                    int limit = in.limit();
+                    if (in.remaining() > uploadRemaining)
+                        in.limit(in.position() + (int) uploadRemaining);
+                    uploadRemaining -= upload.write(in);
+                    in.limit(limit);
+                }
+            } catch (IOException e) {
+                in.compact();
+                abortUpload();
+                respond("500 Internal Server Error", e.toString(), false);
+                return false;
+            }
+            in.compact();
+            if (uploadRemaining > 0)
+                return false;
+            upload.close();
+            upload = null;
+            boolean keepAlive = !close;
+            try {
+                Files.move(uploadFile.toPath(), uploadTarget.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                respond(uploadStatus, "PUT File " + uploadTarget.getName(), keepAlive);
+                if (logger.isDebugEnabled())
+                    logger.debug("Wrote: " + uploadTarget.getPath() + " size: " + uploadTarget.length());
+            } catch (IOException e) {
+                uploadFile.delete();
+                respond("500 Internal Server Error", e.toString(), false);
+            }
+            return true;
+        }
+
+        private void abortUpload() {
+            try {
+                upload.close();
+            } catch (IOException e) {
+                logger.warn("Closing PUT file", e);
+            }
+            upload = null;
+            uploadFile.delete();
+        }
+
+        private void delete(Request request, boolean keepAlive) throws IOException {
+            File putFile = webster.parseFileName(request.fileName);
+            if (!putFile.exists())
+                respond("404 Not Found", null, keepAlive);
+            else if (putFile.delete())
+                respond("200 OK", "File succesfully deleted", keepAlive);
+            else
+                respond("500 Internal Server Error", "File could not be deleted", keepAlive);
+        }
+
+        private void respond(String status, String message, boolean keepAlive) {
+            byte[] body = message == null ? new byte[0] : message.getBytes(ASCII);
+            respond(status, message == null ? null : "text/plain", body.length, null, keepAlive);
+            append(ByteBuffer.wrap(body));
+        }
+
+        private void respond(String status, String contentType, long length, String fields, boolean keepAlive) {
+            StringBuilder header = new StringBuilder();
+            header.append("HTTP/1.1 ").append(status).append("\r\n");
+            header.append("Server: ").append(Webster.class.getName()).append("\r\n");
+            header.append("Date: ").append(formatDate(System.currentTimeMillis())).append("\r\n");
+            if (contentType != null)
+                header.append("Content-Type: ").append(contentType).append("\r\n");
+            if (length >= 0)
+                header.append("Content-Length: ").append(length).append("\r\n");
+            if (fields != null)
+                header.append(fields);
+            header.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+            close = !keepAlive;
+            out = ByteBuffer.wrap(header.toString().getBytes(ASCII));
+        }
+
+        private void append(ByteBuffer body) {
+            if (!body.hasRemaining())
+                return;
+            ByteBuffer joined = ByteBuffer.allocate(out.remaining() + body.remaining());
+            joined.put(out).put(body).flip();
+            out = joined;
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                if (file != null)
+                    file.close();
+                if (upload != null)
+                    abortUpload();
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Closing incoming socket", e);
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -43,6 +44,20 @@ import java.util.concurrent.ThreadPoolExecutor;
  * directories which are separated by a <code>;</code></td>
  * <td>System.getProperty(user.home)</td>
  * </tr>
+ * <td>webster.nio</td>
+ * <td>Serves requests with a non-blocking selector and zero-copy file
+ * transfers, see {@link NioServer}</td>
+ * <td>false</td>
+ * </tr>
+ * <td>webster.cache.size</td>
+ * <td>Size in bytes of the in-memory cache of served files, enables the
+ * cache, see {@link ArtifactCache}</td>
+ * <td>0</td>
+ * </tr>
+ * <td>webster.cache.maxEntry</td>
+ * <td>Size in bytes of the largest file to cache</td>
+ * <td>8388608</td>
+ * </tr>
  * <p/>
  * </table>
  *
@@ -54,6 +69,7 @@ public class Webster implements Runnable {
 
     static final int DEFAULT_MIN_THREADS = 1;
     static final int DEFAULT_MAX_THREADS = 10;
+    static final int BUFFER_SIZE = 64 * 1024;
     private ServerSocket ss;
     private int port;
     private volatile boolean run = true;
@@ -69,6 +85,10 @@ public class Webster implements Runnable {
     private com.sun.jini.start.LifeCycle lifeCycle;
     private boolean debug = false;
     private boolean isDaemon = false;
+    private boolean nio = false;
+    private NioServer nioServer;
+    private long cacheSize = -1;
+    private ArtifactCache cache;
     private static String SERVER_DESCRIPTION = Webster.class.getName();
     private String tempDir;
     // Shared class server (webster) 
@@ -242,7 +262,8 @@ public class Webster implements Runnable {
      *
      * @param args      String[] of options. Valid options are [-port port],
      *                  [-roots list-of-roots], [-bindAddress address], [-minThreads minThreads],
-     *                  [-maxThreads maxThreads] [-soTimeout soTimeout]
+     *                  [-maxThreads maxThreads] [-soTimeout soTimeout] [-nio true|false]
+     *                  [-cacheSize bytes]
      * @param lifeCycle The LifeCycle object, may be null
      * @throws IOException if Webster cannot create a socket
      */
@@ -316,6 +337,12 @@ public class Webster implements Runnable {
             } else if (option.equals("-debug")) {
                 i++;
                 debug = Boolean.parseBoolean(options[i]);
+            } else if (option.equals("-nio")) {
+                i++;
+                nio = Boolean.parseBoolean(options[i]);
+            } else if (option.equals("-cacheSize")) {
+                i++;
+                cacheSize = Long.parseLong(options[i]);
             } else {
                 throw new IllegalArgumentException(option);
             }
@@ -372,6 +399,17 @@ public class Webster implements Runnable {
             if (str != null && str.equals("true"))
                 debug = true;
         }
+        if (!nio) {
+            str = System.getProperty("webster.nio");
+            if (str != null && str.equals("true"))
+                nio = true;
+        }
+        if (cacheSize < 0)
+            cacheSize = Long.getLong("webster.cache.size", 0);
+        // the non-blocking mode sends the files from disk
+        if (cacheSize > 0)
+            cache = new ArtifactCache(cacheSize,
+                    Long.getLong("webster.cache.maxEntry", ArtifactCache.DEFAULT_MAX_ENTRY_SIZE), !nio);
         str = System.getProperty("webster.tmp.dir");
         if (str != null) {
             tempDir = str;
@@ -432,7 +470,12 @@ public class Webster implements Runnable {
             if (s != null && s.length() > 0) {
                 port = new Integer(s);
             }
-            ss = new ServerSocket(port, 0, address);
+            if (nio) {
+                nioServer = new NioServer(this, address, port, soTimeout, tempDir);
+                ss = nioServer.getSocket();
+            } else {
+                ss = new ServerSocket(port, 0, address);
+            }
         } catch (IOException ioe) {
             if (startPort == endPort) {
                 throw new IOException("Port bind server socket failure: " + endPort, ioe);
@@ -502,6 +545,20 @@ public class Webster implements Runnable {
         return (buffer.toString());
     }
 
+    /**
+     * Get the cache of the files Webster is serving
+     *
+     * @return The cache with its hit and miss counters, or null if caching is
+     *         disabled
+     */
+    public ArtifactCache getCache() {
+        return cache;
+    }
+
+    Executor getPool() {
+        return pool;
+    }
+
     /**
      * Get address that Webster is bound to
      *
@@ -544,6 +601,8 @@ public class Webster implements Runnable {
      */
     public void terminate() {
         run = false;
+        if (nioServer != null)
+            nioServer.terminate();
         if (ss != null) {
             try {
                 ss.close();
@@ -591,6 +650,10 @@ public class Webster implements Runnable {
         Socket s;
         try {
             loadMimes();
+            if (nioServer != null) {
+                nioServer.run();
+                return;
+            }
             String fileName;
             while (run) {
                 s = ss.accept(); // accept incoming requests
@@ -772,6 +835,37 @@ public class Webster implements Runnable {
         }
     } // end of loadMimes
 
+    /*
+     * The listing of a directory returned by GET and HEAD requests
+     */
+    String listDirectory(File dir) {
+        StringBuilder dirData = new StringBuilder();
+        String files[] = dir.list();
+        for (String file : files) {
+            File f = new File(dir, file);
+            dirData.append(f.toString().substring(
+                    dir.getParent().length()));
+            dirData.append("\t");
+            if (f.isDirectory())
+                dirData.append("d");
+            else
+                dirData.append("f");
+            dirData.append("\t");
+            dirData.append(f.length());
+            dirData.append("\t");
+            dirData.append(f.lastModified());
+            dirData.append("\n");
+        }
+        return dirData.toString();
+    }
+
+    /*
+     * The MIME type for the extension of the file name
+     */
+    String getMimeType(String fileName) {
+        return MimeTypes.getProperty(fileName.substring(fileName.lastIndexOf(".") + 1));
+    }
+
     protected File parseFileName(String filename) {
         StringBuilder fn = new StringBuilder(filename);
         for (int i = 0; i < fn.length(); i++) {
@@ -863,22 +957,7 @@ public class Webster implements Runnable {
                 String header;
                 if (getFile.isDirectory()) {
                     logData.append("directory located");
-                    String files[] = getFile.list();
-                    for (String file : files) {
-                        File f = new File(getFile, file);
-                        dirData.append(f.toString().substring(
-                                getFile.getParent().length()));
-                        dirData.append("\t");
-                        if (f.isDirectory())
-                            dirData.append("d");
-                        else
-                            dirData.append("f");
-                        dirData.append("\t");
-                        dirData.append(f.length());
-                        dirData.append("\t");
-                        dirData.append(f.lastModified());
-                        dirData.append("\n");
-                    }
+                    dirData.append(listDirectory(getFile));
                     fileLength = dirData.length();
                     String fileType = MimeTypes.getProperty("txt");
                     if (fileType == null)
@@ -960,22 +1039,7 @@ public class Webster implements Runnable {
                 String header;
                 if (getFile.isDirectory()) {
                     logData.append("directory located");
-                    String files[] = getFile.list();
-                    for (String file : files) {
-                        File f = new File(getFile, file);
-                        dirData.append(f.toString().substring(
-                                getFile.getParent().length()));
-                        dirData.append("\t");
-                        if (f.isDirectory())
-                            dirData.append("d");
-                        else
-                            dirData.append("f");
-                        dirData.append("\t");
-                        dirData.append(f.length());
-                        dirData.append("\t");
-                        dirData.append(f.lastModified());
-                        dirData.append("\n");
-                    }
+                    dirData.append(listDirectory(getFile));
                     fileLength = dirData.length();
                     String fileType = MimeTypes.getProperty("txt");
                     if (fileType == null)
@@ -990,10 +1054,16 @@ public class Webster implements Runnable {
                             + fileLength
                             + "\r\n\r\n";
                 } else if (getFile.exists()) {
-                    requestedFile =
-                            new DataInputStream(
-                                    new BufferedInputStream(new FileInputStream(getFile)));
-                    fileLength = requestedFile.available();
+                    ArtifactCache.Entry cached = cache != null ? cache.get(getFile) : null;
+                    if (cached != null) {
+                        requestedFile = new DataInputStream(new ByteArrayInputStream(cached.content));
+                        fileLength = cached.content.length;
+                    } else {
+                        requestedFile =
+                                new DataInputStream(
+                                        new BufferedInputStream(new FileInputStream(getFile)));
+                        fileLength = requestedFile.available();
+                    }
                     String fileType =
                             fileName.substring(fileName.lastIndexOf(".") + 1,
                                                fileName.length());
@@ -1018,11 +1088,12 @@ public class Webster implements Runnable {
                 if (getFile.isDirectory()) {
                     clientStream.writeBytes(dirData.toString());
                 } else if (getFile.exists()) {
-                    byte[] buffer = new byte[fileLength];
-                    requestedFile.readFully(buffer);
                     logData.append("file size: [").append(fileLength).append("]");
                     try {
-                        clientStream.write(buffer);
+                        byte[] buffer = new byte[Math.min(Math.max(fileLength, 1), BUFFER_SIZE)];
+                        int read;
+                        while ((read = requestedFile.read(buffer)) != -1)
+                            clientStream.write(buffer, 0, read);
                     } catch (Exception e) {
                         String s = "Sending [" +
                                 getFile.getAbsolutePath() + "], " +
@@ -0,0 +1,116 @@
+package sorcer.tools.webster;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public class ArtifactCacheTest {
+    private File root;
+
+    @Before
+    public void init() throws IOException {
+        root = Files.createTempDirectory("artifact-cache-test").toFile();
+    }
+
+    @After
+    public void clean() {
+        for (File file : root.listFiles())
+            file.delete();
+        root.delete();
+    }
+
+    private File write(String name, int length) throws IOException {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++)
+            content[i] = (byte) ('a' + i % 4);
+        File file = new File(root, name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        // two entries with their content and small gzip variants
+        long size = 2 * (ArtifactCache.ENTRY_OVERHEAD + 1000 + 100);
+        ArtifactCache cache = new ArtifactCache(size, 1000);
+        File a = write("a.bin", 1000);
+        File b = write("b.bin", 1000);
+        File c = write("c.bin", 1000);
+        Assert.assertTrue(cache.get(a).hasGzip());
+        cache.get(b);
+        // a used since b was cached
+        cache.get(a);
+        cache.get(c);
+        Assert.assertEquals(2, cache.getCount());
+        Assert.assertTrue(cache.getSize() <= size);
+        Assert.assertEquals(1, cache.getEvictions());
+        long misses = cache.getMisses();
+        cache.get(a);
+        cache.get(c);
+        Assert.assertEquals(misses, cache.getMisses());
+        cache.get(b);
+        Assert.assertEquals(misses + 1, cache.getMisses());
+        // larger than an entry
+        Assert.assertNull(cache.get(write("d.bin", 1001)));
+    }
+
+    @Test
+    public void testReload() throws IOException {
+        ArtifactCache cache = new ArtifactCache(1024 * 1024, 1024 * 1024);
+        File file = write("a.txt", 1000);
+        ArtifactCache.Entry entry = cache.get(file);
+        Assert.assertEquals(1000, entry.content.length);
+        Assert.assertSame(entry, cache.get(file));
+        write("a.txt", 2000);
+        file.setLastModified(entry.lastModified + 2000);
+        ArtifactCache.Entry reloaded = cache.get(file);
+        Assert.assertEquals(2000, reloaded.getLength());
+        Assert.assertFalse(entry.getEtag().equals(reloaded.getEtag()));
+        Assert.assertEquals(1, cache.getCount());
+    }
+
+    @Test
+    public void testCompressedTypes() throws IOException {
+        Assert.assertTrue(ArtifactCache.isCompressed("lib/sorcer-platform.jar"));
+        Assert.assertTrue(ArtifactCache.isCompressed("dist.ZIP"));
+        Assert.assertFalse(ArtifactCache.isCompressed("config.groovy"));
+        // kept for the blocking mode without a gzip variant
+        ArtifactCache cache = new ArtifactCache(1024 * 1024, 1024 * 1024);
+        ArtifactCache.Entry entry = cache.get(write("a.jar", 1000));
+        Assert.assertFalse(entry.hasGzip());
+        Assert.assertEquals(1000, entry.content.length);
+        // not cached when only gzip variants are kept
+        cache = new ArtifactCache(1024 * 1024, 1024 * 1024, false);
+        Assert.assertNull(cache.get(write("b.jar", 1000)));
+        Assert.assertEquals(0, cache.getCount());
+    }
+
+    @Test
+    public void testLoadedByExecutor() throws IOException {
+        ArtifactCache cache = new ArtifactCache(1024 * 1024, 1024 * 1024, false);
+        File file = write("a.txt", 1000);
+        final List<Runnable> loads = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            public void execute(Runnable command) {
+                loads.add(command);
+            }
+        };
+        Assert.assertNull(cache.get(file, executor));
+        // a load in progress is not scheduled again
+        Assert.assertNull(cache.get(file, executor));
+        Assert.assertEquals(1, loads.size());
+        loads.get(0).run();
+        ArtifactCache.Entry entry = cache.get(file, executor);
+        Assert.assertNull(entry.content);
+        Assert.assertTrue(entry.hasGzip());
+        Assert.assertEquals(1, loads.size());
+    }
+}
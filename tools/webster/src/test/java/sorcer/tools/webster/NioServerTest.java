@@ -0,0 +1,261 @@
+package sorcer.tools.webster;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP requests served by the non-blocking mode of Webster.
+ */
+public class NioServerTest {
+    private static final Charset ASCII = Charset.forName("ISO-8859-1");
+
+    private File root;
+    private byte[] data;
+    private Webster webster;
+    private Socket socket;
+
+    @Before
+    public void start() throws IOException {
+        root = Files.createTempDirectory("nio-server-test").toFile();
+        data = new byte[100];
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) i;
+        Files.write(new File(root, "data.bin").toPath(), data);
+        Files.write(new File(root, "other.txt").toPath(), "other".getBytes(ASCII));
+        start(0);
+    }
+
+    private void start(long cacheSize) throws IOException {
+        System.setProperty("webster.nio", "true");
+        System.setProperty("webster.cache.size", Long.toString(cacheSize));
+        System.setProperty("webster.tmp.dir", root.getPath());
+        webster = new Webster(0, root.getPath(), "127.0.0.1", true);
+        socket = new Socket("127.0.0.1", webster.getPort());
+        socket.setSoTimeout(10000);
+    }
+
+    @After
+    public void stop() throws IOException {
+        socket.close();
+        webster.terminate();
+        System.clearProperty("webster.nio");
+        System.clearProperty("webster.cache.size");
+        System.clearProperty("webster.tmp.dir");
+        for (File file : root.listFiles())
+            file.delete();
+        root.delete();
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        send("GET /data.bin HTTP/1.1\r\nRange: bytes=10-19\r\n\r\n");
+        Response response = read(true);
+        Assert.assertEquals(206, response.status);
+        Assert.assertEquals("bytes 10-19/100", response.header.get("content-range"));
+        assertBody(10, 10, response.body);
+
+        send("GET /data.bin HTTP/1.1\r\nRange: bytes=-5\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals(206, response.status);
+        Assert.assertEquals("bytes 95-99/100", response.header.get("content-range"));
+        assertBody(95, 5, response.body);
+
+        send("GET /data.bin HTTP/1.1\r\nRange: bytes=200-\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals(416, response.status);
+        Assert.assertEquals("bytes */100", response.header.get("content-range"));
+
+        // not a single range, the whole file
+        send("GET /data.bin HTTP/1.1\r\nRange: bytes=0-1,5-6\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals(200, response.status);
+        assertBody(0, 100, response.body);
+    }
+
+    @Test
+    public void testNotModified() throws IOException {
+        send("GET /data.bin HTTP/1.1\r\n\r\n");
+        Response response = read(true);
+        Assert.assertEquals(200, response.status);
+        String etag = response.header.get("etag");
+        String lastModified = response.header.get("last-modified");
+        Assert.assertNotNull(etag);
+
+        send("GET /data.bin HTTP/1.1\r\nIf-None-Match: " + etag + "\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals(304, response.status);
+        Assert.assertEquals(0, response.body.length);
+
+        send("GET /data.bin HTTP/1.1\r\nIf-Modified-Since: " + lastModified + "\r\n\r\n");
+        Assert.assertEquals(304, read(true).status);
+
+        send("GET /data.bin HTTP/1.1\r\nIf-None-Match: \"other\"\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals(200, response.status);
+        assertBody(0, 100, response.body);
+    }
+
+    @Test
+    public void testKeepAliveAndPipelining() throws IOException {
+        send("GET /data.bin HTTP/1.1\r\n\r\n"
+                + "HEAD /other.txt HTTP/1.1\r\n\r\n"
+                + "GET /other.txt HTTP/1.1\r\n\r\n");
+        Response response = read(true);
+        Assert.assertEquals(200, response.status);
+        Assert.assertEquals("keep-alive", response.header.get("connection"));
+        assertBody(0, 100, response.body);
+        response = read(false);
+        Assert.assertEquals(200, response.status);
+        Assert.assertEquals("5", response.header.get("content-length"));
+        response = read(true);
+        Assert.assertEquals("other", new String(response.body, ASCII));
+
+        send("GET /other.txt HTTP/1.1\r\nConnection: close\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals("close", response.header.get("connection"));
+        Assert.assertEquals(-1, socket.getInputStream().read());
+    }
+
+    @Test
+    public void testPut() throws Exception {
+        File target = new File(root, "upload.bin");
+        File part = new File(root, "upload.bin.part");
+        send("PUT /upload.bin HTTP/1.1\r\nContent-Length: 100\r\n\r\n");
+        socket.getOutputStream().write(data, 0, 40);
+        socket.getOutputStream().flush();
+        for (int i = 0; i < 100 && part.length() < 40; i++)
+            Thread.sleep(50);
+        // written aside until complete
+        Assert.assertEquals(40, part.length());
+        Assert.assertFalse(target.exists());
+
+        socket.getOutputStream().write(data, 40, 60);
+        socket.getOutputStream().flush();
+        Response response = read(true);
+        Assert.assertEquals(201, response.status);
+        Assert.assertFalse(part.exists());
+        Assert.assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+
+        send("GET /upload.bin HTTP/1.1\r\n\r\n");
+        assertBody(0, 100, read(true).body);
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        socket.close();
+        webster.terminate();
+        start(1024 * 1024);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            text.append("compressible line ").append(i % 10).append("\n");
+        byte[] content = text.toString().getBytes(ASCII);
+        Files.write(new File(root, "text.txt").toPath(), content);
+        Files.write(new File(root, "lib.jar").toPath(), content);
+
+        // loaded by the pool after the first request
+        send("GET /text.txt HTTP/1.1\r\nAccept-Encoding: gzip\r\n\r\n");
+        Response response = read(true);
+        Assert.assertNull(response.header.get("content-encoding"));
+        Assert.assertArrayEquals(content, response.body);
+        for (int i = 0; i < 100 && webster.getCache().getCount() == 0; i++)
+            Thread.sleep(50);
+        Assert.assertEquals(1, webster.getCache().getCount());
+
+        send("GET /text.txt HTTP/1.1\r\nAccept-Encoding: deflate, gzip\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals("gzip", response.header.get("content-encoding"));
+        Assert.assertEquals("Accept-Encoding", response.header.get("vary"));
+        String etag = response.header.get("etag");
+        Assert.assertTrue(etag.endsWith("-gz\""));
+        Assert.assertArrayEquals(content, gunzip(response.body));
+
+        send("GET /text.txt HTTP/1.1\r\nAccept-Encoding: gzip\r\nIf-None-Match: " + etag + "\r\n\r\n");
+        Assert.assertEquals(304, read(true).status);
+        // the identity variant does not match the gzip ETag
+        send("GET /text.txt HTTP/1.1\r\nIf-None-Match: " + etag + "\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals(200, response.status);
+        Assert.assertNull(response.header.get("content-encoding"));
+        Assert.assertArrayEquals(content, response.body);
+
+        send("GET /text.txt HTTP/1.1\r\nAccept-Encoding: gzip;q=0\r\n\r\n");
+        Assert.assertNull(read(true).header.get("content-encoding"));
+        send("GET /text.txt HTTP/1.1\r\nAccept-Encoding: gzip\r\nRange: bytes=0-9\r\n\r\n");
+        response = read(true);
+        Assert.assertEquals(206, response.status);
+        Assert.assertNull(response.header.get("content-encoding"));
+
+        // already compressed types are sent as they are
+        for (int i = 0; i < 2; i++) {
+            send("GET /lib.jar HTTP/1.1\r\nAccept-Encoding: gzip\r\n\r\n");
+            response = read(true);
+            Assert.assertNull(response.header.get("content-encoding"));
+            Assert.assertArrayEquals(content, response.body);
+        }
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+
+    private void assertBody(int from, int length, byte[] body) {
+        Assert.assertEquals(length, body.length);
+        for (int i = 0; i < length; i++)
+            Assert.assertEquals(data[from + i], body[i]);
+    }
+
+    private void send(String request) throws IOException {
+        socket.getOutputStream().write(request.getBytes(ASCII));
+        socket.getOutputStream().flush();
+    }
+
+    private Response read(boolean withBody) throws IOException {
+        InputStream in = socket.getInputStream();
+        Response response = new Response();
+        String status = readLine(in);
+        response.status = Integer.parseInt(status.split(" ")[1]);
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            response.header.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        String length = response.header.get("content-length");
+        response.body = new byte[withBody && length != null ? Integer.parseInt(length) : 0];
+        new DataInputStream(in).readFully(response.body);
+        return response;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1)
+                throw new EOFException();
+            if (b != '\r')
+                line.write(b);
+        }
+        return new String(line.toByteArray(), ASCII);
+    }
+
+    private static class Response {
+        int status;
+        final Map<String, String> header = new HashMap<String, String>();
+        byte[] body;
+    }
+}